@@ -0,0 +1,104 @@
+package org.robolectric.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import org.robolectric.android.AndroidInterceptors;
+import org.robolectric.internal.AndroidConfigurer;
+import org.robolectric.internal.bytecode.ClassNodeProvider;
+import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+import org.robolectric.internal.bytecode.Interceptors;
+import org.robolectric.util.Util;
+
+/** The android-all jar on the benchmarks' classpath, and how Robolectric instruments it. */
+final class AndroidAll {
+
+  private AndroidAll() {}
+
+  static File jar() {
+    URL classUrl = ClassLoader.getSystemResource("android/app/Activity.class");
+    if (classUrl == null) {
+      throw new IllegalStateException("android-all isn't on the classpath");
+    }
+    try {
+      return new File(((JarURLConnection) classUrl.openConnection()).getJarFileURL().toURI());
+    } catch (Exception e) {
+      throw new IllegalStateException("couldn't find the jar of " + classUrl, e);
+    }
+  }
+
+  /** Returns the configuration Robolectric instruments android-all with. */
+  static InstrumentationConfiguration instrumentationConfiguration() {
+    InstrumentationConfiguration.Builder builder = InstrumentationConfiguration.newBuilder();
+    AndroidConfigurer.configure(builder, new Interceptors(AndroidInterceptors.all()));
+    return builder.build();
+  }
+
+  /** Reads the classes whose names start with {@code prefix}, by class name. */
+  static Map<String, byte[]> readClasses(String prefix) throws IOException {
+    Map<String, byte[]> classes = new LinkedHashMap<>();
+    try (JarFile jarFile = new JarFile(jar())) {
+      Enumeration<JarEntry> entries = jarFile.entries();
+      while (entries.hasMoreElements()) {
+        JarEntry entry = entries.nextElement();
+        String name = entry.getName();
+        if (!name.endsWith(".class")) {
+          continue;
+        }
+        String className = name.substring(0, name.length() - ".class".length()).replace('/', '.');
+        if (className.startsWith(prefix)) {
+          try (InputStream in = jarFile.getInputStream(entry)) {
+            classes.put(className, Util.readBytes(in));
+          }
+        }
+      }
+    }
+    return classes;
+  }
+
+  /**
+   * Returns a provider of the type hierarchy of android-all's classes and the JDK's, as a {@link
+   * org.robolectric.internal.bytecode.SandboxClassLoader} would see it.
+   */
+  static ClassNodeProvider classNodeProvider() {
+    File jar = jar();
+    JarFile jarFile;
+    try {
+      jarFile = new JarFile(jar);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return new ClassNodeProvider() {
+      @Override
+      protected byte[] getClassBytes(String internalClassName) throws ClassNotFoundException {
+        String name = internalClassName.replace('.', '/') + ".class";
+        try {
+          JarEntry entry = jarFile.getJarEntry(name);
+          try (InputStream in = entry == null
+              ? ClassLoader.getSystemResourceAsStream(name)
+              : jarFile.getInputStream(entry)) {
+            if (in == null) {
+              throw new ClassNotFoundException(internalClassName);
+            }
+            return Util.readBytes(in);
+          }
+        } catch (IOException e) {
+          throw new ClassNotFoundException(internalClassName, e);
+        }
+      }
+
+      @Override
+      protected File getClassJar(String internalClassName) {
+        String name = internalClassName.replace('.', '/') + ".class";
+        return jarFile.getJarEntry(name) == null ? null : jar;
+      }
+    };
+  }
+}
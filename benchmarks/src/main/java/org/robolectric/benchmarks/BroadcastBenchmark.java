@@ -0,0 +1,107 @@
+package org.robolectric.benchmarks;
+
+import android.app.Application;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.ReflectionHelpers;
+
+/**
+ * Sends broadcasts to one of many registered receivers, each listening for its own action, to
+ * measure how the cost of matching receivers grows with their number: one at a time, and in a
+ * burst of {@value #BURST} broadcasts that are all delivered afterwards.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BroadcastBenchmark {
+  private static final int BURST = 100_000;
+
+  @Param({"10", "100", "1000", "10000"})
+  public int receivers;
+
+  private RobolectricEnvironment environment;
+  private IntUnaryOperator broadcast;
+
+  @Setup
+  public void setUp() throws Throwable {
+    environment = RobolectricEnvironment.create(Broadcast.class);
+    broadcast = (IntUnaryOperator) environment.setUp();
+    ReflectionHelpers.setField(broadcast, "receivers", receivers);
+    ReflectionHelpers.callInstanceMethod(broadcast, "registerReceivers");
+  }
+
+  @TearDown
+  public void tearDown() {
+    environment.tearDown();
+  }
+
+  @Benchmark
+  public int sendBroadcast() {
+    return broadcast.applyAsInt(1);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OperationsPerInvocation(BURST)
+  public int sendBroadcastBurst() {
+    return broadcast.applyAsInt(BURST);
+  }
+
+  @Config(sdk = 28, application = Application.class)
+  public static class Broadcast implements IntUnaryOperator {
+    private final Context context = RuntimeEnvironment.application;
+    private int receivers = 1;
+    private int received;
+    private Intent intent;
+
+    @Test
+    public void registerReceivers() {
+      BroadcastReceiver receiver =
+          new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+              received++;
+            }
+          };
+      for (int i = 0; i < receivers; i++) {
+        context.registerReceiver(receiver, new IntentFilter("action" + i));
+      }
+      intent = new Intent("action" + (receivers - 1));
+    }
+
+    /** Sends {@code broadcasts} broadcasts, then delivers them. */
+    @Override
+    public int applyAsInt(int broadcasts) {
+      ShadowLooper.pauseMainLooper();
+      for (int i = 0; i < broadcasts; i++) {
+        context.sendBroadcast(intent);
+      }
+      ShadowLooper.unPauseMainLooper();
+      return received;
+    }
+  }
+}
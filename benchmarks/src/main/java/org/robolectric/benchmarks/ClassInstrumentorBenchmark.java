@@ -0,0 +1,68 @@
+package org.robolectric.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.robolectric.internal.bytecode.ClassInstrumentor;
+import org.robolectric.internal.bytecode.ClassNodeProvider;
+import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+import org.robolectric.internal.bytecode.InvokeDynamicClassInstrumentor;
+import org.robolectric.internal.bytecode.ShadowDecorator;
+import org.robolectric.internal.bytecode.StreamingClassInstrumentor;
+
+/**
+ * Instruments every {@code android.*} class of android-all, comparing {@link
+ * StreamingClassInstrumentor} with {@link InvokeDynamicClassInstrumentor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ClassInstrumentorBenchmark {
+
+  @Param({"invokedynamic", "streaming"})
+  public String instrumentor;
+
+  private ClassInstrumentor classInstrumentor;
+  private InstrumentationConfiguration config;
+  private ClassNodeProvider classNodeProvider;
+  private final List<byte[]> classes = new ArrayList<>();
+
+  @Setup
+  public void setUp() throws Exception {
+    classInstrumentor =
+        instrumentor.equals("streaming")
+            ? new StreamingClassInstrumentor(new ShadowDecorator())
+            : new InvokeDynamicClassInstrumentor(new ShadowDecorator());
+    config = AndroidAll.instrumentationConfiguration();
+    classNodeProvider = AndroidAll.classNodeProvider();
+    for (Map.Entry<String, byte[]> entry : AndroidAll.readClasses("android.").entrySet()) {
+      if (config.shouldAcquire(entry.getKey())) {
+        classes.add(entry.getValue());
+      }
+    }
+  }
+
+  @Benchmark
+  public void instrumentAndroidClasses(Blackhole blackhole) {
+    for (byte[] classBytes : classes) {
+      // Instrumenting modifies nothing but its own copy of the class.
+      blackhole.consume(classInstrumentor.instrument(classBytes, config, classNodeProvider));
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package org.robolectric.benchmarks;
+
+import android.app.Application;
+import android.view.LayoutInflater;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/** Inflates framework layouts, in legacy and binary resources mode. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class LayoutInflationBenchmark {
+
+  @Param({"legacy", "binary"})
+  public String resourcesMode;
+
+  private RobolectricEnvironment environment;
+  private Supplier<Object> inflate;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Throwable {
+    environment = RobolectricEnvironment.create(Inflate.class, resourcesMode);
+    inflate = (Supplier<Object>) environment.setUp();
+  }
+
+  @TearDown
+  public void tearDown() {
+    environment.tearDown();
+  }
+
+  @Benchmark
+  public Object inflate() {
+    return inflate.get();
+  }
+
+  @Config(sdk = 28, application = Application.class)
+  public static class Inflate implements Supplier<Object> {
+    private final LayoutInflater inflater = LayoutInflater.from(RuntimeEnvironment.application);
+
+    @Test
+    public void inflate() {
+      get();
+    }
+
+    @Override
+    public Object get() {
+      return inflater.inflate(android.R.layout.simple_list_item_2, null);
+    }
+  }
+}
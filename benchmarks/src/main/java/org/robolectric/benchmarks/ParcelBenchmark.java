@@ -0,0 +1,83 @@
+package org.robolectric.benchmarks;
+
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Parcel;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.robolectric.annotation.Config;
+
+/** Writes a {@link Bundle} to a {@link Parcel} and reads it back. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ParcelBenchmark {
+  private RobolectricEnvironment environment;
+  private Supplier<Object> roundTrip;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Throwable {
+    environment = RobolectricEnvironment.create(RoundTrip.class);
+    roundTrip = (Supplier<Object>) environment.setUp();
+  }
+
+  @TearDown
+  public void tearDown() {
+    environment.tearDown();
+  }
+
+  @Benchmark
+  public Object roundTrip() {
+    return roundTrip.get();
+  }
+
+  @Config(sdk = 28, application = Application.class)
+  public static class RoundTrip implements Supplier<Object> {
+    private final Bundle bundle = new Bundle();
+
+    public RoundTrip() {
+      for (int i = 0; i < 10; i++) {
+        bundle.putInt("int" + i, i);
+        bundle.putString("string" + i, "value" + i);
+        bundle.putLongArray("longs" + i, new long[] {i, i + 1, i + 2});
+      }
+    }
+
+    @Test
+    public void roundTrip() {
+      get();
+    }
+
+    @Override
+    public Object get() {
+      Parcel parcel = Parcel.obtain();
+      try {
+        parcel.writeBundle(bundle);
+        byte[] bytes = parcel.marshall();
+        parcel.unmarshall(bytes, 0, bytes.length);
+        parcel.setDataPosition(0);
+        Bundle readBundle = parcel.readBundle(getClass().getClassLoader());
+        readBundle.size(); // unparcels the bundle
+        return readBundle;
+      } finally {
+        parcel.recycle();
+      }
+    }
+  }
+}
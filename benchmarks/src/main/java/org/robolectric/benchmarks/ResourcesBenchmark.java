@@ -0,0 +1,72 @@
+package org.robolectric.benchmarks;
+
+import android.app.Application;
+import android.content.res.Resources;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/** Looks up framework resources, in legacy and binary resources mode. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ResourcesBenchmark {
+
+  @Param({"legacy", "binary"})
+  public String resourcesMode;
+
+  private RobolectricEnvironment environment;
+  private Supplier<Object> lookUp;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Throwable {
+    environment = RobolectricEnvironment.create(LookUp.class, resourcesMode);
+    lookUp = (Supplier<Object>) environment.setUp();
+  }
+
+  @TearDown
+  public void tearDown() {
+    environment.tearDown();
+  }
+
+  @Benchmark
+  public Object lookUp() {
+    return lookUp.get();
+  }
+
+  @Config(sdk = 28, application = Application.class)
+  public static class LookUp implements Supplier<Object> {
+    private final Resources resources = RuntimeEnvironment.application.getResources();
+
+    @Test
+    public void lookUp() {
+      get();
+    }
+
+    @Override
+    public Object get() {
+      return resources.getString(android.R.string.ok)
+          + resources.getColor(android.R.color.black)
+          + resources.getDimension(android.R.dimen.app_icon_size)
+          + resources.getInteger(android.R.integer.config_shortAnimTime);
+    }
+  }
+}
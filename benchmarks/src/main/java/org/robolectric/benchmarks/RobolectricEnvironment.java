@@ -0,0 +1,82 @@
+package org.robolectric.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.internal.bytecode.Sandbox;
+
+/**
+ * Sets up a Robolectric environment the way {@link RobolectricTestRunner} does for a test, so that
+ * benchmarks can measure code running in it without measuring the set up.
+ *
+ * <p>The holder class is a public static class with a public no-arg constructor and a single
+ * {@code @Test} method, whose {@code @Config} configures the environment. It is loaded in the
+ * sandbox, so benchmarks can only use it through JDK types such as {@link
+ * java.util.function.Supplier}, or reflectively.
+ */
+final class RobolectricEnvironment extends RobolectricTestRunner {
+  private final FrameworkMethod method;
+  private Sandbox sandbox;
+  private Method bootstrappedMethod;
+  private ClassLoader priorContextClassLoader;
+
+  /**
+   * @param resourcesMode {@code "legacy"} or {@code "binary"}
+   */
+  static RobolectricEnvironment create(Class<?> holderClass, String resourcesMode)
+      throws InitializationError {
+    String priorResourcesMode = System.setProperty("robolectric.resourcesMode", resourcesMode);
+    try {
+      return new RobolectricEnvironment(holderClass);
+    } finally {
+      if (priorResourcesMode == null) {
+        System.clearProperty("robolectric.resourcesMode");
+      } else {
+        System.setProperty("robolectric.resourcesMode", priorResourcesMode);
+      }
+    }
+  }
+
+  static RobolectricEnvironment create(Class<?> holderClass) throws InitializationError {
+    return create(holderClass, "binary");
+  }
+
+  private RobolectricEnvironment(Class<?> holderClass) throws InitializationError {
+    super(holderClass);
+    List<FrameworkMethod> children = getChildren();
+    if (children.size() != 1) {
+      throw new IllegalArgumentException(
+          holderClass.getName() + " should run exactly once, not " + children);
+    }
+    this.method = children.get(0);
+  }
+
+  /**
+   * Sets up the application and returns a new instance of the holder class, as loaded in the
+   * sandbox; its {@code @Test} method isn't called.
+   */
+  Object setUp() throws Throwable {
+    sandbox = getSandbox(method);
+    configureSandbox(sandbox, method);
+
+    priorContextClassLoader = Thread.currentThread().getContextClassLoader();
+    Thread.currentThread().setContextClassLoader(sandbox.getRobolectricClassLoader());
+
+    Class<?> bootstrappedHolderClass = sandbox.bootstrappedClass(getTestClass().getJavaClass());
+    bootstrappedMethod = bootstrappedHolderClass.getMethod(method.getMethod().getName());
+    beforeTest(sandbox, method, bootstrappedMethod);
+    return bootstrappedHolderClass.getConstructor().newInstance();
+  }
+
+  /** Tears down the application and resets the sandbox's static state. */
+  void tearDown() {
+    try {
+      afterTest(method, bootstrappedMethod);
+    } finally {
+      Thread.currentThread().setContextClassLoader(priorContextClassLoader);
+      finallyAfterTest(method);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package org.robolectric.benchmarks;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+import org.robolectric.internal.bytecode.SandboxClassLoader;
+
+/**
+ * Loads commonly used Android classes, and so their superclasses, into a new {@link
+ * SandboxClassLoader}; most of the time goes to instrumenting them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class SandboxClassLoaderBenchmark {
+  private static final String[] CLASS_NAMES = {
+    "android.app.Activity",
+    "android.content.Intent",
+    "android.os.Bundle",
+    "android.os.Handler",
+    "android.view.LayoutInflater",
+    "android.widget.Button",
+    "android.widget.LinearLayout",
+    "android.widget.ListView",
+    "android.widget.TextView",
+  };
+
+  private InstrumentationConfiguration config;
+  private URL androidAllUrl;
+
+  @Setup
+  public void setUp() throws Exception {
+    config = AndroidAll.instrumentationConfiguration();
+    androidAllUrl = AndroidAll.jar().toURI().toURL();
+  }
+
+  @Benchmark
+  public void loadClasses(Blackhole blackhole) throws Exception {
+    SandboxClassLoader classLoader =
+        new SandboxClassLoader(ClassLoader.getSystemClassLoader(), config, androidAllUrl);
+    for (String className : CLASS_NAMES) {
+      blackhole.consume(classLoader.loadClass(className));
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package org.robolectric.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.robolectric.util.Scheduler;
+
+/** Posts runnables to a {@link Scheduler} and runs them. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class SchedulerBenchmark {
+  private static final int RUNNABLES = 1000;
+
+  private Scheduler scheduler;
+  private int ran;
+  private final Runnable runnable = () -> ran++;
+
+  @Setup
+  public void setUp() {
+    scheduler = new Scheduler();
+    scheduler.pause();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RUNNABLES)
+  public int postAndRun() {
+    for (int i = 0; i < RUNNABLES; i++) {
+      scheduler.post(runnable);
+    }
+    scheduler.advanceToLastPostedRunnable();
+    return ran;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RUNNABLES)
+  public int postDelayedAndAdvance() {
+    for (int i = 0; i < RUNNABLES; i++) {
+      scheduler.postDelayed(runnable, RUNNABLES - i);
+    }
+    scheduler.advanceBy(RUNNABLES);
+    return ran;
+  }
+}
@@ -0,0 +1,107 @@
+package org.robolectric.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+import org.robolectric.internal.bytecode.Interceptors;
+import org.robolectric.internal.bytecode.Sandbox;
+import org.robolectric.internal.bytecode.SandboxClassLoader;
+import org.robolectric.internal.bytecode.ShadowMap;
+import org.robolectric.internal.bytecode.ShadowWrangler;
+import org.robolectric.util.ReflectionHelpers;
+
+/**
+ * Calls a method of an instrumented class, with and without a shadow, and of the same class
+ * uninstrumented, to measure the cost of dispatching calls through the class handler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ShadowDispatchBenchmark {
+  private IntSupplier shadowed;
+  private IntSupplier unshadowed;
+  private IntSupplier uninstrumented;
+
+  @Setup
+  public void setUp() {
+    InstrumentationConfiguration config =
+        InstrumentationConfiguration.newBuilder()
+            .doNotAcquirePackage("java.")
+            .doNotAcquirePackage("sun.")
+            .doNotAcquirePackage("org.robolectric.annotation.")
+            .doNotAcquirePackage("org.robolectric.internal.")
+            .doNotAcquirePackage("org.robolectric.util.")
+            .doNotAcquirePackage("org.junit.")
+            .addInstrumentedClass(ShadowedCounter.class.getName())
+            .addInstrumentedClass(UnshadowedCounter.class.getName())
+            .build();
+    Sandbox sandbox =
+        new Sandbox(new SandboxClassLoader(ClassLoader.getSystemClassLoader(), config));
+    ShadowMap shadowMap = new ShadowMap.Builder().addShadowClasses(ShadowCounter.class).build();
+    sandbox.replaceShadowMap(shadowMap);
+    Interceptors interceptors = new Interceptors();
+    sandbox.configure(new ShadowWrangler(shadowMap, 0, interceptors), interceptors);
+
+    shadowed = ReflectionHelpers.newInstance(sandbox.bootstrappedClass(ShadowedCounter.class));
+    unshadowed = ReflectionHelpers.newInstance(sandbox.bootstrappedClass(UnshadowedCounter.class));
+    uninstrumented = new UnshadowedCounter();
+  }
+
+  @Benchmark
+  public int shadowed() {
+    return shadowed.getAsInt();
+  }
+
+  @Benchmark
+  public int unshadowed() {
+    return unshadowed.getAsInt();
+  }
+
+  @Benchmark
+  public int uninstrumented() {
+    return uninstrumented.getAsInt();
+  }
+
+  public static class ShadowedCounter implements IntSupplier {
+    private int count;
+
+    @Override
+    public int getAsInt() {
+      return count++;
+    }
+  }
+
+  public static class UnshadowedCounter implements IntSupplier {
+    private int count;
+
+    @Override
+    public int getAsInt() {
+      return count++;
+    }
+  }
+
+  @Implements(ShadowedCounter.class)
+  public static class ShadowCounter {
+    private int count;
+
+    @Implementation
+    protected int getAsInt() {
+      return count++;
+    }
+  }
+}
@@ -232,7 +232,9 @@ public class RobolectricModel {
         }
       };
       shadowTypes.values().forEach(shadowInfo -> shadowInfo.prepare(referentResolver, helpers));
-      resetterMap.values().forEach(resetterInfo -> resetterInfo.prepare(referentResolver));
+      resetterMap.forEach(
+          (shadowName, resetterInfo) ->
+              resetterInfo.prepare(referentResolver, helpers, shadowTypes.get(shadowName)));
     }
 
     private void registerType(TypeElement type) {
@@ -452,14 +454,18 @@ public class RobolectricModel {
     private final TypeElement shadowType;
     private final ExecutableElement executableElement;
     private String shadowTypeReferent;
+    private String shadowBinaryName;
+    private String actualBinaryName;
 
     ResetterInfo(TypeElement shadowType, ExecutableElement executableElement) {
       this.shadowType = shadowType;
       this.executableElement = executableElement;
     }
 
-    void prepare(ReferentResolver referentResolver) {
+    void prepare(ReferentResolver referentResolver, Helpers helpers, ShadowInfo shadowInfo) {
       shadowTypeReferent = referentResolver.getReferentFor(shadowType);
+      shadowBinaryName = helpers.getBinaryName(shadowType);
+      actualBinaryName = shadowInfo == null ? null : shadowInfo.getActualBinaryName();
     }
 
     private Implements getImplementsAnnotation() {
@@ -470,6 +476,15 @@ public class RobolectricModel {
       return shadowTypeReferent + "." + executableElement.getSimpleName() + "();";
     }
 
+    public String getShadowBinaryName() {
+      return shadowBinaryName;
+    }
+
+    /** Returns the binary name of the shadowed class, or null if it isn't known. */
+    public String getActualBinaryName() {
+      return actualBinaryName;
+    }
+
     public int getMinSdk() {
       return getImplementsAnnotation().minSdk();
     }
@@ -137,20 +137,29 @@ public class ShadowProviderGenerator extends Generator {
     writer.println("  @Override");
     writer.println("  public void reset() {");
     for (RobolectricModel.ResetterInfo resetterInfo : model.getResetters()) {
-      int minSdk = resetterInfo.getMinSdk();
-      int maxSdk = resetterInfo.getMaxSdk();
-      String ifClause;
-      if (minSdk != -1 && maxSdk != -1) {
-        ifClause = "if (org.robolectric.RuntimeEnvironment.getApiLevel() >= " + minSdk +
-            " && org.robolectric.RuntimeEnvironment.getApiLevel() <= " + maxSdk + ") ";
-      } else if (maxSdk != -1) {
-        ifClause = "if (org.robolectric.RuntimeEnvironment.getApiLevel() <= " + maxSdk + ") ";
-      } else if (minSdk != -1) {
-        ifClause = "if (org.robolectric.RuntimeEnvironment.getApiLevel() >= " + minSdk + ") ";
-      } else {
-        ifClause = "";
-      }
-      writer.println("    " + ifClause + resetterInfo.getMethodCall());
+      String condition = sdkCondition(resetterInfo);
+      writer.println("    " + (condition.isEmpty() ? "" : "if (" + condition + ") ")
+          + resetterInfo.getMethodCall());
+    }
+    writer.println("  }");
+    writer.println();
+
+    writer.println("  @Override");
+    writer.println("  public void reset(ResetContext context) {");
+    for (RobolectricModel.ResetterInfo resetterInfo : model.getResetters()) {
+      String shadowName = "\"" + resetterInfo.getShadowBinaryName() + "\"";
+      String actualName = resetterInfo.getActualBinaryName() == null
+          ? "null"
+          : "\"" + resetterInfo.getActualBinaryName() + "\"";
+      String condition = sdkCondition(resetterInfo);
+      writer.println("    if (" + (condition.isEmpty() ? "" : condition + "\n        && ")
+          + "context.beginReset(" + shadowName + ", " + actualName + ")) {");
+      writer.println("      try {");
+      writer.println("        " + resetterInfo.getMethodCall());
+      writer.println("      } finally {");
+      writer.println("        context.endReset(" + shadowName + ");");
+      writer.println("      }");
+      writer.println("    }");
     }
     writer.println("  }");
     writer.println();
@@ -196,4 +205,19 @@ public class ShadowProviderGenerator extends Generator {
 
     writer.println('}');
   }
+
+  private static String sdkCondition(RobolectricModel.ResetterInfo resetterInfo) {
+    int minSdk = resetterInfo.getMinSdk();
+    int maxSdk = resetterInfo.getMaxSdk();
+    if (minSdk != -1 && maxSdk != -1) {
+      return "org.robolectric.RuntimeEnvironment.getApiLevel() >= " + minSdk +
+          " && org.robolectric.RuntimeEnvironment.getApiLevel() <= " + maxSdk;
+    } else if (maxSdk != -1) {
+      return "org.robolectric.RuntimeEnvironment.getApiLevel() <= " + maxSdk;
+    } else if (minSdk != -1) {
+      return "org.robolectric.RuntimeEnvironment.getApiLevel() >= " + minSdk;
+    } else {
+      return "";
+    }
+  }
 }
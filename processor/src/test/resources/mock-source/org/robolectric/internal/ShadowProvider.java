@@ -6,7 +6,17 @@ public interface ShadowProvider {
 
   void reset();
 
+  default void reset(ResetContext context) {
+    reset();
+  }
+
   String[] getProvidedPackageNames();
 
   Map<String, String> getShadowMap();
+
+  interface ResetContext {
+    boolean beginReset(String shadowClassName, String shadowedClassName);
+
+    void endReset(String shadowClassName);
+  }
 }
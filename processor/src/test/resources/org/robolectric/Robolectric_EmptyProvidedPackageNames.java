@@ -26,6 +26,17 @@ public class Shadows implements ShadowProvider {
     ShadowDummy.resetter_method();
   }
 
+  @Override
+  public void reset(ResetContext context) {
+    if (context.beginReset("org.robolectric.annotation.processing.shadows.ShadowDummy", "com.example.objects.Dummy")) {
+      try {
+        ShadowDummy.resetter_method();
+      } finally {
+        context.endReset("org.robolectric.annotation.processing.shadows.ShadowDummy");
+      }
+    }
+  }
+
   @Override
   public Map<String, String> getShadowMap() {
     return SHADOW_MAP;
@@ -41,6 +41,24 @@ public class Shadows implements ShadowProvider {
     ShadowPrivate.resetMethod();
   }
 
+  @Override
+  public void reset(ResetContext context) {
+    if (context.beginReset("org.robolectric.annotation.processing.shadows.ShadowDummy", "com.example.objects.Dummy")) {
+      try {
+        ShadowDummy.resetter_method();
+      } finally {
+        context.endReset("org.robolectric.annotation.processing.shadows.ShadowDummy");
+      }
+    }
+    if (context.beginReset("org.robolectric.annotation.processing.shadows.ShadowPrivate", "com.example.objects.Private")) {
+      try {
+        ShadowPrivate.resetMethod();
+      } finally {
+        context.endReset("org.robolectric.annotation.processing.shadows.ShadowPrivate");
+      }
+    }
+  }
+
   @Override
   public Map<String, String> getShadowMap() {
     return SHADOW_MAP;
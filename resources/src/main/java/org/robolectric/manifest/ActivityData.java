@@ -1,11 +1,14 @@
 package org.robolectric.manifest;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public class ActivityData {
+public class ActivityData implements Serializable {
+  private static final long serialVersionUID = 1L;
+
   private static final String ALLOW_TASK_REPARENTING = "allowTaskReparenting";
   private static final String ALWAYS_RETAIN_TASK_STATE = "alwaysRetainTaskState";
   private static final String CLEAR_TASK_ON_LAUNCH = "clearTaskOnLaunch";
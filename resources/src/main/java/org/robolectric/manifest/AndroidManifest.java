@@ -1,6 +1,7 @@
 package org.robolectric.manifest;
 
-import java.io.InputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Serializable;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -15,16 +16,10 @@ import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import org.robolectric.UsesSdk;
 import org.robolectric.res.Fs;
 import org.robolectric.res.ResourcePath;
 import org.robolectric.res.ResourceTable;
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * A wrapper for an Android App Manifest, which represents information about one's App to an Android
@@ -167,12 +162,19 @@ public class AndroidManifest implements UsesSdk {
 
     if (androidManifestFile != null && Files.exists(androidManifestFile)) {
       try {
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        byte[] manifestBytes = Fs.getBytes(androidManifestFile);
+        ParsedManifestCache cache = ParsedManifestCache.fromSystemProperties();
+        String cacheKey = cache.keyFor(manifestBytes, overridePackageName);
+        ParsedManifest cached =
+            cacheKey == null ? null : cache.load(cacheKey, ParsedManifest.class);
+        if (cached != null) {
+          cached.restoreTo(this);
+          manifestIsParsed = true;
+          return;
+        }
 
-        DocumentBuilder db = dbf.newDocumentBuilder();
-        InputStream inputStream = Fs.getInputStream(androidManifestFile);
-        Document manifestDocument = db.parse(inputStream);
-        inputStream.close();
+        ManifestElement manifestDocument =
+            ManifestElement.parse(new ByteArrayInputStream(manifestBytes));
 
         if (!packageNameIsOverridden()) {
           packageName = getTagAttributeText(manifestDocument, "manifest", "package");
@@ -182,14 +184,9 @@ public class AndroidManifest implements UsesSdk {
         versionName = getTagAttributeText(manifestDocument, "manifest", "android:versionName");
         rClassName = packageName + ".R";
 
-        Node applicationNode = findApplicationNode(manifestDocument);
+        ManifestElement applicationNode = findApplicationNode(manifestDocument);
         if (applicationNode != null) {
-          NamedNodeMap attributes = applicationNode.getAttributes();
-          int attrCount = attributes.getLength();
-          for (int i = 0; i < attrCount; i++) {
-            Node attr = attributes.item(i);
-            applicationAttributes.put(attr.getNodeName(), attr.getTextContent());
-          }
+          applicationAttributes.putAll(applicationNode.attributes);
 
           applicationName = applicationAttributes.get("android:name");
           applicationLabel = applicationAttributes.get("android:label");
@@ -221,6 +218,10 @@ public class AndroidManifest implements UsesSdk {
         parseUsedPermissions(manifestDocument);
         parsePermissions(manifestDocument);
         parsePermissionGroups(manifestDocument);
+
+        if (cacheKey != null) {
+          cache.store(cacheKey, new ParsedManifest(this));
+        }
       } catch (Exception ignored) {
         ignored.printStackTrace();
       }
@@ -249,65 +250,57 @@ public class AndroidManifest implements UsesSdk {
     return overridePackageName != null && !overridePackageName.isEmpty();
   }
 
-  private void parseUsedPermissions(Document manifestDocument) {
-    NodeList elementsByTagName = manifestDocument.getElementsByTagName("uses-permission");
-    int length = elementsByTagName.getLength();
-    for (int i = 0; i < length; i++) {
-      Node node = elementsByTagName.item(i).getAttributes().getNamedItem("android:name");
-      usedPermissions.add(node.getNodeValue());
+  private void parseUsedPermissions(ManifestElement manifestDocument) {
+    for (ManifestElement node : manifestDocument.getElementsByTagName("uses-permission")) {
+      usedPermissions.add(node.getAttribute("android:name"));
     }
   }
 
-  private void parsePermissions(final Document manifestDocument) {
-    NodeList elementsByTagName = manifestDocument.getElementsByTagName("permission");
-
-    for (int i = 0; i < elementsByTagName.getLength(); i++) {
-      Node permissionNode = elementsByTagName.item(i);
-      final MetaData metaData = new MetaData(getChildrenTags(permissionNode, "meta-data"));
-      String name = getAttributeValue(permissionNode, "android:name");
+  private void parsePermissions(final ManifestElement manifestDocument) {
+    for (ManifestElement permissionNode : manifestDocument.getElementsByTagName("permission")) {
+      final MetaData metaData = MetaData.fromElements(permissionNode.getChildren("meta-data"));
+      String name = permissionNode.getAttribute("android:name");
       permissions.put(
           name,
           new PermissionItemData(
               name,
-              getAttributeValue(permissionNode, "android:label"),
-              getAttributeValue(permissionNode, "android:description"),
-              getAttributeValue(permissionNode, "android:permissionGroup"),
-              getAttributeValue(permissionNode, "android:protectionLevel"),
+              permissionNode.getAttribute("android:label"),
+              permissionNode.getAttribute("android:description"),
+              permissionNode.getAttribute("android:permissionGroup"),
+              permissionNode.getAttribute("android:protectionLevel"),
               metaData));
     }
   }
 
-  private void parsePermissionGroups(final Document manifestDocument) {
-    NodeList elementsByTagName = manifestDocument.getElementsByTagName("permission-group");
-
-    for (int i = 0; i < elementsByTagName.getLength(); i++) {
-      Node permissionGroupNode = elementsByTagName.item(i);
-      final MetaData metaData = new MetaData(getChildrenTags(permissionGroupNode, "meta-data"));
-      String name = getAttributeValue(permissionGroupNode, "android:name");
+  private void parsePermissionGroups(final ManifestElement manifestDocument) {
+    for (ManifestElement permissionGroupNode :
+        manifestDocument.getElementsByTagName("permission-group")) {
+      final MetaData metaData = MetaData.fromElements(permissionGroupNode.getChildren("meta-data"));
+      String name = permissionGroupNode.getAttribute("android:name");
       permissionGroups.put(
           name,
           new PermissionGroupItemData(
               name,
-              getAttributeValue(permissionGroupNode, "android:label"),
-              getAttributeValue(permissionGroupNode, "android:description"),
+              permissionGroupNode.getAttribute("android:label"),
+              permissionGroupNode.getAttribute("android:description"),
               metaData));
     }
   }
 
-  private void parseContentProviders(Node applicationNode) {
-    for (Node contentProviderNode : getChildrenTags(applicationNode, "provider")) {
-      String name = getAttributeValue(contentProviderNode, "android:name");
-      String authorities = getAttributeValue(contentProviderNode, "android:authorities");
-      MetaData metaData = new MetaData(getChildrenTags(contentProviderNode, "meta-data"));
+  private void parseContentProviders(ManifestElement applicationNode) {
+    for (ManifestElement contentProviderNode : applicationNode.getChildren("provider")) {
+      String name = contentProviderNode.getAttribute("android:name");
+      String authorities = contentProviderNode.getAttribute("android:authorities");
+      MetaData metaData = MetaData.fromElements(contentProviderNode.getChildren("meta-data"));
 
       List<PathPermissionData> pathPermissionDatas = new ArrayList<>();
-      for (Node node : getChildrenTags(contentProviderNode, "path-permission")) {
+      for (ManifestElement node : contentProviderNode.getChildren("path-permission")) {
         pathPermissionDatas.add(new PathPermissionData(
-                getAttributeValue(node, "android:path"),
-                getAttributeValue(node, "android:pathPrefix"),
-                getAttributeValue(node, "android:pathPattern"),
-                getAttributeValue(node, "android:readPermission"),
-                getAttributeValue(node, "android:writePermission")
+                node.getAttribute("android:path"),
+                node.getAttribute("android:pathPrefix"),
+                node.getAttribute("android:pathPattern"),
+                node.getAttribute("android:readPermission"),
+                node.getAttribute("android:writePermission")
         ));
       }
 
@@ -316,48 +309,28 @@ public class AndroidManifest implements UsesSdk {
               resolveClassRef(name),
               metaData,
               authorities,
-              parseNodeAttributes(contentProviderNode),
+              contentProviderNode.attributes,
               pathPermissionDatas));
     }
   }
 
-  private @Nullable String getAttributeValue(Node parentNode, String attributeName) {
-    Node attributeNode = parentNode.getAttributes().getNamedItem(attributeName);
-    return attributeNode == null ? null : attributeNode.getTextContent();
-  }
-
-  private static HashMap<String, String> parseNodeAttributes(Node node) {
-    final NamedNodeMap attributes = node.getAttributes();
-    final int attrCount = attributes.getLength();
-    final HashMap<String, String> receiverAttrs = new HashMap<>(attributes.getLength());
-    for (int i = 0; i < attrCount; i++) {
-      Node attribute = attributes.item(i);
-      String value = attribute.getNodeValue();
-      if (value != null) {
-        receiverAttrs.put(attribute.getNodeName(), value);
-      }
-    }
-    return receiverAttrs;
-  }
-
-  private void parseReceivers(Node applicationNode) {
-    for (Node receiverNode : getChildrenTags(applicationNode, "receiver")) {
-      final HashMap<String, String> receiverAttrs = parseNodeAttributes(receiverNode);
+  private void parseReceivers(ManifestElement applicationNode) {
+    for (ManifestElement receiverNode : applicationNode.getChildren("receiver")) {
+      final HashMap<String, String> receiverAttrs = receiverNode.attributes;
 
       String receiverName = resolveClassRef(receiverAttrs.get("android:name"));
       receiverAttrs.put("android:name", receiverName);
 
-      MetaData metaData = new MetaData(getChildrenTags(receiverNode, "meta-data"));
+      MetaData metaData = MetaData.fromElements(receiverNode.getChildren("meta-data"));
 
       final List<IntentFilterData> intentFilterData = parseIntentFilters(receiverNode);
       BroadcastReceiverData receiver =
           new BroadcastReceiverData(receiverAttrs, metaData, intentFilterData);
-      List<Node> intentFilters = getChildrenTags(receiverNode, "intent-filter");
-      for (Node intentFilterNode : intentFilters) {
-        for (Node actionNode : getChildrenTags(intentFilterNode, "action")) {
-          Node nameNode = actionNode.getAttributes().getNamedItem("android:name");
-          if (nameNode != null) {
-            receiver.addAction(nameNode.getTextContent());
+      for (ManifestElement intentFilterNode : receiverNode.getChildren("intent-filter")) {
+        for (ManifestElement actionNode : intentFilterNode.getChildren("action")) {
+          String name = actionNode.getAttribute("android:name");
+          if (name != null) {
+            receiver.addAction(name);
           }
         }
       }
@@ -366,23 +339,22 @@ public class AndroidManifest implements UsesSdk {
     }
   }
 
-  private void parseServices(Node applicationNode) {
-    for (Node serviceNode : getChildrenTags(applicationNode, "service")) {
-      final HashMap<String, String> serviceAttrs = parseNodeAttributes(serviceNode);
+  private void parseServices(ManifestElement applicationNode) {
+    for (ManifestElement serviceNode : applicationNode.getChildren("service")) {
+      final HashMap<String, String> serviceAttrs = serviceNode.attributes;
 
       String serviceName = resolveClassRef(serviceAttrs.get("android:name"));
       serviceAttrs.put("android:name", serviceName);
 
-      MetaData metaData = new MetaData(getChildrenTags(serviceNode, "meta-data"));
+      MetaData metaData = MetaData.fromElements(serviceNode.getChildren("meta-data"));
 
       final List<IntentFilterData> intentFilterData = parseIntentFilters(serviceNode);
       ServiceData service = new ServiceData(serviceAttrs, metaData, intentFilterData);
-      List<Node> intentFilters = getChildrenTags(serviceNode, "intent-filter");
-      for (Node intentFilterNode : intentFilters) {
-        for (Node actionNode : getChildrenTags(intentFilterNode, "action")) {
-          Node nameNode = actionNode.getAttributes().getNamedItem("android:name");
-          if (nameNode != null) {
-            service.addAction(nameNode.getTextContent());
+      for (ManifestElement intentFilterNode : serviceNode.getChildren("intent-filter")) {
+        for (ManifestElement actionNode : intentFilterNode.getChildren("action")) {
+          String name = actionNode.getAttribute("android:name");
+          if (name != null) {
+            service.addAction(name);
           }
         }
       }
@@ -391,28 +363,28 @@ public class AndroidManifest implements UsesSdk {
     }
   }
 
-  private void parseActivities(Node applicationNode) {
-    for (Node activityNode : getChildrenTags(applicationNode, "activity")) {
+  private void parseActivities(ManifestElement applicationNode) {
+    for (ManifestElement activityNode : applicationNode.getChildren("activity")) {
       parseActivity(activityNode, false);
     }
 
-    for (Node activityNode : getChildrenTags(applicationNode, "activity-alias")) {
+    for (ManifestElement activityNode : applicationNode.getChildren("activity-alias")) {
       parseActivity(activityNode, true);
     }
   }
 
-  private Node findApplicationNode(Document manifestDocument) {
-    NodeList applicationNodes = manifestDocument.getElementsByTagName("application");
-    if (applicationNodes.getLength() > 1) {
-      throw new RuntimeException("found " + applicationNodes.getLength() + " application elements");
+  private ManifestElement findApplicationNode(ManifestElement manifestDocument) {
+    List<ManifestElement> applicationNodes = manifestDocument.getElementsByTagName("application");
+    if (applicationNodes.size() > 1) {
+      throw new RuntimeException("found " + applicationNodes.size() + " application elements");
     }
-    return applicationNodes.item(0);
+    return applicationNodes.isEmpty() ? null : applicationNodes.get(0);
   }
 
-  private void parseActivity(Node activityNode, boolean isAlias) {
+  private void parseActivity(ManifestElement activityNode, boolean isAlias) {
     final List<IntentFilterData> intentFilterData = parseIntentFilters(activityNode);
-    final MetaData metaData = new MetaData(getChildrenTags(activityNode, "meta-data"));
-    final HashMap<String, String> activityAttrs = parseNodeAttributes(activityNode);
+    final MetaData metaData = MetaData.fromElements(activityNode.getChildren("meta-data"));
+    final HashMap<String, String> activityAttrs = activityNode.attributes;
 
     String activityName = resolveClassRef(activityAttrs.get(ActivityData.getNameAttr("android")));
     if (activityName == null) {
@@ -433,24 +405,22 @@ public class AndroidManifest implements UsesSdk {
     activityDatas.put(activityName, new ActivityData("android", activityAttrs, intentFilterData, targetActivity, metaData));
   }
 
-  private List<IntentFilterData> parseIntentFilters(final Node activityNode) {
+  private List<IntentFilterData> parseIntentFilters(final ManifestElement activityNode) {
     ArrayList<IntentFilterData> intentFilterDatas = new ArrayList<>();
-    for (Node n : getChildrenTags(activityNode, "intent-filter")) {
+    for (ManifestElement n : activityNode.getChildren("intent-filter")) {
       ArrayList<String> actionNames = new ArrayList<>();
       ArrayList<String> categories = new ArrayList<>();
       //should only be one action.
-      for (Node action : getChildrenTags(n, "action")) {
-        NamedNodeMap attributes = action.getAttributes();
-        Node actionNameNode = attributes.getNamedItem("android:name");
-        if (actionNameNode != null) {
-          actionNames.add(actionNameNode.getNodeValue());
+      for (ManifestElement action : n.getChildren("action")) {
+        String actionName = action.getAttribute("android:name");
+        if (actionName != null) {
+          actionNames.add(actionName);
         }
       }
-      for (Node category : getChildrenTags(n, "category")) {
-        NamedNodeMap attributes = category.getAttributes();
-        Node categoryNameNode = attributes.getNamedItem("android:name");
-        if (categoryNameNode != null) {
-          categories.add(categoryNameNode.getNodeValue());
+      for (ManifestElement category : n.getChildren("category")) {
+        String categoryName = category.getAttribute("android:name");
+        if (categoryName != null) {
+          categories.add(categoryName);
         }
       }
       IntentFilterData intentFilterData = new IntentFilterData(actionNames, categories);
@@ -461,46 +431,34 @@ public class AndroidManifest implements UsesSdk {
     return intentFilterDatas;
   }
 
-  private IntentFilterData parseIntentFilterData(final Node intentFilterNode, IntentFilterData intentFilterData) {
-    for (Node n : getChildrenTags(intentFilterNode, "data")) {
-      NamedNodeMap attributes = n.getAttributes();
-      String host = null;
-      String port = null;
-
-      Node schemeNode = attributes.getNamedItem("android:scheme");
-      if (schemeNode != null) {
-        intentFilterData.addScheme(schemeNode.getNodeValue());
+  private IntentFilterData parseIntentFilterData(
+      final ManifestElement intentFilterNode, IntentFilterData intentFilterData) {
+    for (ManifestElement n : intentFilterNode.getChildren("data")) {
+      String scheme = n.getAttribute("android:scheme");
+      if (scheme != null) {
+        intentFilterData.addScheme(scheme);
       }
 
-      Node hostNode = attributes.getNamedItem("android:host");
-      if (hostNode != null) {
-        host = hostNode.getNodeValue();
-      }
-
-      Node portNode = attributes.getNamedItem("android:port");
-      if (portNode != null) {
-        port = portNode.getNodeValue();
-      }
-      intentFilterData.addAuthority(host, port);
+      intentFilterData.addAuthority(n.getAttribute("android:host"), n.getAttribute("android:port"));
 
-      Node pathNode = attributes.getNamedItem("android:path");
-      if (pathNode != null) {
-        intentFilterData.addPath(pathNode.getNodeValue());
+      String path = n.getAttribute("android:path");
+      if (path != null) {
+        intentFilterData.addPath(path);
       }
 
-      Node pathPatternNode = attributes.getNamedItem("android:pathPattern");
-      if (pathPatternNode != null) {
-        intentFilterData.addPathPattern(pathPatternNode.getNodeValue());
+      String pathPattern = n.getAttribute("android:pathPattern");
+      if (pathPattern != null) {
+        intentFilterData.addPathPattern(pathPattern);
       }
 
-      Node pathPrefixNode = attributes.getNamedItem("android:pathPrefix");
-      if (pathPrefixNode != null) {
-        intentFilterData.addPathPrefix(pathPrefixNode.getNodeValue());
+      String pathPrefix = n.getAttribute("android:pathPrefix");
+      if (pathPrefix != null) {
+        intentFilterData.addPathPrefix(pathPrefix);
       }
 
-      Node mimeTypeNode = attributes.getNamedItem("android:mimeType");
-      if (mimeTypeNode != null) {
-        intentFilterData.addMimeType(mimeTypeNode.getNodeValue());
+      String mimeType = n.getAttribute("android:mimeType");
+      if (mimeType != null) {
+        intentFilterData.addMimeType(mimeType);
       }
     }
     return intentFilterData;
@@ -531,30 +489,24 @@ public class AndroidManifest implements UsesSdk {
     }
   }
 
-  private void parseApplicationMetaData(Node applicationNode) {
-    applicationMetaData = new MetaData(getChildrenTags(applicationNode, "meta-data"));
+  private void parseApplicationMetaData(ManifestElement applicationNode) {
+    applicationMetaData = MetaData.fromElements(applicationNode.getChildren("meta-data"));
   }
 
   private String resolveClassRef(String maybePartialClassName) {
     return (maybePartialClassName.startsWith(".")) ? packageName + maybePartialClassName : maybePartialClassName;
   }
 
-  private List<Node> getChildrenTags(final Node node, final String tagName) {
-    List<Node> children = new ArrayList<>();
-    for (int i = 0; i < node.getChildNodes().getLength(); i++) {
-      Node childNode = node.getChildNodes().item(i);
-      if (childNode.getNodeName().equalsIgnoreCase(tagName)) {
-        children.add(childNode);
-      }
-    }
-    return children;
-  }
-
-  private Integer getTagAttributeIntValue(final Document doc, final String tag, final String attribute) {
+  private Integer getTagAttributeIntValue(
+      final ManifestElement doc, final String tag, final String attribute) {
     return getTagAttributeIntValue(doc, tag, attribute, null);
   }
 
-  private Integer getTagAttributeIntValue(final Document doc, final String tag, final String attribute, final Integer defaultValue) {
+  private Integer getTagAttributeIntValue(
+      final ManifestElement doc,
+      final String tag,
+      final String attribute,
+      final Integer defaultValue) {
     String valueString = getTagAttributeText(doc, tag, attribute);
     if (valueString != null) {
       return Integer.parseInt(valueString);
@@ -639,7 +591,7 @@ public class AndroidManifest implements UsesSdk {
   public Map<String, Object> getApplicationMetaData() {
     parseAndroidManifest();
     if (applicationMetaData == null) {
-      applicationMetaData = new MetaData(Collections.<Node>emptyList());
+      applicationMetaData = MetaData.fromElements(Collections.emptyList());
     }
     return applicationMetaData.getValueMap();
   }
@@ -714,13 +666,12 @@ public class AndroidManifest implements UsesSdk {
     return serviceDatas.get(serviceClassName);
   }
 
-  private static String getTagAttributeText(final Document doc, final String tag, final String attribute) {
-    NodeList elementsByTagName = doc.getElementsByTagName(tag);
-    for (int i = 0; i < elementsByTagName.getLength(); ++i) {
-      Node item = elementsByTagName.item(i);
-      Node namedItem = item.getAttributes().getNamedItem(attribute);
-      if (namedItem != null) {
-        return namedItem.getTextContent();
+  private static String getTagAttributeText(
+      final ManifestElement doc, final String tag, final String attribute) {
+    for (ManifestElement item : doc.getElementsByTagName(tag)) {
+      String value = item.getAttribute(attribute);
+      if (value != null) {
+        return value;
       }
     }
     return null;
@@ -835,4 +786,83 @@ public class AndroidManifest implements UsesSdk {
     }
     return supportsBinaryResourcesMode;
   }
+
+  /**
+   * Everything {@link #parseAndroidManifest()} reads from the manifest file, in a form that can be
+   * stored in a {@link ParsedManifestCache}. Must be captured before {@link
+   * #initMetaData(ResourceTable)} resolves any resource references.
+   */
+  private static class ParsedManifest implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String applicationName;
+    private final String applicationLabel;
+    private final String rClassName;
+    private final String packageName;
+    private final String processName;
+    private final String themeRef;
+    private final String labelRef;
+    private final Integer minSdkVersion;
+    private final Integer targetSdkVersion;
+    private final Integer maxSdkVersion;
+    private final int versionCode;
+    private final String versionName;
+    private final LinkedHashMap<String, PermissionItemData> permissions;
+    private final LinkedHashMap<String, PermissionGroupItemData> permissionGroups;
+    private final ArrayList<ContentProviderData> providers;
+    private final ArrayList<BroadcastReceiverData> receivers;
+    private final LinkedHashMap<String, ServiceData> serviceDatas;
+    private final LinkedHashMap<String, ActivityData> activityDatas;
+    private final ArrayList<String> usedPermissions;
+    private final LinkedHashMap<String, String> applicationAttributes;
+    private final MetaData applicationMetaData;
+
+    ParsedManifest(AndroidManifest manifest) {
+      applicationName = manifest.applicationName;
+      applicationLabel = manifest.applicationLabel;
+      rClassName = manifest.rClassName;
+      packageName = manifest.packageName;
+      processName = manifest.processName;
+      themeRef = manifest.themeRef;
+      labelRef = manifest.labelRef;
+      minSdkVersion = manifest.minSdkVersion;
+      targetSdkVersion = manifest.targetSdkVersion;
+      maxSdkVersion = manifest.maxSdkVersion;
+      versionCode = manifest.versionCode;
+      versionName = manifest.versionName;
+      permissions = new LinkedHashMap<>(manifest.permissions);
+      permissionGroups = new LinkedHashMap<>(manifest.permissionGroups);
+      providers = new ArrayList<>(manifest.providers);
+      receivers = new ArrayList<>(manifest.receivers);
+      serviceDatas = new LinkedHashMap<>(manifest.serviceDatas);
+      activityDatas = new LinkedHashMap<>(manifest.activityDatas);
+      usedPermissions = new ArrayList<>(manifest.usedPermissions);
+      applicationAttributes = new LinkedHashMap<>(manifest.applicationAttributes);
+      applicationMetaData = manifest.applicationMetaData;
+    }
+
+    void restoreTo(AndroidManifest manifest) {
+      manifest.applicationName = applicationName;
+      manifest.applicationLabel = applicationLabel;
+      manifest.rClassName = rClassName;
+      manifest.packageName = packageName;
+      manifest.processName = processName;
+      manifest.themeRef = themeRef;
+      manifest.labelRef = labelRef;
+      manifest.minSdkVersion = minSdkVersion;
+      manifest.targetSdkVersion = targetSdkVersion;
+      manifest.maxSdkVersion = maxSdkVersion;
+      manifest.versionCode = versionCode;
+      manifest.versionName = versionName;
+      manifest.permissions.putAll(permissions);
+      manifest.permissionGroups.putAll(permissionGroups);
+      manifest.providers.addAll(providers);
+      manifest.receivers.addAll(receivers);
+      manifest.serviceDatas.putAll(serviceDatas);
+      manifest.activityDatas.putAll(activityDatas);
+      manifest.usedPermissions.addAll(usedPermissions);
+      manifest.applicationAttributes.putAll(applicationAttributes);
+      manifest.applicationMetaData = applicationMetaData;
+    }
+  }
 }
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 
 public class BroadcastReceiverData extends PackageItemData {
+  private static final long serialVersionUID = 1L;
 
   private static final String EXPORTED = "android:exported";
   private static final String NAME = "android:name";
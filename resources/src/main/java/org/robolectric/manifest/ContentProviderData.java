@@ -4,6 +4,8 @@ import java.util.List;
 import java.util.Map;
 
 public class ContentProviderData extends PackageItemData {
+  private static final long serialVersionUID = 1L;
+
   private static final String READ_PERMISSION = "android:readPermission";
   private static final String WRITE_PERMISSION = "android:writePermission";
   private static final String GRANT_URI_PERMISSION = "android:grantUriPermissions";
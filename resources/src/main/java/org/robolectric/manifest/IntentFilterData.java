@@ -1,9 +1,12 @@
 package org.robolectric.manifest;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
-public class IntentFilterData {
+public class IntentFilterData implements Serializable {
+  private static final long serialVersionUID = 1L;
+
   private final List<String> actions;
   private final List<String> categories;
   private final List<String> schemes;
@@ -92,7 +95,9 @@ public class IntentFilterData {
     }
   }
 
-  public static class DataAuthority {
+  public static class DataAuthority implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String host;
     private String port;
 
@@ -0,0 +1,132 @@
+package org.robolectric.manifest;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * An element of an AndroidManifest.xml: just its name, attributes and child elements, read in a
+ * single StAX pass. Text, comments and namespace resolution are skipped; names are kept exactly as
+ * they're written in the file, e.g. {@code android:name}.
+ */
+final class ManifestElement {
+  private static final XMLInputFactory FACTORY = createFactory();
+
+  final String name;
+  final HashMap<String, String> attributes;
+  private List<ManifestElement> children = Collections.emptyList();
+
+  private ManifestElement(String name, HashMap<String, String> attributes) {
+    this.name = name;
+    this.attributes = attributes;
+  }
+
+  /** Returns the root element of the document read from {@code in}. */
+  static ManifestElement parse(InputStream in) throws XMLStreamException {
+    XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+    try {
+      ManifestElement root = null;
+      Deque<ManifestElement> open = new ArrayDeque<>();
+      while (reader.hasNext()) {
+        switch (reader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            ManifestElement element = readElement(reader);
+            if (open.isEmpty()) {
+              root = element;
+            } else {
+              open.peek().addChild(element);
+            }
+            open.push(element);
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            open.pop();
+            break;
+          default:
+            break;
+        }
+      }
+      return root;
+    } finally {
+      reader.close();
+    }
+  }
+
+  private static ManifestElement readElement(XMLStreamReader reader) {
+    int namespaceCount = reader.getNamespaceCount();
+    int attributeCount = reader.getAttributeCount();
+    HashMap<String, String> attributes = new HashMap<>(namespaceCount + attributeCount);
+    // Namespace declarations are attributes too as far as the manifest is concerned.
+    for (int i = 0; i < namespaceCount; i++) {
+      String prefix = reader.getNamespacePrefix(i);
+      attributes.put(
+          prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix,
+          reader.getNamespaceURI(i));
+    }
+    for (int i = 0; i < attributeCount; i++) {
+      attributes.put(
+          qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+          reader.getAttributeValue(i));
+    }
+    return new ManifestElement(qualifiedName(reader.getPrefix(), reader.getLocalName()), attributes);
+  }
+
+  private static String qualifiedName(@Nullable String prefix, String localName) {
+    return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+  }
+
+  private void addChild(ManifestElement child) {
+    if (children.isEmpty()) {
+      children = new ArrayList<>();
+    }
+    children.add(child);
+  }
+
+  @Nullable
+  String getAttribute(String attributeName) {
+    return attributes.get(attributeName);
+  }
+
+  /** Returns the child elements with the given name, ignoring case. */
+  List<ManifestElement> getChildren(String tagName) {
+    List<ManifestElement> matching = new ArrayList<>();
+    for (ManifestElement child : children) {
+      if (child.name.equalsIgnoreCase(tagName)) {
+        matching.add(child);
+      }
+    }
+    return matching;
+  }
+
+  /** Returns this element and all its descendants with the given name, in document order. */
+  List<ManifestElement> getElementsByTagName(String tagName) {
+    List<ManifestElement> matching = new ArrayList<>();
+    collectElementsByTagName(tagName, matching);
+    return matching;
+  }
+
+  private void collectElementsByTagName(String tagName, List<ManifestElement> matching) {
+    if (name.equals(tagName)) {
+      matching.add(this);
+    }
+    for (ManifestElement child : children) {
+      child.collectElementsByTagName(tagName, matching);
+    }
+  }
+
+  private static XMLInputFactory createFactory() {
+    XMLInputFactory factory = XMLInputFactory.newFactory();
+    // Like the DOM parser this replaces, accept prefixes that aren't declared, e.g. tools:.
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+    return factory;
+  }
+}
@@ -1,5 +1,6 @@
 package org.robolectric.manifest;
 
+import java.io.Serializable;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -10,7 +11,9 @@ import org.robolectric.res.android.ResTable_config;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 
-public final class MetaData {
+public final class MetaData implements Serializable {
+  private static final long serialVersionUID = 1L;
+
   private final Map<String, Object> valueMap = new LinkedHashMap<>();
   private final Map<String, VALUE_TYPE> typeMap = new LinkedHashMap<>();
   private boolean initialised;
@@ -22,13 +25,36 @@ public final class MetaData {
       Node valueAttr = attributes.getNamedItem("android:value");
       Node resourceAttr = attributes.getNamedItem("android:resource");
 
-      if (valueAttr != null) {
-        valueMap.put(nameAttr.getNodeValue(), valueAttr.getNodeValue());
-        typeMap.put(nameAttr.getNodeValue(), VALUE_TYPE.VALUE);
-      } else if (resourceAttr != null) {
-        valueMap.put(nameAttr.getNodeValue(), resourceAttr.getNodeValue());
-        typeMap.put(nameAttr.getNodeValue(), VALUE_TYPE.RESOURCE);
+      add(
+          nameAttr.getNodeValue(),
+          valueAttr == null ? null : valueAttr.getNodeValue(),
+          resourceAttr == null ? null : resourceAttr.getNodeValue());
+    }
+  }
+
+  private MetaData() {
+  }
+
+  static MetaData fromElements(List<ManifestElement> elements) {
+    MetaData metaData = new MetaData();
+    for (ManifestElement element : elements) {
+      String name = element.getAttribute("android:name");
+      if (name == null) {
+        throw new NullPointerException("meta-data without android:name");
       }
+      metaData.add(
+          name, element.getAttribute("android:value"), element.getAttribute("android:resource"));
+    }
+    return metaData;
+  }
+
+  private void add(String name, String value, String resource) {
+    if (value != null) {
+      valueMap.put(name, value);
+      typeMap.put(name, VALUE_TYPE.VALUE);
+    } else if (resource != null) {
+      valueMap.put(name, resource);
+      typeMap.put(name, VALUE_TYPE.RESOURCE);
     }
   }
 
@@ -1,6 +1,10 @@
 package org.robolectric.manifest;
 
-public class PackageItemData {
+import java.io.Serializable;
+
+public class PackageItemData implements Serializable {
+  private static final long serialVersionUID = 1L;
+
   protected final String name;
   protected final MetaData metaData;
 
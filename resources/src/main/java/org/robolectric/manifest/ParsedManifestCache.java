@@ -0,0 +1,175 @@
+package org.robolectric.manifest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.robolectric.util.Logger;
+import org.robolectric.util.PerfStatsCollector;
+
+/**
+ * Stores the result of parsing an AndroidManifest.xml on disk, keyed by a hash of the file's
+ * contents, so that each test process doesn't parse the same manifest again.
+ *
+ * <p>The cache is only used if the {@code robolectric.manifestCacheDir} system property names a
+ * directory for it, which should be one only the build can write to, typically somewhere under the
+ * build directory. Entries are only deserialized into the manifest data classes; entries that
+ * can't be read, e.g. because they were written by another version of Robolectric or contain
+ * anything else, are ignored.
+ */
+@SuppressWarnings("NewApi")
+class ParsedManifestCache {
+  static final String CACHE_DIR_PROPERTY = "robolectric.manifestCacheDir";
+
+  /** Bump when the parsed representation changes in a way serialization wouldn't notice. */
+  private static final int FORMAT_VERSION = 1;
+
+  /** Classes that may appear in a cached manifest, besides the type it's loaded as. */
+  private static final Set<String> ALLOWED_CLASS_NAMES =
+      new HashSet<>(
+          Arrays.asList(
+              ActivityData.class.getName(),
+              BroadcastReceiverData.class.getName(),
+              ContentProviderData.class.getName(),
+              IntentFilterData.class.getName(),
+              IntentFilterData.DataAuthority.class.getName(),
+              MetaData.class.getName(),
+              MetaData.class.getName() + "$VALUE_TYPE",
+              PackageItemData.class.getName(),
+              PathPermissionData.class.getName(),
+              PermissionGroupItemData.class.getName(),
+              PermissionItemData.class.getName(),
+              ServiceData.class.getName(),
+              ArrayList.class.getName(),
+              HashMap.class.getName(),
+              LinkedHashMap.class.getName(),
+              Boolean.class.getName(),
+              Enum.class.getName(),
+              Integer.class.getName(),
+              Number.class.getName(),
+              String.class.getName()));
+
+  private final File cacheDir;
+
+  ParsedManifestCache(@Nullable File cacheDir) {
+    this.cacheDir = cacheDir;
+  }
+
+  static ParsedManifestCache fromSystemProperties() {
+    String cacheDir = System.getProperty(CACHE_DIR_PROPERTY);
+    return new ParsedManifestCache(
+        cacheDir == null || cacheDir.isEmpty() ? null : new File(cacheDir));
+  }
+
+  /** Returns the key for a manifest with the given contents, or null if caching is disabled. */
+  @Nullable
+  String keyFor(byte[] manifestBytes, @Nullable String overridePackageName) {
+    if (cacheDir == null) {
+      return null;
+    }
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(manifestBytes);
+      digest.update(("\0" + FORMAT_VERSION + "\0" + overridePackageName).getBytes(UTF_8));
+      StringBuilder key = new StringBuilder();
+      for (byte b : digest.digest()) {
+        key.append(String.format("%02x", b));
+      }
+      return key.toString();
+    } catch (NoSuchAlgorithmException e) {
+      return null;
+    }
+  }
+
+  @Nullable
+  <T extends Serializable> T load(String key, Class<T> type) {
+    File file = new File(cacheDir, key);
+    if (!file.isFile()) {
+      return null;
+    }
+    return PerfStatsCollector.getInstance().measure("load cached manifest", () -> {
+      try (ObjectInputStream in =
+          new ManifestObjectInputStream(
+              new ByteArrayInputStream(Files.readAllBytes(file.toPath())), type)) {
+        Object o = in.readObject();
+        return type.isInstance(o) ? type.cast(o) : null;
+      } catch (IOException | ClassNotFoundException | RuntimeException e) {
+        Logger.debug("Ignoring unreadable cached manifest %s: %s", file, e);
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Writes an entry. The entry is written to a temporary file and then renamed, so that processes
+   * reading the cache concurrently never see a partially written entry.
+   */
+  void store(String key, Serializable value) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+        out.writeObject(value);
+      }
+      if (!cacheDir.isDirectory() && !cacheDir.mkdirs() && !cacheDir.isDirectory()) {
+        return;
+      }
+      File tempFile = File.createTempFile(key, ".tmp", cacheDir);
+      try {
+        Files.write(tempFile.toPath(), bytes.toByteArray());
+        Files.move(
+            tempFile.toPath(),
+            new File(cacheDir, key).toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        tempFile.delete();
+      }
+    } catch (IOException | RuntimeException e) {
+      Logger.debug("Couldn't cache parsed manifest in %s: %s", cacheDir, e);
+    }
+  }
+
+  /** Refuses to deserialize anything but the manifest data classes. */
+  private static class ManifestObjectInputStream extends ObjectInputStream {
+    private final Class<?> type;
+
+    ManifestObjectInputStream(InputStream in, Class<?> type) throws IOException {
+      super(in);
+      this.type = type;
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc)
+        throws IOException, ClassNotFoundException {
+      if (!desc.getName().equals(type.getName())
+          && !ALLOWED_CLASS_NAMES.contains(desc.getName())) {
+        throw new InvalidClassException(desc.getName(), "not allowed in a cached manifest");
+      }
+      return super.resolveClass(desc);
+    }
+
+    @Override
+    protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+      throw new InvalidClassException("proxies are not allowed in a cached manifest");
+    }
+  }
+}
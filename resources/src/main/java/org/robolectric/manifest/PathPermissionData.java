@@ -1,6 +1,10 @@
 package org.robolectric.manifest;
 
-public class PathPermissionData {
+import java.io.Serializable;
+
+public class PathPermissionData implements Serializable {
+  private static final long serialVersionUID = 1L;
+
   public final String path;
   public final String pathPrefix;
   public final String pathPattern;
@@ -4,6 +4,7 @@ package org.robolectric.manifest;
  * Holds permission data from manifest.
  */
 public class PermissionGroupItemData extends PackageItemData {
+  private static final long serialVersionUID = 1L;
 
   private final String label;
   private final String description;
@@ -8,6 +8,7 @@ import java.util.Map;
  * Holds parsed service data from manifest.
  */
 public class ServiceData extends PackageItemData {
+  private static final long serialVersionUID = 1L;
 
   private static final String EXPORTED = "android:exported";
   private static final String NAME = "android:name";
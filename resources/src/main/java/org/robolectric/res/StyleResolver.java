@@ -1,17 +1,47 @@
 package org.robolectric.res;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import org.robolectric.res.android.ResTable_config;
+import org.robolectric.util.PerfStatsCollector;
 
+/**
+ * A style along with its parents, resolved lazily the first time an attribute isn't found in the
+ * style itself.
+ *
+ * <p>Resolved parent chains are shared between resolvers for the same style, resource tables and
+ * configuration, along with the attribute values already looked up in them, unless resolving the
+ * chain had to consult the theme.
+ */
 public class StyleResolver implements Style {
+  private static final int MAX_CACHED_CHAINS = 1024;
+  private static final Object NOT_FOUND = new Object();
+
+  private static final Map<ChainKey, ResolvedParents> resolvedParentsCache =
+      Collections.synchronizedMap(
+          new LinkedHashMap<ChainKey, ResolvedParents>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ChainKey, ResolvedParents> eldest) {
+              return size() > MAX_CACHED_CHAINS;
+            }
+          });
+  private static final Map<ResTable_config, String> configKeys =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
   private final List<StyleData> styles = new ArrayList<>();
   private final ResourceTable appResourceTable;
   private final ResourceTable systemResourceTable;
   private final Style theme;
   private final ResName myResName;
   private final ResTable_config config;
+  private ResolvedParents resolvedParents;
+  private boolean themeDependent;
 
   public StyleResolver(ResourceTable appResourceTable, ResourceTable systemResourceTable, StyleData styleData,
                        Style theme, ResName myResName, ResTable_config config) {
@@ -24,11 +54,41 @@ public class StyleResolver implements Style {
   }
 
   @Override public AttributeResource getAttrValue(ResName resName) {
-    for (StyleData style : styles) {
-      AttributeResource value = style.getAttrValue(resName);
+    AttributeResource value = styles.get(0).getAttrValue(resName);
+    if (value != null) return value;
+
+    value = getResolvedParents().getAttrValue(resName);
+    if (value != null) return value;
+
+    // todo: is this tested?
+    if (theme != null) {
+      value = theme.getAttrValue(resName);
       if (value != null) return value;
     }
-    int initialSize = styles.size();
+
+    return null;
+  }
+
+  private ResolvedParents getResolvedParents() {
+    if (resolvedParents == null) {
+      ChainKey key =
+          new ChainKey(styles.get(0), appResourceTable, systemResourceTable, configKey(config));
+      ResolvedParents cached = resolvedParentsCache.get(key);
+      if (cached != null) {
+        PerfStatsCollector.getInstance().startEvent("reuse resolved style parents").finished();
+        resolvedParents = cached;
+      } else {
+        resolvedParents =
+            PerfStatsCollector.getInstance().measure("resolve style parents", this::resolveParents);
+        if (!themeDependent) {
+          resolvedParentsCache.put(key, resolvedParents);
+        }
+      }
+    }
+    return resolvedParents;
+  }
+
+  private ResolvedParents resolveParents() {
     while (hasParent(styles.get(styles.size() - 1))) {
       StyleData parent = getParent(styles.get(styles.size() - 1));
       if (parent != null) {
@@ -37,19 +97,19 @@ public class StyleResolver implements Style {
         break;
       }
     }
-    for (int i = initialSize; i < styles.size(); i++) {
-      StyleData style = styles.get(i);
-      AttributeResource value = style.getAttrValue(resName);
-      if (value != null) return value;
-    }
+    return new ResolvedParents(styles.subList(1, styles.size()));
+  }
 
-    // todo: is this tested?
-    if (theme != null) {
-      AttributeResource value = theme.getAttrValue(resName);
-      if (value != null) return value;
+  private static String configKey(ResTable_config config) {
+    if (config == null) {
+      return null;
     }
-
-    return null;
+    String key = configKeys.get(config);
+    if (key == null) {
+      key = config.toString();
+      configKeys.put(config, key);
+    }
+    return key;
   }
 
   private static String getParentStyleName(StyleData style) {
@@ -125,6 +185,10 @@ public class StyleResolver implements Style {
           break;
         }
       }
+      if (!dereferencing) {
+        // Which style this resolves to depends on the theme, so the chain can't be shared.
+        themeDependent = true;
+      }
       if (!dereferencing && theme != null) {
         AttributeResource value = theme.getAttrValue(styleRef);
         if (value != null) {
@@ -173,4 +237,65 @@ public class StyleResolver implements Style {
     return styles.get(0) + " (and parents)";
   }
 
-}
\ No newline at end of file
+  /** The parents of a style, along with the values already looked up in them. */
+  private static final class ResolvedParents {
+    private final StyleData[] parents;
+    private final Map<ResName, Object> values = new ConcurrentHashMap<>();
+
+    ResolvedParents(List<StyleData> parents) {
+      this.parents = parents.toArray(new StyleData[0]);
+    }
+
+    AttributeResource getAttrValue(ResName resName) {
+      Object value = values.get(resName);
+      if (value == null) {
+        value = NOT_FOUND;
+        for (StyleData parent : parents) {
+          AttributeResource attributeResource = parent.getAttrValue(resName);
+          if (attributeResource != null) {
+            value = attributeResource;
+            break;
+          }
+        }
+        values.put(resName, value);
+      }
+      return value == NOT_FOUND ? null : (AttributeResource) value;
+    }
+  }
+
+  private static final class ChainKey {
+    private final StyleData style;
+    private final ResourceTable appResourceTable;
+    private final ResourceTable systemResourceTable;
+    private final String config;
+
+    ChainKey(StyleData style, ResourceTable appResourceTable,
+        ResourceTable systemResourceTable, String config) {
+      this.style = style;
+      this.appResourceTable = appResourceTable;
+      this.systemResourceTable = systemResourceTable;
+      this.config = config;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof ChainKey)) {
+        return false;
+      }
+      ChainKey other = (ChainKey) o;
+      return style == other.style
+          && appResourceTable == other.appResourceTable
+          && systemResourceTable == other.systemResourceTable
+          && Objects.equals(config, other.config);
+    }
+
+    @Override
+    public int hashCode() {
+      int hashCode = System.identityHashCode(style);
+      hashCode = 31 * hashCode + System.identityHashCode(appResourceTable);
+      hashCode = 31 * hashCode + System.identityHashCode(systemResourceTable);
+      hashCode = 31 * hashCode + Objects.hashCode(config);
+      return hashCode;
+    }
+  }
+}
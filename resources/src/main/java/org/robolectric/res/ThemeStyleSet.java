@@ -1,17 +1,26 @@
 package org.robolectric.res;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents the list of styles applied to a Theme.
+ *
+ * <p>Values looked up in the theme are remembered until another style is applied, so styles must
+ * not change once they've been applied.
  */
 public class ThemeStyleSet implements Style {
 
   private List<OverlayedStyle> styles = new ArrayList<>();
+  private final Map<ResName, AttributeResource> resolved = new HashMap<>();
 
   @Override public AttributeResource getAttrValue(ResName attrName) {
-    AttributeResource attribute = null;
+    AttributeResource attribute = resolved.get(attrName);
+    if (attribute != null || resolved.containsKey(attrName)) {
+      return attribute;
+    }
 
     for (OverlayedStyle overlayedStyle : styles) {
       AttributeResource overlayedAttribute = overlayedStyle.style.getAttrValue(attrName);
@@ -20,6 +29,7 @@ public class ThemeStyleSet implements Style {
       }
     }
 
+    resolved.put(attrName, attribute);
     return attribute;
   }
 
@@ -32,11 +42,13 @@ public class ThemeStyleSet implements Style {
       }
     }
     styles.add(styleToAdd);
+    resolved.clear();
   }
 
   public ThemeStyleSet copy() {
     ThemeStyleSet themeStyleSet = new ThemeStyleSet();
     themeStyleSet.styles.addAll(this.styles);
+    themeStyleSet.resolved.putAll(this.resolved);
     return themeStyleSet;
   }
 
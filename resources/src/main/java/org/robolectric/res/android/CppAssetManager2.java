@@ -19,10 +19,8 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import org.robolectric.res.Fs;
@@ -203,7 +201,13 @@ public class CppAssetManager2 {
   // Cached set of bags. These are cached because they can inherit keys from parent bags,
   // which involves some calculation.
 //  private std.unordered_map<int, util.unique_cptr<ResolvedBag>> cached_bags_;
-  final private Map<Integer, ResolvedBag> cached_bags_ = new HashMap<>();
+  private IntObjectMap<ResolvedBag> cached_bags_ = new IntObjectMap<>();
+
+  // Bags cached for the configurations that were set most recently before the current one, so
+  // that switching back to one of them (e.g. between the qualifiers of two tests) doesn't
+  // resolve its bags all over again. Most recently used first.
+  private static final int MAX_CACHED_CONFIGURATIONS = 4;
+  final private List<ConfigurationBags> cached_bags_by_configuration_ = new ArrayList<>();
 //  };
 
 //final ResolvedBag.Entry* begin(final ResolvedBag* bag) { return bag.entries; }
@@ -423,12 +427,13 @@ public class CppAssetManager2 {
 //  void SetConfiguration(final ResTable_config& configuration);
   public void SetConfiguration(final ResTable_config configuration) {
     final int diff = configuration_.diff(configuration);
+    final ResTable_config previous_configuration = configuration_;
     configuration_ = configuration;
 
     if (isTruthy(diff)) {
       RebuildFilterList();
 //      InvalidateCaches(static_cast<int>(diff));
-      InvalidateCaches(diff);
+      SwitchBagCache(previous_configuration, diff);
     }
   }
 
@@ -1314,21 +1319,55 @@ public class CppAssetManager2 {
     if (diff == 0xffffffff) {
       // Everything must go.
       cached_bags_.clear();
+      cached_bags_by_configuration_.clear();
       return;
     }
 
     // Be more conservative with what gets purged. Only if the bag has other possible
     // variations with respect to what changed (diff) should we remove it.
     // for (auto iter = cached_bags_.cbegin(); iter != cached_bags_.cend();) {
-    for (Integer key : new ArrayList<>(cached_bags_.keySet())) {
-      // if (diff & iter.second.type_spec_flags) {
-      if (isTruthy(diff & cached_bags_.get(key).type_spec_flags)) {
-        // iter = cached_bags_.erase(iter);
-        cached_bags_.remove(key);
+    //   if (diff & iter.second.type_spec_flags) {
+    //     iter = cached_bags_.erase(iter);
+    cached_bags_ = cached_bags_.filter(bag -> !isTruthy(diff & bag.type_spec_flags));
+  }
+
+  // Switches the bag cache over to the configuration that was just set, keeping the bags of the
+  // previous configuration around in case it's set again.
+  private void SwitchBagCache(ResTable_config previous_configuration, int diff) {
+    IntObjectMap<ResolvedBag> previous_bags = cached_bags_;
+    IntObjectMap<ResolvedBag> bags = null;
+    for (int i = 0; i < cached_bags_by_configuration_.size(); i++) {
+      if (cached_bags_by_configuration_.get(i).configuration.compare(configuration_) == 0) {
+        bags = cached_bags_by_configuration_.remove(i).bags;
+        break;
+      }
+    }
+
+    if (bags != null) {
+      cached_bags_ = bags;
+    } else {
+      InvalidateCaches(diff);
+    }
+
+    if (previous_bags.size() > 0) {
+      cached_bags_by_configuration_.add(
+          0, new ConfigurationBags(previous_configuration.copy(), previous_bags));
+      if (cached_bags_by_configuration_.size() > MAX_CACHED_CONFIGURATIONS) {
+        cached_bags_by_configuration_.remove(cached_bags_by_configuration_.size() - 1);
       }
     }
   }
 
+  private static class ConfigurationBags {
+    final ResTable_config configuration;
+    final IntObjectMap<ResolvedBag> bags;
+
+    ConfigurationBags(ResTable_config configuration, IntObjectMap<ResolvedBag> bags) {
+      this.configuration = configuration;
+      this.bags = bags;
+    }
+  }
+
   // Creates a new Theme from this AssetManager.
 //  std.unique_ptr<Theme> NewTheme();
   public Theme NewTheme() {
@@ -0,0 +1,101 @@
+package org.robolectric.res.android;
+
+import java.util.function.Predicate;
+
+/**
+ * A map from int keys (typically resource ids) to non-null values, using open addressing so that
+ * lookups don't box the key. Stands in for the {@code std::unordered_map<uint32_t, T>} caches of
+ * the native code.
+ */
+final class IntObjectMap<T> {
+  private static final int MIN_CAPACITY = 16;
+
+  private int[] keys;
+  private Object[] values;
+  private int size;
+
+  IntObjectMap() {
+    this(MIN_CAPACITY);
+  }
+
+  private IntObjectMap(int capacity) {
+    keys = new int[capacity];
+    values = new Object[capacity];
+  }
+
+  int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  T get(int key) {
+    int mask = keys.length - 1;
+    for (int i = indexFor(key, mask); values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        return (T) values[i];
+      }
+    }
+    return null;
+  }
+
+  void put(int key, T value) {
+    if (value == null) {
+      throw new NullPointerException("value");
+    }
+    int mask = keys.length - 1;
+    int i = indexFor(key, mask);
+    while (values[i] != null) {
+      if (keys[i] == key) {
+        values[i] = value;
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[i] = key;
+    values[i] = value;
+    // Keep the load factor at or below 1/2 so probe sequences stay short.
+    if (++size * 2 > keys.length) {
+      resize(keys.length * 2);
+    }
+  }
+
+  void clear() {
+    if (size > 0) {
+      keys = new int[MIN_CAPACITY];
+      values = new Object[MIN_CAPACITY];
+      size = 0;
+    }
+  }
+
+  /** Returns a new map holding the entries of this one whose values match {@code filter}. */
+  @SuppressWarnings("unchecked")
+  IntObjectMap<T> filter(Predicate<? super T> filter) {
+    IntObjectMap<T> filtered = new IntObjectMap<>(keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      if (values[i] != null && filter.test((T) values[i])) {
+        filtered.put(keys[i], (T) values[i]);
+      }
+    }
+    return filtered;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void resize(int capacity) {
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    keys = new int[capacity];
+    values = new Object[capacity];
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != null) {
+        put(oldKeys[i], (T) oldValues[i]);
+      }
+    }
+  }
+
+  private static int indexFor(int key, int mask) {
+    // Resource ids differ mostly in their low bits, but spread them anyway.
+    int h = key * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+}
@@ -34,6 +34,18 @@ public class ResStringPool {
 
   private static boolean kDebugStringPoolNoisy = false;
 
+  /**
+   * Set this system property to "true" to intern decoded strings, so that strings found in
+   * several pools (e.g. the framework's and an app's) are only kept once.
+   */
+  public static final String INTERN_STRINGS_PROPERTY = "robolectric.internStringPools";
+
+  private static final boolean INTERN_STRINGS = Boolean.getBoolean(INTERN_STRINGS_PROPERTY);
+
+  // Soft cap on the characters a single pool's decode cache holds; strings decoded once it's
+  // reached are decoded again on every lookup.
+  static final int MAX_CACHED_CHARS = 1 << 20;
+
   private final long myNativePtr;
 
   private int                    mError;
@@ -51,8 +63,13 @@ public class ResStringPool {
 //    const void*                 mStrings;
     private int                 mStrings;
   //private List<String> mStrings;
-  //private String[] mCache;
   //private char16_t mutable**          mCache;
+  // Decoded strings, filled lazily. Only read and written without locking, which is fine since
+  // Strings are immutable and a lost write just means decoding that string again.
+  private String[] mCache;
+  private int mCachedChars;
+  private long mCacheHits;
+  private long mCacheMisses;
     private int                    mStringPoolSize;    // number of uint16_t
 //    const uint32_t*             mStyles;
     private int             mStyles;
@@ -323,9 +340,54 @@ public class ResStringPool {
   void uninit() {
     setError(NO_INIT);
     mHeader = null;
+    mCache = null;
+    mCachedChars = 0;
   }
 
   public String stringAt(int idx) {
+    if (mError != NO_ERROR || idx < 0 || idx >= mHeader.stringCount) {
+      return decodeStringAt(idx);
+    }
+
+    String[] cache = mCache;
+    if (cache == null) {
+      if (kDebugStringPoolNoisy) {
+        ALOGI("CREATING STRING CACHE OF %d entries", mHeader.stringCount);
+      }
+      cache = mCache = new String[mHeader.stringCount];
+    }
+    String s = cache[idx];
+    if (s != null) {
+      mCacheHits++;
+      return s;
+    }
+
+    mCacheMisses++;
+    s = decodeStringAt(idx);
+    if (s != null && mCachedChars + s.length() <= MAX_CACHED_CHARS) {
+      if (INTERN_STRINGS) {
+        s = s.intern();
+      }
+      cache[idx] = s;
+      mCachedChars += s.length();
+    }
+    return s;
+  }
+
+  /**
+   * Returns how many lookups by {@link #stringAt(int)} were answered from the decode cache. Like
+   * {@link #getCacheMisses()}, this is approximate when several threads use the pool at once.
+   */
+  public long getCacheHits() {
+    return mCacheHits;
+  }
+
+  /** Returns how many lookups by {@link #stringAt(int)} had to decode their string. */
+  public long getCacheMisses() {
+    return mCacheMisses;
+  }
+
+  private String decodeStringAt(int idx) {
     if (mError == NO_ERROR && idx < mHeader.stringCount) {
         final boolean isUTF8 = (mHeader.flags&ResStringPool_header.UTF8_FLAG) != 0;
 //        const uint32_t off = mEntries[idx]/(isUTF8?sizeof(uint8_t):sizeof(uint16_t));
@@ -85,6 +85,10 @@ public class ResTable {
 
   ResTable_config mParams;
 
+  // A copy of mParams as it was when the filtered configurations were computed, since mParams
+  // may be changed in place afterwards.
+  ResTable_config mFilteredConfigParams;
+
   // Array of all resource tables.
   final List<Header>             mHeaders = new ArrayList<>();
 
@@ -327,10 +331,15 @@ public class ResTable {
         return (mError=BAD_TYPE);
       }
 
+      // Parsing may add configurations to types that have already been filtered.
+      mFilteredConfigParams = null;
       if (parsePackage(
           new ResTable_package(chunk.myBuf(), chunk.myOffset()), header, appAsLib, isSystemAsset) != NO_ERROR) {
         return mError;
       }
+      if (mParams != null) {
+        setParameters(mParams);
+      }
       curPackage++;
     } else {
       ALOGW("Unknown chunk type 0x%x in table at 0x%x.\n",
@@ -577,26 +586,28 @@ public class ResTable {
 
       List<ResTable_type> candidateConfigs = typeSpec.configs;
 
-//      List<ResTable_type> filteredConfigs;
-//      if (isTruthy(config) && Objects.equals(mParams, config)) {
-//        // Grab the lock first so we can safely get the current filtered list.
-//        synchronized (mFilteredConfigLock) {
-//          // This configuration is equal to the one we have previously cached for,
-//          // so use the filtered configs.
-//
-//          final TypeCacheEntry cacheEntry = packageGroup.typeCacheEntries.get(typeIndex);
-//          if (i < cacheEntry.filteredConfigs.size()) {
-//            if (isTruthy(cacheEntry.filteredConfigs.get(i))) {
-//              // Grab a reference to the shared_ptr so it doesn't get destroyed while
-//              // going through this list.
-//              filteredConfigs = cacheEntry.filteredConfigs.get(i);
-//
-//              // Use this filtered list.
-//              candidateConfigs = filteredConfigs;
-//            }
-//          }
-//        }
-//      }
+      List<ResTable_type> filteredConfigs;
+//      if (config && memcmp(&mParams, config, sizeof(mParams)) == 0) {
+      if (isTruthy(config) && isTruthy(mFilteredConfigParams)
+          && mFilteredConfigParams.compare(config) == 0) {
+        // Grab the lock first so we can safely get the current filtered list.
+        synchronized (mFilteredConfigLock) {
+          // This configuration is equal to the one we have previously cached for,
+          // so use the filtered configs.
+
+          final TypeCacheEntry cacheEntry = packageGroup.typeCacheEntries.get(typeIndex);
+          if (i < cacheEntry.filteredConfigs.size()) {
+            if (isTruthy(cacheEntry.filteredConfigs.get(i))) {
+              // Grab a reference to the shared_ptr so it doesn't get destroyed while
+              // going through this list.
+              filteredConfigs = cacheEntry.filteredConfigs.get(i);
+
+              // Use this filtered list.
+              candidateConfigs = filteredConfigs;
+            }
+          }
+        }
+      }
 
       final int numConfigs = candidateConfigs.size();
       for (int c = 0; c < numConfigs; c++) {
@@ -1059,6 +1070,7 @@ public class ResTable {
           ALOGI("Setting parameters: %s\n", params.toString());
         }
         mParams = params;
+        mFilteredConfigParams = params.copy();
         for (PackageGroup packageGroup : mPackageGroups.values()) {
           if (kDebugTableNoisy) {
             ALOGI("CLEARING BAGS FOR GROUP 0x%x!", packageGroup.id);
@@ -1073,13 +1085,15 @@ public class ResTable {
             // }
             //
             // List<Type> typeList = packageGroup.types.get(t);
-        for (List<Type> typeList : packageGroup.types.values()) {
+        for (Map.Entry<Integer, List<Type>> typeEntry : packageGroup.types.entrySet()) {
+          List<Type> typeList = typeEntry.getValue();
           if (typeList.isEmpty()) {
                continue;
             }
 
           // Retrieve the cache entry for this type.
-            //TypeCacheEntry cacheEntry = packageGroup.typeCacheEntries.editItemAt(t);
+            TypeCacheEntry cacheEntry =
+                packageGroup.typeCacheEntries.editItemAt(typeEntry.getKey());
 
             for (int ts = 0; ts < typeList.size(); ts++) {
               Type type = typeList.get(ts);
@@ -1101,8 +1115,7 @@ public class ResTable {
                     packageGroup.id, ts, newFilteredConfigs.size());
               }
 
-              // todo: implement cache
-//              cacheEntry.filteredConfigs.add(newFilteredConfigs);
+              cacheEntry.filteredConfigs.add(newFilteredConfigs);
             }
           }
         }
@@ -2536,6 +2549,10 @@ public class ResTable {
 //          }
 //        }
 //      }
+      for (int t : types.keySet()) {
+        // Reset the filtered configurations.
+        typeCacheEntries.get(t).filteredConfigs.clear();
+      }
     }
 
     private void printf(String message, Object... arguments) {
@@ -3033,7 +3050,7 @@ public class ResTable {
 
     // Pre-filtered list of configurations (per asset path) that match the parameters set on this
     // ResTable.
-    List<List<ResTable_type>> filteredConfigs;
+    final List<List<ResTable_type>> filteredConfigs = new ArrayList<>();
   };
 
 
@@ -639,6 +639,21 @@ public class ResTable_config {
         screenLayout2, colorMode, screenConfigPad2, unknown);
   }
 
+  /** Returns a copy of this configuration that doesn't share any arrays with it. */
+  final ResTable_config copy() {
+    ResTable_config copy = new ResTable_config(size, mcc, mnc, copyOf(language), copyOf(country),
+        orientation, touchscreen, density, keyboard, navigation, inputFlags,
+        screenWidth, screenHeight, sdkVersion, minorVersion, screenLayout, uiMode,
+        smallestScreenWidthDp, screenWidthDp, screenHeightDp, copyOf(localeScript),
+        copyOf(localeVariant), screenLayout2, colorMode, screenConfigPad2, copyOf(unknown));
+    copy.localeScriptWasComputed = localeScriptWasComputed;
+    return copy;
+  }
+
+  private static byte[] copyOf(byte[] bytes) {
+    return bytes == null ? null : bytes.clone();
+  }
+
   public ResTable_config(int size, int mcc, int mnc, byte[] language, byte[] country,
       int orientation, int touchscreen, int density, int keyboard, int navigation, int inputFlags,
       int screenWidth, int screenHeight, int sdkVersion, int minorVersion, int screenLayout,
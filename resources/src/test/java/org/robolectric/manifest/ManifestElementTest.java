@@ -0,0 +1,54 @@
+package org.robolectric.manifest;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ManifestElementTest {
+
+  @Test
+  public void keepsQualifiedNamesAsWritten() throws Exception {
+    ManifestElement manifest =
+        parse(
+            "<manifest xmlns:android=\"http://schemas.android.com/apk/res/android\""
+                + " package=\"org.robolectric\">"
+                + "<application android:name=\".App\" tools:ignore=\"GoogleAppIndexingWarning\"/>"
+                + "</manifest>");
+
+    assertThat(manifest.name).isEqualTo("manifest");
+    assertThat(manifest.getAttribute("xmlns:android"))
+        .isEqualTo("http://schemas.android.com/apk/res/android");
+    assertThat(manifest.getAttribute("package")).isEqualTo("org.robolectric");
+    ManifestElement application = manifest.getChildren("application").get(0);
+    assertThat(application.attributes)
+        .containsExactly("android:name", ".App", "tools:ignore", "GoogleAppIndexingWarning");
+  }
+
+  @Test
+  public void findsChildrenIgnoringCaseAndDescendantsInDocumentOrder() throws Exception {
+    ManifestElement manifest =
+        parse(
+            "<manifest><permission n=\"1\"/>"
+                + "<application><Activity n=\"a\"><permission n=\"2\"/></Activity></application>"
+                + "<permission n=\"3\"/></manifest>");
+
+    ManifestElement application = manifest.getChildren("application").get(0);
+    assertThat(application.getChildren("activity")).hasSize(1);
+    assertThat(manifest.getElementsByTagName("Activity")).hasSize(1);
+    assertThat(manifest.getElementsByTagName("activity")).isEmpty();
+    StringBuilder order = new StringBuilder();
+    for (ManifestElement permission : manifest.getElementsByTagName("permission")) {
+      order.append(permission.getAttribute("n"));
+    }
+    assertThat(order.toString()).isEqualTo("123");
+  }
+
+  private static ManifestElement parse(String xml) throws Exception {
+    return ManifestElement.parse(new ByteArrayInputStream(xml.getBytes(UTF_8)));
+  }
+}
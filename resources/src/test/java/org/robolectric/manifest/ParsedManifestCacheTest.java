@@ -0,0 +1,117 @@
+package org.robolectric.manifest;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ParsedManifestCacheTest {
+  private static final String MANIFEST =
+      "<manifest xmlns:android=\"http://schemas.android.com/apk/res/android\"\n"
+          + "    package=\"org.robolectric.cached\" android:versionCode=\"7\">\n"
+          + "  <uses-sdk android:minSdkVersion=\"16\" android:targetSdkVersion=\"27\"/>\n"
+          + "  <uses-permission android:name=\"android.permission.INTERNET\"/>\n"
+          + "  <application android:name=\".App\" android:theme=\"@style/Theme\">\n"
+          + "    <meta-data android:name=\"answer\" android:value=\"42\"/>\n"
+          + "    <activity android:name=\".MainActivity\">\n"
+          + "      <intent-filter>\n"
+          + "        <action android:name=\"android.intent.action.MAIN\"/>\n"
+          + "      </intent-filter>\n"
+          + "    </activity>\n"
+          + "    <service android:name=\".SyncService\"/>\n"
+          + "  </application>\n"
+          + "</manifest>\n";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File cacheDir;
+  private Path manifestFile;
+
+  @Before
+  public void setUp() throws Exception {
+    cacheDir = temporaryFolder.newFolder("cache");
+    manifestFile = temporaryFolder.newFile("AndroidManifest.xml").toPath();
+    Files.write(manifestFile, MANIFEST.getBytes(UTF_8));
+    System.setProperty(ParsedManifestCache.CACHE_DIR_PROPERTY, cacheDir.getPath());
+  }
+
+  @After
+  public void tearDown() {
+    System.clearProperty(ParsedManifestCache.CACHE_DIR_PROPERTY);
+  }
+
+  @Test
+  public void parsedManifestIsReadBackFromCache() throws Exception {
+    AndroidManifest parsed = new AndroidManifest(manifestFile, null, null);
+    assertThat(parsed.getPackageName()).isEqualTo("org.robolectric.cached");
+    assertThat(cacheDir.list()).hasLength(1);
+
+    AndroidManifest cached = new AndroidManifest(manifestFile, null, null);
+
+    assertThat(cached.getPackageName()).isEqualTo("org.robolectric.cached");
+    assertThat(cached.getApplicationName()).isEqualTo(".App");
+    assertThat(cached.getThemeRef()).isEqualTo("@style/Theme");
+    assertThat(cached.getVersionCode()).isEqualTo(7);
+    assertThat(cached.getMinSdkVersion()).isEqualTo(16);
+    assertThat(cached.getTargetSdkVersion()).isEqualTo(27);
+    assertThat(cached.getUsedPermissions()).containsExactly("android.permission.INTERNET");
+    assertThat(cached.getApplicationMetaData()).containsEntry("answer", "42");
+    assertThat(cached.getActivityDatas().keySet())
+        .containsExactly("org.robolectric.cached.MainActivity");
+    assertThat(cached.getActivityData("org.robolectric.cached.MainActivity").getIntentFilters())
+        .hasSize(1);
+    assertThat(cached.getServices()).hasSize(1);
+    assertThat(cacheDir.list()).hasLength(1);
+  }
+
+  @Test
+  public void changedManifestIsParsedAgain() throws Exception {
+    new AndroidManifest(manifestFile, null, null).getPackageName();
+    Files.write(
+        manifestFile, MANIFEST.replace("org.robolectric.cached", "org.robolectric.changed")
+            .getBytes(UTF_8));
+
+    assertThat(new AndroidManifest(manifestFile, null, null).getPackageName())
+        .isEqualTo("org.robolectric.changed");
+    assertThat(cacheDir.list()).hasLength(2);
+  }
+
+  @Test
+  public void emptyCacheDirPropertyDisablesCache() throws Exception {
+    System.setProperty(ParsedManifestCache.CACHE_DIR_PROPERTY, "");
+
+    assertThat(new AndroidManifest(manifestFile, null, null).getPackageName())
+        .isEqualTo("org.robolectric.cached");
+    assertThat(cacheDir.list()).isEmpty();
+  }
+
+  @Test
+  public void cacheIsDisabledByDefault() throws Exception {
+    System.clearProperty(ParsedManifestCache.CACHE_DIR_PROPERTY);
+
+    assertThat(ParsedManifestCache.fromSystemProperties().keyFor(MANIFEST.getBytes(UTF_8), null))
+        .isNull();
+  }
+
+  @Test
+  public void entriesContainingOtherClassesAreIgnored() throws Exception {
+    ParsedManifestCache cache = new ParsedManifestCache(cacheDir);
+    String key = cache.keyFor(MANIFEST.getBytes(UTF_8), null);
+    cache.store(key, new ArrayList<>(Collections.singletonList(new File("planted"))));
+    assertThat(cacheDir.list()).hasLength(1);
+
+    assertThat(cache.load(key, ArrayList.class)).isNull();
+  }
+}
@@ -0,0 +1,102 @@
+package org.robolectric.res;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Arrays.asList;
+
+import java.nio.file.Paths;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.robolectric.res.android.ResTable_config;
+
+@RunWith(JUnit4.class)
+public class StyleResolverTest {
+
+  private PackageResourceTable appResourceTable;
+  private PackageResourceTable systemResourceTable;
+  private StyleData child;
+
+  @Before
+  public void setUp() throws Exception {
+    appResourceTable = new PackageResourceTable("package");
+    systemResourceTable = new PackageResourceTable("android");
+    addStyle(createStyle("Base", null, createAttribute("string1", "string1 value from Base")));
+    addStyle(createStyle("Middle", "Base", createAttribute("string2", "string2 value from Middle")));
+    child = createStyle("Child", "Middle", createAttribute("string3", "string3 value from Child"));
+    addStyle(child);
+  }
+
+  @Test
+  public void shouldFindAttributesFromParentStyles() throws Exception {
+    StyleResolver styleResolver = createStyleResolver(child, new ThemeStyleSet());
+
+    assertThat(styleResolver.getAttrValue(attrName("string3")).value)
+        .isEqualTo("string3 value from Child");
+    assertThat(styleResolver.getAttrValue(attrName("string1")).value)
+        .isEqualTo("string1 value from Base");
+    assertThat(styleResolver.getAttrValue(attrName("string2")).value)
+        .isEqualTo("string2 value from Middle");
+    assertThat(styleResolver.getAttrValue(attrName("missing"))).isNull();
+  }
+
+  @Test
+  public void shouldFallBackToThemeWhenSharingResolvedParents() throws Exception {
+    createStyleResolver(child, new ThemeStyleSet()).getAttrValue(attrName("string1"));
+    ThemeStyleSet theme = new ThemeStyleSet();
+    theme.apply(
+        createStyle("Theme", null, createAttribute("missing", "missing value from Theme")), false);
+    StyleResolver styleResolver = createStyleResolver(child, theme);
+
+    assertThat(styleResolver.getAttrValue(attrName("string1")).value)
+        .isEqualTo("string1 value from Base");
+    assertThat(styleResolver.getAttrValue(attrName("missing")).value)
+        .isEqualTo("missing value from Theme");
+  }
+
+  @Test
+  public void shouldResolveParentsReferencedThroughThemeForEachTheme() throws Exception {
+    StyleData themed = createStyle("Themed", "@attr/parentStyle");
+    addStyle(createStyle("Other", null, createAttribute("string1", "string1 value from Other")));
+
+    assertThat(
+            createStyleResolver(themed, themeWithParentStyle("@style/Base"))
+                .getAttrValue(attrName("string1")).value)
+        .isEqualTo("string1 value from Base");
+    assertThat(
+            createStyleResolver(themed, themeWithParentStyle("@style/Other"))
+                .getAttrValue(attrName("string1")).value)
+        .isEqualTo("string1 value from Other");
+  }
+
+  private ThemeStyleSet themeWithParentStyle(String parentStyle) {
+    ThemeStyleSet theme = new ThemeStyleSet();
+    theme.apply(
+        createStyle("Theme" + parentStyle.hashCode(), null,
+            createAttribute("parentStyle", parentStyle)), false);
+    return theme;
+  }
+
+  private StyleResolver createStyleResolver(StyleData style, Style theme) {
+    return new StyleResolver(appResourceTable, systemResourceTable, style, theme,
+        new ResName("package", "style", style.getName()), new ResTable_config());
+  }
+
+  private void addStyle(StyleData style) {
+    appResourceTable.addResource("style", style.getName(), new TypedResource<>(style,
+        ResType.STYLE, new XmlContext("package", Paths.get("styles.xml"), Qualifiers.parse(""))));
+  }
+
+  private StyleData createStyle(String styleName, String parent,
+      AttributeResource... attributeResources) {
+    return new StyleData("package", styleName, parent, asList(attributeResources));
+  }
+
+  private AttributeResource createAttribute(String attrName, String value) {
+    return new AttributeResource(attrName(attrName), value, "package");
+  }
+
+  private ResName attrName(String attrName) {
+    return new ResName("package", "attr", attrName);
+  }
+}
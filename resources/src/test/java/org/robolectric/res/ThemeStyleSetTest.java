@@ -41,6 +41,15 @@ public class ThemeStyleSetTest {
     assertThat(themeStyleSet.getAttrValue(attrName("string2")).value).isEqualTo("string2 value from style1");
   }
 
+  @Test
+  public void shouldFindAttributesFromStylesAppliedAfterLookup() throws Exception {
+    themeStyleSet.apply(createStyle("style1", createAttribute("string1", "string1 value from style1")), false);
+    assertThat(themeStyleSet.getAttrValue(attrName("string2"))).isNull();
+
+    themeStyleSet.apply(createStyle("style2", createAttribute("string2", "string2 value from style2")), false);
+    assertThat(themeStyleSet.getAttrValue(attrName("string2")).value).isEqualTo("string2 value from style2");
+  }
+
   private StyleData createStyle(String styleName, AttributeResource... attributeResources) {
     return new StyleData("package", styleName, null, asList(attributeResources));
   }
@@ -0,0 +1,54 @@
+package org.robolectric.res.android;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class IntObjectMapTest {
+
+  @Test
+  public void putAndGet_shouldSurviveResizing() {
+    IntObjectMap<String> map = new IntObjectMap<>();
+    for (int entry = 0; entry < 1000; entry++) {
+      map.put(0x7f030000 | entry, "style" + entry);
+    }
+    map.put(0x7f030001, "replaced");
+
+    assertThat(map.size()).isEqualTo(1000);
+    assertThat(map.get(0x7f030000)).isEqualTo("style0");
+    assertThat(map.get(0x7f030001)).isEqualTo("replaced");
+    assertThat(map.get(0x7f0303e7)).isEqualTo("style999");
+    assertThat(map.get(0x7f0303e8)).isNull();
+    assertThat(map.get(0)).isNull();
+  }
+
+  @Test
+  public void filter_shouldKeepMatchingEntriesOnly() {
+    IntObjectMap<String> map = new IntObjectMap<>();
+    map.put(1, "keep");
+    map.put(2, "drop");
+    map.put(-3, "keep too");
+
+    IntObjectMap<String> filtered = map.filter(value -> value.startsWith("keep"));
+
+    assertThat(filtered.size()).isEqualTo(2);
+    assertThat(filtered.get(1)).isEqualTo("keep");
+    assertThat(filtered.get(2)).isNull();
+    assertThat(filtered.get(-3)).isEqualTo("keep too");
+    assertThat(map.size()).isEqualTo(3);
+  }
+
+  @Test
+  public void clear_shouldRemoveAllEntries() {
+    IntObjectMap<String> map = new IntObjectMap<>();
+    map.put(1, "one");
+
+    map.clear();
+
+    assertThat(map.size()).isEqualTo(0);
+    assertThat(map.get(1)).isNull();
+  }
+}
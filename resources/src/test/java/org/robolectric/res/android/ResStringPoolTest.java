@@ -0,0 +1,80 @@
+package org.robolectric.res.android;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.robolectric.res.android.Errors.NO_ERROR;
+
+import com.google.common.base.Strings;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.robolectric.res.android.ResourceTypes.ResStringPool_header;
+
+@RunWith(JUnit4.class)
+public class ResStringPoolTest {
+
+  @Test
+  public void stringAt_shouldDecodeEachStringOnce() {
+    ResStringPool pool = createPool("first", "sécond");
+
+    assertThat(pool.stringAt(0)).isEqualTo("first");
+    assertThat(pool.stringAt(1)).isEqualTo("sécond");
+    assertThat(pool.stringAt(0)).isEqualTo("first");
+    assertThat(pool.stringAt(0)).isSameAs(pool.stringAt(0));
+    assertThat(pool.stringAt(2)).isNull();
+
+    assertThat(pool.getCacheMisses()).isEqualTo(2);
+    assertThat(pool.getCacheHits()).isEqualTo(3);
+  }
+
+  @Test
+  public void stringAt_shouldStopCachingAtCap() {
+    int stringLength = 30000;
+    int cachedCount = ResStringPool.MAX_CACHED_CHARS / stringLength;
+    String[] strings = new String[cachedCount + 2];
+    for (int i = 0; i < strings.length; i++) {
+      strings[i] = Strings.repeat("a", stringLength - 3) + String.format("%03d", i);
+    }
+    ResStringPool pool = createPool(strings);
+
+    for (int i = 0; i < strings.length; i++) {
+      assertThat(pool.stringAt(i)).isEqualTo(strings[i]);
+    }
+    for (int i = 0; i < strings.length; i++) {
+      assertThat(pool.stringAt(i)).isEqualTo(strings[i]);
+    }
+
+    assertThat(pool.getCacheHits()).isEqualTo(cachedCount);
+    assertThat(pool.getCacheMisses()).isEqualTo(strings.length + 2);
+  }
+
+  @Test
+  public void setTo_shouldDropCachedStrings() {
+    ResStringPool pool = createPool("old");
+    assertThat(pool.stringAt(0)).isEqualTo("old");
+
+    ByteBuffer buf = writePool("new");
+    assertThat(pool.setTo(buf, 0, buf.limit(), false)).isEqualTo(NO_ERROR);
+
+    assertThat(pool.stringAt(0)).isEqualTo("new");
+  }
+
+  private static ResStringPool createPool(String... strings) {
+    ByteBuffer buf = writePool(strings);
+    ResStringPool pool = new ResStringPool();
+    assertThat(pool.setTo(buf, 0, buf.limit(), false)).isEqualTo(NO_ERROR);
+    return pool;
+  }
+
+  private static ByteBuffer writePool(String... strings) {
+    ByteBuffer buf = ByteBuffer.allocate(4 * 1024 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    ResStringPool_header.Writer writer = new ResStringPool_header.Writer();
+    for (String string : strings) {
+      writer.string(string);
+    }
+    writer.write(buf);
+    buf.flip();
+    return buf;
+  }
+}
@@ -8,7 +8,7 @@ import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -18,12 +18,8 @@ import org.robolectric.annotation.Config;
 import org.robolectric.util.Join;
 
 public class ConfigMerger {
-  private final Map<String, Config> packageConfigCache = new LinkedHashMap<String, Config>() {
-    @Override
-    protected boolean removeEldestEntry(Map.Entry eldest) {
-      return size() > 10;
-    }
-  };
+  // Shared by all test classes in a process, so not bounded: there's one entry per test package.
+  private final Map<String, Config> packageConfigCache = new HashMap<>();
 
   /**
    * Calculate the {@link Config} for the given test.
@@ -17,12 +17,15 @@ import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.ServiceLoader;
 import javax.annotation.Nonnull;
 import org.junit.Ignore;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
 import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.InitializationError;
 import org.junit.runners.model.Statement;
@@ -50,6 +53,7 @@ import org.robolectric.internal.bytecode.SandboxClassLoader;
 import org.robolectric.internal.bytecode.ShadowMap;
 import org.robolectric.internal.bytecode.ShadowWrangler;
 import org.robolectric.internal.dependency.CachedDependencyResolver;
+import org.robolectric.internal.dependency.DependencyJar;
 import org.robolectric.internal.dependency.DependencyResolver;
 import org.robolectric.internal.dependency.LocalDependencyResolver;
 import org.robolectric.internal.dependency.PropertiesDependencyResolver;
@@ -69,12 +73,17 @@ public class RobolectricTestRunner extends SandboxTestRunner {
   public static final String CONFIG_PROPERTIES = "robolectric.properties";
 
   private static ApkLoader apkLoader;
+  private static ConfigMerger sharedConfigMerger;
   private static final Map<ManifestIdentifier, AndroidManifest> appManifestsCache = new HashMap<>();
 
   private final SdkPicker sdkPicker;
   private final ConfigMerger configMerger;
   private ServiceLoader<ShadowProvider> providers;
+  private ShadowProvider.ResetContext resetContext;
   private transient DependencyResolver dependencyResolver;
+  private final List<Filter> filters = new ArrayList<>();
+  private List<FrameworkMethod> children;
+  private boolean sdksPrefetched;
   private final ResourcesMode resourcesMode = getResourcesMode();
   private boolean alwaysIncludeVariantMarkersInName =
       Boolean.parseBoolean(
@@ -92,7 +101,7 @@ public class RobolectricTestRunner extends SandboxTestRunner {
    */
   public RobolectricTestRunner(final Class<?> testClass) throws InitializationError {
     super(testClass);
-    this.configMerger = createConfigMerger();
+    this.configMerger = getSharedConfigMerger();
     this.sdkPicker = createSdkPicker();
 
     synchronized (RobolectricTestRunner.class) {
@@ -167,23 +176,30 @@ public class RobolectricTestRunner extends SandboxTestRunner {
   }
 
   /**
-   * Create a {@link ConfigMerger} for calculating the {@link Config} tests.
+   * Returns the {@link ConfigMerger} for calculating the {@link Config} tests, which is shared by
+   * every test class in this process so that package configs are only read from {@code
+   * robolectric.properties} once per fork.
    *
-   * Alternate implementations may be provided using a ServiceLoader.
+   * <p>Alternate implementations may be provided using a ServiceLoader. The provided merger is
+   * created once and then used by every runner in the process, rather than once per runner, so it
+   * must be safe to share between test classes.
    *
    * @return a {@link ConfigMerger}
    * @since 3.2
    */
   @Nonnull
-  private ConfigMerger createConfigMerger() {
-    ServiceLoader<ConfigMerger> serviceLoader = ServiceLoader.load(ConfigMerger.class);
-    ConfigMerger merger;
-    if (serviceLoader != null && serviceLoader.iterator().hasNext()) {
-      merger = Iterators.getOnlyElement(serviceLoader.iterator());
-    } else {
-      merger = new ConfigMerger();
+  private static ConfigMerger getSharedConfigMerger() {
+    synchronized (RobolectricTestRunner.class) {
+      if (sharedConfigMerger == null) {
+        ServiceLoader<ConfigMerger> serviceLoader = ServiceLoader.load(ConfigMerger.class);
+        if (serviceLoader != null && serviceLoader.iterator().hasNext()) {
+          sharedConfigMerger = Iterators.getOnlyElement(serviceLoader.iterator());
+        } else {
+          sharedConfigMerger = new ConfigMerger();
+        }
+      }
+      return sharedConfigMerger;
     }
-    return merger;
   }
 
   /**
@@ -323,9 +339,46 @@ public class RobolectricTestRunner extends SandboxTestRunner {
             ": " + e.getMessage(), e);
       }
     }
+    this.children = children;
     return children;
   }
 
+  @Override
+  public void filter(Filter filter) throws NoTestsRemainException {
+    super.filter(filter);
+    filters.add(filter);
+  }
+
+  /**
+   * Resolves the android-all jars of the SDKs needed by every test that's left to run as one batch,
+   * rather than one at a time as each SDK is first needed.
+   */
+  private void prefetchSdks() {
+    if (sdksPrefetched || children == null) {
+      return;
+    }
+    sdksPrefetched = true;
+
+    Map<String, DependencyJar> dependencies = new LinkedHashMap<>();
+    for (FrameworkMethod child : children) {
+      if (isFilteredIn(child)) {
+        DependencyJar dependency =
+            ((RobolectricFrameworkMethod) child).sdkConfig.getAndroidSdkDependency();
+        dependencies.put(dependency.getShortName(), dependency);
+      }
+    }
+    getJarResolver().prefetch(dependencies.values().toArray(new DependencyJar[0]));
+  }
+
+  private boolean isFilteredIn(FrameworkMethod child) {
+    for (Filter filter : filters) {
+      if (!filter.shouldRun(describeChild(child))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override protected boolean shouldIgnore(FrameworkMethod method) {
     return method.getAnnotation(Ignore.class) != null;
   }
@@ -335,6 +388,7 @@ public class RobolectricTestRunner extends SandboxTestRunner {
   protected SdkEnvironment getSandbox(FrameworkMethod method) {
     RobolectricFrameworkMethod roboMethod = (RobolectricFrameworkMethod) method;
     SdkConfig sdkConfig = roboMethod.sdkConfig;
+    prefetchSdks();
     return getSandboxFactory().getSdkEnvironment(
         createClassLoaderConfig(method), sdkConfig, roboMethod.isLegacy(), getJarResolver());
   }
@@ -371,6 +425,7 @@ public class RobolectricTestRunner extends SandboxTestRunner {
     roboMethod.testLifecycle = ReflectionHelpers.newInstance(cl);
 
     providers = ServiceLoader.load(ShadowProvider.class, sdkEnvironment.getRobolectricClassLoader());
+    resetContext = new LoadedShadowsResetContext(sdkEnvironment.getRobolectricClassLoader());
 
     roboMethod.parallelUniverseInterface.setSdkConfig(sdkConfig);
 
@@ -399,7 +454,7 @@ public class RobolectricTestRunner extends SandboxTestRunner {
 
   private void resetStaticState() {
     for (ShadowProvider provider : providers) {
-      provider.reset();
+      provider.reset(resetContext);
     }
   }
 
@@ -582,6 +637,49 @@ public class RobolectricTestRunner extends SandboxTestRunner {
     return ResourcesMode.getFromProperties();
   }
 
+  /**
+   * Skips the resetters of shadows that can't have been used in the sandbox, because neither the
+   * shadow nor the class it shadows has been loaded, and reports how long each of the others takes.
+   */
+  private static class LoadedShadowsResetContext implements ShadowProvider.ResetContext {
+    private final ClassLoader classLoader;
+    private final Map<String, String> eventNames = new HashMap<>();
+    private PerfStatsCollector.Event event;
+
+    LoadedShadowsResetContext(ClassLoader classLoader) {
+      this.classLoader = classLoader;
+    }
+
+    @Override
+    public boolean beginReset(String shadowClassName, String shadowedClassName) {
+      if (!isClassLoaded(shadowClassName)
+          && (shadowedClassName == null || !isClassLoaded(shadowedClassName))) {
+        return false;
+      }
+      String eventName = eventNames.get(shadowClassName);
+      if (eventName == null) {
+        eventName = "reset " + shadowClassName.substring(shadowClassName.lastIndexOf('.') + 1);
+        eventNames.put(shadowClassName, eventName);
+      }
+      event = PerfStatsCollector.getInstance().startEvent(eventName);
+      return true;
+    }
+
+    @Override
+    public void endReset(String shadowClassName) {
+      try {
+        event.finished();
+      } finally {
+        event = null;
+      }
+    }
+
+    private boolean isClassLoaded(String className) {
+      return !(classLoader instanceof SandboxClassLoader)
+          || ((SandboxClassLoader) classLoader).isClassLoaded(className);
+    }
+  }
+
   public static class HelperTestRunner extends SandboxTestRunner.HelperTestRunner {
     public HelperTestRunner(Class bootstrappedTestClass) throws InitializationError {
       super(bootstrappedTestClass);
@@ -6,12 +6,14 @@ import static java.lang.invoke.MethodType.methodType;
 import static java.util.Arrays.asList;
 
 import android.content.Context;
+import android.view.Window;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import javax.annotation.Nullable;
 import org.robolectric.internal.bytecode.Interceptor;
 import org.robolectric.internal.bytecode.MethodRef;
@@ -43,8 +45,8 @@ public class AndroidInterceptors {
     }
 
     @Nullable
-    static Object eldest(LinkedHashMap map) {
-      return map.isEmpty() ? null : map.entrySet().iterator().next();
+    public static Map.Entry eldest(LinkedHashMap map) {
+      return map.isEmpty() ? null : (Map.Entry) map.entrySet().iterator().next();
     }
 
     @Override
@@ -60,7 +62,12 @@ public class AndroidInterceptors {
     @Override
     public MethodHandle getMethodHandle(String methodName, MethodType type) throws NoSuchMethodException, IllegalAccessException {
       return lookup.findStatic(getClass(), "eldest",
-          methodType(Object.class, LinkedHashMap.class));
+          methodType(Map.Entry.class, LinkedHashMap.class));
+    }
+
+    @Override
+    public MethodRef getStaticReplacement(MethodRef methodRef) {
+      return new MethodRef(getClass(), "eldest");
     }
   }
 
@@ -69,6 +76,20 @@ public class AndroidInterceptors {
       super(new MethodRef("com.android.internal.policy.PolicyManager", "makeNewWindow"));
     }
 
+    /**
+     * Creates a window with {@link ShadowWindow#create}, rethrowing its checked exceptions as
+     * {@link RuntimeException}s, since callers of {@code makeNewWindow()} don't expect them.
+     */
+    public static Window makeNewWindow(Context context) {
+      try {
+        return ShadowWindow.create(context);
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+
     @Override
     public Function<Object, Object> handle(MethodSignature methodSignature) {
       return new Function<Object, Object>() {
@@ -98,6 +119,11 @@ public class AndroidInterceptors {
       }
       return lookup.in(type.returnType()).findStatic(shadowWindowClass, "create", type);
     }
+
+    @Override
+    public MethodRef getStaticReplacement(MethodRef methodRef) {
+      return new MethodRef(getClass(), "makeNewWindow");
+    }
   }
 
   public static class SystemTimeInterceptor extends Interceptor {
@@ -133,6 +159,11 @@ public class AndroidInterceptors {
       }
       throw new UnsupportedOperationException();
     }
+
+    @Override
+    public MethodRef getStaticReplacement(MethodRef methodRef) {
+      return new MethodRef(ShadowSystemClock.class, methodRef.methodName);
+    }
   }
 
   public static class SystemArrayCopyInterceptor extends Interceptor {
@@ -157,6 +188,11 @@ public class AndroidInterceptors {
       return lookup.findStatic(System.class, "arraycopy",
           methodType(void.class, Object.class, int.class, Object.class, int.class, int.class));
     }
+
+    @Override
+    public MethodRef getStaticReplacement(MethodRef methodRef) {
+      return methodRef;
+    }
   }
 
   public static class LocaleAdjustLanguageCodeInterceptor extends Interceptor {
@@ -164,7 +200,7 @@ public class AndroidInterceptors {
       super(new MethodRef(Locale.class, "adjustLanguageCode"));
     }
 
-    static String adjustLanguageCode(String languageCode) {
+    public static String adjustLanguageCode(String languageCode) {
       String adjusted = languageCode.toLowerCase(Locale.US);
       // Map new language codes to the obsolete language
       // codes so the correct resource bundles will be used.
@@ -194,6 +230,11 @@ public class AndroidInterceptors {
       return lookup.findStatic(getClass(), "adjustLanguageCode",
           methodType(String.class, String.class));
     }
+
+    @Override
+    public MethodRef getStaticReplacement(MethodRef methodRef) {
+      return new MethodRef(getClass(), "adjustLanguageCode");
+    }
   }
 
   public static class SystemLogEInterceptor extends Interceptor {
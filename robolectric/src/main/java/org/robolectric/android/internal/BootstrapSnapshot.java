@@ -0,0 +1,100 @@
+package org.robolectric.android.internal;
+
+import android.content.pm.PackageParser;
+import android.content.res.Configuration;
+import android.os.Build.VERSION_CODES;
+import android.os.Parcel;
+import android.util.DisplayMetrics;
+import java.util.Objects;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.manifest.AndroidManifest;
+
+/**
+ * The parts of an application's bootstrap that depend mostly on the sandbox, the qualifiers, the
+ * package name and the manifest: the device configuration and the parsed package.
+ *
+ * <p>They're captured once, right after they've been computed and before the test can change
+ * them, and each later test gets its own copy of them. The parsed package can only be copied from
+ * O on, where it's parcelable so that {@code PackageParser} can cache it; below that, it's parsed
+ * for each test. Paths in the package that
+ * point into the temp directory of the test that captured it, such as the code path the legacy
+ * manifest parser assigns, have to be pointed at the current test's temp directory by the caller.
+ */
+final class BootstrapSnapshot {
+  private final Configuration configuration;
+  private final DisplayMetrics displayMetrics;
+  private final byte[] parsedPackage;
+
+  BootstrapSnapshot(Configuration configuration, DisplayMetrics displayMetrics,
+      PackageParser.Package parsedPackage) {
+    this.configuration = new Configuration(configuration);
+    this.displayMetrics = new DisplayMetrics();
+    this.displayMetrics.setTo(displayMetrics);
+    this.parsedPackage =
+        RuntimeEnvironment.getApiLevel() >= VERSION_CODES.O ? marshall(parsedPackage) : null;
+  }
+
+  /** Sets {@code configuration} and {@code displayMetrics} to the ones captured. */
+  void restoreDisplay(Configuration configuration, DisplayMetrics displayMetrics) {
+    configuration.setTo(this.configuration);
+    displayMetrics.setTo(this.displayMetrics);
+  }
+
+  /** Returns a copy of the package captured, or null if it couldn't be captured. */
+  PackageParser.Package restorePackage() {
+    if (parsedPackage == null) {
+      return null;
+    }
+    Parcel parcel = Parcel.obtain();
+    try {
+      parcel.unmarshall(parsedPackage, 0, parsedPackage.length);
+      parcel.setDataPosition(0);
+      return new PackageParser.Package(parcel);
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  private static byte[] marshall(PackageParser.Package parsedPackage) {
+    Parcel parcel = Parcel.obtain();
+    try {
+      parsedPackage.writeToParcel(parcel, 0);
+      return parcel.marshall();
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  /** What a snapshot depends on, besides the sandbox. */
+  static final class Key {
+    private final String qualifiers;
+    private final String packageName;
+    private final AndroidManifest appManifest;
+
+    Key(String qualifiers, String packageName, AndroidManifest appManifest) {
+      this.qualifiers = qualifiers;
+      this.packageName = packageName;
+      this.appManifest = appManifest;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      // Manifests are shared between the tests that use the same one, and aren't comparable.
+      return qualifiers.equals(key.qualifiers)
+          && packageName.equals(key.packageName)
+          && appManifest == key.appManifest;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(qualifiers, packageName, System.identityHashCode(appManifest));
+    }
+  }
+}
@@ -32,9 +32,10 @@ import android.util.DisplayMetrics;
 import com.google.common.annotations.VisibleForTesting;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.security.Security;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.robolectric.ApkLoader;
 import org.robolectric.RuntimeEnvironment;
@@ -70,6 +71,18 @@ import org.robolectric.util.TempDirectory;
 @SuppressLint("NewApi")
 public class ParallelUniverse implements ParallelUniverseInterface {
 
+  /**
+   * System property that, when {@code true}, makes tests that share the sandbox, the qualifiers,
+   * the package name and the manifest reuse the device configuration and parsed package computed
+   * for the first of them, instead of recomputing them for each test; see {@link
+   * BootstrapSnapshot}.
+   */
+  public static final String REUSE_BOOTSTRAP_PROPERTY = "robolectric.reuseBootstrap";
+
+  // This class is loaded by each sandbox, so the snapshots are per sandbox.
+  private static final Map<BootstrapSnapshot.Key, BootstrapSnapshot> bootstrapSnapshots =
+      new HashMap<>();
+
   private boolean loggingInitialized = false;
   private SdkConfig sdkConfig;
 
@@ -91,6 +104,9 @@ public class ParallelUniverse implements ParallelUniverseInterface {
 
     RuntimeEnvironment.application = null;
     RuntimeEnvironment.setActivityThread(null);
+    // The previous test has been torn down and reset by now, so its files can go. Directories
+    // aren't reused, since late writes from the previous test mustn't end up in this one's.
+    RuntimeEnvironment.getTempDirectory().destroyAsync();
     RuntimeEnvironment.setTempDirectory(new TempDirectory(createTestDataDirRootPath(method)));
     RuntimeEnvironment.setMasterScheduler(new Scheduler());
     RuntimeEnvironment.setMainThread(Thread.currentThread());
@@ -104,11 +120,31 @@ public class ParallelUniverse implements ParallelUniverseInterface {
       Security.insertProviderAt(new BouncyCastleProvider(), 1);
     }
 
+    PerfStatsCollector perfStatsCollector = PerfStatsCollector.getInstance();
+    BootstrapSnapshot.Key snapshotKey = null;
+    BootstrapSnapshot snapshot = null;
+    if (Boolean.getBoolean(REUSE_BOOTSTRAP_PROPERTY)) {
+      snapshotKey =
+          new BootstrapSnapshot.Key(config.qualifiers(), config.packageName(), appManifest);
+      synchronized (bootstrapSnapshots) {
+        snapshot = bootstrapSnapshots.get(snapshotKey);
+      }
+    }
+
     Configuration configuration = new Configuration();
     DisplayMetrics displayMetrics = new DisplayMetrics();
 
-    Bootstrap.applyQualifiers(config.qualifiers(), sdkConfig.getApiLevel(), configuration,
-        displayMetrics);
+    if (snapshot != null) {
+      BootstrapSnapshot reusedSnapshot = snapshot;
+      perfStatsCollector.measure(
+          "restore qualifiers", () -> reusedSnapshot.restoreDisplay(configuration, displayMetrics));
+    } else {
+      perfStatsCollector.measure(
+          "apply qualifiers",
+          () ->
+              Bootstrap.applyQualifiers(
+                  config.qualifiers(), sdkConfig.getApiLevel(), configuration, displayMetrics));
+    }
 
     Locale locale = sdkConfig.getApiLevel() >= VERSION_CODES.N
         ? configuration.getLocales().get(0)
@@ -120,37 +156,47 @@ public class ParallelUniverse implements ParallelUniverseInterface {
       Looper.prepareMainLooper();
     }
     ShadowLooper.getShadowMainLooper().resetScheduler();
-    ActivityThread activityThread = ReflectionHelpers.newInstance(ActivityThread.class);
+    ActivityThread activityThread =
+        perfStatsCollector.measure(
+            "create ActivityThread", () -> ReflectionHelpers.newInstance(ActivityThread.class));
     RuntimeEnvironment.setActivityThread(activityThread);
 
-    PackageParser.Package parsedPackage;
     if (RuntimeEnvironment.useLegacyResources()) {
-      injectResourceStuffForLegacy(apkLoader, appManifest, sdkEnvironment);
-
-      if (appManifest.getAndroidManifestFile() != null
-          && Files.exists(appManifest.getAndroidManifestFile())) {
-        parsedPackage = LegacyManifestParser.createPackage(appManifest);
-      } else {
-        parsedPackage = new PackageParser.Package("org.robolectric.default");
-        parsedPackage.applicationInfo.targetSdkVersion = appManifest.getTargetSdkVersion();
-      }
-      // Support overriding the package name specified in the Manifest.
-      if (!Config.DEFAULT_PACKAGE_NAME.equals(config.packageName())) {
-        parsedPackage.packageName = config.packageName();
-        parsedPackage.applicationInfo.packageName = config.packageName();
-      } else {
-        parsedPackage.packageName = appManifest.getPackageName();
-        parsedPackage.applicationInfo.packageName = appManifest.getPackageName();
-      }
+      perfStatsCollector.measure(
+          "load legacy resources",
+          () -> injectResourceStuffForLegacy(apkLoader, appManifest, sdkEnvironment));
     } else {
       RuntimeEnvironment.compileTimeSystemResourcesFile =
           apkLoader.getCompileTimeSystemResourcesFile(sdkEnvironment);
 
       RuntimeEnvironment.setAndroidFrameworkJarPath(
           apkLoader.getArtifactUrl(sdkConfig.getAndroidSdkDependency()).getFile());
+    }
+
+    PackageParser.Package parsedPackage = null;
+    if (snapshot != null) {
+      parsedPackage = perfStatsCollector.measure("restore package", snapshot::restorePackage);
+      if (parsedPackage != null
+          && RuntimeEnvironment.useLegacyResources()
+          && parsedPackage.codePath != null) {
+        // The legacy parser put the code path in the temp directory of the test that captured it.
+        parsedPackage.codePath = createTempDir(appManifest.getPackageName() + "-codePath");
+      }
+    }
+    if (parsedPackage == null) {
+      parsedPackage =
+          perfStatsCollector.measure("parse package", () -> parsePackage(config, appManifest));
+    }
 
-      Path packageFile = appManifest.getApkFile();
-      parsedPackage = ShadowPackageParser.callParsePackage(packageFile);
+    if (snapshotKey != null && snapshot == null) {
+      PackageParser.Package pristinePackage = parsedPackage;
+      BootstrapSnapshot newSnapshot =
+          perfStatsCollector.measure(
+              "capture bootstrap snapshot",
+              () -> new BootstrapSnapshot(configuration, displayMetrics, pristinePackage));
+      synchronized (bootstrapSnapshots) {
+        bootstrapSnapshots.put(snapshotKey, newSnapshot);
+      }
     }
 
     ApplicationInfo applicationInfo = parsedPackage.applicationInfo;
@@ -160,7 +206,9 @@ public class ParallelUniverse implements ParallelUniverseInterface {
       applicationInfo.processName = parsedPackage.packageName;
     }
 
-    setUpPackageStorage(applicationInfo, parsedPackage);
+    PackageParser.Package storagePackage = parsedPackage;
+    perfStatsCollector.measure(
+        "set up package storage", () -> setUpPackageStorage(applicationInfo, storagePackage));
 
     // Bit of a hack... Context.createPackageContext() is called before the application is created.
     // It calls through
@@ -185,11 +233,19 @@ public class ParallelUniverse implements ParallelUniverseInterface {
     Resources systemResources = Resources.getSystem();
     systemResources.updateConfiguration(configuration, displayMetrics);
 
-    Context systemContextImpl = ReflectionHelpers.callStaticMethod(contextImplClass,
-        "createSystemContext", from(ActivityThread.class, activityThread));
+    Context systemContextImpl =
+        perfStatsCollector.measure(
+            "create system context",
+            () ->
+                ReflectionHelpers.callStaticMethod(
+                    contextImplClass,
+                    "createSystemContext",
+                    from(ActivityThread.class, activityThread)));
     RuntimeEnvironment.systemContext = systemContextImpl;
 
-    Application application = createApplication(appManifest, config);
+    Application application =
+        perfStatsCollector.measure(
+            "create application", () -> createApplication(appManifest, config));
     RuntimeEnvironment.application = application;
 
     Instrumentation instrumentation =
@@ -234,7 +290,9 @@ public class ParallelUniverse implements ParallelUniverseInterface {
       ReflectionHelpers.setField(loadedApk, "mResources", appResources);
       ReflectionHelpers.setField(loadedApk, "mApplication", application);
 
-      registerBroadcastReceivers(application, appManifest);
+      perfStatsCollector.measure(
+          "register broadcast receivers",
+          () -> registerBroadcastReceivers(application, appManifest));
 
       appResources.updateConfiguration(configuration, displayMetrics);
 
@@ -244,9 +302,32 @@ public class ParallelUniverse implements ParallelUniverseInterface {
 
       instrumentation.onCreate(new Bundle());
 
-      PerfStatsCollector.getInstance()
-          .measure("application onCreate()", () -> application.onCreate());
+      perfStatsCollector.measure("application onCreate()", () -> application.onCreate());
+    }
+  }
+
+  private static PackageParser.Package parsePackage(Config config, AndroidManifest appManifest) {
+    if (!RuntimeEnvironment.useLegacyResources()) {
+      return ShadowPackageParser.callParsePackage(appManifest.getApkFile());
+    }
+
+    PackageParser.Package parsedPackage;
+    if (appManifest.getAndroidManifestFile() != null
+        && Files.exists(appManifest.getAndroidManifestFile())) {
+      parsedPackage = LegacyManifestParser.createPackage(appManifest);
+    } else {
+      parsedPackage = new PackageParser.Package("org.robolectric.default");
+      parsedPackage.applicationInfo.targetSdkVersion = appManifest.getTargetSdkVersion();
+    }
+    // Support overriding the package name specified in the Manifest.
+    if (!Config.DEFAULT_PACKAGE_NAME.equals(config.packageName())) {
+      parsedPackage.packageName = config.packageName();
+      parsedPackage.applicationInfo.packageName = config.packageName();
+    } else {
+      parsedPackage.packageName = appManifest.getPackageName();
+      parsedPackage.applicationInfo.packageName = appManifest.getPackageName();
     }
+    return parsedPackage;
   }
 
   private void injectResourceStuffForLegacy(ApkLoader apkLoader, AndroidManifest appManifest,
@@ -42,7 +42,12 @@ public class AndroidConfigurer {
 
   public static void configure(InstrumentationConfiguration.Builder builder, Interceptors interceptors) {
     for (MethodRef methodRef : interceptors.getAllMethodRefs()) {
-      builder.addInterceptedMethod(methodRef);
+      MethodRef staticReplacement = interceptors.getStaticReplacement(methodRef);
+      if (staticReplacement == null) {
+        builder.addInterceptedMethod(methodRef);
+      } else {
+        builder.addInterceptedMethod(methodRef, staticReplacement);
+      }
     }
 
     builder
@@ -10,7 +10,9 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.zip.CRC32;
 
 public class CachedDependencyResolver implements DependencyResolver {
@@ -46,6 +48,21 @@ public class CachedDependencyResolver implements DependencyResolver {
     return url;
   }
 
+  @Override
+  public void prefetch(DependencyJar... dependencies) {
+    List<DependencyJar> uncached = new ArrayList<>();
+    for (DependencyJar dependency : dependencies) {
+      URL urlFromCache =
+          cache.load(cacheNamingStrategy.getName(CACHE_PREFIX, dependency), URL.class);
+      if (urlFromCache == null || !cacheValidationStrategy.isValid(urlFromCache)) {
+        uncached.add(dependency);
+      }
+    }
+    if (!uncached.isEmpty()) {
+      dependencyResolver.prefetch(uncached.toArray(new DependencyJar[0]));
+    }
+  }
+
   interface CacheNamingStrategy {
     String getName(String prefix, DependencyJar... dependencies);
   }
@@ -8,4 +8,13 @@ public interface DependencyResolver {
   default URL[] getLocalArtifactUrls(DependencyJar dependency) {
     return new URL[] {getLocalArtifactUrl(dependency)};
   }
+
+  /**
+   * Resolves the given dependencies ahead of time, so that later calls to {@link
+   * #getLocalArtifactUrl(DependencyJar)} for them return quickly. Resolvers that can fetch several
+   * artifacts at once should do so here. Failures are not reported; they surface again when the
+   * dependency is actually requested.
+   */
+  default void prefetch(DependencyJar... dependencies) {
+  }
 }
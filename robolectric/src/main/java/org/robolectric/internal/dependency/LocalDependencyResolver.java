@@ -27,7 +27,26 @@ public class LocalDependencyResolver implements DependencyResolver {
     filenameBuilder.append(".")
         .append(dependency.getType());
 
-    return fileToUrl(validateFile(new File(offlineJarDir, filenameBuilder.toString())));
+    String filename = filenameBuilder.toString();
+    File file = new File(offlineJarDir, filename);
+    if (!file.exists()) {
+      // Fall back to the Maven repository layout, so offlineJarDir may also be a local stand-in
+      // for the remote repository, e.g. a copy of ~/.m2/repository.
+      File repositoryFile =
+          new File(
+              offlineJarDir,
+              dependency.getGroupId().replace('.', File.separatorChar)
+                  + File.separator
+                  + dependency.getArtifactId()
+                  + File.separator
+                  + dependency.getVersion()
+                  + File.separator
+                  + filename);
+      if (repositoryFile.exists()) {
+        file = repositoryFile;
+      }
+    }
+    return fileToUrl(validateFile(file));
   }
 
   /**
@@ -7,21 +7,38 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.maven.artifact.ant.Authentication;
 import org.apache.maven.artifact.ant.DependenciesTask;
 import org.apache.maven.artifact.ant.RemoteRepository;
 import org.apache.maven.model.Dependency;
 import org.apache.tools.ant.Project;
 import org.robolectric.RoboSettings;
+import org.robolectric.util.Logger;
+import org.robolectric.util.PerfStatsCollector;
 import org.robolectric.util.Util;
 
 public class MavenDependencyResolver implements DependencyResolver {
-  private final Project project = new Project();
+  private static final int MAX_PARALLEL_RESOLUTIONS = 4;
+  private static final ConcurrentMap<String, Object> LOCKS = new ConcurrentHashMap<>();
+
   private final String repositoryUrl;
   private final String repositoryId;
   private final String repositoryUserName;
   private final String repositoryPassword;
+  private final Map<String, URL> resolvedUrls = new ConcurrentHashMap<>();
 
   public MavenDependencyResolver() {
     this(RoboSettings.getMavenRepositoryUrl(), RoboSettings.getMavenRepositoryId(), RoboSettings.getMavenRepositoryUserName(), RoboSettings.getMavenRepositoryPassword());
@@ -44,6 +61,74 @@ public class MavenDependencyResolver implements DependencyResolver {
    * same as the input order of dependencies, i.e., urls[i] is the local artifact URL for dependencies[i].
    */
   public URL[] getLocalArtifactUrls(DependencyJar... dependencies) {
+    URL[] urls = new URL[dependencies.length];
+    List<DependencyJar> unresolved = new ArrayList<>();
+    for (int i = 0; i < urls.length; i++) {
+      urls[i] = resolvedUrls.get(dependencies[i].getShortName());
+      if (urls[i] == null) {
+        unresolved.add(dependencies[i]);
+      }
+    }
+    if (unresolved.isEmpty()) {
+      return urls;
+    }
+
+    PerfStatsCollector.getInstance().measure("resolve dependencies", () -> resolve(unresolved));
+    for (int i = 0; i < urls.length; i++) {
+      if (urls[i] == null) {
+        urls[i] = resolvedUrls.get(dependencies[i].getShortName());
+      }
+    }
+    return urls;
+  }
+
+  /**
+   * Resolves each of the given dependencies in its own {@link DependenciesTask}, several at a time,
+   * so a run that needs many SDKs doesn't download their jars one after another.
+   */
+  @Override
+  public void prefetch(DependencyJar... dependencies) {
+    Map<String, DependencyJar> unresolved = new LinkedHashMap<>();
+    for (DependencyJar dependency : dependencies) {
+      if (!resolvedUrls.containsKey(dependency.getShortName())) {
+        unresolved.put(dependency.getShortName(), dependency);
+      }
+    }
+    if (unresolved.size() < 2) {
+      return;
+    }
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.min(unresolved.size(), MAX_PARALLEL_RESOLUTIONS),
+            runnable -> {
+              Thread thread = new Thread(runnable, "robolectric-dependency-resolver");
+              thread.setDaemon(true);
+              return thread;
+            });
+    PerfStatsCollector.Event event =
+        PerfStatsCollector.getInstance().startEvent("prefetch dependencies");
+    try {
+      List<Future<URL[]>> futures = new ArrayList<>();
+      for (DependencyJar dependency : unresolved.values()) {
+        futures.add(executor.submit(() -> getLocalArtifactUrls(dependency)));
+      }
+      for (Future<URL[]> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          Logger.info("Couldn't prefetch dependency: %s", e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+      event.finished();
+    }
+  }
+
+  private void resolve(List<DependencyJar> dependencies) {
     DependenciesTask dependenciesTask = createDependenciesTask();
     configureMaven(dependenciesTask);
     RemoteRepository remoteRepository = new RemoteRepository();
@@ -56,7 +141,10 @@ public class MavenDependencyResolver implements DependencyResolver {
       remoteRepository.addAuthentication(authentication);
     }
     dependenciesTask.addConfiguredRemoteRepository(remoteRepository);
+    // Projects aren't thread-safe, so each resolution gets its own.
+    Project project = new Project();
     dependenciesTask.setProject(project);
+    Set<String> lockNames = new TreeSet<>();
     for (DependencyJar dependencyJar : dependencies) {
       Dependency dependency = new Dependency();
       dependency.setArtifactId(dependencyJar.getArtifactId());
@@ -67,35 +155,50 @@ public class MavenDependencyResolver implements DependencyResolver {
         dependency.setClassifier(dependencyJar.getClassifier());
       }
       dependenciesTask.addDependency(dependency);
+      lockNames.add(dependencyJar.getShortName().replace(':', '_'));
     }
 
-    whileLocked(dependenciesTask::execute);
+    whileLocked(new ArrayList<>(lockNames), dependenciesTask::execute);
 
     @SuppressWarnings("unchecked")
     Hashtable<String, String> artifacts = project.getProperties();
-    URL[] urls = new URL[dependencies.length];
-    for (int i = 0; i < urls.length; i++) {
+    for (DependencyJar dependency : dependencies) {
       try {
-        urls[i] = Util.url(artifacts.get(key(dependencies[i])));
+        resolvedUrls.put(dependency.getShortName(), Util.url(artifacts.get(key(dependency))));
       } catch (MalformedURLException e) {
         throw new RuntimeException(e);
       }
     }
-    return urls;
   }
 
-  private void whileLocked(Runnable runnable) {
-    File lockFile = new File(System.getProperty("user.home"), ".robolectric-download-lock");
-    try (RandomAccessFile raf = new RandomAccessFile(lockFile, "rw")) {
-      try (FileChannel channel = raf.getChannel()) {
-        try (FileLock ignored = channel.lock()) {
-          runnable.run();
+  /**
+   * Runs {@code runnable} while holding the lock for each named artifact, both within this JVM and
+   * across processes, so that different artifacts can be downloaded concurrently. Locks are taken
+   * in sorted order to avoid deadlocks.
+   */
+  private void whileLocked(List<String> lockNames, Runnable runnable) {
+    if (lockNames.isEmpty()) {
+      runnable.run();
+      return;
+    }
+
+    String lockName = lockNames.get(0);
+    List<String> remainingLockNames = lockNames.subList(1, lockNames.size());
+    synchronized (LOCKS.computeIfAbsent(lockName, name -> new Object())) {
+      File lockDir = new File(System.getProperty("user.home"), ".robolectric-download-locks");
+      File lockFile = new File(lockDir, lockName + ".lock");
+      // Lock files are left in place: deleting one would let another process lock a new file of
+      // the same name while this one still holds the old one.
+      lockDir.mkdirs();
+      try (RandomAccessFile raf = new RandomAccessFile(lockFile, "rw")) {
+        try (FileChannel channel = raf.getChannel()) {
+          try (FileLock ignored = channel.lock()) {
+            whileLocked(remainingLockNames, runnable);
+          }
         }
+      } catch (IOException e) {
+        throw new IllegalStateException("Couldn't create lock file " + lockFile, e);
       }
-    } catch (IOException e) {
-      throw new IllegalStateException("Couldn't create lock file " + lockFile, e);
-    } finally {
-      lockFile.delete();
     }
   }
 
@@ -6,6 +6,8 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import org.robolectric.res.Fs;
 
@@ -52,4 +54,20 @@ public class PropertiesDependencyResolver implements DependencyResolver {
 
     throw new RuntimeException("no artifacts found for " + dependency);
   }
+
+  @Override
+  public void prefetch(DependencyJar... dependencies) {
+    if (delegate == null) {
+      return;
+    }
+    List<DependencyJar> unlisted = new ArrayList<>();
+    for (DependencyJar dependency : dependencies) {
+      if (properties.getProperty(dependency.getShortName()) == null) {
+        unlisted.add(dependency);
+      }
+    }
+    if (!unlisted.isEmpty()) {
+      delegate.prefetch(unlisted.toArray(new DependencyJar[0]));
+    }
+  }
 }
@@ -9,14 +9,19 @@ import static org.mockito.Mockito.verify;
 
 import android.app.Application;
 import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageParser;
 import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.os.Build;
 import androidx.test.core.app.ApplicationProvider;
 import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.junit.Before;
@@ -31,12 +36,17 @@ import org.robolectric.RuntimeEnvironment;
 import org.robolectric.android.DeviceConfig;
 import org.robolectric.android.DeviceConfig.ScreenSize;
 import org.robolectric.annotation.Config;
+import org.robolectric.internal.ShadowProvider;
 import org.robolectric.manifest.AndroidManifest;
 import org.robolectric.manifest.RoboNotFoundException;
 import org.robolectric.res.ResourceTable;
 import org.robolectric.shadow.api.Shadow;
 import org.robolectric.shadows.ShadowApplication;
 import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowPackageManager;
+import org.robolectric.util.PerfStatsCollector;
+import org.robolectric.util.PerfStatsCollector.Metric;
+import org.robolectric.util.ReflectionHelpers;
 
 @RunWith(BootstrapDeferringRobolectricTestRunner.class)
 public class ParallelUniverseTest {
@@ -165,6 +175,86 @@ public class ParallelUniverseTest {
     assertThat(new File(applicationInfo.deviceProtectedDataDir).isDirectory()).isTrue();
   }
 
+  @Test
+  @Config(minSdk = O)
+  public void setUpApplicationState_whenReusingBootstrap_shouldGiveEachTestItsOwnCopy() {
+    bootstrapWrapper.config = new Config.Builder().setQualifiers("fr-land").build();
+    // The runner only collects perf stats if they're reported, and sets this for each test.
+    PerfStatsCollector.getInstance().setEnabled(true);
+    System.setProperty(ParallelUniverse.REUSE_BOOTSTRAP_PROPERTY, "true");
+    try {
+      bootstrapWrapper.callSetUpApplicationState();
+      String qualifiers = RuntimeEnvironment.getQualifiers();
+      ApplicationInfo firstInfo = RuntimeEnvironment.application.getApplicationInfo();
+      firstInfo.taskAffinity = "changed.by.the.first.test";
+      pu.tearDownApplication();
+      resetStaticState();
+      int restoredQualifiers = countOf("restore qualifiers");
+      int restoredPackages = countOf("restore package");
+      int parsedPackages = countOf("parse package");
+
+      bootstrapWrapper.callSetUpApplicationState();
+      ApplicationInfo secondInfo = RuntimeEnvironment.application.getApplicationInfo();
+
+      assertThat(RuntimeEnvironment.getQualifiers()).isEqualTo(qualifiers);
+      assertThat(countOf("restore qualifiers")).isEqualTo(restoredQualifiers + 1);
+      assertThat(countOf("restore package")).isEqualTo(restoredPackages + 1);
+      assertThat(countOf("parse package")).isEqualTo(parsedPackages);
+      assertThat(secondInfo).isNotSameAs(firstInfo);
+      assertThat(secondInfo.packageName).isEqualTo(firstInfo.packageName);
+      assertThat(secondInfo.taskAffinity).isNotEqualTo("changed.by.the.first.test");
+    } finally {
+      System.clearProperty(ParallelUniverse.REUSE_BOOTSTRAP_PROPERTY);
+    }
+  }
+
+  @Test
+  @Config(minSdk = O)
+  public void setUpApplicationState_whenReusingBootstrap_shouldUseThisTestsTempDirectory() {
+    // The wrapper's legacyResources is only set once the test instance exists, i.e. too late.
+    assumeTrue(RuntimeEnvironment.useLegacyResources());
+    bootstrapWrapper.config = new Config.Builder().setQualifiers("de-port").build();
+    PerfStatsCollector.getInstance().setEnabled(true);
+    System.setProperty(ParallelUniverse.REUSE_BOOTSTRAP_PROPERTY, "true");
+    try {
+      bootstrapWrapper.callSetUpApplicationState();
+      pu.tearDownApplication();
+      resetStaticState();
+      int restoredPackages = countOf("restore package");
+
+      bootstrapWrapper.callSetUpApplicationState();
+
+      assertThat(countOf("restore package")).isEqualTo(restoredPackages + 1);
+      Path tempDir = RuntimeEnvironment.getTempDirectory().create("probe").getParent();
+      ApplicationInfo applicationInfo = RuntimeEnvironment.application.getApplicationInfo();
+      Map<String, PackageParser.Package> packages =
+          ReflectionHelpers.getStaticField(ShadowPackageManager.class, "packages");
+      String codePath = packages.get(applicationInfo.packageName).codePath;
+      assertThat(Paths.get(codePath).startsWith(tempDir)).isTrue();
+      assertThat(Paths.get(applicationInfo.sourceDir).startsWith(tempDir)).isTrue();
+    } finally {
+      System.clearProperty(ParallelUniverse.REUSE_BOOTSTRAP_PROPERTY);
+    }
+  }
+
+  /** Resets the shadows' static state, as the runner does between tests. */
+  private static void resetStaticState() {
+    for (ShadowProvider provider :
+        ServiceLoader.load(ShadowProvider.class, ParallelUniverseTest.class.getClassLoader())) {
+      provider.reset();
+    }
+  }
+
+  private static int countOf(String eventName) {
+    int count = 0;
+    for (Metric metric : PerfStatsCollector.getInstance().getMetrics()) {
+      if (metric.getName().equals(eventName)) {
+        count += metric.getCount();
+      }
+    }
+    return count;
+  }
+
   @Test
   public void tearDownApplication_invokesOnTerminate() {
     RuntimeEnvironment.application = mock(Application.class);
@@ -6,6 +6,7 @@ import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.net.URL;
@@ -117,6 +118,18 @@ public class MavenDependencyResolverTest {
     assertEquals("file:/path3", url.toExternalForm());
   }
 
+  @Test
+  public void getLocalArtifactUrl_shouldOnlyResolveEachArtifactOnce() {
+    DependencyResolver dependencyResolver = createResolver();
+    DependencyJar dependencyJar = new DependencyJar("group1", "artifact1", "", null);
+
+    dependencyResolver.getLocalArtifactUrl(dependencyJar);
+    URL url = dependencyResolver.getLocalArtifactUrl(dependencyJar);
+
+    verify(dependenciesTask, times(1)).execute();
+    assertEquals("file:/path1", url.toExternalForm());
+  }
+
   private DependencyResolver createResolver() {
     return new MavenDependencyResolver(REPOSITORY_URL, REPOSITORY_ID, REPOSITORY_USERNAME, REPOSITORY_PASSWORD) {
       @Override
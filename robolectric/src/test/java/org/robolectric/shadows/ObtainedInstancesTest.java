@@ -0,0 +1,49 @@
+package org.robolectric.shadows;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ObtainedInstancesTest {
+
+  @Test
+  public void shouldTrackInstancesByIdentity() {
+    ObtainedInstances<EqualToAll> obtainedInstances = new ObtainedInstances<>();
+    EqualToAll first = new EqualToAll();
+    EqualToAll second = new EqualToAll();
+    obtainedInstances.add(first, 1);
+    obtainedInstances.add(second, 2);
+
+    assertThat(obtainedInstances.keyOf(second)).isEqualTo(2);
+    assertThat(obtainedInstances.remove(first)).isEqualTo(1);
+    assertThat(obtainedInstances.contains(first)).isFalse();
+    assertThat(obtainedInstances.contains(second)).isTrue();
+    assertThat(obtainedInstances.remove(first)).isEqualTo(-1);
+    assertThat(obtainedInstances.instances()).containsExactly(second);
+  }
+
+  @Test
+  public void clear_shouldStopTrackingAll() {
+    ObtainedInstances<EqualToAll> obtainedInstances = new ObtainedInstances<>();
+    obtainedInstances.add(new EqualToAll(), 1);
+
+    obtainedInstances.clear();
+
+    assertThat(obtainedInstances.isEmpty()).isTrue();
+  }
+
+  private static class EqualToAll {
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof EqualToAll;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+  }
+}
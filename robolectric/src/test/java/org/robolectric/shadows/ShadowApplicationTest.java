@@ -472,6 +472,20 @@ public class ShadowApplicationTest {
     assertThat(shadowApplication.getReceiversForIntent(new Intent("Foo"))).hasSize(2);
   }
 
+  @Test
+  public void getRegisteredReceivers_shouldNotBeModifiable() throws Exception {
+    context.registerReceiver(new TestBroadcastReceiver(), new IntentFilter("Foo"));
+    List<ShadowApplication.Wrapper> receivers = shadowOf(context).getRegisteredReceivers();
+
+    try {
+      receivers.clear();
+      fail("Expected to throw");
+    } catch (UnsupportedOperationException expected) {
+      // expected
+    }
+    assertTrue(shadowOf(context).hasReceiverForIntent(new Intent("Foo")));
+  }
+
   @Test
   public void broadcasts_shouldBeLogged() {
     Intent broadcastIntent = new Intent("foo");
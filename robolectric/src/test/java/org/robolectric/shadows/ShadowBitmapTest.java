@@ -147,6 +147,19 @@ public class ShadowBitmapTest {
     assertThat(bitmap.isRecycled()).isTrue();
   }
 
+  @Test
+  public void recycle_shouldKeepThePixelsOfCopies() {
+    Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+    bitmap.setPixel(1, 1, Color.RED);
+    Bitmap copy = bitmap.copy(Bitmap.Config.ARGB_8888, true);
+
+    bitmap.recycle();
+    copy.setPixel(2, 2, Color.BLUE);
+
+    assertThat(copy.getPixel(1, 1)).isEqualTo(Color.RED);
+    assertThat(copy.getPixel(2, 2)).isEqualTo(Color.BLUE);
+  }
+
   @Test
   public void shouldReceiveDescriptionWhenDrawingToCanvas() throws Exception {
     Bitmap bitmap1 = create("Bitmap One");
@@ -471,6 +484,34 @@ public class ShadowBitmapTest {
     assertThat(Arrays.equals(pixelsOriginal, pixelsReconstructed)).isTrue();
   }
 
+  @Test
+  public void shouldCopyPixelsToBufferAndReconstruct_rgb565() {
+    Bitmap bitmapOriginal = Bitmap.createBitmap(10, 10, Bitmap.Config.RGB_565);
+    bitmapOriginal.eraseColor(Color.RED);
+
+    ByteBuffer buffer = ByteBuffer.allocate(bitmapOriginal.getByteCount());
+    bitmapOriginal.copyPixelsToBuffer(buffer);
+    assertThat(buffer.position()).isEqualTo(200);
+
+    buffer.rewind();
+    Bitmap bitmapReconstructed = Bitmap.createBitmap(10, 10, Bitmap.Config.RGB_565);
+    bitmapReconstructed.copyPixelsFromBuffer(buffer);
+    assertThat(bitmapReconstructed.getPixel(9, 9)).isEqualTo(Color.RED);
+    assertThat(bitmapReconstructed.sameAs(bitmapOriginal)).isTrue();
+  }
+
+  @Test
+  public void createBitmap_fromRegion_copiesPixelsOfSource() {
+    Bitmap source = Bitmap.createBitmap(4, 4, Bitmap.Config.ARGB_8888);
+    source.setPixel(2, 2, Color.RED);
+
+    Bitmap region = Bitmap.createBitmap(source, 1, 1, 2, 2);
+    assertThat(region.getPixel(1, 1)).isEqualTo(Color.RED);
+
+    source.setPixel(2, 2, Color.BLUE);
+    assertThat(region.getPixel(1, 1)).isEqualTo(Color.RED);
+  }
+
   @Config(sdk = Build.VERSION_CODES.O)
   @Test
   public void getBytesPerPixel_O() {
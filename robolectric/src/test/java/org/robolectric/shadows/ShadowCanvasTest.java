@@ -172,6 +172,25 @@ public class ShadowCanvasTest {
     assertEquals("", shadow.getDescription());
   }
 
+  @Test
+  public void setHistoryLimit_shouldKeepOnlyTheLatestDraws() throws Exception {
+    Canvas canvas = new Canvas();
+    ShadowCanvas shadow = shadowOf(canvas);
+    shadow.setHistoryLimit(2);
+
+    for (int i = 0; i < 5; i++) {
+      canvas.drawRect(i, 0f, i + 1, 1f, new Paint());
+      canvas.drawText("text " + i, i, 0f, new Paint());
+    }
+
+    assertThat(shadow.getRectPaintHistoryCount()).isEqualTo(2);
+    assertThat(shadow.getDrawnRect(0).left).isEqualTo(3f);
+    assertThat(shadow.getLastDrawnRect().left).isEqualTo(4f);
+    assertThat(shadow.getTextHistoryCount()).isEqualTo(2);
+    assertThat(shadow.getDrawnTextEvent(0).text).isEqualTo("text 3");
+    assertThat(shadow.getDrawnTextEvent(1).text).isEqualTo("text 4");
+  }
+
   @Test
   public void shouldGetAndSetHeightAndWidth() throws Exception {
     Canvas canvas = new Canvas();
@@ -33,6 +33,7 @@ import android.net.Uri;
 import android.os.Bundle;
 import android.os.CancellationSignal;
 import android.os.Handler;
+import android.os.Looper;
 import android.os.ParcelFileDescriptor;
 import android.os.RemoteException;
 import androidx.test.core.app.ApplicationProvider;
@@ -722,6 +723,56 @@ public class ShadowContentResolverTest {
     assertThat(co2.changed).isFalse();
   }
 
+  @Test
+  public void shouldMatchDescendentsByPathSegment() throws Exception {
+    TestContentObserver co = new TestContentObserver(null);
+    Uri uri = Uri.parse("content://" + AUTHORITY + "/items");
+    contentResolver.registerContentObserver(uri, true, co);
+
+    contentResolver.notifyChange(Uri.parse("content://" + AUTHORITY + "/itemsAndMore"), null);
+    assertThat(co.changed).isFalse();
+
+    contentResolver.notifyChange(Uri.parse("content://" + AUTHORITY + "/items/1"), null);
+    assertThat(co.changed).isTrue();
+  }
+
+  @Test
+  public void coalesceNotifications_shouldDeliverDuplicateNotificationsOnce() throws Exception {
+    AtomicInteger changes = new AtomicInteger();
+    ContentObserver co =
+        new ContentObserver(null) {
+          @Override
+          public void onChange(boolean selfChange, Uri uri) {
+            changes.incrementAndGet();
+          }
+        };
+    contentResolver.registerContentObserver(EXTERNAL_CONTENT_URI, true, co);
+    shadowOf(contentResolver).setCoalesceNotifications(true);
+    shadowOf(Looper.getMainLooper()).pause();
+
+    contentResolver.notifyChange(EXTERNAL_CONTENT_URI, null);
+    contentResolver.notifyChange(EXTERNAL_CONTENT_URI, null);
+    assertThat(changes.get()).isEqualTo(0);
+    assertThat(shadowOf(contentResolver).getNotifiedUris()).hasSize(2);
+
+    shadowOf(Looper.getMainLooper()).idle();
+    assertThat(changes.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void setMaxNotifiedUris_shouldKeepMostRecentNotifications() throws Exception {
+    ShadowContentResolver scr = shadowOf(contentResolver);
+    scr.setMaxNotifiedUris(2);
+    for (int i = 0; i < 5; i++) {
+      contentResolver.notifyChange(Uri.parse("content://" + AUTHORITY + "/" + i), null);
+    }
+
+    List<ShadowContentResolver.NotifiedUri> notifiedUris = scr.getNotifiedUris();
+    assertThat(notifiedUris).hasSize(2);
+    assertThat(notifiedUris.get(0).uri.toString()).isEqualTo("content://" + AUTHORITY + "/3");
+    assertThat(notifiedUris.get(1).uri.toString()).isEqualTo("content://" + AUTHORITY + "/4");
+  }
+
   @Test
   public void getProvider_shouldCreateProviderFromManifest() throws Exception {
     Uri uri = Uri.parse("content://org.robolectric.authority1/shadows");
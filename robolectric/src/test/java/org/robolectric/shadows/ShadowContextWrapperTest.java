@@ -222,6 +222,33 @@ public class ShadowContextWrapperTest {
     assertThat(transcript).containsExactly("High notified of test", "Low notified of test");
   }
 
+  @Test
+  public void sendOrderedBroadcast_shouldKeepRegistrationOrderForEqualPriorities()
+      throws Exception {
+    String action = "test";
+
+    IntentFilter highFilter = new IntentFilter(action);
+    highFilter.setPriority(2);
+    BroadcastReceiver highReceiver = broadcastReceiver("High");
+
+    contextWrapper.registerReceiver(broadcastReceiver("First"), new IntentFilter(action));
+    contextWrapper.registerReceiver(highReceiver, highFilter);
+    contextWrapper.registerReceiver(broadcastReceiver("Second"), new IntentFilter(action));
+
+    contextWrapper.sendOrderedBroadcast(new Intent(action), null);
+    assertThat(transcript)
+        .containsExactly(
+            "High notified of test", "First notified of test", "Second notified of test")
+        .inOrder();
+    transcript.clear();
+
+    contextWrapper.unregisterReceiver(highReceiver);
+    contextWrapper.sendOrderedBroadcast(new Intent(action), null);
+    assertThat(transcript)
+        .containsExactly("First notified of test", "Second notified of test")
+        .inOrder();
+  }
+
   @Test
   public void orderedBroadcasts_shouldAbort() throws Exception {
     String action = "test";
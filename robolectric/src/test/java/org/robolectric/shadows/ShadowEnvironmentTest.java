@@ -17,7 +17,9 @@ import org.junit.After;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
+import org.robolectric.util.TempDirectory;
 
 @RunWith(AndroidJUnit4.class)
 public class ShadowEnvironmentTest {
@@ -115,6 +117,23 @@ public class ShadowEnvironmentTest {
     assertThat(Environment.isExternalStorageEmulated(file)).isFalse();
   }
 
+  @Test
+  public void reset_shouldCreateExternalDirsUnderTheNextTempDirectory() {
+    ShadowEnvironment.addExternalDir("before_reset");
+    ShadowEnvironment.reset();
+    TempDirectory original = RuntimeEnvironment.getTempDirectory();
+    TempDirectory next = new TempDirectory("next-test");
+    RuntimeEnvironment.setTempDirectory(next);
+    try {
+      File after = ShadowEnvironment.addExternalDir("after_reset");
+
+      assertThat(after.toPath().startsWith(next.create("probe").getParent())).isTrue();
+    } finally {
+      RuntimeEnvironment.setTempDirectory(original);
+      next.destroy();
+    }
+  }
+
   @Test
   public void isExternalStorageEmulatedNoArg_shouldReturnSavedValue() {
     ShadowEnvironment.setIsExternalStorageEmulated(true);
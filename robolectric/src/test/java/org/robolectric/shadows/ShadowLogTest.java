@@ -294,4 +294,65 @@ public class ShadowLogTest {
     assertThat(ShadowLog.getLogsForTag("tag1")).isEmpty();
     assertThat(ShadowLog.getLogs()).isEmpty();
   }
+
+  @Test
+  public void setMaxLogsPerTag_keepsMostRecentEntriesForEachTag() {
+    ShadowLog.reset();
+    ShadowLog.setMaxLogsPerTag(2);
+    Log.d("tag1", "1");
+    Log.d("tag2", "2");
+    Log.d("tag1", "3");
+    Log.d("tag1", "4");
+    Log.d("tag1", "5");
+
+    assertThat(ShadowLog.getLogsForTag("tag1"))
+        .containsExactly(
+            new LogItem(Log.DEBUG, "tag1", "4", null), new LogItem(Log.DEBUG, "tag1", "5", null))
+        .inOrder();
+    assertThat(ShadowLog.getLogs())
+        .containsExactly(
+            new LogItem(Log.DEBUG, "tag2", "2", null),
+            new LogItem(Log.DEBUG, "tag1", "4", null),
+            new LogItem(Log.DEBUG, "tag1", "5", null))
+        .inOrder();
+  }
+
+  @Test
+  public void setMinimumRecordedLevel_discardsLowerLevels() {
+    ShadowLog.reset();
+    final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    PrintStream old = ShadowLog.stream;
+    try {
+      ShadowLog.stream = new PrintStream(bos);
+      ShadowLog.setMinimumRecordedLevel(Log.INFO);
+      Log.d("tag", "debug");
+      Log.i("tag", "info");
+
+      assertThat(ShadowLog.getLogs()).containsExactly(new LogItem(Log.INFO, "tag", "info", null));
+      assertThat(new String(bos.toByteArray(), UTF_8))
+          .isEqualTo("I/tag: info" + System.getProperty("line.separator"));
+    } finally {
+      ShadowLog.stream = old;
+    }
+  }
+
+  @Test
+  public void setAsyncStreamWrites_shouldWriteToStreamAfterFlush() {
+    final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    PrintStream old = ShadowLog.stream;
+    try {
+      ShadowLog.stream = new PrintStream(bos);
+      ShadowLog.setAsyncStreamWrites(true);
+      Log.d("tag", "msg1");
+      Log.w("tag", "msg2", new RuntimeException());
+      ShadowLog.flushStream();
+
+      String output = new String(bos.toByteArray(), UTF_8);
+      assertThat(output).startsWith("D/tag: msg1" + System.getProperty("line.separator")
+          + "W/tag: msg2" + System.getProperty("line.separator"));
+      assertThat(output).contains("RuntimeException");
+    } finally {
+      ShadowLog.stream = old;
+    }
+  }
 }
@@ -58,6 +58,26 @@ public class ShadowMatrixTest {
     assertThat(shadowOf(m).getSetOperations()).containsEntry("rotate", "108.0");
   }
 
+  @Test
+  public void getDescription_shouldDescribeConcatenatedMatrices() {
+    Matrix other = new Matrix();
+    other.setTranslate(1, 2);
+    String otherDescription = other.toString();
+    Matrix m = new Matrix();
+    m.setScale(3, 4);
+    m.setTranslate(5, 6);
+    m.setScale(7, 8);
+    m.preConcat(other);
+    other.setTranslate(9, 10);
+    m.postRotate(90);
+
+    assertThat(shadowOf(m).getDescription())
+        .isEqualTo(
+            "Matrix[pre=[matrix "
+                + otherDescription
+                + "], set={scale=7.0 8.0, translate=5.0 6.0}, post=[rotate 90.0]]");
+  }
+
   @Test
   public void set_shouldAddOpsToMatrix() {
     final Matrix matrix = new Matrix();
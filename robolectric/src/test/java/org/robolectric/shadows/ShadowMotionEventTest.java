@@ -4,6 +4,7 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.robolectric.Shadows.shadowOf;
 
+import android.os.Parcel;
 import android.view.MotionEvent;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import org.junit.Before;
@@ -42,6 +43,24 @@ public class ShadowMotionEventTest {
     assertEquals(5, event.getPointerId(1));
   }
 
+  @Test
+  public void parcel_shouldKeepEachHistoricalSample() {
+    event.addBatch(300, 6.0f, 11.0f, 1.0f, 1.0f, 0);
+    event.addBatch(400, 7.0f, 12.0f, 1.0f, 1.0f, 0);
+
+    Parcel parcel = Parcel.obtain();
+    event.writeToParcel(parcel, 0);
+    parcel.setDataPosition(0);
+    MotionEvent copy = MotionEvent.CREATOR.createFromParcel(parcel);
+
+    assertThat(copy.getHistorySize()).isEqualTo(2);
+    assertThat(copy.getHistoricalX(0)).isEqualTo(5.0f);
+    assertThat(copy.getHistoricalX(1)).isEqualTo(6.0f);
+    assertThat(copy.getHistoricalEventTime(1)).isEqualTo(300);
+    assertThat(copy.getX()).isEqualTo(7.0f);
+    assertThat(copy.getY()).isEqualTo(12.0f);
+  }
+
   @Test
   public void indexShowsUpInAction() {
     shadowMotionEvent.setPointerIndex(1);
@@ -2309,6 +2309,55 @@ public class ShadowPackageManagerTest {
     assertThat(intentFilter.getDataPath(0).getPath()).isEqualTo("/testPath/test.jpeg");
   }
 
+  @Test
+  public void queryIntentActivities_reflectsIntentFiltersModifiedInPlace() throws Exception {
+    ComponentName componentName =
+        new ComponentName(ApplicationProvider.getApplicationContext(), ActivityWithFilters.class);
+    Intent intent = new Intent("org.robolectric.SOME_NEW_ACTION");
+    intent.setDataAndType(
+        Uri.parse("content://testhost1.com:1/testPath/test.jpeg"), "video/mpeg");
+    assertThat(packageManager.queryIntentActivities(intent, 0)).isEmpty();
+
+    shadowPackageManager
+        .getIntentFiltersForActivity(componentName)
+        .get(0)
+        .addAction("org.robolectric.SOME_NEW_ACTION");
+
+    List<ResolveInfo> activities = packageManager.queryIntentActivities(intent, 0);
+    assertThat(activities).hasSize(1);
+    assertThat(activities.get(0).activityInfo.name).isEqualTo(ActivityWithFilters.class.getName());
+  }
+
+  @Test
+  public void queryIntentActivities_reflectsIntentFilterModifiedAfterQuery() throws Exception {
+    ComponentName componentName =
+        new ComponentName(ApplicationProvider.getApplicationContext(), ActivityWithFilters.class);
+    IntentFilter intentFilter =
+        shadowPackageManager.getIntentFiltersForActivity(componentName).get(0);
+    Intent intent = new Intent("org.robolectric.SOME_NEW_ACTION");
+    intent.setDataAndType(
+        Uri.parse("content://testhost1.com:1/testPath/test.jpeg"), "video/mpeg");
+    assertThat(packageManager.queryIntentActivities(intent, 0)).isEmpty();
+
+    intentFilter.addAction("org.robolectric.SOME_NEW_ACTION");
+
+    List<ResolveInfo> activities = packageManager.queryIntentActivities(intent, 0);
+    assertThat(activities).hasSize(1);
+    assertThat(activities.get(0).activityInfo.name).isEqualTo(ActivityWithFilters.class.getName());
+  }
+
+  @Test
+  public void queryIntentActivities_removedPackageIsNotResolved() throws Exception {
+    String packageName = ApplicationProvider.getApplicationContext().getPackageName();
+    Intent intent = new Intent();
+    intent.setClassName(packageName, "org.robolectric.shadows.TestActivity");
+    assertThat(packageManager.queryIntentActivities(intent, 0)).hasSize(1);
+
+    shadowPackageManager.removePackage(packageName);
+
+    assertThat(packageManager.queryIntentActivities(intent, 0)).isEmpty();
+  }
+
   @Test
   public void getPackageInfo_shouldHaveWritableDataDirs() throws Exception {
     PackageInfo packageInfo =
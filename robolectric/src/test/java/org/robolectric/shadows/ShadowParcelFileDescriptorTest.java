@@ -5,6 +5,7 @@ import static com.google.common.truth.Truth.assertThat;
 import android.os.ParcelFileDescriptor;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -133,6 +134,27 @@ public class ShadowParcelFileDescriptorTest {
     assertThat(read).isEqualTo(dataToWrite);
   }
 
+  @Test
+  public void testCreatePipe_canWriteMoreThanOsPipeBeforeReading() throws IOException {
+    ParcelFileDescriptor[] pipe = ParcelFileDescriptor.createPipe();
+    byte[] dataToWrite = new byte[1024 * 1024];
+    for (int i = 0; i < dataToWrite.length; i++) {
+      dataToWrite[i] = (byte) i;
+    }
+    try (ParcelFileDescriptor.AutoCloseOutputStream outputStream =
+        new ParcelFileDescriptor.AutoCloseOutputStream(pipe[1])) {
+      outputStream.write(dataToWrite);
+    }
+
+    byte[] read = new byte[dataToWrite.length];
+    try (DataInputStream inputStream =
+        new DataInputStream(new ParcelFileDescriptor.AutoCloseInputStream(pipe[0]))) {
+      inputStream.readFully(read);
+      assertThat(inputStream.read()).isEqualTo(-1);
+    }
+    assertThat(read).isEqualTo(dataToWrite);
+  }
+
   @Test
   public void testGetFd_canRead() throws IOException {
     ParcelFileDescriptor pfd =
@@ -6,6 +6,7 @@ import static org.robolectric.shadows.ShadowPath.Point.Type.LINE_TO;
 import static org.robolectric.shadows.ShadowPath.Point.Type.MOVE_TO;
 
 import android.graphics.Path;
+import android.graphics.PathMeasure;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import java.util.List;
 import org.junit.Test;
@@ -61,4 +62,18 @@ public class ShadowPathTest {
     Path copiedPath = new Path(path);
     assertEquals(shadowOf(path).getPoints(), shadowOf(copiedPath).getPoints());
   }
+
+  @Test
+  public void pathMeasure_shouldMeasureThePathAfterItChanges() throws Exception {
+    Path path = new Path();
+    path.moveTo(0, 0);
+    path.lineTo(3, 4);
+    assertEquals(5f, new PathMeasure(path, false).getLength(), 0f);
+
+    path.lineTo(3, 10);
+    assertEquals(11f, new PathMeasure(path, false).getLength(), 0f);
+
+    path.reset();
+    assertEquals(0f, new PathMeasure(path, false).getLength(), 0f);
+  }
 }
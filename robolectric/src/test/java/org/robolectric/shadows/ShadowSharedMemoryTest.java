@@ -6,6 +6,7 @@ import static org.junit.Assert.fail;
 import android.os.Build;
 import android.os.Parcel;
 import android.os.SharedMemory;
+import android.system.OsConstants;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import java.nio.ByteBuffer;
 import org.junit.Test;
@@ -60,6 +61,20 @@ public class ShadowSharedMemoryTest {
     }
   }
 
+  @Test
+  @Config(minSdk = Build.VERSION_CODES.O_MR1)
+  public void map_shouldStartAtOffset() throws Exception {
+    try (SharedMemory sharedMemory = SharedMemory.create("foo", 8)) {
+      ByteBuffer fooBuf = sharedMemory.mapReadWrite();
+      fooBuf.putInt(1234);
+      fooBuf.putInt(5678);
+
+      ByteBuffer barBuf = sharedMemory.map(OsConstants.PROT_READ, 4, 4);
+      assertThat(barBuf.capacity()).isEqualTo(4);
+      assertThat(barBuf.getInt()).isEqualTo(5678);
+    }
+  }
+
   @Test
   @Config(minSdk = Build.VERSION_CODES.O_MR1)
   public void mapReadWrite_shouldThrowAfterClose() throws Exception {
@@ -41,29 +41,32 @@ public abstract class ClassInstrumentor {
       byte[] origClassBytes,
       final InstrumentationConfiguration config,
       ClassNodeProvider classNodeProvider) {
-    ClassNode classNode =
-        new ClassNode(Opcodes.ASM4) {
-          @Override
-          public FieldVisitor visitField(
-              int access, String name, String desc, String signature, Object value) {
-            desc = config.remapParamType(desc);
-            return super.visitField(access & ~Opcodes.ACC_FINAL, name, desc, signature, value);
-          }
-
-          @Override
-          public MethodVisitor visitMethod(
-              int access, String name, String desc, String signature, String[] exceptions) {
-            MethodVisitor methodVisitor =
-                super.visitMethod(access, name, config.remapParams(desc), signature, exceptions);
-            return new JSRInlinerAdapter(methodVisitor, access, name, desc, signature, exceptions);
-          }
-        };
-
+    ClassNode classNode = newClassNode(config);
     final ClassReader classReader = new ClassReader(origClassBytes);
     classReader.accept(classNode, 0);
     return new MutableClass(classNode, config, classNodeProvider);
   }
 
+  /** Returns a ClassNode that applies the configured type remappings as a class is read into it. */
+  ClassNode newClassNode(final InstrumentationConfiguration config) {
+    return new ClassNode(Opcodes.ASM4) {
+      @Override
+      public FieldVisitor visitField(
+          int access, String name, String desc, String signature, Object value) {
+        desc = config.remapParamType(desc);
+        return super.visitField(access & ~Opcodes.ACC_FINAL, name, desc, signature, value);
+      }
+
+      @Override
+      public MethodVisitor visitMethod(
+          int access, String name, String desc, String signature, String[] exceptions) {
+        MethodVisitor methodVisitor =
+            super.visitMethod(access, name, config.remapParams(desc), signature, exceptions);
+        return new JSRInlinerAdapter(methodVisitor, access, name, desc, signature, exceptions);
+      }
+    };
+  }
+
   byte[] instrumentToBytes(MutableClass mutableClass) {
     instrument(mutableClass);
 
@@ -1,31 +1,37 @@
 package org.robolectric.internal.bytecode;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import org.objectweb.asm.ClassReader;
-import org.objectweb.asm.tree.ClassNode;
+import java.io.File;
+import org.robolectric.internal.bytecode.TypeHierarchyIndex.TypeInfo;
 
+/**
+ * Provides the type hierarchy of the classes referenced by instrumented code, which {@link
+ * InstrumentingClassWriter} needs to compute stack map frames.
+ *
+ * <p>Only each class's header is kept, in a {@link TypeHierarchyIndex}; classes that come from a
+ * jar share the jar's process-wide index.
+ */
 public abstract class ClassNodeProvider {
-  private final Map<String, ClassNode> classNodes = new ConcurrentHashMap<>();
+  private final TypeHierarchyIndex types = new TypeHierarchyIndex();
 
   protected abstract byte[] getClassBytes(String className) throws ClassNotFoundException;
 
-  ClassNode getClassNode(String internalClassName) throws ClassNotFoundException {
-    ClassNode classNode = classNodes.get(internalClassName);
-    if (classNode == null) {
-      classNode = createClassNode(internalClassName);
-      classNodes.put(internalClassName, classNode);
-    }
-    return classNode;
+  /**
+   * Returns the jar from which {@link #getClassBytes(String)} reads the given class, or null if the
+   * class doesn't come from a jar or its type information shouldn't be shared.
+   */
+  protected File getClassJar(String internalClassName) {
+    return null;
   }
 
-  private ClassNode createClassNode(String internalClassName) throws ClassNotFoundException {
-    byte[] byteCode = getClassBytes(internalClassName);
-    ClassReader classReader = new ClassReader(byteCode);
-    ClassNode classNode = new ClassNode();
-    classReader.accept(classNode,
-        ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
-    return classNode;
+  TypeInfo getTypeInfo(String internalClassName) throws ClassNotFoundException {
+    TypeInfo typeInfo = types.peek(internalClassName);
+    if (typeInfo == null) {
+      File jar = getClassJar(internalClassName);
+      typeInfo = jar == null
+          ? types.get(internalClassName, this::getClassBytes)
+          : TypeHierarchyIndex.forJar(jar).get(internalClassName, this::getClassBytes);
+      types.put(internalClassName, typeInfo);
+    }
+    return typeInfo;
   }
-
 }
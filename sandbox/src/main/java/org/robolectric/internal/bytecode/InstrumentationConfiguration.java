@@ -4,6 +4,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -11,7 +13,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
 import org.robolectric.annotation.internal.DoNotInstrument;
 import org.robolectric.annotation.internal.Instrument;
 import org.robolectric.shadow.api.Shadow;
@@ -42,6 +49,7 @@ public class InstrumentationConfiguration {
   private final Set<String> classesToNotInstrument;
   private final Map<String, String> classNameTranslations;
   private final Set<MethodRef> interceptedMethods;
+  private final Map<MethodRef, MethodRef> staticReplacements;
   private final Set<String> classesToNotAcquire;
   private final Set<String> packagesToNotAcquire;
   private final Set<String> packagesToNotInstrument;
@@ -49,10 +57,12 @@ public class InstrumentationConfiguration {
 
   private final TypeMapper typeMapper;
   private final Set<MethodRef> methodsToIntercept;
+  private final Map<String, MethodRef> staticReplacementsByCallSite;
 
   protected InstrumentationConfiguration(
       Map<String, String> classNameTranslations,
       Collection<MethodRef> interceptedMethods,
+      Map<MethodRef, MethodRef> staticReplacements,
       Collection<String> instrumentedPackages,
       Collection<String> instrumentedClasses,
       Collection<String> classesToNotAcquire,
@@ -61,6 +71,7 @@ public class InstrumentationConfiguration {
       Collection<String> packagesToNotInstrument) {
     this.classNameTranslations = ImmutableMap.copyOf(classNameTranslations);
     this.interceptedMethods = ImmutableSet.copyOf(interceptedMethods);
+    this.staticReplacements = ImmutableMap.copyOf(staticReplacements);
     this.instrumentedPackages = ImmutableList.copyOf(instrumentedPackages);
     this.instrumentedClasses = ImmutableSet.copyOf(instrumentedClasses);
     this.classesToNotAcquire = ImmutableSet.copyOf(classesToNotAcquire);
@@ -71,6 +82,16 @@ public class InstrumentationConfiguration {
 
     this.typeMapper = new TypeMapper(classNameTranslations());
     this.methodsToIntercept = ImmutableSet.copyOf(convertToSlashes(methodsToIntercept()));
+    Map<String, MethodRef> replacements = new HashMap<>();
+    for (Map.Entry<MethodRef, MethodRef> entry : this.staticReplacements.entrySet()) {
+      MethodRef targetMethod = internalize(entry.getKey());
+      MethodRef replacement = internalize(entry.getValue());
+      for (String desc : publicStaticMethodDescs(replacement)) {
+        replacements.put(
+            callSiteKey(targetMethod.className, targetMethod.methodName, desc), replacement);
+      }
+    }
+    this.staticReplacementsByCallSite = ImmutableMap.copyOf(replacements);
   }
 
   /**
@@ -139,6 +160,16 @@ public class InstrumentationConfiguration {
     return Collections.unmodifiableSet(interceptedMethods);
   }
 
+  /**
+   * Static methods that calls to some of the {@link #methodsToIntercept() intercepted methods} may
+   * be bound to directly.
+   *
+   * @see Interceptor#getStaticReplacement(MethodRef)
+   */
+  public Map<MethodRef, MethodRef> staticReplacements() {
+    return staticReplacements;
+  }
+
   /**
    * Map from a requested class to an alternate stand-in, or not.
    *
@@ -182,6 +213,7 @@ public class InstrumentationConfiguration {
     if (!instrumentedPackages.equals(that.instrumentedPackages)) return false;
     if (!instrumentedClasses.equals(that.instrumentedClasses)) return false;
     if (!interceptedMethods.equals(that.interceptedMethods)) return false;
+    if (!staticReplacements.equals(that.staticReplacements)) return false;
 
 
     return true;
@@ -197,6 +229,7 @@ public class InstrumentationConfiguration {
     result = 31 * result + instrumentedClasses.hashCode();
     result = 31 * result + classNameTranslations.hashCode();
     result = 31 * result + interceptedMethods.hashCode();
+    result = 31 * result + staticReplacements.hashCode();
     result = 31 * result + classesToNotAcquire.hashCode();
     cachedHashCode = result;
     return result;
@@ -220,14 +253,70 @@ public class InstrumentationConfiguration {
         || methodsToIntercept.contains(new MethodRef(targetMethod.owner, "*"));
   }
 
+  /**
+   * Returns the static method, with its class's internal name, that an intercepted call may be
+   * bound to directly, or null if the call must be dispatched through the {@link ClassHandler}.
+   */
+  MethodRef staticReplacementFor(MethodInsnNode targetMethod) {
+    return staticReplacementsByCallSite.get(
+        callSiteKey(targetMethod.owner, targetMethod.name, staticReplacementDesc(targetMethod)));
+  }
+
+  /**
+   * Returns the descriptor a static replacement for {@code targetMethod} has: the same as the
+   * target's, with the receiver prepended for instance methods.
+   */
+  static String staticReplacementDesc(MethodInsnNode targetMethod) {
+    if (targetMethod.getOpcode() == Opcodes.INVOKESTATIC) {
+      return targetMethod.desc;
+    }
+    return "(" + Type.getObjectType(targetMethod.owner).getDescriptor()
+        + targetMethod.desc.substring(1);
+  }
+
+  private static String callSiteKey(String owner, String name, String replacementDesc) {
+    return owner + "." + name + replacementDesc;
+  }
+
+  /**
+   * Returns the descriptors of the public static methods named like {@code methodRef}. They're
+   * read from the class file, since the class itself may only be loadable from the sandbox. If
+   * the class file can't be found, there are none and calls are dispatched as usual.
+   */
+  private static Set<String> publicStaticMethodDescs(MethodRef methodRef) {
+    Set<String> descs = new HashSet<>();
+    ClassLoader classLoader = InstrumentationConfiguration.class.getClassLoader();
+    try (InputStream classBytes = classLoader.getResourceAsStream(methodRef.className + ".class")) {
+      if (classBytes == null) {
+        return descs;
+      }
+      ClassNode classNode = new ClassNode();
+      new ClassReader(classBytes).accept(classNode, ClassReader.SKIP_CODE);
+      int publicStatic = Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC;
+      for (MethodNode method : classNode.methods) {
+        if (method.name.equals(methodRef.methodName)
+            && (method.access & publicStatic) == publicStatic) {
+          descs.add(method.desc);
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("couldn't read " + methodRef.className, e);
+    }
+    return descs;
+  }
+
   private static Set<MethodRef> convertToSlashes(Set<MethodRef> methodRefs) {
     HashSet<MethodRef> transformed = new HashSet<>();
     for (MethodRef methodRef : methodRefs) {
-      transformed.add(new MethodRef(internalize(methodRef.className), methodRef.methodName));
+      transformed.add(internalize(methodRef));
     }
     return transformed;
   }
 
+  private static MethodRef internalize(MethodRef methodRef) {
+    return new MethodRef(internalize(methodRef.className), methodRef.methodName);
+  }
+
   private static String internalize(String className) {
     return className.replace('.', '/');
   }
@@ -235,6 +324,7 @@ public class InstrumentationConfiguration {
   public static final class Builder {
     public final Collection<String> instrumentedPackages = new HashSet<>();
     public final Collection<MethodRef> interceptedMethods = new HashSet<>();
+    public final Map<MethodRef, MethodRef> staticReplacements = new HashMap<>();
     public final Map<String, String> classNameTranslations = new HashMap<>();
     public final Collection<String> classesToNotAcquire = new HashSet<>();
     public final Collection<String> packagesToNotAcquire = new HashSet<>();
@@ -248,6 +338,7 @@ public class InstrumentationConfiguration {
     public Builder(InstrumentationConfiguration classLoaderConfig) {
       instrumentedPackages.addAll(classLoaderConfig.instrumentedPackages);
       interceptedMethods.addAll(classLoaderConfig.interceptedMethods);
+      staticReplacements.putAll(classLoaderConfig.staticReplacements);
       classNameTranslations.putAll(classLoaderConfig.classNameTranslations);
       classesToNotAcquire.addAll(classLoaderConfig.classesToNotAcquire);
       packagesToNotAcquire.addAll(classLoaderConfig.packagesToNotAcquire);
@@ -281,6 +372,18 @@ public class InstrumentationConfiguration {
       return this;
     }
 
+    /**
+     * Intercepts calls to {@code methodReference}, binding them directly to {@code
+     * staticReplacement} when the instrumentor doesn't use invokedynamic.
+     *
+     * @see Interceptor#getStaticReplacement(MethodRef)
+     */
+    public Builder addInterceptedMethod(MethodRef methodReference, MethodRef staticReplacement) {
+      interceptedMethods.add(methodReference);
+      staticReplacements.put(methodReference, staticReplacement);
+      return this;
+    }
+
     public Builder addInstrumentedClass(String name) {
       instrumentedClasses.add(name);
       return this;
@@ -305,6 +408,7 @@ public class InstrumentationConfiguration {
       return new InstrumentationConfiguration(
           classNameTranslations,
           interceptedMethods,
+          staticReplacements,
           instrumentedPackages,
           instrumentedClasses,
           classesToNotAcquire,
@@ -1,9 +1,9 @@
 package org.robolectric.internal.bytecode;
 
-import java.util.List;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassWriter;
-import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.ClassNode;
+import org.robolectric.internal.bytecode.TypeHierarchyIndex.TypeInfo;
 
 /**
  * ClassWriter implementation that verifies classes by comparing type information obtained
@@ -26,6 +26,18 @@ public class InstrumentingClassWriter extends ClassWriter {
     this.classNodeProvider = classNodeProvider;
   }
 
+  /**
+   * Creates a writer that copies the constant pool of {@code classReader}, so that methods the
+   * reader passes straight to this writer are copied as is, without computing their frames.
+   */
+  public InstrumentingClassWriter(
+      ClassNodeProvider classNodeProvider, ClassNode classNode, ClassReader classReader) {
+    super(
+        classReader,
+        classNode.version >= 51 ? ClassWriter.COMPUTE_FRAMES : ClassWriter.COMPUTE_MAXS);
+    this.classNodeProvider = classNodeProvider;
+  }
+
   /**
    * Returns the common super type of the two given types without actually loading
    * the classes in the ClassLoader.
@@ -33,20 +45,20 @@ public class InstrumentingClassWriter extends ClassWriter {
   @Override
   protected String getCommonSuperClass(final String type1, final String type2) {
     try {
-      ClassNode info1 = typeInfo(type1);
-      ClassNode info2 = typeInfo(type2);
-      if ((info1.access & Opcodes.ACC_INTERFACE) != 0) {
+      TypeInfo info1 = typeInfo(type1);
+      TypeInfo info2 = typeInfo(type2);
+      if (info1.isInterface()) {
         if (typeImplements(type2, info2, type1)) {
           return type1;
         }
-        if ((info2.access & Opcodes.ACC_INTERFACE) != 0) {
+        if (info2.isInterface()) {
           if (typeImplements(type1, info1, type2)) {
             return type2;
           }
         }
         return "java/lang/Object";
       }
-      if ((info2.access & Opcodes.ACC_INTERFACE) != 0) {
+      if (info2.isInterface()) {
         if (typeImplements(type1, info1, type2)) {
           return type2;
         } else {
@@ -81,7 +93,7 @@ public class InstrumentingClassWriter extends ClassWriter {
     }
   }
 
-  private String typeAncestors(String type, ClassNode info) throws ClassNotFoundException {
+  private String typeAncestors(String type, TypeInfo info) throws ClassNotFoundException {
     StringBuilder b = new StringBuilder();
     while (!"java/lang/Object".equals(type)) {
       b.append(';').append(type);
@@ -91,10 +103,10 @@ public class InstrumentingClassWriter extends ClassWriter {
     return b.toString();
   }
 
-  private boolean typeImplements(String type, ClassNode info, String itf)
+  private boolean typeImplements(String type, TypeInfo info, String itf)
       throws ClassNotFoundException {
     while (!"java/lang/Object".equals(type)) {
-      List<String> itfs = info.interfaces;
+      String[] itfs = info.interfaces;
       for (String itf2 : itfs) {
         if (itf2.equals(itf)) {
           return true;
@@ -111,7 +123,7 @@ public class InstrumentingClassWriter extends ClassWriter {
     return false;
   }
 
-  private ClassNode typeInfo(final String type) throws ClassNotFoundException {
-    return classNodeProvider.getClassNode(type);
+  private TypeInfo typeInfo(final String type) throws ClassNotFoundException {
+    return classNodeProvider.getTypeInfo(type);
   }
 }
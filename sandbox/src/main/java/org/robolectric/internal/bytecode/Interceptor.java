@@ -3,6 +3,7 @@ package org.robolectric.internal.bytecode;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodType;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.robolectric.util.Function;
 import org.robolectric.util.ReflectionHelpers;
 
@@ -21,6 +22,21 @@ public abstract class Interceptor {
 
   abstract public MethodHandle getMethodHandle(String methodName, MethodType type) throws NoSuchMethodException, IllegalAccessException;
 
+  /**
+   * Returns a public static method that instrumented code may call directly instead of {@code
+   * methodRef}, or null if calls must go through {@link #handle(MethodSignature)}.
+   *
+   * <p>Used by {@link OldClassInstrumentor}, which otherwise boxes every argument into an {@code
+   * Object[]}. The method must have the intercepted method's descriptor, with the receiver
+   * (declared as {@code methodRef}'s class) prepended as the first parameter for instance methods,
+   * and its class must be loadable from the sandbox. Calls to overloads the replacement doesn't
+   * declare a matching method for still go through {@link #handle(MethodSignature)}.
+   */
+  @Nullable
+  public MethodRef getStaticReplacement(MethodRef methodRef) {
+    return null;
+  }
+
   @Nonnull
   protected static Function<Object, Object> returnDefaultValue(final MethodSignature methodSignature) {
     return new Function<Object, Object>() {
@@ -5,6 +5,7 @@ import static java.util.Arrays.asList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.robolectric.util.Function;
 
 public class Interceptors {
@@ -26,6 +27,18 @@ public class Interceptors {
     return interceptors.keySet();
   }
 
+  /**
+   * Returns the static method that calls to {@code methodRef} may be bound to directly, if its
+   * interceptor provides one.
+   *
+   * @see Interceptor#getStaticReplacement(MethodRef)
+   */
+  @Nullable
+  public MethodRef getStaticReplacement(MethodRef methodRef) {
+    Interceptor interceptor = interceptors.get(methodRef);
+    return interceptor == null ? null : interceptor.getStaticReplacement(methodRef);
+  }
+
   public Function<Object, Object> getInterceptionHandler(final MethodSignature methodSignature) {
     Interceptor interceptor = findInterceptor(methodSignature.className, methodSignature.methodName);
     if (interceptor != null) {
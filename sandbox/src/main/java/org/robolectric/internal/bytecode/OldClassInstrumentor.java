@@ -180,7 +180,25 @@ public class OldClassInstrumentor extends ClassInstrumentor {
   @Override
   protected void interceptInvokeVirtualMethod(MutableClass mutableClass,
       ListIterator<AbstractInsnNode> instructions, MethodInsnNode targetMethod) {
-    interceptInvokeVirtualMethodWithoutInvokeDynamic(mutableClass, instructions, targetMethod);
+    MethodRef staticReplacement = mutableClass.config.staticReplacementFor(targetMethod);
+    if (staticReplacement != null) {
+      bindToStaticReplacement(targetMethod, staticReplacement);
+    } else {
+      interceptInvokeVirtualMethodWithoutInvokeDynamic(mutableClass, instructions, targetMethod);
+    }
+  }
+
+  /**
+   * Turns the call into a call to a static method taking the same arguments (preceded by the
+   * receiver, if any), so that intercepting it needs no boxing, no argument array and no lookup.
+   */
+  private static void bindToStaticReplacement(
+      MethodInsnNode targetMethod, MethodRef staticReplacement) {
+    targetMethod.desc = InstrumentationConfiguration.staticReplacementDesc(targetMethod);
+    targetMethod.setOpcode(Opcodes.INVOKESTATIC);
+    targetMethod.owner = staticReplacement.className;
+    targetMethod.name = staticReplacement.methodName;
+    targetMethod.itf = false;
   }
 
   /**
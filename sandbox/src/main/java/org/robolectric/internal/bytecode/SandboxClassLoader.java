@@ -10,6 +10,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import org.robolectric.util.Logger;
@@ -51,6 +52,11 @@ public class SandboxClassLoader extends URLClassLoader {
       protected byte[] getClassBytes(String internalClassName) throws ClassNotFoundException {
         return getByteCode(internalClassName);
       }
+
+      @Override
+      protected File getClassJar(String internalClassName) {
+        return getJarContaining(internalClassName.replace('.', '/') + ".class");
+      }
     };
   }
 
@@ -79,9 +85,12 @@ public class SandboxClassLoader extends URLClassLoader {
   }
 
   protected ClassInstrumentor createClassInstrumentor(ClassInstrumentor.Decorator decorator) {
-    return InvokeDynamic.ENABLED
-        ? new InvokeDynamicClassInstrumentor(decorator)
-        : new OldClassInstrumentor(decorator);
+    if (!InvokeDynamic.ENABLED) {
+      return new OldClassInstrumentor(decorator);
+    }
+    return StreamingClassInstrumentor.ENABLED
+        ? new StreamingClassInstrumentor(decorator)
+        : new InvokeDynamicClassInstrumentor(decorator);
   }
 
   @Override
@@ -96,6 +105,28 @@ public class SandboxClassLoader extends URLClassLoader {
     return urls.getResource(name);
   }
 
+  /**
+   * Returns the jar from which {@link #getClassBytesAsStreamPreferringLocalUrls(String)} would read
+   * {@code resName}, or null if it would come from somewhere else.
+   */
+  private File getJarContaining(String resName) {
+    URL url = urls.getResource(resName);
+    if (url == null) {
+      url = getResource(resName);
+    }
+    if (url == null || !"jar".equals(url.getProtocol())) {
+      return null;
+    }
+    String path = url.getPath();
+    int separator = path.indexOf("!/");
+    try {
+      URL jarUrl = new URL(separator == -1 ? path : path.substring(0, separator));
+      return "file".equals(jarUrl.getProtocol()) ? new File(jarUrl.toURI()) : null;
+    } catch (MalformedURLException | URISyntaxException e) {
+      return null;
+    }
+  }
+
   private InputStream getClassBytesAsStreamPreferringLocalUrls(String resName) {
     InputStream fromUrlsClassLoader = urls.getResourceAsStream(resName);
     if (fromUrlsClassLoader != null) {
@@ -114,6 +145,14 @@ public class SandboxClassLoader extends URLClassLoader {
     }
   }
 
+  /**
+   * Returns true if the named class may have been loaded, i.e. unless this loader would define the
+   * class itself and hasn't done so yet. Never loads the class.
+   */
+  public boolean isClassLoaded(String className) {
+    return !config.shouldAcquire(className) || findLoadedClass(className) != null;
+  }
+
   protected Class<?> maybeInstrumentClass(String className) throws ClassNotFoundException {
     final byte[] origClassBytes = getByteCode(className);
 
@@ -5,6 +5,14 @@ import org.robolectric.util.ReflectionHelpers;
 
 public class ShadowImpl implements IShadow {
 
+  private final ClassValue<String> directMethodPrefixes =
+      new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+          return directMethodName(type.getName(), "");
+        }
+      };
+
   private final ProxyMaker PROXY_MAKER =
       new ProxyMaker(
           new ProxyMaker.MethodMapper() {
@@ -52,13 +60,13 @@ public class ShadowImpl implements IShadow {
 
   @Override @SuppressWarnings(value = {"unchecked", "TypeParameterUnusedInFormals"})
   public <R, T> R directlyOn(T shadowedObject, Class<T> clazz, String methodName, ReflectionHelpers.ClassParameter... paramValues) {
-    String directMethodName = directMethodName(clazz.getName(), methodName);
+    String directMethodName = directMethodPrefixes.get(clazz) + methodName;
     return (R) ReflectionHelpers.callInstanceMethod(clazz, shadowedObject, directMethodName, paramValues);
   }
 
   @Override @SuppressWarnings(value = {"unchecked", "TypeParameterUnusedInFormals"})
   public <R, T> R directlyOn(Class<T> clazz, String methodName, ReflectionHelpers.ClassParameter... paramValues) {
-    String directMethodName = directMethodName(clazz.getName(), methodName);
+    String directMethodName = directMethodPrefixes.get(clazz) + methodName;
     return (R) ReflectionHelpers.callStaticMethod(clazz, directMethodName, paramValues);
   }
 
@@ -0,0 +1,234 @@
+package org.robolectric.internal.bytecode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * An {@link InvokeDynamicClassInstrumentor} that avoids materializing method bodies it doesn't
+ * change.
+ *
+ * <p>Instrumentation renames every method and generates a delegator for it, but leaves most method
+ * bodies exactly as they were. For classes whose code needs no rewriting at all (no intercepted
+ * calls and no remapped types), this instrumentor reads only the class's skeleton and the bodies
+ * of its constructors into a tree. The remaining bodies are handed by the {@link ClassReader}
+ * straight to the {@link ClassWriter}, which copies them verbatim from the original class instead
+ * of parsing them, rewriting them and computing their stack map frames again. Other classes are
+ * instrumented exactly as by {@link InvokeDynamicClassInstrumentor}.
+ *
+ * <p>Enabled with the {@code robolectric.streamingInstrumentor} system property.
+ */
+public class StreamingClassInstrumentor extends InvokeDynamicClassInstrumentor {
+
+  public static final boolean ENABLED = Boolean.getBoolean("robolectric.streamingInstrumentor");
+
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_INTERFACE_METHODREF = 11;
+
+  public StreamingClassInstrumentor(Decorator decorator) {
+    super(decorator);
+  }
+
+  @Override
+  public MutableClass analyzeClass(
+      byte[] origClassBytes,
+      InstrumentationConfiguration config,
+      ClassNodeProvider classNodeProvider) {
+    ClassReader classReader = new ClassReader(origClassBytes);
+    if (!canCopyMethodBodies(origClassBytes, classReader, config)) {
+      return super.analyzeClass(origClassBytes, config, classNodeProvider);
+    }
+
+    ClassNode classNode = newClassNode(config);
+    classReader.accept(classNode, ClassReader.SKIP_CODE);
+
+    // Constructors are split in two by instrumentation, so they need their code...
+    ClassNode constructorsNode = newClassNode(config);
+    classReader.accept(
+        new ClassVisitor(Opcodes.ASM7, constructorsNode) {
+          @Override
+          public MethodVisitor visitMethod(
+              int access, String name, String desc, String signature, String[] exceptions) {
+            return name.equals("<init>")
+                ? super.visitMethod(access, name, desc, signature, exceptions)
+                : null;
+          }
+        },
+        0);
+    Map<String, MethodNode> constructors = new HashMap<>();
+    for (MethodNode constructor : constructorsNode.methods) {
+      constructors.put(constructor.desc, constructor);
+    }
+
+    // ... while every other method with code is copied, whatever it gets renamed to.
+    Map<String, MethodNode> copiedMethods = new HashMap<>();
+    List<MethodNode> methods = classNode.methods;
+    for (int i = 0; i < methods.size(); i++) {
+      MethodNode method = methods.get(i);
+      if (method.name.equals("<init>")) {
+        methods.set(i, constructors.get(method.desc));
+      } else if ((method.access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) == 0) {
+        copiedMethods.put(method.name + method.desc, method);
+      }
+    }
+    return new SkeletonClass(classNode, config, classNodeProvider, classReader, copiedMethods);
+  }
+
+  @Override
+  byte[] instrumentToBytes(MutableClass mutableClass) {
+    if (!(mutableClass instanceof SkeletonClass)) {
+      return super.instrumentToBytes(mutableClass);
+    }
+    SkeletonClass skeletonClass = (SkeletonClass) mutableClass;
+    instrument(skeletonClass);
+
+    ClassNode classNode = skeletonClass.classNode;
+    ClassWriter writer =
+        new InstrumentingClassWriter(
+            skeletonClass.classNodeProvider, classNode, skeletonClass.classReader);
+
+    Set<MethodNode> copiedMethods = Collections.newSetFromMap(new IdentityHashMap<>());
+    copiedMethods.addAll(skeletonClass.copiedMethods.values());
+    List<MethodNode> allMethods = classNode.methods;
+    classNode.methods = new ArrayList<>(allMethods.size());
+    for (MethodNode method : allMethods) {
+      if (!copiedMethods.contains(method)) {
+        classNode.methods.add(method);
+      }
+    }
+    classNode.accept(
+        new ClassVisitor(Opcodes.ASM7, writer) {
+          @Override
+          public void visitEnd() {
+            // the copied methods are still to come
+          }
+        });
+    classNode.methods = allMethods;
+
+    // If the writer can't copy a method (e.g. because of a Synthetic attribute), the reader falls
+    // back to visiting its code, which is just as correct.
+    skeletonClass.classReader.accept(
+        new ClassVisitor(Opcodes.ASM7) {
+          @Override
+          public MethodVisitor visitMethod(
+              int access, String name, String desc, String signature, String[] exceptions) {
+            MethodNode method =
+                skeletonClass.copiedMethods.get(name + skeletonClass.config.remapParams(desc));
+            if (method == null) {
+              return null;
+            }
+            return writer.visitMethod(
+                method.access,
+                method.name,
+                method.desc,
+                method.signature,
+                method.exceptions.toArray(new String[0]));
+          }
+        },
+        0);
+    writer.visitEnd();
+    return writer.toByteArray();
+  }
+
+  /**
+   * Returns true if instrumenting the class won't change the code of any of its methods, other
+   * than constructors, judging by the types and methods in its constant pool.
+   */
+  private static boolean canCopyMethodBodies(
+      byte[] classBytes, ClassReader classReader, InstrumentationConfiguration config) {
+    // Older class files may lack stack map frames, or contain JSR instructions.
+    if (classReader.readUnsignedShort(6) < Opcodes.V1_7
+        || (classReader.getAccess() & Opcodes.ACC_INTERFACE) != 0) {
+      return false;
+    }
+
+    List<byte[]> remappedTypes = new ArrayList<>();
+    for (String className : config.classNameTranslations().keySet()) {
+      remappedTypes.add(className.replace('.', '/').getBytes(StandardCharsets.UTF_8));
+    }
+    char[] buffer = new char[classReader.getMaxStringLength()];
+    for (int i = 1; i < classReader.getItemCount(); i++) {
+      int offset = classReader.getItem(i);
+      if (offset == 0) {
+        continue; // the second slot of a long or double
+      }
+      switch (classReader.readByte(offset - 1)) {
+        case CONSTANT_UTF8:
+          // class names are ASCII, so their modified UTF-8 encoding can be matched bytewise
+          int length = classReader.readUnsignedShort(offset);
+          for (byte[] remappedType : remappedTypes) {
+            if (contains(classBytes, offset + 2, length, remappedType)) {
+              return false;
+            }
+          }
+          break;
+
+        case CONSTANT_METHODREF:
+          /* falls through */
+        case CONSTANT_INTERFACE_METHODREF:
+          String owner = classReader.readClass(offset, buffer);
+          int nameAndType = classReader.getItem(classReader.readUnsignedShort(offset + 2));
+          String name = classReader.readUTF8(nameAndType, buffer);
+          String desc = classReader.readUTF8(nameAndType + 2, buffer);
+          MethodInsnNode methodInsn =
+              new MethodInsnNode(Opcodes.INVOKEVIRTUAL, owner, name, desc, false);
+          if (config.shouldIntercept(methodInsn)
+              || (owner.equals("java/util/GregorianCalendar")
+                  && name.equals("<init>")
+                  && desc.equals("(Z)V"))) {
+            return false;
+          }
+          break;
+
+        default:
+          break;
+      }
+    }
+    return true;
+  }
+
+  private static boolean contains(byte[] bytes, int start, int length, byte[] pattern) {
+    for (int i = start; i <= start + length - pattern.length; i++) {
+      int j = 0;
+      while (j < pattern.length && bytes[i + j] == pattern[j]) {
+        j++;
+      }
+      if (j == pattern.length) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** A class read without the code of the methods that will be copied. */
+  private static class SkeletonClass extends MutableClass {
+    final ClassReader classReader;
+    /** Methods to copy from {@link #classReader}, by their original name and descriptor. */
+    final Map<String, MethodNode> copiedMethods;
+
+    SkeletonClass(
+        ClassNode classNode,
+        InstrumentationConfiguration config,
+        ClassNodeProvider classNodeProvider,
+        ClassReader classReader,
+        Map<String, MethodNode> copiedMethods) {
+      super(classNode, config, classNodeProvider);
+      this.classReader = classReader;
+      this.copiedMethods = copiedMethods;
+    }
+  }
+}
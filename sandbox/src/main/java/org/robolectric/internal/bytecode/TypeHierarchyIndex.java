@@ -0,0 +1,100 @@
+package org.robolectric.internal.bytecode;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Superclass, interfaces and access flags of classes; all that {@link InstrumentingClassWriter}
+ * needs to know about the types whose common superclass it computes.
+ *
+ * <p>The index for a jar is shared by every {@link ClassNodeProvider} that loads classes from it,
+ * so each class of, say, an android-all jar is read at most once per process, however many
+ * sandboxes use the jar. Only the indexes of the {@value #MAX_JAR_INDEXES} most recently used jars
+ * are kept, so long-lived processes such as build daemons don't keep one for every jar they've
+ * seen.
+ */
+class TypeHierarchyIndex {
+
+  /** Enough for the android-all jars of every supported SDK, and a few more. */
+  static final int MAX_JAR_INDEXES = 32;
+
+  private static final Map<String, TypeHierarchyIndex> jarIndexes =
+      Collections.synchronizedMap(new LinkedHashMap<String, TypeHierarchyIndex>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TypeHierarchyIndex> eldest) {
+          return size() > MAX_JAR_INDEXES;
+        }
+      });
+
+  private final Map<String, TypeInfo> types = new ConcurrentHashMap<>();
+
+  /** Returns the index shared by all classes loaded from the current contents of {@code jar}. */
+  static TypeHierarchyIndex forJar(File jar) {
+    String key = jar.getAbsolutePath() + ":" + jar.length() + ":" + jar.lastModified();
+    return jarIndexes.computeIfAbsent(key, k -> new TypeHierarchyIndex());
+  }
+
+  /** Returns the indexed type, or null if it hasn't been indexed yet. */
+  TypeInfo peek(String internalClassName) {
+    return types.get(internalClassName);
+  }
+
+  void put(String internalClassName, TypeInfo typeInfo) {
+    types.put(internalClassName, typeInfo);
+  }
+
+  TypeInfo get(String internalClassName, ClassBytesSource source)
+      throws ClassNotFoundException {
+    TypeInfo typeInfo = types.get(internalClassName);
+    if (typeInfo == null) {
+      typeInfo = TypeInfo.read(source.getClassBytes(internalClassName));
+      TypeInfo existing = types.putIfAbsent(internalClassName, typeInfo);
+      if (existing != null) {
+        typeInfo = existing;
+      }
+    }
+    return typeInfo;
+  }
+
+  interface ClassBytesSource {
+    byte[] getClassBytes(String internalClassName) throws ClassNotFoundException;
+  }
+
+  /** The supertypes and access flags of a class. Names are interned. */
+  static class TypeInfo {
+    private static final String[] NO_INTERFACES = new String[0];
+
+    final int access;
+    final String superName;
+    final String[] interfaces;
+
+    private TypeInfo(int access, String superName, String[] interfaces) {
+      this.access = access;
+      this.superName = superName;
+      this.interfaces = interfaces;
+    }
+
+    boolean isInterface() {
+      return (access & Opcodes.ACC_INTERFACE) != 0;
+    }
+
+    /** Reads a class's header, without looking at its fields, methods or attributes. */
+    static TypeInfo read(byte[] classBytes) {
+      ClassReader classReader = new ClassReader(classBytes);
+      String superName = classReader.getSuperName();
+      String[] interfaces = classReader.getInterfaces();
+      for (int i = 0; i < interfaces.length; i++) {
+        interfaces[i] = interfaces[i].intern();
+      }
+      return new TypeInfo(
+          classReader.getAccess(),
+          superName == null ? null : superName.intern(),
+          interfaces.length == 0 ? NO_INTERFACES : interfaces);
+    }
+  }
+}
@@ -459,6 +459,54 @@ public class SandboxClassLoaderTest {
     assertEquals("yess? forget this: null", output);
   }
 
+  @Test
+  public void shouldBindInterceptedMethodsToStaticReplacements() throws Exception {
+    if (InvokeDynamic.ENABLED) return;
+    setClassLoader(new SandboxClassLoader(configureBuilder()
+        .addInterceptedMethod(
+            new MethodRef(AClassToForget.class, "forgettableMethod"),
+            new MethodRef(SandboxClassLoaderTest.class, "replaceForgettableMethod"))
+        .addInterceptedMethod(
+            new MethodRef(AClassToForget.class, "forgettableStaticMethod"),
+            new MethodRef(SandboxClassLoaderTest.class, "replaceForgettableStaticMethod"))
+        .build()));
+
+    Class<?> theClass = loadClass(AClassThatRefersToAForgettableClass.class);
+    Object instance = shadow.directlyOn(
+        theClass.getDeclaredConstructor().newInstance(), (Class<Object>) theClass);
+    assertEquals("replaced AClassToForget, get this!",
+        theClass.getMethod("interactWithForgettableClass").invoke(instance));
+    assertEquals("yess? forget this: replaced",
+        theClass.getMethod("interactWithForgettableStaticMethod").invoke(instance));
+    assertThat(transcript.toString()).doesNotContain("intercept:");
+  }
+
+  @Test
+  public void shouldNotBindInterceptedMethodsToStaticReplacementsWithAnotherDescriptor()
+      throws Exception {
+    if (InvokeDynamic.ENABLED) return;
+    setClassLoader(new SandboxClassLoader(configureBuilder()
+        .addInterceptedMethod(
+            new MethodRef(AClassToForget.class, "forgettableMethod"),
+            new MethodRef(SandboxClassLoaderTest.class, "replaceForgettableStaticMethod"))
+        .build()));
+
+    Class<?> theClass = loadClass(AClassThatRefersToAForgettableClass.class);
+    Object instance = shadow.directlyOn(
+        theClass.getDeclaredConstructor().newInstance(), (Class<Object>) theClass);
+    assertEquals("null, get this!",
+        theClass.getMethod("interactWithForgettableClass").invoke(instance));
+    assertThat(transcript.toString()).contains("intercept:");
+  }
+
+  public static String replaceForgettableMethod(AClassToForget aClassToForget) {
+    return "replaced " + aClassToForget.getClass().getSimpleName();
+  }
+
+  public static String replaceForgettableStaticMethod() {
+    return "replaced";
+  }
+
   @Test
   public void byte_shouldBeHandledAsReturnValueFromInterceptHandler() throws Exception {
     if (InvokeDynamic.ENABLED) return;
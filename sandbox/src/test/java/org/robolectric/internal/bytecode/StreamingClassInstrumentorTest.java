@@ -0,0 +1,87 @@
+package org.robolectric.internal.bytecode;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.robolectric.testing.AClassWithFunnyConstructors;
+import org.robolectric.testing.AnExampleClass;
+import org.robolectric.util.Util;
+
+@RunWith(JUnit4.class)
+public class StreamingClassInstrumentorTest {
+
+  private final ClassNodeProvider classNodeProvider =
+      new ClassNodeProvider() {
+        @Override
+        protected byte[] getClassBytes(String className) throws ClassNotFoundException {
+          try {
+            return bytesOf(className);
+          } catch (IOException e) {
+            throw new ClassNotFoundException(className, e);
+          }
+        }
+      };
+
+  @Test
+  public void generatesTheSameMethodsAsInvokeDynamicClassInstrumentor() throws Exception {
+    InstrumentationConfiguration config = InstrumentationConfiguration.newBuilder().build();
+
+    for (Class<?> clazz :
+        new Class<?>[] {AnExampleClass.class, AClassWithFunnyConstructors.class}) {
+      byte[] classBytes = bytesOf(clazz.getName().replace('.', '/'));
+
+      assertThat(methodsOf(streaming().instrument(classBytes, config, classNodeProvider)))
+          .containsExactlyElementsIn(
+              methodsOf(invokeDynamic().instrument(classBytes, config, classNodeProvider)));
+    }
+  }
+
+  @Test
+  public void instrumentsClassesWithInterceptedCallsLikeInvokeDynamicClassInstrumentor()
+      throws Exception {
+    InstrumentationConfiguration config =
+        InstrumentationConfiguration.newBuilder()
+            .addInterceptedMethod(new MethodRef(StringBuilder.class, "append"))
+            .build();
+    byte[] classBytes = bytesOf(AnExampleClass.class.getName().replace('.', '/'));
+
+    assertThat(streaming().instrument(classBytes, config, classNodeProvider))
+        .isEqualTo(invokeDynamic().instrument(classBytes, config, classNodeProvider));
+  }
+
+  private static ClassInstrumentor streaming() {
+    return new StreamingClassInstrumentor(new ShadowDecorator());
+  }
+
+  private static ClassInstrumentor invokeDynamic() {
+    return new InvokeDynamicClassInstrumentor(new ShadowDecorator());
+  }
+
+  private static List<String> methodsOf(byte[] classBytes) {
+    ClassNode classNode = new ClassNode();
+    new ClassReader(classBytes).accept(classNode, 0);
+    List<String> methods = new ArrayList<>();
+    for (MethodNode method : classNode.methods) {
+      methods.add(method.access + " " + method.name + method.desc);
+    }
+    return methods;
+  }
+
+  private static byte[] bytesOf(String internalClassName) throws IOException {
+    try (InputStream in =
+        StreamingClassInstrumentorTest.class
+            .getClassLoader()
+            .getResourceAsStream(internalClassName + ".class")) {
+      return Util.readBytes(in);
+    }
+  }
+}
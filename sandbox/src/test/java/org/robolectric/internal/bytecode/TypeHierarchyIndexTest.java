@@ -0,0 +1,109 @@
+package org.robolectric.internal.bytecode;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.objectweb.asm.Type;
+import org.robolectric.internal.bytecode.TypeHierarchyIndex.TypeInfo;
+import org.robolectric.util.Util;
+
+@RunWith(JUnit4.class)
+public class TypeHierarchyIndexTest {
+
+  @Test
+  public void readsSupertypesFromClassHeader() throws Exception {
+    TypeInfo baseInfo = TypeInfo.read(bytesOf(Base.class));
+    assertThat(baseInfo.superName).isEqualTo("java/lang/Object");
+    assertThat(baseInfo.interfaces).asList().containsExactly(Type.getInternalName(Shape.class));
+    assertThat(baseInfo.isInterface()).isFalse();
+
+    TypeInfo derivedInfo = TypeInfo.read(bytesOf(Derived.class));
+    assertThat(derivedInfo.superName).isEqualTo(Type.getInternalName(Base.class));
+    assertThat(derivedInfo.interfaces).isEmpty();
+
+    assertThat(TypeInfo.read(bytesOf(Shape.class)).isInterface()).isTrue();
+  }
+
+  @Test
+  public void providersShareTypesFromTheSameJar() throws Exception {
+    File jar = File.createTempFile("types", ".jar");
+    jar.deleteOnExit();
+    List<String> reads = new ArrayList<>();
+    ClassNodeProvider provider1 = new RecordingProvider(jar, reads);
+    ClassNodeProvider provider2 = new RecordingProvider(jar, reads);
+    String base = Type.getInternalName(Base.class);
+
+    TypeInfo fromProvider1 = provider1.getTypeInfo(base);
+    TypeInfo fromProvider2 = provider2.getTypeInfo(base);
+    provider1.getTypeInfo(base);
+
+    assertThat(fromProvider2).isSameAs(fromProvider1);
+    assertThat(reads).containsExactly(base);
+  }
+
+  @Test
+  public void keepsOnlyTheMostRecentlyUsedJarIndexes() throws Exception {
+    File firstJar = File.createTempFile("types", ".jar");
+    firstJar.deleteOnExit();
+    TypeHierarchyIndex firstIndex = TypeHierarchyIndex.forJar(firstJar);
+
+    for (int i = 0; i < TypeHierarchyIndex.MAX_JAR_INDEXES; i++) {
+      File jar = File.createTempFile("types", ".jar");
+      jar.deleteOnExit();
+      TypeHierarchyIndex.forJar(jar);
+    }
+
+    assertThat(TypeHierarchyIndex.forJar(firstJar)).isNotSameAs(firstIndex);
+  }
+
+  private static byte[] bytesOf(Class<?> clazz) throws IOException {
+    return bytesOf(Type.getInternalName(clazz));
+  }
+
+  private static byte[] bytesOf(String internalClassName) throws IOException {
+    try (InputStream in =
+        TypeHierarchyIndexTest.class
+            .getClassLoader()
+            .getResourceAsStream(internalClassName + ".class")) {
+      return Util.readBytes(in);
+    }
+  }
+
+  private static class RecordingProvider extends ClassNodeProvider {
+    private final File jar;
+    private final List<String> reads;
+
+    RecordingProvider(File jar, List<String> reads) {
+      this.jar = jar;
+      this.reads = reads;
+    }
+
+    @Override
+    protected byte[] getClassBytes(String className) throws ClassNotFoundException {
+      reads.add(className);
+      try {
+        return bytesOf(className);
+      } catch (IOException e) {
+        throw new ClassNotFoundException(className, e);
+      }
+    }
+
+    @Override
+    protected File getClassJar(String internalClassName) {
+      return jar;
+    }
+  }
+
+  interface Shape {}
+
+  static class Base implements Shape {}
+
+  static class Derived extends Base {}
+}
@@ -14,6 +14,16 @@ public interface ShadowProvider {
    */
   void reset();
 
+  /**
+   * Reset the static state of the shadows provided by this package that may have been used.
+   *
+   * <p>Shadows for which {@link ResetContext#beginReset(String, String)} returns false are
+   * skipped. Providers generated by older versions of the annotation processor reset everything.
+   */
+  default void reset(ResetContext context) {
+    reset();
+  }
+
   /**
    * Array of Java package names that are shadowed by this package.
    *
@@ -38,4 +48,19 @@ public interface ShadowProvider {
   default Map<String, String> getShadowPickerMap() {
     return Collections.emptyMap();
   }
+
+  /** Decides which shadows {@link #reset(ResetContext)} resets, and observes the resets. */
+  interface ResetContext {
+
+    /**
+     * Returns true if the static state of the given shadow should be reset, in which case {@link
+     * #endReset(String)} is called once it has been, even if the resetter throws.
+     *
+     * @param shadowClassName the binary name of the shadow class
+     * @param shadowedClassName the binary name of the class it shadows, or null if unknown
+     */
+    boolean beginReset(String shadowClassName, String shadowedClassName);
+
+    void endReset(String shadowClassName);
+  }
 }
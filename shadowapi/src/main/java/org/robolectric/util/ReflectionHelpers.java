@@ -1,6 +1,7 @@
 package org.robolectric.util;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
@@ -8,17 +9,32 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Collection of helper methods for calling methods and accessing fields reflectively.
+ *
+ * <p>Fields, methods and constructors looked up by name are made accessible once and cached per
+ * class, so repeated calls don't search the class hierarchy again.
  */
 @SuppressWarnings(value = {"unchecked", "TypeParameterUnusedInFormals"})
 public class ReflectionHelpers {
   private static final Map<String, Object> PRIMITIVE_RETURN_VALUES;
 
+  private static final Class<?>[] NO_PARAMETER_TYPES = new Class<?>[0];
+
+  private static final ClassValue<Map<MemberKey, AccessibleObject>> MEMBERS =
+      new ClassValue<Map<MemberKey, AccessibleObject>>() {
+        @Override
+        protected Map<MemberKey, AccessibleObject> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
   static {
     HashMap<String, Object> map = new HashMap<>();
     map.put("boolean", Boolean.FALSE);
@@ -107,14 +123,7 @@ public class ReflectionHelpers {
   @SuppressWarnings("unchecked")
   public static <R> R getField(final Object object, final String fieldName) {
     try {
-      return traverseClassHierarchy(object.getClass(), NoSuchFieldException.class, new InsideTraversal<R>() {
-        @Override
-        public R run(Class<?> traversalClass) throws Exception {
-          Field field = traversalClass.getDeclaredField(fieldName);
-          field.setAccessible(true);
-          return (R) field.get(object);
-        }
-      });
+      return (R) findField(object.getClass(), fieldName, MemberKind.FIELD).get(object);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -129,15 +138,7 @@ public class ReflectionHelpers {
    */
   public static void setField(final Object object, final String fieldName, final Object fieldNewValue) {
     try {
-      traverseClassHierarchy(object.getClass(), NoSuchFieldException.class, new InsideTraversal<Void>() {
-        @Override
-        public Void run(Class<?> traversalClass) throws Exception {
-          Field field = traversalClass.getDeclaredField(fieldName);
-          field.setAccessible(true);
-          field.set(object, fieldNewValue);
-          return null;
-        }
-      });
+      findField(object.getClass(), fieldName, MemberKind.FIELD).set(object, fieldNewValue);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -153,9 +154,7 @@ public class ReflectionHelpers {
    */
   public static void setField(Class<?> type, final Object object, final String fieldName, final Object fieldNewValue) {
     try {
-      Field field = type.getDeclaredField(fieldName);
-      field.setAccessible(true);
-      field.set(object, fieldNewValue);
+      findField(type, fieldName, MemberKind.DECLARED_FIELD).set(object, fieldNewValue);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -188,7 +187,7 @@ public class ReflectionHelpers {
    */
   public static <R> R getStaticField(Class<?> clazz, String fieldName) {
     try {
-      return getStaticField(clazz.getDeclaredField(fieldName));
+      return (R) findField(clazz, fieldName, MemberKind.STATIC_FIELD).get(null);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -218,7 +217,7 @@ public class ReflectionHelpers {
    */
   public static void setStaticField(Class<?> clazz, String fieldName, Object fieldNewValue) {
     try {
-      setStaticField(clazz.getDeclaredField(fieldName), fieldNewValue);
+      findField(clazz, fieldName, MemberKind.STATIC_FIELD).set(null, fieldNewValue);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -238,15 +237,8 @@ public class ReflectionHelpers {
       final Class<?>[] classes = ClassParameter.getClasses(classParameters);
       final Object[] values = ClassParameter.getValues(classParameters);
 
-      return traverseClassHierarchy(instance.getClass(), NoSuchMethodException.class, new InsideTraversal<R>() {
-        @Override
-        @SuppressWarnings("unchecked")
-        public R run(Class<?> traversalClass) throws Exception {
-          Method declaredMethod = traversalClass.getDeclaredMethod(methodName, classes);
-          declaredMethod.setAccessible(true);
-          return (R) declaredMethod.invoke(instance, values);
-        }
-      });
+      Method method = findMethod(instance.getClass(), methodName, classes, MemberKind.METHOD);
+      return (R) method.invoke(instance, values);
     } catch (InvocationTargetException e) {
       if (e.getTargetException() instanceof RuntimeException) {
         throw (RuntimeException) e.getTargetException();
@@ -275,8 +267,7 @@ public class ReflectionHelpers {
       final Class<?>[] classes = ClassParameter.getClasses(classParameters);
       final Object[] values = ClassParameter.getValues(classParameters);
 
-      Method method = cl.getDeclaredMethod(methodName, classes);
-      method.setAccessible(true);
+      Method method = findMethod(cl, methodName, classes, MemberKind.DECLARED_METHOD);
       if (Modifier.isStatic(method.getModifiers())) {
         throw new IllegalArgumentException(method + " is static");
       }
@@ -309,8 +300,7 @@ public class ReflectionHelpers {
       Class<?>[] classes = ClassParameter.getClasses(classParameters);
       Object[] values = ClassParameter.getValues(classParameters);
 
-      Method method = clazz.getDeclaredMethod(methodName, classes);
-      method.setAccessible(true);
+      Method method = findMethod(clazz, methodName, classes, MemberKind.DECLARED_METHOD);
       if (!Modifier.isStatic(method.getModifiers())) {
         throw new IllegalArgumentException(method + " is not static");
       }
@@ -374,9 +364,7 @@ public class ReflectionHelpers {
       final Class<?>[] classes = ClassParameter.getClasses(classParameters);
       final Object[] values = ClassParameter.getValues(classParameters);
 
-      Constructor<? extends R> constructor = clazz.getDeclaredConstructor(classes);
-      constructor.setAccessible(true);
-      return constructor.newInstance(values);
+      return findConstructor(clazz, classes).newInstance(values);
     } catch (InstantiationException e) {
       throw new RuntimeException("error instantiating " + clazz.getName(), e);
     } catch (InvocationTargetException e) {
@@ -392,21 +380,114 @@ public class ReflectionHelpers {
     }
   }
 
-  private static <R, E extends Exception> R traverseClassHierarchy(Class<?> targetClass, Class<? extends E> exceptionClass, InsideTraversal<R> insideTraversal) throws Exception {
-    Class<?> hierarchyTraversalClass = targetClass;
-    while (true) {
+  private static Field findField(Class<?> type, String fieldName, MemberKind kind)
+      throws NoSuchFieldException {
+    Map<MemberKey, AccessibleObject> members = MEMBERS.get(type);
+    MemberKey key = new MemberKey(kind, fieldName, NO_PARAMETER_TYPES);
+    Field field = (Field) members.get(key);
+    if (field == null) {
+      if (kind == MemberKind.FIELD) {
+        field = findInheritedField(type, fieldName);
+        field.setAccessible(true);
+      } else if (kind == MemberKind.STATIC_FIELD) {
+        field = type.getDeclaredField(fieldName);
+        makeFieldVeryAccessible(field);
+      } else {
+        field = type.getDeclaredField(fieldName);
+        field.setAccessible(true);
+      }
+      members.put(key, field);
+    }
+    return field;
+  }
+
+  private static Field findInheritedField(Class<?> type, String fieldName)
+      throws NoSuchFieldException {
+    NoSuchFieldException notFound = null;
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
       try {
-        return insideTraversal.run(hierarchyTraversalClass);
-      } catch (Exception e) {
-        if (!exceptionClass.isInstance(e)) {
-          throw e;
+        return c.getDeclaredField(fieldName);
+      } catch (NoSuchFieldException e) {
+        if (notFound == null) {
+          notFound = e;
         }
-        hierarchyTraversalClass = hierarchyTraversalClass.getSuperclass();
-        if (hierarchyTraversalClass == null) {
-          throw new RuntimeException(e);
+      }
+    }
+    throw notFound;
+  }
+
+  private static Method findMethod(
+      Class<?> type, String methodName, Class<?>[] parameterTypes, MemberKind kind)
+      throws NoSuchMethodException {
+    Map<MemberKey, AccessibleObject> members = MEMBERS.get(type);
+    MemberKey key = new MemberKey(kind, methodName, parameterTypes);
+    Method method = (Method) members.get(key);
+    if (method == null) {
+      method = kind == MemberKind.METHOD
+          ? findInheritedMethod(type, methodName, parameterTypes)
+          : type.getDeclaredMethod(methodName, parameterTypes);
+      method.setAccessible(true);
+      if (isCacheable(type, parameterTypes)) {
+        members.put(key, method);
+      }
+    }
+    return method;
+  }
+
+  private static Method findInheritedMethod(
+      Class<?> type, String methodName, Class<?>[] parameterTypes) throws NoSuchMethodException {
+    NoSuchMethodException notFound = null;
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      try {
+        return c.getDeclaredMethod(methodName, parameterTypes);
+      } catch (NoSuchMethodException e) {
+        if (notFound == null) {
+          notFound = e;
         }
       }
     }
+    throw notFound;
+  }
+
+  private static <T> Constructor<T> findConstructor(Class<T> type, Class<?>[] parameterTypes)
+      throws NoSuchMethodException {
+    Map<MemberKey, AccessibleObject> members = MEMBERS.get(type);
+    MemberKey key = new MemberKey(MemberKind.CONSTRUCTOR, "<init>", parameterTypes);
+    Constructor<T> constructor = (Constructor<T>) members.get(key);
+    if (constructor == null) {
+      constructor = type.getDeclaredConstructor(parameterTypes);
+      constructor.setAccessible(true);
+      if (isCacheable(type, parameterTypes)) {
+        members.put(key, constructor);
+      }
+    }
+    return constructor;
+  }
+
+  /**
+   * Whether members looked up with {@code parameterTypes} can be cached on {@code type}: only if
+   * every parameter type comes from {@code type}'s class loader or one of its parents. Otherwise
+   * the cache would keep other class loaders reachable for as long as {@code type} is, e.g.
+   * sandbox class loaders for the life of the JVM when {@code type} is a system class.
+   */
+  private static boolean isCacheable(Class<?> type, Class<?>[] parameterTypes) {
+    ClassLoader typeLoader = type.getClassLoader();
+    for (Class<?> parameterType : parameterTypes) {
+      ClassLoader parameterLoader = parameterType.getClassLoader();
+      if (parameterLoader != null && !isSelfOrAncestor(parameterLoader, typeLoader)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSelfOrAncestor(ClassLoader candidate, ClassLoader loader) {
+    for (ClassLoader l = loader; l != null; l = l.getParent()) {
+      if (l == candidate) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private static void makeFieldVeryAccessible(Field field) {
@@ -429,8 +510,44 @@ public class ReflectionHelpers {
     return PRIMITIVE_RETURN_VALUES.get(returnType);
   }
 
-  private interface InsideTraversal<R> {
-    R run(Class<?> traversalClass) throws Exception;
+  /** How a member was looked up; inherited members are cached on the class they were found from. */
+  private enum MemberKind {
+    FIELD,
+    DECLARED_FIELD,
+    STATIC_FIELD,
+    METHOD,
+    DECLARED_METHOD,
+    CONSTRUCTOR
+  }
+
+  private static final class MemberKey {
+    private final MemberKind kind;
+    private final String name;
+    private final Class<?>[] parameterTypes;
+    private final int hashCode;
+
+    MemberKey(MemberKind kind, String name, Class<?>[] parameterTypes) {
+      this.kind = kind;
+      this.name = name;
+      this.parameterTypes = parameterTypes;
+      this.hashCode =
+          31 * (31 * kind.ordinal() + name.hashCode()) + Arrays.hashCode(parameterTypes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof MemberKey)) return false;
+      MemberKey that = (MemberKey) o;
+      return kind == that.kind
+          && name.equals(that.name)
+          && Arrays.equals(parameterTypes, that.parameterTypes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
   }
 
   /**
@@ -55,6 +55,21 @@ public class ReflectionHelpersTest {
     assertThat(example.getNotOverridden()).isEqualTo(10);
   }
 
+  @Test
+  public void setFieldReflectively_resolvesFieldsPerClass() {
+    ExampleDescendant descendant = new ExampleDescendant();
+    ExampleBase base = new ExampleBase();
+
+    for (int i = 0; i < 2; i++) {
+      ReflectionHelpers.setField(descendant, "overridden", 10 + i);
+      ReflectionHelpers.setField(base, "overridden", 20 + i);
+    }
+
+    assertThat(descendant.overridden).isEqualTo(11);
+    assertThat(((ExampleBase) descendant).overridden).isEqualTo(0);
+    assertThat(base.overridden).isEqualTo(21);
+  }
+
   @Test
   public void setFieldReflectively_givesHelpfulExceptions() {
     ExampleDescendant example = new ExampleDescendant();
@@ -0,0 +1,433 @@
+package org.robolectric.shadows;
+
+import android.graphics.Bitmap;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Pixel storage for {@link ShadowBitmap}.
+ *
+ * <p>Pixels live in a direct {@link ByteBuffer} laid out as the framework lays out each config in
+ * memory: one byte per pixel for {@code ALPHA_8}, a 16-bit word for {@code RGB_565}, R, G, B and A
+ * bytes for {@code ARGB_8888}, and four half floats for {@code RGBA_F16}. Unlike the framework,
+ * colors are stored unpremultiplied. Configs without such a layout here ({@code ARGB_4444}, {@code
+ * HARDWARE}, or no config at all) store the 32-bit colors unchanged.
+ *
+ * <p>Stores returned by {@link #share()} and {@link #region} read from the same memory as the
+ * store they were created from; whichever of them is written to first copies it.
+ */
+final class BitmapPixelStore {
+
+  enum Layout {
+    ALPHA_8(1, true) {
+      @Override
+      int get(ByteBuffer data, int index) {
+        return (data.get(index) & 0xff) << 24;
+      }
+
+      @Override
+      void put(ByteBuffer data, int index, int color) {
+        data.put(index, (byte) (color >>> 24));
+      }
+    },
+    RGB_565(2, true) {
+      @Override
+      int get(ByteBuffer data, int index) {
+        int rgb = data.getShort(index) & 0xffff;
+        int r = rgb >>> 11;
+        int g = (rgb >>> 5) & 0x3f;
+        int b = rgb & 0x1f;
+        return 0xff000000
+            | ((r << 3) | (r >>> 2)) << 16
+            | ((g << 2) | (g >>> 4)) << 8
+            | ((b << 3) | (b >>> 2));
+      }
+
+      @Override
+      void put(ByteBuffer data, int index, int color) {
+        int r = (color >>> 19) & 0x1f;
+        int g = (color >>> 10) & 0x3f;
+        int b = (color >>> 3) & 0x1f;
+        data.putShort(index, (short) (r << 11 | g << 5 | b));
+      }
+    },
+    ARGB_8888(4, true) {
+      @Override
+      int get(ByteBuffer data, int index) {
+        return swapRedAndBlue(data.getInt(index));
+      }
+
+      @Override
+      void put(ByteBuffer data, int index, int color) {
+        data.putInt(index, swapRedAndBlue(color));
+      }
+    },
+    RGBA_F16(8, true) {
+      @Override
+      int get(ByteBuffer data, int index) {
+        return fromHalf(data.getShort(index + 6)) << 24
+            | fromHalf(data.getShort(index)) << 16
+            | fromHalf(data.getShort(index + 2)) << 8
+            | fromHalf(data.getShort(index + 4));
+      }
+
+      @Override
+      void put(ByteBuffer data, int index, int color) {
+        data.putShort(index, toHalf((color >>> 16) & 0xff));
+        data.putShort(index + 2, toHalf((color >>> 8) & 0xff));
+        data.putShort(index + 4, toHalf(color & 0xff));
+        data.putShort(index + 6, toHalf(color >>> 24));
+      }
+    },
+    /** 32-bit ARGB colors, for configs whose framework layout isn't modeled. */
+    COLORS(4, false) {
+      @Override
+      int get(ByteBuffer data, int index) {
+        return data.getInt(index);
+      }
+
+      @Override
+      void put(ByteBuffer data, int index, int color) {
+        data.putInt(index, color);
+      }
+    };
+
+    final int bytesPerPixel;
+    /** Whether the layout matches the framework's, so that raw pixel copies make sense. */
+    final boolean isFrameworkLayout;
+
+    Layout(int bytesPerPixel, boolean isFrameworkLayout) {
+      this.bytesPerPixel = bytesPerPixel;
+      this.isFrameworkLayout = isFrameworkLayout;
+    }
+
+    abstract int get(ByteBuffer data, int index);
+
+    abstract void put(ByteBuffer data, int index, int color);
+
+    /** The color of a pixel whose bytes are all zero. */
+    int blankColor() {
+      return this == RGB_565 ? 0xff000000 : 0;
+    }
+
+    static Layout forConfig(Bitmap.Config config) {
+      if (config == null) {
+        return COLORS;
+      }
+      switch (config) {
+        case ALPHA_8:
+          return ALPHA_8;
+        case RGB_565:
+          return RGB_565;
+        case ARGB_8888:
+          return ARGB_8888;
+        case RGBA_F16:
+          return RGBA_F16;
+        default:
+          return COLORS;
+      }
+    }
+  }
+
+  /** Memory that may be shared by several stores. */
+  private static class Storage {
+    final ByteBuffer data;
+    int owners = 1;
+
+    Storage(int byteCount) {
+      data = ByteBuffer.allocateDirect(byteCount).order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+  final Layout layout;
+  final int width;
+  final int height;
+  private Storage storage;
+  /** Byte offset of pixel (0, 0) within the storage. */
+  private int origin;
+  /** Distance in bytes between the starts of consecutive rows in the storage. */
+  private int rowBytes;
+
+  private BitmapPixelStore(
+      Layout layout, int width, int height, Storage storage, int origin, int rowBytes) {
+    this.layout = layout;
+    this.width = width;
+    this.height = height;
+    this.storage = storage;
+    this.origin = origin;
+    this.rowBytes = rowBytes;
+  }
+
+  /** Returns a new store with all bytes set to zero. */
+  static BitmapPixelStore allocate(Layout layout, int width, int height) {
+    int rowBytes = width * layout.bytesPerPixel;
+    return new BitmapPixelStore(
+        layout, width, height, new Storage(rowBytes * height), 0, rowBytes);
+  }
+
+  boolean hasShape(Layout layout, int width, int height) {
+    return this.layout == layout && this.width == width && this.height == height;
+  }
+
+  int byteCount() {
+    return width * height * layout.bytesPerPixel;
+  }
+
+  /** Returns a store with the same pixels, sharing memory with this one until either is written. */
+  BitmapPixelStore share() {
+    return region(0, 0, width, height);
+  }
+
+  /** Returns a store of the given part of this one, sharing memory until either is written. */
+  BitmapPixelStore region(int x, int y, int width, int height) {
+    if (x < 0 || y < 0 || x + width > this.width || y + height > this.height) {
+      throw new IllegalArgumentException("region must lie within the store");
+    }
+    storage.owners++;
+    return new BitmapPixelStore(
+        layout, width, height, storage, indexOf(x, y), rowBytes);
+  }
+
+  /**
+   * Gives up this store's claim on its memory; the store must not be used afterwards. Once the last
+   * store sharing the memory has released it, nothing refers to it any more and it can be freed.
+   */
+  void release() {
+    storage.owners--;
+    storage = null;
+  }
+
+  /**
+   * Returns a new store with the given shape, holding as many of this store's pixels as fit, in
+   * row-major order. This is how the framework reinterprets a bitmap's memory when it is
+   * reconfigured, apart from the conversion between layouts.
+   */
+  BitmapPixelStore reshape(Layout layout, int width, int height) {
+    BitmapPixelStore reshaped = allocate(layout, width, height);
+    int count = Math.min(this.width * this.height, width * height);
+    for (int i = 0; i < count; i++) {
+      int color = getPixel(i % this.width, i / this.width);
+      reshaped.setPixel(i % width, i / width, color);
+    }
+    return reshaped;
+  }
+
+  int getPixel(int x, int y) {
+    return layout.get(storage.data, indexOf(x, y));
+  }
+
+  void getPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+    checkRegion(x, y, width, height);
+    for (int row = 0; row < height; row++) {
+      int rowStart = offset + row * stride;
+      if (layout == Layout.ARGB_8888 || layout == Layout.COLORS) {
+        intView(indexOf(x, y + row)).get(pixels, rowStart, width);
+        if (layout == Layout.ARGB_8888) {
+          for (int i = rowStart; i < rowStart + width; i++) {
+            pixels[i] = swapRedAndBlue(pixels[i]);
+          }
+        }
+      } else {
+        for (int column = 0; column < width; column++) {
+          pixels[rowStart + column] = getPixel(x + column, y + row);
+        }
+      }
+    }
+  }
+
+  void setPixel(int x, int y, int color) {
+    prepareForWrite();
+    layout.put(storage.data, indexOf(x, y), color);
+  }
+
+  void setPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+    checkRegion(x, y, width, height);
+    prepareForWrite();
+    int[] swapped = layout == Layout.ARGB_8888 ? new int[width] : null;
+    for (int row = 0; row < height; row++) {
+      int rowStart = offset + row * stride;
+      if (layout == Layout.COLORS) {
+        intView(indexOf(x, y + row)).put(pixels, rowStart, width);
+      } else if (swapped != null) {
+        for (int column = 0; column < width; column++) {
+          swapped[column] = swapRedAndBlue(pixels[rowStart + column]);
+        }
+        intView(indexOf(x, y + row)).put(swapped, 0, width);
+      } else {
+        for (int column = 0; column < width; column++) {
+          layout.put(storage.data, indexOf(x + column, y + row), pixels[rowStart + column]);
+        }
+      }
+    }
+  }
+
+  /** Sets every pixel to {@code color}. */
+  void fill(int color) {
+    prepareForWrite();
+    int byteCount = byteCount();
+    if (byteCount == 0) {
+      return;
+    }
+    layout.put(storage.data, 0, color);
+    // Double the filled prefix until it covers the store, rather than encoding every pixel.
+    for (int filled = layout.bytesPerPixel; filled < byteCount; filled *= 2) {
+      ByteBuffer source = storage.data.duplicate();
+      source.limit(Math.min(filled, byteCount - filled));
+      ByteBuffer target = storage.data.duplicate();
+      target.position(filled);
+      target.put(source);
+    }
+  }
+
+  /** Copies the raw pixel bytes to {@code dst}, advancing its position. */
+  void copyTo(ByteBuffer dst) {
+    if (isCompact()) {
+      dst.put(bytes(origin, byteCount()));
+    } else {
+      for (int row = 0; row < height; row++) {
+        dst.put(bytes(indexOf(0, row), width * layout.bytesPerPixel));
+      }
+    }
+  }
+
+  /** Replaces the raw pixel bytes with those from {@code src}, advancing its position. */
+  void copyFrom(ByteBuffer src) {
+    prepareForWrite();
+    ByteBuffer source = src.duplicate();
+    source.limit(source.position() + byteCount());
+    storage.data.duplicate().put(source);
+    src.position(source.position());
+  }
+
+  /** Returns true if every byte is zero, as in a newly allocated store. */
+  boolean isBlank() {
+    ByteBuffer data = storage.data;
+    for (int row = 0; row < height; row++) {
+      int start = indexOf(0, row);
+      int end = start + width * layout.bytesPerPixel;
+      int i = start;
+      for (; i + 8 <= end; i += 8) {
+        if (data.getLong(i) != 0) {
+          return false;
+        }
+      }
+      for (; i < end; i++) {
+        if (data.get(i) != 0) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  boolean contentEquals(BitmapPixelStore other) {
+    if (width != other.width || height != other.height) {
+      return false;
+    }
+    if (layout == other.layout) {
+      int rowLength = width * layout.bytesPerPixel;
+      for (int row = 0; row < height; row++) {
+        if (!bytes(indexOf(0, row), rowLength)
+            .equals(other.bytes(other.indexOf(0, row), rowLength))) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        if (getPixel(x, y) != other.getPixel(x, y)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private int indexOf(int x, int y) {
+    return origin + y * rowBytes + x * layout.bytesPerPixel;
+  }
+
+  private boolean isCompact() {
+    return origin == 0
+        && rowBytes == width * layout.bytesPerPixel
+        && storage.data.capacity() == byteCount();
+  }
+
+  /** Makes sure this store has compact memory of its own before it is modified. */
+  private void prepareForWrite() {
+    if (storage.owners == 1 && isCompact()) {
+      return;
+    }
+    Storage copy = new Storage(byteCount());
+    copyTo(copy.data.duplicate());
+    storage.owners--;
+    storage = copy;
+    origin = 0;
+    rowBytes = width * layout.bytesPerPixel;
+  }
+
+  private ByteBuffer bytes(int start, int length) {
+    ByteBuffer bytes = storage.data.duplicate();
+    bytes.limit(start + length).position(start);
+    return bytes;
+  }
+
+  private IntBuffer intView(int start) {
+    ByteBuffer bytes = storage.data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    bytes.position(start);
+    return bytes.asIntBuffer();
+  }
+
+  private void checkRegion(int x, int y, int width, int height) {
+    if (x < 0 || y < 0 || width < 0 || height < 0
+        || x + width > this.width || y + height > this.height) {
+      throw new IllegalArgumentException(
+          "region (" + x + ", " + y + ", " + width + " x " + height + ") exceeds bitmap bounds");
+    }
+  }
+
+  /** Converts between ARGB colors and the little-endian words of R, G, B and A bytes. */
+  private static int swapRedAndBlue(int color) {
+    return (color & 0xff00ff00) | ((color >>> 16) & 0xff) | ((color & 0xff) << 16);
+  }
+
+  /** Encodes the color component {@code value / 255} as an IEEE half float. */
+  private static short toHalf(int value) {
+    if (value == 0) {
+      return 0;
+    }
+    int bits = Float.floatToIntBits(value / 255f);
+    int exponent = ((bits >>> 23) & 0xff) - 127 + 15;
+    int mantissa = bits & 0x7fffff;
+    if (exponent <= 0) {
+      // subnormal; not reached for 8-bit components, whose smallest value 1/255 is normal
+      int shift = 14 - exponent;
+      mantissa |= 0x800000;
+      return (short) ((mantissa >> shift) + ((mantissa >> (shift - 1)) & 1));
+    }
+    int half = exponent << 10 | mantissa >>> 13;
+    // round to nearest; a carry correctly rolls over into the exponent
+    return (short) (half + ((mantissa >>> 12) & 1));
+  }
+
+  /** Decodes a half float color component, clamped to [0, 1], to the range 0-255. */
+  private static int fromHalf(short half) {
+    int bits = half & 0xffff;
+    if ((bits & 0x8000) != 0) {
+      return 0;
+    }
+    int exponent = bits >>> 10;
+    int mantissa = bits & 0x3ff;
+    float value;
+    if (exponent == 0) {
+      value = mantissa / (float) (1 << 24);
+    } else if (exponent == 0x1f) {
+      return mantissa == 0 ? 255 : 0;
+    } else {
+      value = Float.intBitsToFloat((exponent - 15 + 127) << 23 | mantissa << 13);
+    }
+    return Math.round(Math.min(value, 1f) * 255);
+  }
+}
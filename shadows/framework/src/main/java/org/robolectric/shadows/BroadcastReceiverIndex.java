@@ -0,0 +1,118 @@
+package org.robolectric.shadows;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.robolectric.shadows.ShadowApplication.Wrapper;
+
+/**
+ * Index of dynamically registered broadcast receivers by the actions of their intent filters.
+ *
+ * <p>Like the framework, the actions of a filter are captured when the receiver is registered. For
+ * each action, receivers are available both in registration order (for normal broadcasts) and in
+ * decreasing priority order (for ordered broadcasts); the latter is sorted once after the action's
+ * receivers change rather than once per broadcast.
+ */
+class BroadcastReceiverIndex {
+
+  private final Map<String, ActionReceivers> byAction = new HashMap<>();
+  private final Map<Wrapper, Registration> registrations = new IdentityHashMap<>();
+  private long nextSequence;
+
+  void add(Wrapper wrapper) {
+    Registration registration = new Registration(nextSequence++);
+    Iterator<String> actions = wrapper.intentFilter.actionsIterator();
+    while (actions != null && actions.hasNext()) {
+      String action = actions.next();
+      registration.actions.add(action);
+      ActionReceivers receivers = byAction.get(action);
+      if (receivers == null) {
+        receivers = new ActionReceivers();
+        byAction.put(action, receivers);
+      }
+      receivers.add(registration.sequence, wrapper);
+    }
+    registrations.put(wrapper, registration);
+  }
+
+  void remove(Wrapper wrapper) {
+    Registration registration = registrations.remove(wrapper);
+    if (registration == null) {
+      return;
+    }
+    for (String action : registration.actions) {
+      ActionReceivers receivers = byAction.get(action);
+      receivers.remove(registration.sequence);
+      if (receivers.isEmpty()) {
+        byAction.remove(action);
+      }
+    }
+  }
+
+  /** Returns the receivers registered for {@code action}, in registration order. */
+  Collection<Wrapper> getReceivers(String action) {
+    ActionReceivers receivers = byAction.get(action);
+    return receivers == null
+        ? Collections.<Wrapper>emptyList()
+        : Collections.unmodifiableCollection(receivers.inRegistrationOrder.values());
+  }
+
+  /**
+   * Returns the receivers registered for {@code action}, by decreasing priority. Receivers with the
+   * same priority are in registration order.
+   */
+  List<Wrapper> getReceiversByPriority(String action) {
+    ActionReceivers receivers = byAction.get(action);
+    return receivers == null
+        ? Collections.<Wrapper>emptyList()
+        : receivers.inPriorityOrder();
+  }
+
+  private static class Registration {
+    final long sequence;
+    final List<String> actions = new ArrayList<>();
+
+    Registration(long sequence) {
+      this.sequence = sequence;
+    }
+  }
+
+  private static class ActionReceivers {
+    final TreeMap<Long, Wrapper> inRegistrationOrder = new TreeMap<>();
+    private List<Wrapper> inPriorityOrder;
+
+    void add(long sequence, Wrapper wrapper) {
+      inRegistrationOrder.put(sequence, wrapper);
+      inPriorityOrder = null;
+    }
+
+    void remove(long sequence) {
+      inRegistrationOrder.remove(sequence);
+      inPriorityOrder = null;
+    }
+
+    boolean isEmpty() {
+      return inRegistrationOrder.isEmpty();
+    }
+
+    List<Wrapper> inPriorityOrder() {
+      if (inPriorityOrder == null) {
+        List<Wrapper> sorted = new ArrayList<>(inRegistrationOrder.values());
+        // stable, so receivers with equal priority keep their registration order
+        Collections.sort(
+            sorted,
+            (o1, o2) ->
+                Integer.compare(
+                    o2.getIntentFilter().getPriority(), o1.getIntentFilter().getPriority()));
+        inPriorityOrder = Collections.unmodifiableList(sorted);
+      }
+      return inPriorityOrder;
+    }
+  }
+}
@@ -4,12 +4,16 @@ import java.awt.geom.CubicCurve2D;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.awt.geom.QuadCurve2D;
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Class that returns iterators for a given path. These iterators are lightweight and can be reused
  * multiple times to iterate over the path.
  *
+ * <p>The segments are stored in primitive arrays, along with the length of the path up to each
+ * segment so that {@link CachedPathIterator#jumpToSegment(float)} can find a segment with a binary
+ * search.
+ *
  * <p>copied from
  * https://github.com/aosp-mirror/platform_frameworks_base/blob/oreo-release/tools/layoutlib/bridge/src/com/android/layoutlib/bridge/util/CachedPathIteratorFactory.java
  */
@@ -19,43 +23,46 @@ public class CachedPathIteratorFactory {
    * Coordinates or coords arrays store segment coordinates. They use the same format as
    * PathIterator#currentSegment coordinates array.
    * float arrays store always points where the first element is X and the second is Y.
+   * The coordinates of segment i start at mCoordinates[i * COORDS_PER_SEGMENT].
    */
 
   // This governs how accurate the approximation of the Path is.
   private static final float PRECISION = 0.002f;
+  private static final int COORDS_PER_SEGMENT = 6;
 
   private final int mWindingRule;
   private final int[] mTypes;
-  private final float[][] mCoordinates;
+  private final float[] mCoordinates;
   private final float[] mSegmentsLength;
+  // The length of the path before each segment, and the total length at the end.
+  private final float[] mLengthsBefore;
   private final float mTotalLength;
 
   public CachedPathIteratorFactory(PathIterator iterator) {
     mWindingRule = iterator.getWindingRule();
 
-    ArrayList<Integer> typesArray = new ArrayList<>();
-    ArrayList<float[]> pointsArray = new ArrayList<>();
-    float[] points = new float[6];
+    int[] types = new int[16];
+    float[] coordinates = new float[types.length * COORDS_PER_SEGMENT];
+    float[] points = new float[COORDS_PER_SEGMENT];
+    int count = 0;
     while (!iterator.isDone()) {
-      int type = iterator.currentSegment(points);
-      int nPoints = getNumberOfPoints(type) * 2; // 2 coordinates per point
-
-      typesArray.add(type);
-      float[] itemPoints = new float[nPoints];
-      System.arraycopy(points, 0, itemPoints, 0, nPoints);
-      pointsArray.add(itemPoints);
+      if (count == types.length) {
+        types = Arrays.copyOf(types, count * 2);
+        coordinates = Arrays.copyOf(coordinates, count * 2 * COORDS_PER_SEGMENT);
+      }
+      types[count] = iterator.currentSegment(points);
+      int nPoints = getNumberOfPoints(types[count]) * 2; // 2 coordinates per point
+      System.arraycopy(points, 0, coordinates, count * COORDS_PER_SEGMENT, nPoints);
+      count++;
       iterator.next();
     }
 
-    mTypes = new int[typesArray.size()];
-    mCoordinates = new float[mTypes.length][];
-    for (int i = 0; i < typesArray.size(); i++) {
-      mTypes[i] = typesArray.get(i);
-      mCoordinates[i] = pointsArray.get(i);
-    }
+    mTypes = Arrays.copyOf(types, count);
+    mCoordinates = Arrays.copyOf(coordinates, count * COORDS_PER_SEGMENT);
 
     // Do measurement
     mSegmentsLength = new float[mTypes.length];
+    mLengthsBefore = new float[mTypes.length + 1];
 
     // Curves that we can reuse to estimate segments length
     CubicCurve2D.Float cubicCurve = new CubicCurve2D.Float();
@@ -64,56 +71,58 @@ public class CachedPathIteratorFactory {
     float lastY = 0;
     float totalLength = 0;
     for (int i = 0; i < mTypes.length; i++) {
+      int c = i * COORDS_PER_SEGMENT;
       switch (mTypes[i]) {
         case PathIterator.SEG_CUBICTO:
           cubicCurve.setCurve(
               lastX,
               lastY,
-              mCoordinates[i][0],
-              mCoordinates[i][1],
-              mCoordinates[i][2],
-              mCoordinates[i][3],
-              lastX = mCoordinates[i][4],
-              lastY = mCoordinates[i][5]);
+              mCoordinates[c],
+              mCoordinates[c + 1],
+              mCoordinates[c + 2],
+              mCoordinates[c + 3],
+              lastX = mCoordinates[c + 4],
+              lastY = mCoordinates[c + 5]);
           mSegmentsLength[i] = getFlatPathLength(cubicCurve.getPathIterator(null, PRECISION));
           break;
         case PathIterator.SEG_QUADTO:
           quadCurve.setCurve(
               lastX,
               lastY,
-              mCoordinates[i][0],
-              mCoordinates[i][1],
-              lastX = mCoordinates[i][2],
-              lastY = mCoordinates[i][3]);
+              mCoordinates[c],
+              mCoordinates[c + 1],
+              lastX = mCoordinates[c + 2],
+              lastY = mCoordinates[c + 3]);
           mSegmentsLength[i] = getFlatPathLength(quadCurve.getPathIterator(null, PRECISION));
           break;
         case PathIterator.SEG_CLOSE:
           mSegmentsLength[i] =
               (float)
                   Point2D.distance(
-                      lastX, lastY, lastX = mCoordinates[0][0], lastY = mCoordinates[0][1]);
-          mCoordinates[i] = new float[2];
+                      lastX, lastY, lastX = mCoordinates[0], lastY = mCoordinates[1]);
           // We convert a SEG_CLOSE segment to a SEG_LINETO so we do not have to worry
           // about this special case in the rest of the code.
           mTypes[i] = PathIterator.SEG_LINETO;
-          mCoordinates[i][0] = mCoordinates[0][0];
-          mCoordinates[i][1] = mCoordinates[0][1];
+          mCoordinates[c] = mCoordinates[0];
+          mCoordinates[c + 1] = mCoordinates[1];
           break;
         case PathIterator.SEG_MOVETO:
           mSegmentsLength[i] = 0;
-          lastX = mCoordinates[i][0];
-          lastY = mCoordinates[i][1];
+          lastX = mCoordinates[c];
+          lastY = mCoordinates[c + 1];
           break;
         case PathIterator.SEG_LINETO:
           mSegmentsLength[i] =
-              (float) Point2D.distance(lastX, lastY, mCoordinates[i][0], mCoordinates[i][1]);
-          lastX = mCoordinates[i][0];
-          lastY = mCoordinates[i][1];
+              (float) Point2D.distance(lastX, lastY, mCoordinates[c], mCoordinates[c + 1]);
+          lastX = mCoordinates[c];
+          lastY = mCoordinates[c + 1];
           break;
         default:
       }
+      mLengthsBefore[i] = totalLength;
       totalLength += mSegmentsLength[i];
     }
+    mLengthsBefore[mTypes.length] = totalLength;
 
     mTotalLength = totalLength;
   }
@@ -177,11 +186,12 @@ public class CachedPathIteratorFactory {
    *
    * @param type the segment type
    * @param coords the segment coordinates array
+   * @param offset the index of the segment's first coordinate in coords
    * @param point the return array where the point will be stored
    */
-  private static void getShapeEndPoint(int type, float[] coords, float[] point) {
+  private static void getShapeEndPoint(int type, float[] coords, int offset, float[] point) {
     // start index of the end point for the segment type
-    int pointIndex = (getNumberOfPoints(type) - 1) * 2;
+    int pointIndex = offset + (getNumberOfPoints(type) - 1) * 2;
     point[0] = coords[pointIndex];
     point[1] = coords[pointIndex + 1];
   }
@@ -234,10 +244,10 @@ public class CachedPathIteratorFactory {
 
   /** Returns the estimated position along a path of the given length. */
   private void getPointAtLength(
-      int type, float[] coords, float lastX, float lastY, float t, float[] point) {
+      int type, float[] coords, int offset, float lastX, float lastY, float t, float[] point) {
     if (type == PathIterator.SEG_LINETO) {
-      point[0] = lastX + (coords[0] - lastX) * t;
-      point[1] = lastY + (coords[1] - lastY) * t;
+      point[0] = lastX + (coords[offset] - lastX) * t;
+      point[1] = lastY + (coords[offset + 1] - lastY) * t;
       // Return here, since we do not need a shape to estimate
       return;
     }
@@ -245,7 +255,7 @@ public class CachedPathIteratorFactory {
     float[] curve = new float[8];
     int lastPointIndex = (getNumberOfPoints(type) - 1) * 2;
 
-    System.arraycopy(coords, 0, curve, 2, coords.length);
+    System.arraycopy(coords, offset, curve, 2, lastPointIndex + 2);
     curve[0] = lastX;
     curve[1] = lastY;
     if (type == PathIterator.SEG_CUBICTO) {
@@ -325,13 +335,15 @@ public class CachedPathIteratorFactory {
       if (mNextIndex >= 1) {
         // We've already called next() once so there is a previous segment in this path.
         // We want to get the coordinates where the path ends.
-        getShapeEndPoint(mCurrentType, mCurrentCoords, mLastPoint);
+        getShapeEndPoint(mCurrentType, mCurrentCoords, 0, mLastPoint);
       } else {
         // This is the first segment, no previous point so initialize to 0, 0
         mLastPoint[0] = mLastPoint[1] = 0f;
       }
       mCurrentType = mTypes[mNextIndex];
       mCurrentSegmentLength = mSegmentsLength[mNextIndex] - mOffsetLength;
+      int coordsOffset = mNextIndex * COORDS_PER_SEGMENT;
+      int coordsCount = getNumberOfPoints(mCurrentType) * 2;
 
       if (mOffsetLength > 0f && (mCurrentType == SEG_CUBICTO || mCurrentType == SEG_QUADTO)) {
         // We need to skip part of the start of the current segment (because
@@ -341,10 +353,11 @@ public class CachedPathIteratorFactory {
         if (mNextIndex < 1) {
           points[0] = points[1] = 0f;
         } else {
-          getShapeEndPoint(mTypes[mNextIndex - 1], mCoordinates[mNextIndex - 1], points);
+          getShapeEndPoint(
+              mTypes[mNextIndex - 1], mCoordinates, coordsOffset - COORDS_PER_SEGMENT, points);
         }
 
-        System.arraycopy(mCoordinates[mNextIndex], 0, points, 2, mCoordinates[mNextIndex].length);
+        System.arraycopy(mCoordinates, coordsOffset, points, 2, coordsCount);
         float t0 =
             (mSegmentsLength[mNextIndex] - mCurrentSegmentLength) / mSegmentsLength[mNextIndex];
         if (mCurrentType == SEG_CUBICTO) {
@@ -352,10 +365,9 @@ public class CachedPathIteratorFactory {
         } else {
           quadCurveSegment(points, t0, 1f);
         }
-        System.arraycopy(points, 2, mCurrentCoords, 0, mCoordinates[mNextIndex].length);
+        System.arraycopy(points, 2, mCurrentCoords, 0, coordsCount);
       } else {
-        System.arraycopy(
-            mCoordinates[mNextIndex], 0, mCurrentCoords, 0, mCoordinates[mNextIndex].length);
+        System.arraycopy(mCoordinates, coordsOffset, mCurrentCoords, 0, coordsCount);
       }
 
       mOffsetLength = 0f;
@@ -387,36 +399,57 @@ public class CachedPathIteratorFactory {
         return;
       }
 
-      float accLength = 0;
-      float lastPoint[] = new float[2];
-      for (mNextIndex = 0; mNextIndex < mTypes.length; mNextIndex++) {
-        float segmentLength = mSegmentsLength[mNextIndex];
-        if (accLength + segmentLength >= length && mTypes[mNextIndex] != SEG_MOVETO) {
-          float[] estimatedPoint = new float[2];
-          getPointAtLength(
-              mTypes[mNextIndex],
-              mCoordinates[mNextIndex],
-              lastPoint[0],
-              lastPoint[1],
-              (length - accLength) / segmentLength,
-              estimatedPoint);
-
-          // This segment makes us go further than length so we go back one step,
-          // set a moveto and offset the length of the next segment by the length
-          // of this segment that we've already used.
-          mCurrentType = PathIterator.SEG_MOVETO;
-          mCurrentCoords[0] = estimatedPoint[0];
-          mCurrentCoords[1] = estimatedPoint[1];
-          mCurrentSegmentLength = 0;
-
-          // We need to offset next path length to account for the segment we've just
-          // skipped.
-          mOffsetLength = length - accLength;
-          return;
+      // Find the first segment that makes us go as far as length; the lengths only grow.
+      int low = 0;
+      int high = mTypes.length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (mLengthsBefore[middle + 1] >= length) {
+          high = middle;
+        } else {
+          low = middle + 1;
         }
-        accLength += segmentLength;
-        getShapeEndPoint(mTypes[mNextIndex], mCoordinates[mNextIndex], lastPoint);
       }
+      // Moves have no length, so we can skip to the segment that starts from where they go.
+      while (low < mTypes.length && mTypes[low] == SEG_MOVETO) {
+        low++;
+      }
+      mNextIndex = low;
+      if (mNextIndex == mTypes.length) {
+        return;
+      }
+
+      float accLength = mLengthsBefore[mNextIndex];
+      float segmentLength = mSegmentsLength[mNextIndex];
+      float lastPoint[] = new float[2];
+      if (mNextIndex > 0) {
+        getShapeEndPoint(
+            mTypes[mNextIndex - 1],
+            mCoordinates,
+            (mNextIndex - 1) * COORDS_PER_SEGMENT,
+            lastPoint);
+      }
+      float[] estimatedPoint = new float[2];
+      getPointAtLength(
+          mTypes[mNextIndex],
+          mCoordinates,
+          mNextIndex * COORDS_PER_SEGMENT,
+          lastPoint[0],
+          lastPoint[1],
+          (length - accLength) / segmentLength,
+          estimatedPoint);
+
+      // This segment makes us go further than length so we go back one step,
+      // set a moveto and offset the length of the next segment by the length
+      // of this segment that we've already used.
+      mCurrentType = PathIterator.SEG_MOVETO;
+      mCurrentCoords[0] = estimatedPoint[0];
+      mCurrentCoords[1] = estimatedPoint[1];
+      mCurrentSegmentLength = 0;
+
+      // We need to offset next path length to account for the segment we've just
+      // skipped.
+      mOffsetLength = length - accLength;
     }
 
     /**
@@ -454,7 +487,7 @@ public class CachedPathIteratorFactory {
           break;
         default:
           float[] point = new float[2];
-          getPointAtLength(type, coords, mLastPoint[0], mLastPoint[1], t, point);
+          getPointAtLength(type, coords, 0, mLastPoint[0], mLastPoint[1], t, point);
           coords[0] = point[0];
           coords[1] = point[1];
       }
@@ -467,4 +500,9 @@ public class CachedPathIteratorFactory {
       return mTotalLength;
     }
   }
+
+  /** Returns the total length of the path */
+  public float getTotalLength() {
+    return mTotalLength;
+  }
 }
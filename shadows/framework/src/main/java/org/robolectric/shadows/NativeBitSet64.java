@@ -36,13 +36,7 @@ public class NativeBitSet64 {
 
   /** Returns the number of marked bits in the set. */
   int count() {
-    int count = 0;
-    for (int n = 0; n < 64; n++) {
-      if (hasBit(n)) {
-        count++;
-      }
-    }
-    return count;
+    return Long.bitCount(value);
   }
 
   /** Returns true if the bit set does not contain any marked bits. */
@@ -91,13 +85,7 @@ public class NativeBitSet64 {
    */
   int getIndexOfBit(int n) {
     // return __builtin_popcountll(value & ~(0xffffffffffffffffULL >> n));
-    int numMarkedBits = 0;
-    for (int i = 0; i < n; i++) {
-      if (hasBit(i)) {
-        numMarkedBits++;
-      }
-    }
-    return numMarkedBits;
+    return Long.bitCount(value & ~(-1L >>> n));
   }
 
   public void setValue(long l) {
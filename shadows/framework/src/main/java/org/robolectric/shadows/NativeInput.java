@@ -25,10 +25,7 @@ import static org.robolectric.shadows.NativeAndroidInput.AMOTION_EVENT_AXIS_Y;
 
 import android.os.Parcel;
 import android.view.MotionEvent.PointerProperties;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
-import org.robolectric.res.android.Ref;
 
 /**
  * Java representation of framework native input Transliterated from oreo-mr1 (SDK 27)
@@ -282,6 +279,8 @@ public class NativeInput {
     @SuppressWarnings("FloatingPointLiteralPrecision")
     private static final double M_PI_2 = 1.57079632679489661923f; /* pi/2 */
 
+    private static final int INITIAL_SAMPLE_CAPACITY = 4;
+
     private int mAction;
     private int mActionButton;
     private int mFlags;
@@ -293,9 +292,17 @@ public class NativeInput {
     private float mXPrecision;
     private float mYPrecision;
     private long mDownTime;
-    private List<PointerProperties> mPointerProperties = new ArrayList<>();
-    private List<Long> mSampleEventTimes = new ArrayList<>();
-    private List<NativeInput.PointerCoords> mSamplePointerCoords = new ArrayList<>();
+    private int mPointerCount;
+    private int[] mPointerIds = new int[0];
+    private int[] mPointerToolTypes = new int[0];
+    // Samples are stored flat rather than as PointerCoords: the pointer coordinates of a sample
+    // are in consecutive slots (sampleIndex * mPointerCount + pointerIndex), each with a bitfield
+    // of the axes present in mSampleAxisBits and their values, packed like PointerCoords does,
+    // starting at mSampleAxisValues[slot * MAX_AXES].
+    private int mSampleCount;
+    private long[] mSampleEventTimes = new long[INITIAL_SAMPLE_CAPACITY];
+    private long[] mSampleAxisBits = new long[0];
+    private float[] mSampleAxisValues = new float[0];
 
     @Override
     public int getType() {
@@ -384,32 +391,39 @@ public class NativeInput {
     }
 
     public int getPointerCount() {
-      return mPointerProperties.size();
+      return mPointerCount;
     }
 
-    public PointerProperties getPointerProperties(int pointerIndex) {
-      return mPointerProperties.get(pointerIndex);
+    public int getPointerId(int pointerIndex) {
+      checkPointerIndex(pointerIndex);
+      return mPointerIds[pointerIndex];
     }
 
-    public int getPointerId(int pointerIndex) {
-      return mPointerProperties.get(pointerIndex).id;
+    void setPointerId(int pointerIndex, int pointerId) {
+      checkPointerIndex(pointerIndex);
+      mPointerIds[pointerIndex] = pointerId;
     }
 
     public int getToolType(int pointerIndex) {
-      return mPointerProperties.get(pointerIndex).toolType;
+      checkPointerIndex(pointerIndex);
+      return mPointerToolTypes[pointerIndex];
     }
 
     public long getEventTime() {
-      return mSampleEventTimes.get(getHistorySize());
+      return mSampleEventTimes[getHistorySize()];
     }
 
+    /** Returns a copy of the pointer coordinates of the current sample. */
     public PointerCoords getRawPointerCoords(int pointerIndex) {
-
-      return mSamplePointerCoords.get(getHistorySize() * getPointerCount() + pointerIndex);
+      return getHistoricalRawPointerCoords(pointerIndex, getHistorySize());
     }
 
     public float getRawAxisValue(int axis, int pointerIndex) {
-      return getRawPointerCoords(pointerIndex).getAxisValue(axis);
+      return getHistoricalRawAxisValue(axis, pointerIndex, getHistorySize());
+    }
+
+    void setRawAxisValue(int axis, int pointerIndex, float value) {
+      setSampleAxisValue(slot(pointerIndex, getHistorySize()), axis, value);
     }
 
     public float getRawX(int pointerIndex) {
@@ -421,7 +435,7 @@ public class NativeInput {
     }
 
     public float getAxisValue(int axis, int pointerIndex) {
-      float value = getRawPointerCoords(pointerIndex).getAxisValue(axis);
+      float value = getRawAxisValue(axis, pointerIndex);
       switch (axis) {
         case AMOTION_EVENT_AXIS_X:
           return value + mXOffset;
@@ -468,19 +482,35 @@ public class NativeInput {
     }
 
     public int getHistorySize() {
-      return mSampleEventTimes.size() - 1;
+      return mSampleCount - 1;
     }
 
     public long getHistoricalEventTime(int historicalIndex) {
-      return mSampleEventTimes.get(historicalIndex);
+      checkSampleIndex(historicalIndex);
+      return mSampleEventTimes[historicalIndex];
     }
 
+    /** Returns a copy of the pointer coordinates of a sample. */
     public PointerCoords getHistoricalRawPointerCoords(int pointerIndex, int historicalIndex) {
-      return mSamplePointerCoords.get(historicalIndex * getPointerCount() + pointerIndex);
+      int slot = slot(pointerIndex, historicalIndex);
+      PointerCoords pointerCoords = new PointerCoords();
+      pointerCoords.bits.setValue(mSampleAxisBits[slot]);
+      System.arraycopy(
+          mSampleAxisValues,
+          slot * PointerCoords.MAX_AXES,
+          pointerCoords.values,
+          0,
+          Long.bitCount(mSampleAxisBits[slot]));
+      return pointerCoords;
+    }
+
+    /** Returns the bitfield of axes present in a sample's coordinates, like NativeBitSet64. */
+    long getHistoricalRawAxisBits(int pointerIndex, int historicalIndex) {
+      return mSampleAxisBits[slot(pointerIndex, historicalIndex)];
     }
 
     public float getHistoricalRawAxisValue(int axis, int pointerIndex, int historicalIndex) {
-      return getHistoricalRawPointerCoords(pointerIndex, historicalIndex).getAxisValue(axis);
+      return getSampleAxisValue(slot(pointerIndex, historicalIndex), axis);
     }
 
     public float getHistoricalRawX(int pointerIndex, int historicalIndex) {
@@ -492,7 +522,7 @@ public class NativeInput {
     }
 
     public float getHistoricalAxisValue(int axis, int pointerIndex, int historicalIndex) {
-      float value = getHistoricalRawPointerCoords(pointerIndex, historicalIndex).getAxisValue(axis);
+      float value = getHistoricalRawAxisValue(axis, pointerIndex, historicalIndex);
       switch (axis) {
         case AMOTION_EVENT_AXIS_X:
           return value + mXOffset;
@@ -539,9 +569,8 @@ public class NativeInput {
     }
 
     public int findPointerIndex(int pointerId) {
-      int pointerCount = mPointerProperties.size();
-      for (int i = 0; i < pointerCount; i++) {
-        if (mPointerProperties.get(i).id == pointerId) {
+      for (int i = 0; i < mPointerCount; i++) {
+        if (mPointerIds[i] == pointerId) {
           return i;
         }
       }
@@ -578,11 +607,15 @@ public class NativeInput {
       mXPrecision = xPrecision;
       mYPrecision = yPrecision;
       mDownTime = downTime;
-      mPointerProperties.clear();
-      mPointerProperties.addAll(Arrays.asList(pointerProperties).subList(0, pointerCount));
-      mSampleEventTimes.clear();
-      mSamplePointerCoords.clear();
-      addSample(eventTime, Arrays.asList(pointerCoords).subList(0, pointerCount));
+      mPointerCount = pointerCount;
+      mPointerIds = new int[pointerCount];
+      mPointerToolTypes = new int[pointerCount];
+      for (int i = 0; i < pointerCount; i++) {
+        mPointerIds[i] = pointerProperties[i].id;
+        mPointerToolTypes[i] = pointerProperties[i].toolType;
+      }
+      mSampleCount = 0;
+      addSample(eventTime, pointerCoords);
     }
 
     public void copyFrom(MotionEvent other, boolean keepHistory) {
@@ -598,32 +631,150 @@ public class NativeInput {
       mXPrecision = other.mXPrecision;
       mYPrecision = other.mYPrecision;
       mDownTime = other.mDownTime;
-      mPointerProperties = other.mPointerProperties;
-      mSampleEventTimes.clear();
-      mSamplePointerCoords.clear();
-      if (keepHistory) {
-        mSampleEventTimes.addAll(other.mSampleEventTimes);
-        mSamplePointerCoords.addAll(other.mSamplePointerCoords);
-      } else {
-        mSampleEventTimes.add(other.getEventTime());
-        int pointerCount = other.getPointerCount();
-        int historySize = other.getHistorySize();
-        // mSamplePointerCoords.appendArray(other->mSamplePointerCoords.array()
-        //    + (historySize * pointerCount), pointerCount);
-        int currentStartIndex = historySize * pointerCount;
-        mSamplePointerCoords.addAll(
-            other.mSamplePointerCoords.subList(
-                currentStartIndex, currentStartIndex + pointerCount));
-      }
+      mPointerCount = other.mPointerCount;
+      mPointerIds = other.mPointerIds.clone();
+      mPointerToolTypes = other.mPointerToolTypes.clone();
+      int firstSample = keepHistory ? 0 : other.getHistorySize();
+      mSampleCount = other.mSampleCount - firstSample;
+      mSampleEventTimes =
+          Arrays.copyOfRange(
+              other.mSampleEventTimes,
+              firstSample,
+              firstSample + Math.max(mSampleCount, INITIAL_SAMPLE_CAPACITY));
+      int firstSlot = firstSample * mPointerCount;
+      int slotCount = mSampleCount * mPointerCount;
+      mSampleAxisBits =
+          Arrays.copyOfRange(other.mSampleAxisBits, firstSlot, firstSlot + slotCount);
+      mSampleAxisValues =
+          Arrays.copyOfRange(
+              other.mSampleAxisValues,
+              firstSlot * PointerCoords.MAX_AXES,
+              (firstSlot + slotCount) * PointerCoords.MAX_AXES);
     }
 
     public void addSample(long eventTime, PointerCoords[] pointerCoords) {
-      addSample(eventTime, Arrays.asList(pointerCoords));
+      ensureSampleCapacity(mSampleCount + 1);
+      mSampleEventTimes[mSampleCount] = eventTime;
+      int firstSlot = mSampleCount * mPointerCount;
+      for (int i = 0; i < mPointerCount; i++) {
+        PointerCoords c = pointerCoords[i];
+        long bits = c.bits.getValue();
+        mSampleAxisBits[firstSlot + i] = bits;
+        System.arraycopy(
+            c.values,
+            0,
+            mSampleAxisValues,
+            (firstSlot + i) * PointerCoords.MAX_AXES,
+            Long.bitCount(bits));
+      }
+      mSampleCount++;
+    }
+
+    private void ensureSampleCapacity(int sampleCount) {
+      if (sampleCount > mSampleEventTimes.length) {
+        mSampleEventTimes =
+            Arrays.copyOf(
+                mSampleEventTimes, Math.max(sampleCount, mSampleEventTimes.length * 2));
+      }
+      int slotCount = sampleCount * mPointerCount;
+      if (slotCount > mSampleAxisBits.length) {
+        int capacity = Math.max(slotCount, mSampleAxisBits.length * 2);
+        mSampleAxisBits = Arrays.copyOf(mSampleAxisBits, capacity);
+        mSampleAxisValues = Arrays.copyOf(mSampleAxisValues, capacity * PointerCoords.MAX_AXES);
+      }
+    }
+
+    /**
+     * Adds pointers, with no axis values and an id of 0, to every sample until the event has
+     * {@code pointerCount} pointers.
+     */
+    void ensurePointerCount(int pointerCount) {
+      if (mPointerCount >= pointerCount) {
+        return;
+      }
+      int oldPointerCount = mPointerCount;
+      long[] oldAxisBits = mSampleAxisBits;
+      float[] oldAxisValues = mSampleAxisValues;
+      mPointerIds = Arrays.copyOf(mPointerIds, pointerCount);
+      mPointerToolTypes = Arrays.copyOf(mPointerToolTypes, pointerCount);
+      mPointerCount = pointerCount;
+      mSampleAxisBits = new long[mSampleCount * pointerCount];
+      mSampleAxisValues = new float[mSampleAxisBits.length * PointerCoords.MAX_AXES];
+      for (int h = 0; h < mSampleCount; h++) {
+        System.arraycopy(
+            oldAxisBits, h * oldPointerCount, mSampleAxisBits, h * pointerCount, oldPointerCount);
+        System.arraycopy(
+            oldAxisValues,
+            h * oldPointerCount * PointerCoords.MAX_AXES,
+            mSampleAxisValues,
+            h * pointerCount * PointerCoords.MAX_AXES,
+            oldPointerCount * PointerCoords.MAX_AXES);
+      }
+    }
+
+    private int slot(int pointerIndex, int sampleIndex) {
+      checkPointerIndex(pointerIndex);
+      checkSampleIndex(sampleIndex);
+      return sampleIndex * mPointerCount + pointerIndex;
+    }
+
+    private void checkPointerIndex(int pointerIndex) {
+      if (pointerIndex < 0 || pointerIndex >= mPointerCount) {
+        throw new IndexOutOfBoundsException(
+            "pointerIndex " + pointerIndex + " out of range for " + mPointerCount + " pointers");
+      }
+    }
+
+    private void checkSampleIndex(int sampleIndex) {
+      if (sampleIndex < 0 || sampleIndex >= mSampleCount) {
+        throw new IndexOutOfBoundsException(
+            "sample " + sampleIndex + " out of range for " + mSampleCount + " samples");
+      }
+    }
+
+    // Like PointerCoords#getAxisValue(), for a slot.
+    private float getSampleAxisValue(int slot, int axis) {
+      if (axis < 0 || axis > 63) {
+        return 0;
+      }
+      long bits = mSampleAxisBits[slot];
+      if ((bits & NativeBitSet64.valueForBit(axis)) == 0) {
+        return 0;
+      }
+      return mSampleAxisValues[slot * PointerCoords.MAX_AXES + indexOfAxis(bits, axis)];
+    }
+
+    // Like PointerCoords#setAxisValue(), for a slot.
+    private void setSampleAxisValue(int slot, int axis, float value) {
+      checkState(axis >= 0 && axis <= 63, "axis out of range");
+      long bits = mSampleAxisBits[slot];
+      int index = slot * PointerCoords.MAX_AXES + indexOfAxis(bits, axis);
+      if ((bits & NativeBitSet64.valueForBit(axis)) == 0) {
+        if (value == 0) {
+          return; // axes with value 0 do not need to be stored
+        }
+
+        int count = Long.bitCount(bits);
+        if (count >= PointerCoords.MAX_AXES) {
+          PointerCoords.tooManyAxes(axis);
+        }
+        mSampleAxisBits[slot] = bits | NativeBitSet64.valueForBit(axis);
+        int end = slot * PointerCoords.MAX_AXES + count;
+        System.arraycopy(mSampleAxisValues, index, mSampleAxisValues, index + 1, end - index);
+      }
+      mSampleAxisValues[index] = value;
     }
 
-    public void addSample(long eventTime, List<PointerCoords> pointerCoords) {
-      mSampleEventTimes.add(eventTime);
-      mSamplePointerCoords.addAll(pointerCoords);
+    // The number of axes present before the given one, i.e. where its value is packed.
+    private static int indexOfAxis(long bits, int axis) {
+      return Long.bitCount(bits & ~(-1L >>> axis));
+    }
+
+    private void scaleSampleAxisValue(int slot, int axis, float scaleFactor) {
+      float value = getSampleAxisValue(slot, axis);
+      if (value != 0) {
+        setSampleAxisValue(slot, axis, value * scaleFactor);
+      }
     }
 
     public void offsetLocation(float xOffset, float yOffset) {
@@ -636,9 +787,16 @@ public class NativeInput {
       mYOffset *= scaleFactor;
       mXPrecision *= scaleFactor;
       mYPrecision *= scaleFactor;
-      int numSamples = mSamplePointerCoords.size();
-      for (int i = 0; i < numSamples; i++) {
-        mSamplePointerCoords.get(i).scale(scaleFactor);
+      int slotCount = mSampleCount * mPointerCount;
+      for (int i = 0; i < slotCount; i++) {
+        // No need to scale pressure or size since they are normalized.
+        // No need to scale orientation since it is meaningless to do so.
+        scaleSampleAxisValue(i, AMOTION_EVENT_AXIS_X, scaleFactor);
+        scaleSampleAxisValue(i, AMOTION_EVENT_AXIS_Y, scaleFactor);
+        scaleSampleAxisValue(i, AMOTION_EVENT_AXIS_TOUCH_MAJOR, scaleFactor);
+        scaleSampleAxisValue(i, AMOTION_EVENT_AXIS_TOUCH_MINOR, scaleFactor);
+        scaleSampleAxisValue(i, AMOTION_EVENT_AXIS_TOOL_MAJOR, scaleFactor);
+        scaleSampleAxisValue(i, AMOTION_EVENT_AXIS_TOOL_MINOR, scaleFactor);
       }
     }
 
@@ -652,59 +810,54 @@ public class NativeInput {
       // and rawY for that point.
       float oldXOffset = mXOffset;
       float oldYOffset = mYOffset;
-      final Ref<Float> newX = new Ref<>(0f);
-      final Ref<Float> newY = new Ref<>(0f);
       float rawX = getRawX(0);
       float rawY = getRawY(0);
-      transformPoint(matrix, rawX + oldXOffset, rawY + oldYOffset, newX, newY);
-      mXOffset = newX.get() - rawX;
-      mYOffset = newY.get() - rawY;
+      mXOffset = transformX(matrix, rawX + oldXOffset, rawY + oldYOffset) - rawX;
+      mYOffset = transformY(matrix, rawX + oldXOffset, rawY + oldYOffset) - rawY;
       // Determine how the origin is transformed by the matrix so that we
       // can transform orientation vectors.
-      final Ref<Float> originX = new Ref<>(0f);
-      final Ref<Float> originY = new Ref<>(0f);
-      transformPoint(matrix, 0, 0, originX, originY);
+      float originX = transformX(matrix, 0, 0);
+      float originY = transformY(matrix, 0, 0);
       // Apply the transformation to all samples.
-      int numSamples = mSamplePointerCoords.size();
-      for (int i = 0; i < numSamples; i++) {
-        PointerCoords c = mSamplePointerCoords.get(i);
-        final Ref<Float> x = new Ref<>(c.getAxisValue(AMOTION_EVENT_AXIS_X) + oldXOffset);
-        final Ref<Float> y = new Ref<>(c.getAxisValue(AMOTION_EVENT_AXIS_Y) + oldYOffset);
-        transformPoint(matrix, x.get(), y.get(), x, y);
-        c.setAxisValue(AMOTION_EVENT_AXIS_X, x.get() - mXOffset);
-        c.setAxisValue(AMOTION_EVENT_AXIS_Y, y.get() - mYOffset);
-        float orientation = c.getAxisValue(AMOTION_EVENT_AXIS_ORIENTATION);
-        c.setAxisValue(
+      int slotCount = mSampleCount * mPointerCount;
+      for (int i = 0; i < slotCount; i++) {
+        float x = getSampleAxisValue(i, AMOTION_EVENT_AXIS_X) + oldXOffset;
+        float y = getSampleAxisValue(i, AMOTION_EVENT_AXIS_Y) + oldYOffset;
+        setSampleAxisValue(i, AMOTION_EVENT_AXIS_X, transformX(matrix, x, y) - mXOffset);
+        setSampleAxisValue(i, AMOTION_EVENT_AXIS_Y, transformY(matrix, x, y) - mYOffset);
+        float orientation = getSampleAxisValue(i, AMOTION_EVENT_AXIS_ORIENTATION);
+        setSampleAxisValue(
+            i,
             AMOTION_EVENT_AXIS_ORIENTATION,
-            transformAngle(matrix, orientation, originX.get(), originY.get()));
+            transformAngle(matrix, orientation, originX, originY));
       }
     }
 
-    private static void transformPoint(
-        float[] matrix, float x, float y, Ref<Float> outX, Ref<Float> outY) {
-      checkState(matrix.length == 9);
-      // Apply perspective transform like Skia.
-      float newX = matrix[0] * x + matrix[1] * y + matrix[2];
-      float newY = matrix[3] * x + matrix[4] * y + matrix[5];
+    // Apply perspective transform like Skia. The X and Y coordinates are computed separately so
+    // that transforming doesn't allocate.
+    private static float transformX(float[] matrix, float x, float y) {
+      return (matrix[0] * x + matrix[1] * y + matrix[2]) * inverseZ(matrix, x, y);
+    }
+
+    private static float transformY(float[] matrix, float x, float y) {
+      return (matrix[3] * x + matrix[4] * y + matrix[5]) * inverseZ(matrix, x, y);
+    }
+
+    private static float inverseZ(float[] matrix, float x, float y) {
       float newZ = matrix[6] * x + matrix[7] * y + matrix[8];
-      if (newZ != 0) {
-        newZ = 1.0f / newZ;
-      }
-      outX.set(newX * newZ);
-      outY.set(newY * newZ);
+      return newZ != 0 ? 1.0f / newZ : 0;
     }
 
     static float transformAngle(float[] matrix, float angleRadians, float originX, float originY) {
       checkState(matrix.length == 9);
       // ruct and transform a vector oriented at the specified clockwise angle from vertical.
       // Coordinate system: down is increasing Y, right is increasing X.
-      final Ref<Float> x = new Ref<>((float) Math.sin(angleRadians));
-      final Ref<Float> y = new Ref<>(-(float) Math.cos(angleRadians));
-      transformPoint(matrix, x.get(), y.get(), x, y);
-      x.set(x.get() - originX);
-      y.set(y.get() - originY);
+      float x = (float) Math.sin(angleRadians);
+      float y = -(float) Math.cos(angleRadians);
+      float transformedX = transformX(matrix, x, y) - originX;
+      float transformedY = transformY(matrix, x, y) - originY;
       // Derive the transformed vector's clockwise angle from vertical.
-      double result = Math.atan2(x.get(), -y.get());
+      double result = Math.atan2(transformedX, -transformedY);
       if (result < -M_PI_2) {
         result += M_PI;
       } else if (result > M_PI_2) {
@@ -735,32 +888,39 @@ public class NativeInput {
       mXPrecision = parcel.readFloat();
       mYPrecision = parcel.readFloat();
       mDownTime = parcel.readLong();
-      mPointerProperties = new ArrayList<>(pointerCount);
-      mSampleEventTimes = new ArrayList<>(sampleCount);
-      mSamplePointerCoords = new ArrayList<>(sampleCount * pointerCount);
+      mPointerCount = pointerCount;
+      mPointerIds = new int[pointerCount];
+      mPointerToolTypes = new int[pointerCount];
       for (int i = 0; i < pointerCount; i++) {
-        PointerProperties properties = new PointerProperties();
-        mPointerProperties.add(properties);
-        properties.id = parcel.readInt();
-        properties.toolType = parcel.readInt();
+        mPointerIds[i] = parcel.readInt();
+        mPointerToolTypes[i] = parcel.readInt();
       }
-      while (sampleCount > 0) {
-        sampleCount--;
-        mSampleEventTimes.add(parcel.readLong());
+      mSampleCount = 0;
+      mSampleEventTimes = new long[sampleCount];
+      mSampleAxisBits = new long[sampleCount * pointerCount];
+      mSampleAxisValues = new float[mSampleAxisBits.length * PointerCoords.MAX_AXES];
+      for (int h = 0; h < sampleCount; h++) {
+        mSampleEventTimes[h] = parcel.readLong();
         for (int i = 0; i < pointerCount; i++) {
-          NativeInput.PointerCoords pointerCoords = new NativeInput.PointerCoords();
-          mSamplePointerCoords.add(pointerCoords);
-          if (!pointerCoords.readFromParcel(parcel)) {
+          int slot = h * pointerCount + i;
+          long bits = parcel.readLong();
+          int count = Long.bitCount(bits);
+          if (count > PointerCoords.MAX_AXES) {
             return false;
           }
+          mSampleAxisBits[slot] = bits;
+          for (int j = 0; j < count; j++) {
+            mSampleAxisValues[slot * PointerCoords.MAX_AXES + j] = parcel.readFloat();
+          }
         }
+        mSampleCount++;
       }
       return true;
     }
 
     public boolean writeToParcel(Parcel parcel) {
-      int pointerCount = mPointerProperties.size();
-      int sampleCount = mSampleEventTimes.size();
+      int pointerCount = mPointerCount;
+      int sampleCount = mSampleCount;
       parcel.writeInt(pointerCount);
       parcel.writeInt(sampleCount);
       parcel.writeInt(mDeviceId);
@@ -777,15 +937,18 @@ public class NativeInput {
       parcel.writeFloat(mYPrecision);
       parcel.writeLong(mDownTime);
       for (int i = 0; i < pointerCount; i++) {
-        PointerProperties properties = mPointerProperties.get(i);
-        parcel.writeInt(properties.id);
-        parcel.writeInt(properties.toolType);
+        parcel.writeInt(mPointerIds[i]);
+        parcel.writeInt(mPointerToolTypes[i]);
       }
       for (int h = 0; h < sampleCount; h++) {
-        parcel.writeLong(mSampleEventTimes.get(h));
+        parcel.writeLong(mSampleEventTimes[h]);
         for (int i = 0; i < pointerCount; i++) {
-          if (!mSamplePointerCoords.get(i).writeToParcel(parcel)) {
-            return false;
+          int slot = h * pointerCount + i;
+          long bits = mSampleAxisBits[slot];
+          parcel.writeLong(bits);
+          int count = Long.bitCount(bits);
+          for (int j = 0; j < count; j++) {
+            parcel.writeFloat(mSampleAxisValues[slot * PointerCoords.MAX_AXES + j]);
           }
         }
       }
@@ -812,18 +975,5 @@ public class NativeInput {
     public boolean isTouchEvent() {
       return isTouchEvent(getSource(), mAction);
     }
-
-    // Low-level accessors.
-    public List<PointerProperties> getPointerProperties() {
-      return mPointerProperties;
-    }
-
-    List<Long> getSampleEventTimes() {
-      return mSampleEventTimes;
-    }
-
-    List<NativeInput.PointerCoords> getSamplePointerCoords() {
-      return mSamplePointerCoords;
-    }
   }
 }
@@ -0,0 +1,87 @@
+package org.robolectric.shadows;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the instances of a pooled class that were {@code obtain}ed but not yet {@code recycle}d,
+ * so that shadows can report them as leaks.
+ *
+ * <p>Instances are tracked by identity, since the shadows' {@code hashCode()} is constant. Stack
+ * traces of the {@code obtain} calls are expensive to capture for large accessibility trees, so
+ * by default none are; set the {@code robolectric.accessibility.obtainStackTraceSampleRate}
+ * system property to N to capture one for every Nth instance, e.g. 1 to capture all of them.
+ */
+final class ObtainedInstances<T> {
+  static final String SAMPLE_RATE_PROPERTY =
+      "robolectric.accessibility.obtainStackTraceSampleRate";
+
+  private static final int sampleRate = Integer.getInteger(SAMPLE_RATE_PROPERTY, 0);
+
+  private final Map<T, Obtained> obtained = new IdentityHashMap<>();
+  private int obtainCount;
+
+  /** Starts tracking {@code instance}; {@code key} may be used to find it again. */
+  void add(T instance, int key) {
+    Throwable stackTrace = null;
+    if (sampleRate > 0 && obtainCount++ % sampleRate == 0) {
+      // Only fills in the VM's own backtrace; StackTraceElements are created when reported.
+      stackTrace = new Throwable();
+    }
+    obtained.put(instance, new Obtained(key, stackTrace));
+  }
+
+  boolean contains(T instance) {
+    return obtained.containsKey(instance);
+  }
+
+  /** Stops tracking {@code instance}, returning the key it was added with or -1 if it wasn't. */
+  int remove(T instance) {
+    Obtained removed = obtained.remove(instance);
+    return removed == null ? -1 : removed.key;
+  }
+
+  /** Returns the key {@code instance} was added with or -1 if it isn't tracked. */
+  int keyOf(T instance) {
+    Obtained entry = obtained.get(instance);
+    return entry == null ? -1 : entry.key;
+  }
+
+  boolean isEmpty() {
+    return obtained.isEmpty();
+  }
+
+  List<T> instances() {
+    return new ArrayList<>(obtained.keySet());
+  }
+
+  void clear() {
+    obtained.clear();
+    obtainCount = 0;
+  }
+
+  /** Prints how {@code instance} was obtained, if that's known. */
+  void printStackTrace(T instance) {
+    Obtained entry = obtained.get(instance);
+    if (entry == null || entry.stackTrace == null) {
+      System.err.println(
+          "(no stack trace captured; set -D" + SAMPLE_RATE_PROPERTY + "=1 to capture them)");
+      return;
+    }
+    for (StackTraceElement stackTraceElement : entry.stackTrace.getStackTrace()) {
+      System.err.println(stackTraceElement.toString());
+    }
+  }
+
+  private static class Obtained {
+    final int key;
+    final Throwable stackTrace;
+
+    Obtained(int key, Throwable stackTrace) {
+      this.key = key;
+      this.stackTrace = stackTrace;
+    }
+  }
+}
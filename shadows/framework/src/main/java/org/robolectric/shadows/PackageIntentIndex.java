@@ -0,0 +1,266 @@
+package org.robolectric.shadows;
+
+import android.content.ComponentName;
+import android.content.Intent;
+import android.content.pm.PackageParser.Activity;
+import android.content.pm.PackageParser.Component;
+import android.content.pm.PackageParser.IntentInfo;
+import android.content.pm.PackageParser.Package;
+import android.content.pm.PackageParser.Provider;
+import android.content.pm.PackageParser.Service;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index over the components of the packages known to {@link ShadowPackageManager}, in the spirit
+ * of the framework's {@code IntentResolver}.
+ *
+ * <p>Components are indexed by name and by the actions of their intent filters, so that explicit
+ * intents and implicit intents with an action only need to look at components that could possibly
+ * match. Candidates are always returned in the order in which a linear scan over {@link
+ * ShadowPackageManager#packages} would have visited them; callers are still responsible for
+ * matching the intent against each candidate's filters.
+ *
+ * <p>Tests may modify a package's components and intent filters in place, through the {@link
+ * Package} they installed or the lists returned by {@code getIntentFiltersFor*}, at any time. Each
+ * lookup therefore first checks the indexed components and actions against the packages, and
+ * re-indexes those that changed.
+ */
+class PackageIntentIndex {
+
+  private final Map<String, Integer> packageOrdinals = new HashMap<>();
+  private final Map<String, Package> indexedPackages = new HashMap<>();
+  private int nextPackageOrdinal;
+
+  final ComponentIndex<Activity> activities = new ComponentIndex<>(pkg -> pkg.activities);
+  final ComponentIndex<Service> services = new ComponentIndex<>(pkg -> pkg.services);
+  final ComponentIndex<Activity> receivers = new ComponentIndex<>(pkg -> pkg.receivers);
+  final ComponentIndex<Provider> providers = new ComponentIndex<>(pkg -> pkg.providers);
+
+  /**
+   * Adds all components of {@code appPackage}, replacing any previously indexed package with the
+   * same name. A replaced package keeps its position, as it would in a {@link
+   * java.util.LinkedHashMap}.
+   */
+  void addPackage(Package appPackage) {
+    String packageName = appPackage.packageName;
+    Package previous = indexedPackages.put(packageName, appPackage);
+    if (previous != null) {
+      removeComponents(previous);
+    }
+    Integer ordinal = packageOrdinals.get(packageName);
+    if (ordinal == null) {
+      ordinal = nextPackageOrdinal++;
+      packageOrdinals.put(packageName, ordinal);
+    }
+    activities.add(ordinal, appPackage);
+    services.add(ordinal, appPackage);
+    receivers.add(ordinal, appPackage);
+    providers.add(ordinal, appPackage);
+  }
+
+  void removePackage(String packageName) {
+    Package previous = indexedPackages.remove(packageName);
+    if (previous != null) {
+      removeComponents(previous);
+    }
+    packageOrdinals.remove(packageName);
+  }
+
+  void clear() {
+    packageOrdinals.clear();
+    indexedPackages.clear();
+    nextPackageOrdinal = 0;
+    activities.clear();
+    services.clear();
+    receivers.clear();
+    providers.clear();
+  }
+
+  private void removeComponents(Package appPackage) {
+    activities.remove(appPackage);
+    services.remove(appPackage);
+    receivers.remove(appPackage);
+    providers.remove(appPackage);
+  }
+
+  private void reindexChangedPackages(ComponentIndex<?> index) {
+    List<Package> changedPackages = null;
+    for (Package appPackage : indexedPackages.values()) {
+      if (index.isStale(appPackage)) {
+        if (changedPackages == null) {
+          changedPackages = new ArrayList<>();
+        }
+        changedPackages.add(appPackage);
+      }
+    }
+    if (changedPackages != null) {
+      for (Package appPackage : changedPackages) {
+        addPackage(appPackage);
+      }
+    }
+  }
+
+  private interface ComponentsOf<T> {
+    List<T> get(Package appPackage);
+  }
+
+  /** Index over one kind of component (activities, services, receivers or providers). */
+  class ComponentIndex<T extends Component<? extends IntentInfo>> {
+    private final ComponentsOf<T> componentsOf;
+    private final Map<ComponentName, TreeMap<Long, T>> byName = new HashMap<>();
+    private final Map<String, TreeMap<Long, T>> byAction = new HashMap<>();
+    private final TreeMap<Long, T> all = new TreeMap<>();
+    private final Map<Package, List<Entry<T>>> entriesByPackage = new HashMap<>();
+
+    private ComponentIndex(ComponentsOf<T> componentsOf) {
+      this.componentsOf = componentsOf;
+    }
+
+    /** Returns the component with the given name, or null if no indexed package declares it. */
+    T get(ComponentName componentName) {
+      reindexChangedPackages(this);
+      TreeMap<Long, T> components = byName.get(componentName);
+      return components == null ? null : components.firstEntry().getValue();
+    }
+
+    /**
+     * Returns, in package order, the components that have an intent filter which could match
+     * {@code intent}.
+     */
+    Collection<T> candidatesFor(Intent intent) {
+      reindexChangedPackages(this);
+      String packageName = intent.getPackage();
+      if (packageName != null) {
+        Package appPackage = indexedPackages.get(packageName);
+        return appPackage == null
+            ? Collections.<T>emptyList()
+            : new ArrayList<>(componentsOf.get(appPackage));
+      }
+
+      String action = intent.getAction();
+      if (action == null) {
+        // IntentFilter doesn't check the action of an intent without one, so any filter may match.
+        return new ArrayList<>(all.values());
+      }
+      TreeMap<Long, T> components = byAction.get(action);
+      return components == null
+          ? Collections.<T>emptyList()
+          : new ArrayList<>(components.values());
+    }
+
+    private void add(int packageOrdinal, Package appPackage) {
+      List<T> components = componentsOf.get(appPackage);
+      List<Entry<T>> entries = new ArrayList<>(components.size());
+      for (int i = 0; i < components.size(); i++) {
+        Entry<T> entry = new Entry<>(((long) packageOrdinal << 32) | i, components.get(i));
+        entries.add(entry);
+        all.put(entry.key, entry.component);
+        addTo(byName, entry.component.getComponentName(), entry);
+        for (IntentInfo intentInfo : entry.component.intents) {
+          Iterator<String> actions = intentInfo.actionsIterator();
+          while (actions != null && actions.hasNext()) {
+            String action = actions.next();
+            entry.actions.add(action);
+            addTo(byAction, action, entry);
+          }
+        }
+      }
+      entriesByPackage.put(appPackage, entries);
+    }
+
+    /**
+     * Returns whether the components of {@code appPackage}, or the actions of their intent filters,
+     * differ from what was indexed.
+     */
+    private boolean isStale(Package appPackage) {
+      List<T> components = componentsOf.get(appPackage);
+      List<Entry<T>> entries = entriesByPackage.get(appPackage);
+      if (entries == null || entries.size() != components.size()) {
+        return true;
+      }
+      for (int i = 0; i < components.size(); i++) {
+        Entry<T> entry = entries.get(i);
+        if (entry.component != components.get(i) || !entry.hasActionsOf(entry.component)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void remove(Package appPackage) {
+      List<Entry<T>> entries = entriesByPackage.remove(appPackage);
+      if (entries == null) {
+        return;
+      }
+      for (Entry<T> entry : entries) {
+        all.remove(entry.key);
+        removeFrom(byName, entry.component.getComponentName(), entry);
+        for (String action : entry.actions) {
+          removeFrom(byAction, action, entry);
+        }
+      }
+    }
+
+    private void clear() {
+      byName.clear();
+      byAction.clear();
+      all.clear();
+      entriesByPackage.clear();
+    }
+
+    private <K> void addTo(Map<K, TreeMap<Long, T>> index, K indexKey, Entry<T> entry) {
+      TreeMap<Long, T> components = index.get(indexKey);
+      if (components == null) {
+        components = new TreeMap<>();
+        index.put(indexKey, components);
+      }
+      components.put(entry.key, entry.component);
+    }
+
+    private <K> void removeFrom(Map<K, TreeMap<Long, T>> index, K indexKey, Entry<T> entry) {
+      TreeMap<Long, T> components = index.get(indexKey);
+      if (components != null) {
+        components.remove(entry.key);
+        if (components.isEmpty()) {
+          index.remove(indexKey);
+        }
+      }
+    }
+  }
+
+  /**
+   * An indexed component, along with the actions it was indexed under. The key orders components
+   * by package position, then by position within the package.
+   */
+  private static class Entry<T> {
+    final long key;
+    final T component;
+    final List<String> actions = new ArrayList<>();
+
+    Entry(long key, T component) {
+      this.key = key;
+      this.component = component;
+    }
+
+    /** Returns whether {@code component}'s filters still declare exactly the indexed actions. */
+    boolean hasActionsOf(Component<? extends IntentInfo> component) {
+      int i = 0;
+      for (IntentInfo intentInfo : component.intents) {
+        Iterator<String> actions = intentInfo.actionsIterator();
+        while (actions != null && actions.hasNext()) {
+          if (i >= this.actions.size() || !this.actions.get(i++).equals(actions.next())) {
+            return false;
+          }
+        }
+      }
+      return i == this.actions.size();
+    }
+  }
+}
@@ -0,0 +1,237 @@
+package org.robolectric.shadows;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.robolectric.util.ReflectionHelpers;
+
+/**
+ * Joins two OS pipes with an in-memory buffer to make a pipe that holds a lot more than the few
+ * kilobytes an OS pipe does.
+ *
+ * <p>Readers get real pipe semantics: reads block until something is written or the write side is
+ * closed, and writes fail once the read side is closed. Writers only block once {@link
+ * #MAX_BUFFER_SIZE} bytes are waiting to be read, since code like {@code
+ * ContentProvider#openPipeHelper()} often ends up writing everything on the thread that later
+ * reads it.
+ *
+ * <p>A single thread relays the data of every pipe.
+ */
+final class PipeRelay implements Runnable {
+  static final int MAX_BUFFER_SIZE = 16 * 1024 * 1024;
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+  private static PipeRelay instance;
+
+  private final Selector selector;
+  private final Queue<Relay> newRelays = new ConcurrentLinkedQueue<>();
+  // Pipes created before the last reset() are closed by the relay thread.
+  private volatile int generation;
+  private int closedGeneration;
+
+  private PipeRelay() throws IOException {
+    selector = Selector.open();
+  }
+
+  static synchronized PipeRelay getInstance() throws IOException {
+    if (instance == null) {
+      instance = new PipeRelay();
+      Thread thread = new Thread(instance, "robolectric-pipe-relay");
+      thread.setDaemon(true);
+      thread.start();
+    }
+    return instance;
+  }
+
+  /** Closes both ends of every pipe, e.g. those a test didn't close. */
+  static synchronized void reset() {
+    if (instance != null) {
+      instance.generation++;
+      instance.selector.wakeup();
+    }
+  }
+
+  /**
+   * Returns the channels of the read and the write side of a new pipe, whose file descriptors can
+   * be looked up with {@link #getFd(Channel)}. Closing a channel closes its side of the pipe.
+   *
+   * @throws RuntimeException if this JVM doesn't give access to its pipes' file descriptors
+   */
+  Channel[] createPipe() throws IOException {
+    Pipe writeSide = Pipe.open();
+    Pipe readSide = Pipe.open();
+    try {
+      getFd(readSide.source());
+      getFd(writeSide.sink());
+      writeSide.source().configureBlocking(false);
+      readSide.sink().configureBlocking(false);
+      newRelays.add(new Relay(writeSide, readSide, generation));
+      selector.wakeup();
+      return new Channel[] {readSide.source(), writeSide.sink()};
+    } catch (IOException | RuntimeException e) {
+      writeSide.source().close();
+      writeSide.sink().close();
+      readSide.source().close();
+      readSide.sink().close();
+      throw e;
+    }
+  }
+
+  static FileDescriptor getFd(Channel channel) {
+    FileDescriptor fd = ReflectionHelpers.getField(channel, "fd");
+    if (fd == null) {
+      throw new IllegalStateException("no file descriptor for " + channel);
+    }
+    return fd;
+  }
+
+  @Override
+  public void run() {
+    while (true) {
+      try {
+        selector.select();
+        Relay newRelay;
+        while ((newRelay = newRelays.poll()) != null) {
+          newRelay.register(selector);
+        }
+        int currentGeneration = generation;
+        if (closedGeneration != currentGeneration) {
+          closedGeneration = currentGeneration;
+          for (SelectionKey key : new ArrayList<>(selector.keys())) {
+            Relay relay = (Relay) key.attachment();
+            if (relay.generation != currentGeneration) {
+              relay.closeAll();
+            }
+          }
+        }
+        Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+        while (selectedKeys.hasNext()) {
+          SelectionKey key = selectedKeys.next();
+          selectedKeys.remove();
+          if (key.isValid()) {
+            ((Relay) key.attachment()).relay(key);
+          }
+        }
+      } catch (IOException e) {
+        // The selector itself failed; there's nothing sensible left to do.
+        return;
+      }
+    }
+  }
+
+  /** Moves data from the write side's pipe to the read side's, through a growable buffer. */
+  private static class Relay {
+    private final Pipe writeSide;
+    private final Pipe readSide;
+    private final int generation;
+    private final Pipe.SourceChannel source;
+    private final Pipe.SinkChannel sink;
+    // Holds the data that hasn't been relayed yet, in [0, position).
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private SelectionKey sourceKey;
+    private SelectionKey sinkKey;
+    private boolean sourceClosed;
+
+    Relay(Pipe writeSide, Pipe readSide, int generation) {
+      this.writeSide = writeSide;
+      this.readSide = readSide;
+      this.generation = generation;
+      this.source = writeSide.source();
+      this.sink = readSide.sink();
+    }
+
+    void register(Selector selector) throws IOException {
+      try {
+        sourceKey = source.register(selector, SelectionKey.OP_READ, this);
+        sinkKey = sink.register(selector, 0, this);
+      } catch (IOException e) {
+        close();
+      }
+    }
+
+    void relay(SelectionKey key) {
+      try {
+        if (key == sourceKey && key.isReadable()) {
+          read();
+        } else if (key == sinkKey && key.isWritable()) {
+          write();
+        }
+      } catch (IOException e) {
+        // Most likely the read side was closed, so writes should fail from now on.
+        close();
+      }
+    }
+
+    private void read() throws IOException {
+      if (!buffer.hasRemaining()) {
+        if (buffer.capacity() >= MAX_BUFFER_SIZE) {
+          // Let the writer block until the reader catches up.
+          sourceKey.interestOps(0);
+          return;
+        }
+        ByteBuffer larger =
+            ByteBuffer.allocate(Math.min(buffer.capacity() * 2, MAX_BUFFER_SIZE));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+      }
+      if (source.read(buffer) < 0) {
+        sourceClosed = true;
+        source.close();
+      }
+      if (buffer.position() > 0) {
+        sinkKey.interestOps(SelectionKey.OP_WRITE);
+      } else if (sourceClosed) {
+        sink.close();
+      }
+    }
+
+    private void write() throws IOException {
+      buffer.flip();
+      sink.write(buffer);
+      buffer.compact();
+      if (buffer.position() == 0) {
+        if (sourceClosed) {
+          sink.close();
+          return;
+        }
+        sinkKey.interestOps(0);
+        if (buffer.capacity() > INITIAL_BUFFER_SIZE) {
+          buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        }
+      }
+      if (!sourceClosed && buffer.hasRemaining()) {
+        sourceKey.interestOps(SelectionKey.OP_READ);
+      }
+    }
+
+    void close() {
+      closeQuietly(source);
+      closeQuietly(sink);
+    }
+
+    void closeAll() {
+      close();
+      // Closing a channel again does nothing, so this can't close a file descriptor that was
+      // reused since the end was closed through its ParcelFileDescriptor.
+      closeQuietly(writeSide.sink());
+      closeQuietly(readSide.source());
+    }
+
+    private static void closeQuietly(Channel channel) {
+      try {
+        channel.close();
+      } catch (IOException ignored) {
+        // Nothing else to do.
+      }
+    }
+  }
+}
@@ -23,10 +23,8 @@ import android.view.accessibility.AccessibilityNodeInfo.RangeInfo;
 import android.view.accessibility.AccessibilityWindowInfo;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
@@ -44,12 +42,11 @@ import org.robolectric.util.ReflectionHelpers.ClassParameter;
  */
 @Implements(AccessibilityNodeInfo.class)
 public class ShadowAccessibilityNodeInfo {
-  // Map of obtained instances of the class along with stack traces of how they were obtained
-  private static final Map<StrictEqualityNodeWrapper, StackTraceElement[]> obtainedInstances =
-      new HashMap<>();
+  // Obtained instances of the class, keyed by allocation count in orderedInstances
+  private static final ObtainedInstances<AccessibilityNodeInfo> obtainedInstances =
+      new ObtainedInstances<>();
 
-  private static final SparseArray<StrictEqualityNodeWrapper> orderedInstances =
-      new SparseArray<>();
+  private static final SparseArray<AccessibilityNodeInfo> orderedInstances = new SparseArray<>();
 
   // Bitmasks for actions
   public static final int UNDEFINED_SELECTION_INDEX = -1;
@@ -59,7 +56,7 @@ public class ShadowAccessibilityNodeInfo {
 
     @Override
     public AccessibilityNodeInfo createFromParcel(Parcel source) {
-      return obtain(orderedInstances.get(source.readInt()).mInfo);
+      return obtain(orderedInstances.get(source.readInt()));
     }
 
     @Override
@@ -197,9 +194,8 @@ public class ShadowAccessibilityNodeInfo {
     if (shadowInfo.mOriginNodeId == 0) {
       shadowInfo.mOriginNodeId = sAllocationCount;
     }
-    StrictEqualityNodeWrapper wrapper = new StrictEqualityNodeWrapper(obtainedInstance);
-    obtainedInstances.put(wrapper, Thread.currentThread().getStackTrace());
-    orderedInstances.put(sAllocationCount, wrapper);
+    obtainedInstances.add(obtainedInstance, sAllocationCount);
+    orderedInstances.put(sAllocationCount, obtainedInstance);
     return obtainedInstance;
   }
 
@@ -228,9 +224,8 @@ public class ShadowAccessibilityNodeInfo {
     if (shadowObtained.mOriginNodeId == 0) {
       shadowObtained.mOriginNodeId = sAllocationCount;
     }
-    StrictEqualityNodeWrapper wrapper = new StrictEqualityNodeWrapper(obtainedInstance);
-    obtainedInstances.put(wrapper, Thread.currentThread().getStackTrace());
-    orderedInstances.put(sAllocationCount, wrapper);
+    obtainedInstances.add(obtainedInstance, sAllocationCount);
+    orderedInstances.put(sAllocationCount, obtainedInstance);
     return obtainedInstance;
   }
 
@@ -256,18 +251,16 @@ public class ShadowAccessibilityNodeInfo {
    */
   public static boolean areThereUnrecycledNodes(boolean printUnrecycledNodesToSystemErr) {
     if (printUnrecycledNodesToSystemErr) {
-      for (final StrictEqualityNodeWrapper wrapper : obtainedInstances.keySet()) {
-        final ShadowAccessibilityNodeInfo shadow = Shadow.extract(wrapper.mInfo);
+      for (final AccessibilityNodeInfo info : obtainedInstances.instances()) {
+        final ShadowAccessibilityNodeInfo shadow = Shadow.extract(info);
 
         System.err.println(String.format(
             "Leaked contentDescription = %s. Stack trace:", shadow.getContentDescription()));
-        for (final StackTraceElement stackTraceElement : obtainedInstances.get(wrapper)) {
-          System.err.println(stackTraceElement.toString());
-        }
+        obtainedInstances.printStackTrace(info);
       }
     }
 
-    return (obtainedInstances.size() != 0);
+    return !obtainedInstances.isEmpty();
   }
 
   /**
@@ -282,9 +275,7 @@ public class ShadowAccessibilityNodeInfo {
 
   @Implementation
   protected void recycle() {
-    final StrictEqualityNodeWrapper wrapper =
-        new StrictEqualityNodeWrapper(realAccessibilityNodeInfo);
-    if (!obtainedInstances.containsKey(wrapper)) {
+    if (!obtainedInstances.contains(realAccessibilityNodeInfo)) {
       throw new IllegalStateException();
     }
 
@@ -305,16 +296,7 @@ public class ShadowAccessibilityNodeInfo {
       }
     }
 
-    obtainedInstances.remove(wrapper);
-    int keyOfWrapper = -1;
-    for (int i = 0; i < orderedInstances.size(); i++) {
-      int key = orderedInstances.keyAt(i);
-      if (orderedInstances.get(key).equals(wrapper)) {
-        keyOfWrapper = key;
-        break;
-      }
-    }
-    orderedInstances.remove(keyOfWrapper);
+    orderedInstances.remove(obtainedInstances.remove(realAccessibilityNodeInfo));
   }
 
   @Implementation
@@ -1154,34 +1136,6 @@ public class ShadowAccessibilityNodeInfo {
     return newInfo;
   }
 
-  /**
-   * Private class to keep different nodes referring to the same view straight
-   * in the mObtainedInstances map.
-   */
-  private static class StrictEqualityNodeWrapper {
-    public final AccessibilityNodeInfo mInfo;
-
-    public StrictEqualityNodeWrapper(AccessibilityNodeInfo info) {
-      mInfo = info;
-    }
-
-    @Override
-    @SuppressWarnings("ReferenceEquality")
-    public boolean equals(Object object) {
-      if (object == null) {
-        return false;
-      }
-
-      final StrictEqualityNodeWrapper wrapper = (StrictEqualityNodeWrapper) object;
-      return mInfo == wrapper.mInfo;
-    }
-
-    @Override
-    public int hashCode() {
-      return mInfo.hashCode();
-    }
-  }
-
   /**
    * Shadow of AccessibilityAction.
    */
@@ -1243,15 +1197,7 @@ public class ShadowAccessibilityNodeInfo {
 
   @Implementation
   protected void writeToParcel(Parcel dest, int flags) {
-    StrictEqualityNodeWrapper wrapper = new StrictEqualityNodeWrapper(realAccessibilityNodeInfo);
-    int keyOfWrapper = -1;
-    for (int i = 0; i < orderedInstances.size(); i++) {
-      if (orderedInstances.valueAt(i).equals(wrapper)) {
-        keyOfWrapper = orderedInstances.keyAt(i);
-        break;
-      }
-    }
-    dest.writeInt(keyOfWrapper);
+    dest.writeInt(obtainedInstances.keyOf(realAccessibilityNodeInfo));
   }
 
   private static int getActionTypeMaskFromFramework() {
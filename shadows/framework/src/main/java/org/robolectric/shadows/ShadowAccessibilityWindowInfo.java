@@ -7,9 +7,7 @@ import android.graphics.Rect;
 import android.view.accessibility.AccessibilityNodeInfo;
 import android.view.accessibility.AccessibilityWindowInfo;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.RealObject;
@@ -23,8 +21,8 @@ import org.robolectric.util.ReflectionHelpers;
 @Implements(value = AccessibilityWindowInfo.class, minSdk = LOLLIPOP)
 public class ShadowAccessibilityWindowInfo {
 
-  private static final Map<StrictEqualityWindowWrapper, StackTraceElement[]> obtainedInstances =
-      new HashMap<>();
+  private static final ObtainedInstances<AccessibilityWindowInfo> obtainedInstances =
+      new ObtainedInstances<>();
 
   private List<AccessibilityWindowInfo> children = null;
 
@@ -58,8 +56,7 @@ public class ShadowAccessibilityWindowInfo {
   protected static AccessibilityWindowInfo obtain() {
     final AccessibilityWindowInfo obtainedInstance =
         ReflectionHelpers.callConstructor(AccessibilityWindowInfo.class);
-    StrictEqualityWindowWrapper wrapper = new StrictEqualityWindowWrapper(obtainedInstance);
-    obtainedInstances.put(wrapper, Thread.currentThread().getStackTrace());
+    obtainedInstances.add(obtainedInstance, -1);
     return obtainedInstance;
   }
 
@@ -67,8 +64,7 @@ public class ShadowAccessibilityWindowInfo {
   protected static AccessibilityWindowInfo obtain(AccessibilityWindowInfo window) {
     final ShadowAccessibilityWindowInfo shadowInfo = Shadow.extract(window);
     final AccessibilityWindowInfo obtainedInstance = shadowInfo.getClone();
-    StrictEqualityWindowWrapper wrapper = new StrictEqualityWindowWrapper(obtainedInstance);
-    obtainedInstances.put(wrapper, Thread.currentThread().getStackTrace());
+    obtainedInstances.add(obtainedInstance, -1);
     return obtainedInstance;
   }
 
@@ -110,18 +106,16 @@ public class ShadowAccessibilityWindowInfo {
    */
   public static boolean areThereUnrecycledWindows(boolean printUnrecycledWindowsToSystemErr) {
     if (printUnrecycledWindowsToSystemErr) {
-      for (final StrictEqualityWindowWrapper wrapper : obtainedInstances.keySet()) {
-        final ShadowAccessibilityWindowInfo shadow = Shadow.extract(wrapper.mInfo);
+      for (final AccessibilityWindowInfo window : obtainedInstances.instances()) {
+        final ShadowAccessibilityWindowInfo shadow = Shadow.extract(window);
 
         System.err.println(String.format(
             "Leaked type = %d, id = %d. Stack trace:", shadow.getType(), shadow.getId()));
-        for (final StackTraceElement stackTraceElement : obtainedInstances.get(wrapper)) {
-          System.err.println(stackTraceElement.toString());
-        }
+        obtainedInstances.printStackTrace(window);
       }
     }
 
-    return (obtainedInstances.size() != 0);
+    return !obtainedInstances.isEmpty();
   }
 
   @Override
@@ -287,32 +281,4 @@ public class ShadowAccessibilityWindowInfo {
     ((ShadowAccessibilityWindowInfo) Shadow.extract(child)).parent =
         mRealAccessibilityWindowInfo;
   }
-
-  /**
-   * Private class to keep different windows referring to the same window straight
-   * in the mObtainedInstances map.
-   */
-  private static class StrictEqualityWindowWrapper {
-    public final AccessibilityWindowInfo mInfo;
-
-    public StrictEqualityWindowWrapper(AccessibilityWindowInfo info) {
-      mInfo = info;
-    }
-
-    @Override
-    @SuppressWarnings("ReferenceEquality")
-    public boolean equals(Object object) {
-      if (object == null) {
-        return false;
-      }
-
-      final StrictEqualityWindowWrapper wrapper = (StrictEqualityWindowWrapper) object;
-      return mInfo == wrapper.mInfo;
-    }
-
-    @Override
-    public int hashCode() {
-      return mInfo.hashCode();
-    }
-  }
-}
\ No newline at end of file
+}
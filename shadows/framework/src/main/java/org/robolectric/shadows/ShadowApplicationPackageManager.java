@@ -57,7 +57,6 @@ import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
 import android.content.pm.PackageParser;
 import android.content.pm.PackageParser.Activity;
-import android.content.pm.PackageParser.Component;
 import android.content.pm.PackageParser.Package;
 import android.content.pm.PackageParser.PermissionGroup;
 import android.content.pm.PackageParser.Provider;
@@ -547,57 +546,23 @@ public class ShadowApplicationPackageManager extends ShadowPackageManager {
   }
 
   private ResolveInfo resolveActivityForExplicitIntent(Intent intent) {
-    ComponentName component = getComponentForIntent(intent);
-    for (Package appPackage : packages.values()) {
-      Activity activity = findMatchingComponent(component, appPackage.activities);
-      if (activity != null) {
-        return buildResolveInfo(activity);
-      }
-    }
-    return null;
+    Activity activity = packageIntentIndex.activities.get(getComponentForIntent(intent));
+    return activity == null ? null : buildResolveInfo(activity);
   }
 
   private ResolveInfo resolveServiceForExplicitIntent(Intent intent) {
-    ComponentName component = getComponentForIntent(intent);
-    for (Package appPackage : packages.values()) {
-      Service service = findMatchingComponent(component, appPackage.services);
-      if (service != null) {
-        return buildResolveInfo(service);
-      }
-    }
-    return null;
+    Service service = packageIntentIndex.services.get(getComponentForIntent(intent));
+    return service == null ? null : buildResolveInfo(service);
   }
 
   private ResolveInfo resolveReceiverForExplicitIntent(Intent intent) {
-    ComponentName component = getComponentForIntent(intent);
-    for (Package appPackage : packages.values()) {
-      Activity receiver = findMatchingComponent(component, appPackage.receivers);
-      if (receiver != null) {
-        return buildResolveInfo(receiver);
-      }
-    }
-    return null;
+    Activity receiver = packageIntentIndex.receivers.get(getComponentForIntent(intent));
+    return receiver == null ? null : buildResolveInfo(receiver);
   }
 
   private ResolveInfo resolveContentProviderForExplicitIntent(Intent intent) {
-    ComponentName component = getComponentForIntent(intent);
-    for (Package appPackage : packages.values()) {
-      Provider provider = findMatchingComponent(component, appPackage.providers);
-      if (provider != null) {
-        return buildResolveInfo(provider);
-      }
-    }
-    return null;
-  }
-
-  private static <T extends Component> T findMatchingComponent(
-      ComponentName componentName, List<T> components) {
-    for (T component : components) {
-      if (componentName.equals(component.getComponentName())) {
-        return component;
-      }
-    }
-    return null;
+    Provider provider = packageIntentIndex.providers.get(getComponentForIntent(intent));
+    return provider == null ? null : buildResolveInfo(provider);
   }
 
   private static ComponentName getComponentForIntent(Intent intent) {
@@ -614,14 +579,10 @@ public class ShadowApplicationPackageManager extends ShadowPackageManager {
   private List<ResolveInfo> queryImplicitIntentContentProviders(Intent intent) {
     List<ResolveInfo> resolveInfoList = new ArrayList<>();
 
-    for (Package appPackage : packages.values()) {
-      if (intent.getPackage() == null || intent.getPackage().equals(appPackage.packageName)) {
-        for (Provider provider : appPackage.providers) {
-          IntentFilter intentFilter = matchIntentFilter(intent, provider.intents);
-          if (intentFilter != null) {
-            resolveInfoList.add(buildResolveInfo(provider));
-          }
-        }
+    for (Provider provider : packageIntentIndex.providers.candidatesFor(intent)) {
+      IntentFilter intentFilter = matchIntentFilter(intent, provider.intents);
+      if (intentFilter != null) {
+        resolveInfoList.add(buildResolveInfo(provider));
       }
     }
 
@@ -631,14 +592,10 @@ public class ShadowApplicationPackageManager extends ShadowPackageManager {
   private List<ResolveInfo> queryImplicitIntentActivities(Intent intent) {
     List<ResolveInfo> resolveInfoList = new ArrayList<>();
 
-    for (Package appPackage : packages.values()) {
-      if (intent.getPackage() == null || intent.getPackage().equals(appPackage.packageName)) {
-        for (Activity activity : appPackage.activities) {
-          IntentFilter intentFilter = matchIntentFilter(intent, activity.intents);
-          if (intentFilter != null) {
-            resolveInfoList.add(buildResolveInfo(activity, intentFilter));
-          }
-        }
+    for (Activity activity : packageIntentIndex.activities.candidatesFor(intent)) {
+      IntentFilter intentFilter = matchIntentFilter(intent, activity.intents);
+      if (intentFilter != null) {
+        resolveInfoList.add(buildResolveInfo(activity, intentFilter));
       }
     }
 
@@ -648,14 +605,10 @@ public class ShadowApplicationPackageManager extends ShadowPackageManager {
   private List<ResolveInfo> queryImplicitIntentServices(Intent intent) {
     List<ResolveInfo> resolveInfoList = new ArrayList<>();
 
-    for (Package appPackage : packages.values()) {
-      if (intent.getPackage() == null || intent.getPackage().equals(appPackage.packageName)) {
-        for (Service service : appPackage.services) {
-          IntentFilter intentFilter = matchIntentFilter(intent, service.intents);
-          if (intentFilter != null) {
-            resolveInfoList.add(buildResolveInfo(service, intentFilter));
-          }
-        }
+    for (Service service : packageIntentIndex.services.candidatesFor(intent)) {
+      IntentFilter intentFilter = matchIntentFilter(intent, service.intents);
+      if (intentFilter != null) {
+        resolveInfoList.add(buildResolveInfo(service, intentFilter));
       }
     }
 
@@ -665,14 +618,10 @@ public class ShadowApplicationPackageManager extends ShadowPackageManager {
   private List<ResolveInfo> queryImplicitIntentReceivers(Intent intent) {
     List<ResolveInfo> resolveInfoList = new ArrayList<>();
 
-    for (Package appPackage : packages.values()) {
-      if (intent.getPackage() == null || intent.getPackage().equals(appPackage.packageName)) {
-        for (Activity activity : appPackage.receivers) {
-          IntentFilter intentFilter = matchIntentFilter(intent, activity.intents);
-          if (intentFilter != null) {
-            resolveInfoList.add(buildResolveInfo(activity, intentFilter));
-          }
-        }
+    for (Activity activity : packageIntentIndex.receivers.candidatesFor(intent)) {
+      IntentFilter intentFilter = matchIntentFilter(intent, activity.intents);
+      if (intentFilter != null) {
+        resolveInfoList.add(buildResolveInfo(activity, intentFilter));
       }
     }
 
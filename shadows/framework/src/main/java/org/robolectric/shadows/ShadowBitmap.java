@@ -5,7 +5,6 @@ import static android.os.Build.VERSION_CODES.KITKAT;
 import static android.os.Build.VERSION_CODES.M;
 
 import android.graphics.Bitmap;
-import android.graphics.Color;
 import android.graphics.Matrix;
 import android.graphics.RectF;
 import android.os.Build;
@@ -26,9 +25,6 @@ import org.robolectric.util.ReflectionHelpers;
 @SuppressWarnings({"UnusedDeclaration"})
 @Implements(Bitmap.class)
 public class ShadowBitmap {
-  /** Number of bytes used internally to represent each pixel (in the {@link #colors} array) */
-  private static final int INTERNAL_BYTES_PER_PIXEL = 4;
-
   @RealObject
   private Bitmap realBitmap;
 
@@ -50,7 +46,8 @@ public class ShadowBitmap {
   private int width;
   private int height;
   private int density;
-  private int[] colors;
+  /** The bitmap's pixels, or null until they are first written. */
+  private BitmapPixelStore pixels;
   private Bitmap.Config config;
   private boolean mutable;
   private String description = "";
@@ -221,7 +218,6 @@ public class ShadowBitmap {
     if (displayMetrics != null) {
       shadowBitmap.density = displayMetrics.densityDpi;
     }
-    shadowBitmap.setPixels(new int[shadowBitmap.getHeight() * shadowBitmap.getWidth()], 0, shadowBitmap.getWidth(), 0, 0, shadowBitmap.getWidth(), shadowBitmap.getHeight());
     return scaledBitmap;
   }
 
@@ -253,7 +249,6 @@ public class ShadowBitmap {
     shadowBitmap.createdFromFilter = filter;
     shadowBitmap.width = dstWidth;
     shadowBitmap.height = dstHeight;
-    shadowBitmap.setPixels(new int[shadowBitmap.getHeight() * shadowBitmap.getWidth()], 0, 0, 0, 0, shadowBitmap.getWidth(), shadowBitmap.getHeight());
     return scaledBitmap;
   }
 
@@ -278,13 +273,15 @@ public class ShadowBitmap {
     shadowBitmap.createdFromHeight = height;
     shadowBitmap.width = width;
     shadowBitmap.height = height;
+    shadowBitmap.config = shadowSrcBitmap.config;
+    shadowBitmap.shareRegionOf(shadowSrcBitmap, x, y);
     return newBitmap;
   }
 
   @Implementation
   protected void setPixels(
       int[] pixels, int offset, int stride, int x, int y, int width, int height) {
-    this.colors = pixels;
+    writablePixels().setPixels(pixels, offset, stride, x, y, width, height);
   }
 
   @Implementation
@@ -334,6 +331,10 @@ public class ShadowBitmap {
     // updated if matrix is non-null
     shadowNewBitmap.width = width;
     shadowNewBitmap.height = height;
+    shadowNewBitmap.config = shadowSrcBitmap.config;
+    if (matrix == null || matrix.isIdentity()) {
+      shadowNewBitmap.shareRegionOf(shadowSrcBitmap, x, y);
+    }
 
     return newBitmap;
   }
@@ -349,23 +350,17 @@ public class ShadowBitmap {
 
     shadowBitmap.setMutable(false);
     shadowBitmap.createdFromColors = colors;
-    shadowBitmap.colors = new int[colors.length];
-    System.arraycopy(colors, 0, shadowBitmap.colors, 0, colors.length);
+    shadowBitmap.setPixels(colors, 0, width, 0, 0, width, height);
     return newBitmap;
   }
 
   @Implementation
   protected int getPixel(int x, int y) {
     internalCheckPixelAccess(x, y);
-    if (colors != null) {
-      // Note that getPixel() returns a non-premultiplied ARGB value; if
-      // config is RGB_565, our return value will likely be more precise than
-      // on a physical device, since it needs to map each color component from
-      // 5 or 6 bits to 8 bits.
-      return colors[y * getWidth() + x];
-    } else {
-      return 0;
-    }
+    // Note that getPixel() returns a non-premultiplied ARGB value, read back from the config's
+    // pixel format; as on a device, RGB_565 and ALPHA_8 bitmaps don't keep all color components.
+    BitmapPixelStore pixels = currentPixels();
+    return pixels == null ? layout().blankColor() : pixels.getPixel(x, y);
   }
 
   @Implementation
@@ -376,32 +371,20 @@ public class ShadowBitmap {
       throw new IllegalStateException("Bitmap is immutable");
     }
     internalCheckPixelAccess(x, y);
-    if (colors == null) {
-      colors = new int[getWidth() * getHeight()];
-    }
-    colors[y * getWidth() + x] = color;
+    writablePixels().setPixel(x, y, color);
   }
 
-  /**
-   * Note that this method will return a RuntimeException unless: - {@code pixels} has the same
-   * length as the number of pixels of the bitmap. - {@code x = 0} - {@code y = 0} - {@code width}
-   * and {@code height} height match the current bitmap's dimensions.
-   */
   @Implementation
   protected void getPixels(
       int[] pixels, int offset, int stride, int x, int y, int width, int height) {
-    if (x != 0 ||
-        y != 0 ||
-        width != getWidth() ||
-        height != getHeight() ||
-        pixels.length != colors.length) {
-      for (int y0 = 0; y0 < height; y0++) {
-        for (int x0 = 0; x0 < width; x0++) {
-          pixels[offset + y0 * stride + x0] = colors[(y0 + y) * getWidth() + x0 + x];
-        }
-      }
+    BitmapPixelStore store = currentPixels();
+    if (store != null) {
+      store.getPixels(pixels, offset, stride, x, y, width, height);
     } else {
-      System.arraycopy(colors, 0, pixels, 0, colors.length);
+      int blankColor = layout().blankColor();
+      for (int row = 0; row < height; row++) {
+        Arrays.fill(pixels, offset + row * stride, offset + row * stride + width, blankColor);
+      }
     }
   }
 
@@ -418,6 +401,10 @@ public class ShadowBitmap {
   @Implementation
   protected void recycle() {
     recycled = true;
+    if (pixels != null) {
+      pixels.release();
+      pixels = null;
+    }
   }
 
   @Implementation
@@ -434,9 +421,12 @@ public class ShadowBitmap {
     shadowBitmap.mutable = isMutable;
     shadowBitmap.height = getHeight();
     shadowBitmap.width = getWidth();
-    if (colors != null) {
-      shadowBitmap.colors = new int[colors.length];
-      System.arraycopy(shadowBitmap.colors, 0, colors, 0, colors.length);
+    BitmapPixelStore pixels = currentPixels();
+    if (pixels != null) {
+      shadowBitmap.pixels =
+          shadowBitmap.layout() == pixels.layout
+              ? pixels.share()
+              : pixels.reshape(shadowBitmap.layout(), getWidth(), getHeight());
     }
     return newBitmap;
   }
@@ -489,9 +479,10 @@ public class ShadowBitmap {
 
   @Implementation
   protected Bitmap extractAlpha() {
-    int[] alphaPixels = new int[colors.length];
+    int[] alphaPixels = new int[getWidth() * getHeight()];
+    getPixels(alphaPixels, 0, getWidth(), 0, 0, getWidth(), getHeight());
     for (int i = 0; i < alphaPixels.length; i++) {
-      alphaPixels[i] = Color.alpha(colors[i]);
+      alphaPixels[i] &= 0xff000000;
     }
 
     return createBitmap(alphaPixels, getWidth(), getHeight(), Bitmap.Config.ALPHA_8);
@@ -549,8 +540,8 @@ public class ShadowBitmap {
 
   @Implementation
   protected void eraseColor(int color) {
-    if (colors != null) {
-      Arrays.fill(colors, color);
+    if (currentPixels() != null || color != layout().blankColor()) {
+      writablePixels().fill(color);
     }
   }
 
@@ -559,6 +550,8 @@ public class ShadowBitmap {
     p.writeInt(width);
     p.writeInt(height);
     p.writeSerializable(config);
+    int[] colors = new int[width * height];
+    getPixels(colors, 0, width, 0, 0, width, height);
     p.writeIntArray(colors);
   }
 
@@ -579,45 +572,39 @@ public class ShadowBitmap {
     if (isRecycled()) {
       throw new IllegalStateException("Can't call copyPixelsFromBuffer() on a recycled bitmap");
     }
-
-    // See the related comment in #copyPixelsToBuffer(Buffer).
-    if (getBytesPerPixel(config) != INTERNAL_BYTES_PER_PIXEL) {
-      throw new RuntimeException("Not implemented: only Bitmaps with " + INTERNAL_BYTES_PER_PIXEL
-              + " bytes per pixel are supported");
-    }
-    if (!(dst instanceof ByteBuffer)) {
-      throw new RuntimeException("Not implemented: unsupported Buffer subclass");
-    }
-
-    ByteBuffer byteBuffer = (ByteBuffer) dst;
-    if (byteBuffer.remaining() < colors.length * INTERNAL_BYTES_PER_PIXEL) {
+    ByteBuffer byteBuffer = checkPixelBuffer(dst);
+    if (byteBuffer.remaining() < getByteCount()) {
       throw new RuntimeException("Buffer not large enough for pixels");
     }
-
-    for (int i = 0; i < colors.length; i++) {
-      colors[i] = byteBuffer.getInt();
-    }
+    writablePixels().copyFrom(byteBuffer);
   }
 
   @Implementation
   protected void copyPixelsToBuffer(Buffer dst) {
-    // Ensure that the Bitmap uses 4 bytes per pixel, since we always use 4 bytes per pixels
-    // internally. Clients of this API probably expect that the buffer size must be >=
-    // getByteCount(), but if we don't enforce this restriction then for RGB_4444 and other
-    // configs that value would be smaller then the buffer size we actually need.
-    if (getBytesPerPixel(config) != INTERNAL_BYTES_PER_PIXEL) {
-      throw new RuntimeException("Not implemented: only Bitmaps with " + INTERNAL_BYTES_PER_PIXEL
-              + " bytes per pixel are supported");
+    ByteBuffer byteBuffer = checkPixelBuffer(dst);
+    if (byteBuffer.remaining() < getByteCount()) {
+      throw new RuntimeException("Buffer not large enough for pixels");
     }
-
-    if (!(dst instanceof ByteBuffer)) {
-      throw new RuntimeException("Not implemented: unsupported Buffer subclass");
+    BitmapPixelStore pixels = currentPixels();
+    if (pixels != null) {
+      pixels.copyTo(byteBuffer);
+    } else {
+      byteBuffer.put(new byte[getByteCount()]);
     }
+  }
 
-    ByteBuffer byteBuffer = (ByteBuffer) dst;
-    for (int color : colors) {
-      byteBuffer.putInt(color);
+  /**
+   * Pixels are copied to and from buffers in the framework's format for the bitmap's config, which
+   * is only modeled for {@code ALPHA_8}, {@code RGB_565}, {@code ARGB_8888} and {@code RGBA_F16}.
+   */
+  private ByteBuffer checkPixelBuffer(Buffer buffer) {
+    if (!layout().isFrameworkLayout) {
+      throw new RuntimeException("Not implemented: copying pixels of " + config + " bitmaps");
+    }
+    if (!(buffer instanceof ByteBuffer)) {
+      throw new RuntimeException("Not implemented: unsupported Buffer subclass");
     }
+    return (ByteBuffer) buffer;
   }
 
   @Implementation(minSdk = KITKAT)
@@ -659,8 +646,20 @@ public class ShadowBitmap {
         && this.config != shadowOtherBitmap.config) {
       return false;
     }
-    if (!Arrays.equals(colors, shadowOtherBitmap.colors)) {
-      return false;
+    BitmapPixelStore pixels = currentPixels();
+    BitmapPixelStore otherPixels = shadowOtherBitmap.currentPixels();
+    if (pixels != null && otherPixels != null) {
+      return pixels.contentEquals(otherPixels);
+    }
+    if (layout() == shadowOtherBitmap.layout()) {
+      return pixels == null ? otherPixels == null || otherPixels.isBlank() : pixels.isBlank();
+    }
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        if (getPixel(x, y) != shadowOtherBitmap.getPixel(x, y)) {
+          return false;
+        }
+      }
     }
     return true;
   }
@@ -693,6 +692,43 @@ public class ShadowBitmap {
     appendDescription(" for resource:" + description);
   }
 
+  private BitmapPixelStore.Layout layout() {
+    return BitmapPixelStore.Layout.forConfig(config);
+  }
+
+  /**
+   * Returns the pixels, or null if they were never written. Pixels are brought up to date lazily
+   * after the bitmap is reconfigured.
+   */
+  private BitmapPixelStore currentPixels() {
+    if (pixels != null && !pixels.hasShape(layout(), width, height)) {
+      BitmapPixelStore reshaped = pixels.reshape(layout(), width, height);
+      pixels.release();
+      pixels = reshaped;
+    }
+    return pixels;
+  }
+
+  private BitmapPixelStore writablePixels() {
+    if (currentPixels() == null) {
+      pixels = BitmapPixelStore.allocate(layout(), width, height);
+    }
+    return pixels;
+  }
+
+  /** Shares the pixels of {@code src} starting at ({@code x}, {@code y}), if there are any. */
+  private void shareRegionOf(ShadowBitmap src, int x, int y) {
+    BitmapPixelStore srcPixels = src.currentPixels();
+    if (srcPixels != null
+        && layout() == srcPixels.layout
+        && x >= 0
+        && y >= 0
+        && x + width <= srcPixels.width
+        && y + height <= srcPixels.height) {
+      pixels = srcPixels.region(x, y, width, height);
+    }
+  }
+
   private void internalCheckPixelAccess(int x, int y) {
     if (x < 0) {
       throw new IllegalArgumentException("x must be >= 0");
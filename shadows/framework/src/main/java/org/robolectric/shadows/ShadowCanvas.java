@@ -11,6 +11,7 @@ import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
@@ -26,13 +27,31 @@ import org.robolectric.util.ReflectionHelpers;
 @SuppressWarnings({"UnusedDeclaration"})
 @Implements(Canvas.class)
 public class ShadowCanvas {
-  private List<PathPaintHistoryEvent> pathPaintEvents = new ArrayList<>();
-  private List<CirclePaintHistoryEvent> circlePaintEvents = new ArrayList<>();
-  private List<ArcPaintHistoryEvent> arcPaintEvents = new ArrayList<>();
-  private List<RectPaintHistoryEvent> rectPaintEvents = new ArrayList<>();
-  private List<LinePaintHistoryEvent> linePaintEvents = new ArrayList<>();
-  private List<OvalPaintHistoryEvent> ovalPaintEvents = new ArrayList<>();
-  private List<TextHistoryEvent> drawnTextEventHistory = new ArrayList<>();
+  /**
+   * If this system property is set to N, canvases only keep the last N draws of each kind, e.g. for
+   * animation tests that redraw custom views every frame. See {@link #setHistoryLimit(int)}.
+   */
+  public static final String HISTORY_LIMIT_PROPERTY = "robolectric.canvas.historyLimit";
+
+  private static final int DEFAULT_HISTORY_LIMIT = Integer.getInteger(HISTORY_LIMIT_PROPERTY, 0);
+
+  // The draws are recorded as arguments and only turned into *HistoryEvents when asked for.
+  private final DrawHistory pathPaintEvents = new DrawHistory(0);
+  private final DrawHistory circlePaintEvents = new DrawHistory(3);
+  private final DrawHistory arcPaintEvents = new DrawHistory(7);
+  private final DrawHistory rectPaintEvents = new DrawHistory(4);
+  private final DrawHistory linePaintEvents = new DrawHistory(4);
+  private final DrawHistory ovalPaintEvents = new DrawHistory(4);
+  private final DrawHistory drawnTextEventHistory = new DrawHistory(2);
+  private final DrawHistory[] histories = {
+    pathPaintEvents,
+    circlePaintEvents,
+    arcPaintEvents,
+    rectPaintEvents,
+    linePaintEvents,
+    ovalPaintEvents,
+    drawnTextEventHistory
+  };
   private Paint drawnPaint;
   private Bitmap targetBitmap = ReflectionHelpers.callConstructor(Bitmap.class);
   private float translateX;
@@ -75,23 +94,22 @@ public class ShadowCanvas {
 
   @Implementation
   protected void drawText(String text, float x, float y, Paint paint) {
-    drawnTextEventHistory.add(new TextHistoryEvent(x, y, paint, text));
+    recordText(x, y, paint, text);
   }
 
   @Implementation
   protected void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
-    drawnTextEventHistory.add(
-        new TextHistoryEvent(x, y, paint, text.subSequence(start, end).toString()));
+    recordText(x, y, paint, text.subSequence(start, end).toString());
   }
 
   @Implementation
   protected void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
-    drawnTextEventHistory.add(new TextHistoryEvent(x, y, paint, new String(text, index, count)));
+    recordText(x, y, paint, new String(text, index, count));
   }
 
   @Implementation
   protected void drawText(String text, int start, int end, float x, float y, Paint paint) {
-    drawnTextEventHistory.add(new TextHistoryEvent(x, y, paint, text.substring(start, end)));
+    recordText(x, y, paint, text.substring(start, end));
   }
 
   @Implementation
@@ -179,7 +197,7 @@ public class ShadowCanvas {
 
   @Implementation
   protected void drawPath(Path path, Paint paint) {
-    pathPaintEvents.add(new PathPaintHistoryEvent(new Path(path), new Paint(paint)));
+    pathPaintEvents.add(new Paint(paint), new Path(path));
 
     separateLines();
     ShadowPath shadowPath = Shadow.extract(path);
@@ -188,28 +206,38 @@ public class ShadowCanvas {
 
   @Implementation
   protected void drawCircle(float cx, float cy, float radius, Paint paint) {
-    circlePaintEvents.add(new CirclePaintHistoryEvent(cx, cy, radius, paint));
+    int i = circlePaintEvents.add(paint, null);
+    circlePaintEvents.args[i] = cx;
+    circlePaintEvents.args[i + 1] = cy;
+    circlePaintEvents.args[i + 2] = radius;
   }
 
   @Implementation
   protected void drawArc(
       RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
-    arcPaintEvents.add(new ArcPaintHistoryEvent(oval, startAngle, sweepAngle, useCenter, paint));
+    int i = arcPaintEvents.add(paint, null);
+    setArgs(arcPaintEvents.args, i, oval.left, oval.top, oval.right, oval.bottom);
+    arcPaintEvents.args[i + 4] = startAngle;
+    arcPaintEvents.args[i + 5] = sweepAngle;
+    arcPaintEvents.args[i + 6] = useCenter ? 1 : 0;
   }
 
   @Implementation
   protected void drawRect(float left, float top, float right, float bottom, Paint paint) {
-    rectPaintEvents.add(new RectPaintHistoryEvent(left, top, right, bottom, paint));
+    int i = rectPaintEvents.add(copyPaint(paint), null);
+    setArgs(rectPaintEvents.args, i, left, top, right, bottom);
   }
 
   @Implementation
   protected void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
-    linePaintEvents.add(new LinePaintHistoryEvent(startX, startY, stopX, stopY, paint));
+    int i = linePaintEvents.add(copyPaint(paint), null);
+    setArgs(linePaintEvents.args, i, startX, startY, stopX, stopY);
   }
 
   @Implementation
   protected void drawOval(RectF oval, Paint paint) {
-    ovalPaintEvents.add(new OvalPaintHistoryEvent(oval, paint));
+    int i = ovalPaintEvents.add(copyPaint(paint), null);
+    setArgs(ovalPaintEvents.args, i, oval.left, oval.top, oval.right, oval.bottom);
   }
 
   @Implementation
@@ -220,6 +248,28 @@ public class ShadowCanvas {
   @Implementation
   protected void restore() {}
 
+  private void recordText(float x, float y, Paint paint, String text) {
+    int i = drawnTextEventHistory.add(paint, text);
+    drawnTextEventHistory.args[i] = x;
+    drawnTextEventHistory.args[i + 1] = y;
+  }
+
+  private static void setArgs(float[] args, int i, float arg0, float arg1, float arg2, float arg3) {
+    args[i] = arg0;
+    args[i + 1] = arg1;
+    args[i + 2] = arg2;
+    args[i + 3] = arg3;
+  }
+
+  private static Paint copyPaint(Paint paint) {
+    Paint copy = new Paint(paint);
+    copy.setColor(paint.getColor());
+    copy.setStrokeWidth(paint.getStrokeWidth());
+    copy.setTextSize(paint.getTextSize());
+    copy.setStyle(paint.getStyle());
+    return copy;
+  }
+
   private void describeBitmap(Bitmap bitmap, Paint paint) {
     separateLines();
 
@@ -279,28 +329,46 @@ public class ShadowCanvas {
   }
 
   public Paint getDrawnPathPaint(int i) {
-    return pathPaintEvents.get(i).pathPaint;
+    return pathPaintEvents.paint(i);
   }
 
   public Path getDrawnPath(int i) {
-    return pathPaintEvents.get(i).drawnPath;
+    return (Path) pathPaintEvents.object(i);
   }
 
   public CirclePaintHistoryEvent getDrawnCircle(int i) {
-    return circlePaintEvents.get(i);
+    int arg = circlePaintEvents.argIndex(i);
+    float[] args = circlePaintEvents.args;
+    return new CirclePaintHistoryEvent(
+        args[arg], args[arg + 1], args[arg + 2], circlePaintEvents.paint(i));
   }
 
   public ArcPaintHistoryEvent getDrawnArc(int i) {
-    return arcPaintEvents.get(i);
+    int arg = arcPaintEvents.argIndex(i);
+    float[] args = arcPaintEvents.args;
+    return new ArcPaintHistoryEvent(
+        new RectF(args[arg], args[arg + 1], args[arg + 2], args[arg + 3]),
+        args[arg + 4],
+        args[arg + 5],
+        args[arg + 6] != 0,
+        arcPaintEvents.paint(i));
+  }
+
+  /**
+   * Only keeps the last {@code limit} draws of each kind from now on, or all of them if {@code
+   * limit} is 0. Indices passed to e.g. {@link #getDrawnRect(int)} then count from the oldest draw
+   * that was kept.
+   */
+  public void setHistoryLimit(int limit) {
+    for (DrawHistory history : histories) {
+      history.setLimit(limit);
+    }
   }
 
   public void resetCanvasHistory() {
-    drawnTextEventHistory.clear();
-    pathPaintEvents.clear();
-    circlePaintEvents.clear();
-    rectPaintEvents.clear();
-    linePaintEvents.clear();
-    ovalPaintEvents.clear();
+    for (DrawHistory history : histories) {
+      history.clear();
+    }
     ShadowBitmap shadowBitmap = Shadow.extract(targetBitmap);
     shadowBitmap.setDescription("");
   }
@@ -328,7 +396,12 @@ public class ShadowCanvas {
   }
 
   public TextHistoryEvent getDrawnTextEvent(int i) {
-    return drawnTextEventHistory.get(i);
+    int arg = drawnTextEventHistory.argIndex(i);
+    return new TextHistoryEvent(
+        drawnTextEventHistory.args[arg],
+        drawnTextEventHistory.args[arg + 1],
+        drawnTextEventHistory.paint(i),
+        (String) drawnTextEventHistory.object(i));
   }
 
   public int getTextHistoryCount() {
@@ -336,11 +409,14 @@ public class ShadowCanvas {
   }
 
   public RectPaintHistoryEvent getDrawnRect(int i) {
-    return rectPaintEvents.get(i);
+    int arg = rectPaintEvents.argIndex(i);
+    float[] args = rectPaintEvents.args;
+    return new RectPaintHistoryEvent(
+        args[arg], args[arg + 1], args[arg + 2], args[arg + 3], rectPaintEvents.paint(i));
   }
 
   public RectPaintHistoryEvent getLastDrawnRect() {
-    return rectPaintEvents.get(rectPaintEvents.size() - 1);
+    return getDrawnRect(rectPaintEvents.size() - 1);
   }
 
   public int getRectPaintHistoryCount() {
@@ -348,7 +424,10 @@ public class ShadowCanvas {
   }
 
   public LinePaintHistoryEvent getDrawnLine(int i) {
-    return linePaintEvents.get(i);
+    int arg = linePaintEvents.argIndex(i);
+    float[] args = linePaintEvents.args;
+    return new LinePaintHistoryEvent(
+        args[arg], args[arg + 1], args[arg + 2], args[arg + 3], linePaintEvents.paint(i));
   }
 
   public int getLinePaintHistoryCount() {
@@ -360,7 +439,11 @@ public class ShadowCanvas {
   }
 
   public OvalPaintHistoryEvent getDrawnOval(int i) {
-    return ovalPaintEvents.get(i);
+    int arg = ovalPaintEvents.argIndex(i);
+    float[] args = ovalPaintEvents.args;
+    return new OvalPaintHistoryEvent(
+        new RectF(args[arg], args[arg + 1], args[arg + 2], args[arg + 3]),
+        ovalPaintEvents.paint(i));
   }
 
   public static class LinePaintHistoryEvent {
@@ -372,9 +455,7 @@ public class ShadowCanvas {
 
     private LinePaintHistoryEvent(
         float startX, float startY, float stopX, float stopY, Paint paint) {
-      this.paint = new Paint(paint);
-      this.paint.setColor(paint.getColor());
-      this.paint.setStrokeWidth(paint.getStrokeWidth());
+      this.paint = paint;
       this.startX = startX;
       this.startY = startY;
       this.stopX = stopX;
@@ -387,10 +468,8 @@ public class ShadowCanvas {
     public final Paint paint;
 
     private OvalPaintHistoryEvent(RectF oval, Paint paint) {
-      this.oval = new RectF(oval);
-      this.paint = new Paint(paint);
-      this.paint.setColor(paint.getColor());
-      this.paint.setStrokeWidth(paint.getStrokeWidth());
+      this.oval = oval;
+      this.paint = paint;
     }
   }
 
@@ -405,11 +484,7 @@ public class ShadowCanvas {
     private RectPaintHistoryEvent(
         float left, float top, float right, float bottom, Paint paint){
       this.rect = new RectF(left, top, right, bottom);
-      this.paint = new Paint(paint);
-      this.paint.setColor(paint.getColor());
-      this.paint.setStrokeWidth(paint.getStrokeWidth());
-      this.paint.setTextSize(paint.getTextSize());
-      this.paint.setStyle(paint.getStyle());
+      this.paint = paint;
       this.left = left;
       this.top = top;
       this.right = right;
@@ -417,16 +492,6 @@ public class ShadowCanvas {
     }
   }
 
-  private static class PathPaintHistoryEvent {
-    private final Path drawnPath;
-    private final Paint pathPaint;
-
-    PathPaintHistoryEvent(Path drawnPath, Paint pathPaint) {
-      this.drawnPath = drawnPath;
-      this.pathPaint = pathPaint;
-    }
-  }
-
   public static class CirclePaintHistoryEvent {
     public final float centerX;
     public final float centerY;
@@ -471,4 +536,102 @@ public class ShadowCanvas {
       this.text = text;
     }
   }
+
+  /**
+   * The draws of one kind: a fixed number of float arguments, the paint and, for paths and text,
+   * one other object per draw. Once a limit is set, each draw past it replaces the oldest one.
+   */
+  private static class DrawHistory {
+    private final int argCount;
+    private float[] args = new float[0];
+    private Paint[] paints = new Paint[0];
+    private Object[] objects = new Object[0];
+    // The slot of the oldest draw; only moves once the limit is reached.
+    private int first;
+    private int size;
+    private int limit = DEFAULT_HISTORY_LIMIT;
+
+    DrawHistory(int argCount) {
+      this.argCount = argCount;
+    }
+
+    /** Records a draw and returns the index of its first argument in {@link #args}. */
+    int add(Paint paint, Object object) {
+      int slot;
+      if (limit > 0 && size == limit) {
+        slot = first;
+        first = (first + 1) % paints.length;
+      } else {
+        if (size == paints.length) {
+          int capacity = Math.max(8, size * 2);
+          if (limit > 0) {
+            capacity = Math.min(capacity, limit);
+          }
+          resize(capacity);
+        }
+        slot = size++;
+      }
+      paints[slot] = paint;
+      objects[slot] = object;
+      return slot * argCount;
+    }
+
+    int size() {
+      return size;
+    }
+
+    int argIndex(int i) {
+      return slot(i) * argCount;
+    }
+
+    Paint paint(int i) {
+      return paints[slot(i)];
+    }
+
+    Object object(int i) {
+      return objects[slot(i)];
+    }
+
+    void setLimit(int limit) {
+      this.limit = limit;
+      if (limit > 0 && size > limit) {
+        // Drop the oldest draws by moving the newest ones to the start, in order.
+        first = (first + size - limit) % paints.length;
+        size = limit;
+      }
+      resize(limit > 0 ? Math.min(limit, paints.length) : paints.length);
+    }
+
+    void clear() {
+      Arrays.fill(paints, null);
+      Arrays.fill(objects, null);
+      first = 0;
+      size = 0;
+    }
+
+    private int slot(int i) {
+      if (i < 0 || i >= size) {
+        throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+      }
+      int slot = first + i;
+      return slot < paints.length ? slot : slot - paints.length;
+    }
+
+    /** Moves the draws to new arrays of {@code capacity} slots, oldest first. */
+    private void resize(int capacity) {
+      float[] newArgs = new float[capacity * argCount];
+      Paint[] newPaints = new Paint[capacity];
+      Object[] newObjects = new Object[capacity];
+      for (int i = 0; i < size; i++) {
+        int slot = slot(i);
+        System.arraycopy(args, slot * argCount, newArgs, i * argCount, argCount);
+        newPaints[i] = paints[slot];
+        newObjects[i] = objects[slot];
+      }
+      args = newArgs;
+      paints = newPaints;
+      objects = newObjects;
+      first = 0;
+    }
+  }
 }
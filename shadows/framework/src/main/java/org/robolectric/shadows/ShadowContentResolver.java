@@ -24,18 +24,22 @@ import android.database.Cursor;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.CopyOnWriteArrayList;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
@@ -60,6 +64,9 @@ public class ShadowContentResolver {
   private final List<UpdateStatement> updateStatements = new ArrayList<>();
   private final List<DeleteStatement> deleteStatements = new ArrayList<>();
   private List<NotifiedUri> notifiedUris = new ArrayList<>();
+  private int maxNotifiedUris = Integer.MAX_VALUE;
+  private boolean coalesceNotifications;
+  private final Map<PendingNotification, Boolean> pendingNotifications = new LinkedHashMap<>();
   private Map<Uri, BaseCursor> uriCursorMap = new HashMap<>();
   private Map<Uri, InputStream> inputStreamMap = new HashMap<>();
   private Map<Uri, OutputStream> outputStreamMap = new HashMap<>();
@@ -68,8 +75,10 @@ public class ShadowContentResolver {
   private ContentProviderResult[] contentProviderResults;
   private final List<UriPermission> uriPermissions = new ArrayList<>();
 
-  private final CopyOnWriteArrayList<ContentObserverEntry> contentObservers =
-      new CopyOnWriteArrayList<>();
+  private final ObserverNode contentObservers = new ObserverNode();
+  private final Map<ContentObserver, List<ContentObserverEntry>> entriesByObserver =
+      new IdentityHashMap<>();
+  private long nextObserverSequence;
 
   private static final Map<String, Map<Account, Status>> syncableAccounts = new HashMap<>();
   private static final Map<String, ContentProvider> providers = new HashMap<>();
@@ -88,30 +97,119 @@ public class ShadowContentResolver {
     public final Uri uri;
     public final boolean notifyForDescendents;
     public final ContentObserver observer;
+    private final long sequence;
 
-    private ContentObserverEntry(Uri uri, boolean notifyForDescendents, ContentObserver observer) {
+    private ContentObserverEntry(
+        Uri uri, boolean notifyForDescendents, ContentObserver observer, long sequence) {
       this.uri = uri;
       this.notifyForDescendents = notifyForDescendents;
       this.observer = observer;
+      this.sequence = sequence;
 
       if (uri == null || observer == null) {
         throw new NullPointerException();
       }
     }
+  }
 
-    public boolean matches(Uri test) {
-      if (!Objects.equals(uri.getScheme(), test.getScheme())) {
-        return false;
+  /**
+   * A node in the tree of registered observers, mirroring the framework's {@code
+   * ContentService.ObserverNode}. The levels below the root are the URI scheme, the authority, and
+   * then each path segment.
+   */
+  private static class ObserverNode {
+    private final Map<String, ObserverNode> children = new HashMap<>();
+    private final List<ContentObserverEntry> entries = new ArrayList<>();
+
+    private static List<String> keysFor(Uri uri) {
+      List<String> segments = uri.getPathSegments();
+      List<String> keys = new ArrayList<>(segments.size() + 2);
+      keys.add(uri.getScheme());
+      keys.add(uri.getAuthority());
+      keys.addAll(segments);
+      return keys;
+    }
+
+    void add(ContentObserverEntry entry) {
+      ObserverNode node = this;
+      for (String key : keysFor(entry.uri)) {
+        ObserverNode child = node.children.get(key);
+        if (child == null) {
+          child = new ObserverNode();
+          node.children.put(key, child);
+        }
+        node = child;
       }
-      if (!Objects.equals(uri.getAuthority(), test.getAuthority())) {
-        return false;
+      node.entries.add(entry);
+    }
+
+    void remove(ContentObserverEntry entry) {
+      remove(entry, keysFor(entry.uri), 0);
+    }
+
+    private boolean remove(ContentObserverEntry entry, List<String> keys, int depth) {
+      if (depth == keys.size()) {
+        entries.remove(entry);
+      } else {
+        ObserverNode child = children.get(keys.get(depth));
+        if (child != null && child.remove(entry, keys, depth + 1)) {
+          children.remove(keys.get(depth));
+        }
+      }
+      return entries.isEmpty() && children.isEmpty();
+    }
+
+    /**
+     * Returns the entries observing {@code uri} itself, plus those observing one of its ancestors
+     * with {@code notifyForDescendents}, in registration order.
+     */
+    List<ContentObserverEntry> collect(Uri uri) {
+      List<String> keys = keysFor(uri);
+      List<ContentObserverEntry> result = new ArrayList<>();
+      ObserverNode node = this;
+      for (int depth = 0; depth < keys.size() && node != null; depth++) {
+        if (depth >= 2) {
+          for (ContentObserverEntry entry : node.entries) {
+            if (entry.notifyForDescendents) {
+              result.add(entry);
+            }
+          }
+        }
+        node = node.children.get(keys.get(depth));
+      }
+      if (node != null) {
+        result.addAll(node.entries);
       }
+      Collections.sort(result, (e1, e2) -> Long.compare(e1.sequence, e2.sequence));
+      return result;
+    }
+  }
 
-      String uriPath = uri.getPath();
-      String testPath = test.getPath();
+  private static class PendingNotification {
+    final Uri uri;
+    final ContentObserver observer;
+    final boolean syncToNetwork;
 
-      return Objects.equals(uriPath, testPath)
-          || (notifyForDescendents && testPath != null && testPath.startsWith(uriPath));
+    PendingNotification(Uri uri, ContentObserver observer, boolean syncToNetwork) {
+      this.uri = uri;
+      this.observer = observer;
+      this.syncToNetwork = syncToNetwork;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof PendingNotification)) {
+        return false;
+      }
+      PendingNotification that = (PendingNotification) o;
+      return uri.equals(that.uri)
+          && observer == that.observer
+          && syncToNetwork == that.syncToNetwork;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(uri, System.identityHashCode(observer), syncToNetwork);
     }
   }
 
@@ -412,10 +510,40 @@ public class ShadowContentResolver {
 
   @Implementation
   protected void notifyChange(Uri uri, ContentObserver observer, boolean syncToNetwork) {
-    notifiedUris.add(new NotifiedUri(uri, observer, syncToNetwork));
+    recordNotifiedUri(new NotifiedUri(uri, observer, syncToNetwork));
 
-    for (ContentObserverEntry entry : contentObservers) {
-      if (entry.matches(uri) && entry.observer != observer) {
+    if (coalesceNotifications) {
+      boolean firstPending;
+      synchronized (pendingNotifications) {
+        firstPending = pendingNotifications.isEmpty();
+        pendingNotifications.put(new PendingNotification(uri, observer, syncToNetwork), true);
+      }
+      if (firstPending) {
+        new Handler(Looper.getMainLooper()).post(this::dispatchPendingNotifications);
+      }
+    } else {
+      dispatchChange(uri, observer);
+    }
+  }
+
+  private void dispatchPendingNotifications() {
+    List<PendingNotification> notifications;
+    synchronized (pendingNotifications) {
+      notifications = new ArrayList<>(pendingNotifications.keySet());
+      pendingNotifications.clear();
+    }
+    for (PendingNotification notification : notifications) {
+      dispatchChange(notification.uri, notification.observer);
+    }
+  }
+
+  private void dispatchChange(Uri uri, ContentObserver observer) {
+    List<ContentObserverEntry> entries;
+    synchronized (contentObservers) {
+      entries = contentObservers.collect(uri);
+    }
+    for (ContentObserverEntry entry : entries) {
+      if (entry.observer != observer) {
         entry.observer.dispatchChange(false, uri);
       }
     }
@@ -424,6 +552,50 @@ public class ShadowContentResolver {
     }
   }
 
+  private void recordNotifiedUri(NotifiedUri notifiedUri) {
+    if (maxNotifiedUris == 0) {
+      return;
+    }
+    notifiedUris.add(notifiedUri);
+    // Trim in bulk so that bounded histories stay amortized O(1) per notification.
+    if (notifiedUris.size() >= 2 * (long) maxNotifiedUris) {
+      trimNotifiedUris();
+    }
+  }
+
+  private void trimNotifiedUris() {
+    if (notifiedUris.size() > maxNotifiedUris) {
+      notifiedUris.subList(0, notifiedUris.size() - maxNotifiedUris).clear();
+    }
+  }
+
+  /**
+   * Limits the number of notifications kept for {@link #getNotifiedUris()}; once the limit is
+   * reached, the oldest notifications are dropped. A limit of zero disables recording entirely.
+   * The default is unbounded.
+   */
+  public void setMaxNotifiedUris(int maxNotifiedUris) {
+    if (maxNotifiedUris < 0) {
+      throw new IllegalArgumentException("maxNotifiedUris must not be negative");
+    }
+    this.maxNotifiedUris = maxNotifiedUris;
+    trimNotifiedUris();
+  }
+
+  /**
+   * Sets whether change notifications are delivered to observers from the main looper rather than
+   * immediately. While enabled, identical notifications (same URI, originating observer and
+   * {@code syncToNetwork} value) made before the looper runs are delivered only once.
+   *
+   * <p>Every notification is still recorded for {@link #getNotifiedUris()}.
+   */
+  public void setCoalesceNotifications(boolean coalesceNotifications) {
+    this.coalesceNotifications = coalesceNotifications;
+    if (!coalesceNotifications) {
+      dispatchPendingNotifications();
+    }
+  }
+
   @Implementation
   protected void notifyChange(Uri uri, ContentObserver observer) {
     notifyChange(uri, observer, false);
@@ -755,6 +927,7 @@ public class ShadowContentResolver {
 
   @SuppressWarnings({"unused", "WeakerAccess"})
   public List<NotifiedUri> getNotifiedUris() {
+    trimNotifiedUris();
     return notifiedUris;
   }
 
@@ -776,7 +949,17 @@ public class ShadowContentResolver {
     if (uri == null || observer == null) {
       throw new NullPointerException();
     }
-    contentObservers.add(new ContentObserverEntry(uri, notifyForDescendents, observer));
+    synchronized (contentObservers) {
+      ContentObserverEntry entry =
+          new ContentObserverEntry(uri, notifyForDescendents, observer, nextObserverSequence++);
+      contentObservers.add(entry);
+      List<ContentObserverEntry> entries = entriesByObserver.get(observer);
+      if (entries == null) {
+        entries = new ArrayList<>(1);
+        entriesByObserver.put(observer, entries);
+      }
+      entries.add(entry);
+    }
   }
 
   @Implementation(minSdk = JELLY_BEAN_MR1)
@@ -788,8 +971,9 @@ public class ShadowContentResolver {
   @Implementation
   protected void unregisterContentObserver(ContentObserver observer) {
     synchronized (contentObservers) {
-      for (ContentObserverEntry entry : contentObservers) {
-        if (entry.observer == observer) {
+      List<ContentObserverEntry> entries = entriesByObserver.remove(observer);
+      if (entries != null) {
+        for (ContentObserverEntry entry : entries) {
           contentObservers.remove(entry);
         }
       }
@@ -816,8 +1000,8 @@ public class ShadowContentResolver {
    */
   public Collection<ContentObserver> getContentObservers(Uri uri) {
     ArrayList<ContentObserver> observers = new ArrayList<>(1);
-    for (ContentObserverEntry entry : contentObservers) {
-      if (entry.matches(uri)) {
+    synchronized (contentObservers) {
+      for (ContentObserverEntry entry : contentObservers.collect(uri)) {
         observers.add(entry.observer);
       }
     }
@@ -80,6 +80,7 @@ public class ShadowEnvironment {
 
     EXTERNAL_CACHE_DIR = null;
     EXTERNAL_FILES_DIR = null;
+    tmpExternalFilesDirBase = null;
 
     STORAGE_EMULATED.clear();
     STORAGE_REMOVABLE.clear();
@@ -171,7 +172,8 @@ public class ShadowEnvironment {
     } else {
       try {
         if (tmpExternalFilesDirBase == null) {
-          tmpExternalFilesDirBase = RuntimeEnvironment.getTempDirectory().create("external-files-base");
+          tmpExternalFilesDirBase =
+              RuntimeEnvironment.getTempDirectory().createIfNotExists("external-files-base");
         }
         externalFileDir = tmpExternalFilesDirBase.resolve(path);
         Files.createDirectories(externalFileDir);
@@ -37,6 +37,7 @@ import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -70,6 +71,7 @@ public class ShadowInstrumentation {
   private List<ServiceConnection> boundServiceConnections = new ArrayList<>();
   private List<ServiceConnection> unboundServiceConnections = new ArrayList<>();
   private List<Wrapper> registeredReceivers = new ArrayList<>();
+  private final BroadcastReceiverIndex receiverIndex = new BroadcastReceiverIndex();
   // map of pid+uid to granted permissions
   private final Map<Pair<Integer, Integer>, Set<String>> grantedPermissionsMap = new HashMap<>();
   private boolean unbindServiceShouldThrowIllegalArgument = false;
@@ -212,8 +214,7 @@ public class ShadowInstrumentation {
       String initialData,
       Bundle initialExtras,
       Context context) {
-    List<Wrapper> receivers = getAppropriateWrappers(intent, receiverPermission);
-    sortByPriority(receivers);
+    List<Wrapper> receivers = getAppropriateWrappers(intent, receiverPermission, true);
     receivers.add(new Wrapper(resultReceiver, null, context, null, scheduler));
     postOrderedToWrappers(receivers, intent, initialCode, initialData, initialExtras, context);
   }
@@ -241,17 +242,31 @@ public class ShadowInstrumentation {
     }
   }
 
-  /** Returns the BroadcaseReceivers wrappers, matching intent's action and permissions. */
-  private List<Wrapper> getAppropriateWrappers(Intent intent, String receiverPermission) {
+  /**
+   * Returns the BroadcaseReceivers wrappers, matching intent's action and permissions.
+   *
+   * @param byPriority whether to return the wrappers ordered by decreasing priority rather than in
+   *     registration order
+   */
+  private List<Wrapper> getAppropriateWrappers(
+      Intent intent, String receiverPermission, boolean byPriority) {
     broadcastIntents.add(intent);
 
     List<Wrapper> result = new ArrayList<>();
 
-    List<Wrapper> copy = new ArrayList<>();
-    copy.addAll(registeredReceivers);
-    for (Wrapper wrapper : copy) {
+    String action = intent.getAction();
+    Collection<Wrapper> candidates;
+    if (action == null) {
+      // unusual; let each filter decide whether it matches
+      candidates = new ArrayList<>(registeredReceivers);
+    } else if (byPriority) {
+      candidates = receiverIndex.getReceiversByPriority(action);
+    } else {
+      candidates = receiverIndex.getReceivers(action);
+    }
+    for (Wrapper wrapper : candidates) {
       if (hasMatchingPermission(wrapper.broadcastPermission, receiverPermission)
-          && wrapper.intentFilter.matchAction(intent.getAction())) {
+          && wrapper.intentFilter.matchAction(action)) {
         final int match =
             wrapper.intentFilter.matchData(intent.getType(), intent.getScheme(), intent.getData());
         if (match != IntentFilter.NO_MATCH_DATA && match != IntentFilter.NO_MATCH_TYPE) {
@@ -259,6 +274,9 @@ public class ShadowInstrumentation {
         }
       }
     }
+    if (action == null && byPriority) {
+      sortByPriority(result);
+    }
     return result;
   }
 
@@ -369,15 +387,14 @@ public class ShadowInstrumentation {
    * @param intent the {@code Intent} to broadcast todo: enqueue the Intent for later inspection
    */
   void sendBroadcastWithPermission(Intent intent, String receiverPermission, Context context) {
-    List<Wrapper> wrappers = getAppropriateWrappers(intent, receiverPermission);
+    List<Wrapper> wrappers = getAppropriateWrappers(intent, receiverPermission, false);
     postToWrappers(wrappers, intent, context);
   }
 
   void sendOrderedBroadcastWithPermission(
       Intent intent, String receiverPermission, Context context) {
-    List<Wrapper> wrappers = getAppropriateWrappers(intent, receiverPermission);
-    // sort by the decrease of priorities
-    sortByPriority(wrappers);
+    // sorted by the decrease of priorities
+    List<Wrapper> wrappers = getAppropriateWrappers(intent, receiverPermission, true);
 
     postOrderedToWrappers(wrappers, intent, 0, null, null, context);
   }
@@ -621,8 +638,9 @@ public class ShadowInstrumentation {
       Handler scheduler,
       Context context) {
     if (receiver != null) {
-      registeredReceivers.add(
-          new Wrapper(receiver, filter, context, broadcastPermission, scheduler));
+      Wrapper wrapper = new Wrapper(receiver, filter, context, broadcastPermission, scheduler);
+      registeredReceivers.add(wrapper);
+      receiverIndex.add(wrapper);
     }
     return processStickyIntents(filter, receiver, context);
   }
@@ -654,6 +672,7 @@ public class ShadowInstrumentation {
       Wrapper wrapper = iterator.next();
       if (wrapper.broadcastReceiver == broadcastReceiver) {
         iterator.remove();
+        receiverIndex.remove(wrapper);
         found = true;
       }
     }
@@ -685,9 +704,12 @@ public class ShadowInstrumentation {
     return broadcastReceivers;
   }
 
-  /** @return list of {@link Wrapper}s for registered receivers */
+  /**
+   * @return unmodifiable list of {@link Wrapper}s for registered receivers; receivers are
+   *     registered and unregistered through the {@link Context}, which keeps them indexed by action
+   */
   List<Wrapper> getRegisteredReceivers() {
-    return registeredReceivers;
+    return Collections.unmodifiableList(registeredReceivers);
   }
 
   int checkPermission(String permission, int pid, int uid) {
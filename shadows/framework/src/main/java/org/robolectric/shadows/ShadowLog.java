@@ -4,27 +4,61 @@ import android.util.Log;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.Resetter;
 
+/**
+ * Shadow for {@link Log}.
+ *
+ * <p>Log calls are recorded in per-tag ring buffers. By default the buffers are unbounded; set the
+ * {@code robolectric.logging.maxLogsPerTag} system property (or call {@link
+ * #setMaxLogsPerTag(int)}) to keep only the most recent entries for each tag. Entries are stored
+ * as primitive fields and only turned into {@link LogItem}s when {@link #getLogs()} or {@link
+ * #getLogsForTag(String)} is called.
+ *
+ * <p>When {@link #stream} is set, each entry is written to it as it is logged. Setting the {@code
+ * robolectric.logging.async} system property to {@code true} (or calling {@link
+ * #setAsyncStreamWrites(boolean)}) instead formats and writes entries in batches on a background
+ * thread; call {@link #flushStream()} to wait for pending writes.
+ */
 @Implements(Log.class)
 public class ShadowLog {
   private static final int extraLogLength = "l/: \n".length();
-  private static final Map<String, Queue<LogItem>> logsByTag = Collections.synchronizedMap(new
-      HashMap<String, Queue<LogItem>>());
-  private static final Queue<LogItem> logs = new ConcurrentLinkedQueue<>();
+  private static final int DEFAULT_MAX_LOGS_PER_TAG =
+      Integer.getInteger("robolectric.logging.maxLogsPerTag", Integer.MAX_VALUE);
+  private static final boolean DEFAULT_ASYNC_STREAM_WRITES =
+      Boolean.getBoolean("robolectric.logging.async");
+
+  private static final Map<String, TagBuffer> logsByTag = new ConcurrentHashMap<>();
+  // ConcurrentHashMap doesn't permit null keys, so logs with a null tag are kept separately.
+  private static final TagBuffer nullTagLogs = new TagBuffer(null);
+  private static final AtomicLong nextSequence = new AtomicLong();
   public static PrintStream stream;
   private static final Map<String, Integer> tagToLevel = Collections.synchronizedMap(new
       HashMap<String, Integer>());
 
+  private static volatile int maxLogsPerTag = DEFAULT_MAX_LOGS_PER_TAG;
+  private static volatile int minimumRecordedLevel = Log.VERBOSE;
+  private static volatile boolean asyncStreamWrites = DEFAULT_ASYNC_STREAM_WRITES;
+
   /**
    * Whether calling {@link Log#wtf} will throw {@link TerribleFailure}. This is analogous to
    * Android's {@link android.provider.Settings.Global#WTF_IS_FATAL}. The default value is false to
@@ -133,52 +167,131 @@ public class ShadowLog {
     tagToLevel.put(tag, level);
   }
 
-  private static int addLog(int level, String tag, String msg, Throwable throwable) {
-    if (stream != null) {
-      logToStream(stream, level, tag, msg, throwable);
+  /**
+   * Sets the maximum number of entries retained for each tag. Once a tag's buffer is full, each
+   * new entry replaces the oldest one for that tag.
+   *
+   * @param max The number of entries to keep per tag, or {@link Integer#MAX_VALUE} for no limit.
+   */
+  public static void setMaxLogsPerTag(int max) {
+    if (max <= 0) {
+      throw new IllegalArgumentException("max must be positive: " + max);
     }
+    maxLogsPerTag = max;
+  }
 
-    LogItem item = new LogItem(level, tag, msg, throwable);
-    Queue<LogItem> itemList;
+  /**
+   * Sets the lowest level that is recorded or written to {@link #stream}. Log calls below this
+   * level are discarded before anything is allocated. Unlike {@link #setLoggable}, this does not
+   * change the result of {@link Log#isLoggable}.
+   *
+   * @param level A log level, from {@link android.util.Log}
+   */
+  public static void setMinimumRecordedLevel(int level) {
+    minimumRecordedLevel = level;
+  }
+
+  /**
+   * Sets whether entries are formatted and written to {@link #stream} on a background thread in
+   * batches, rather than synchronously on the logging thread.
+   */
+  public static void setAsyncStreamWrites(boolean async) {
+    if (!async) {
+      flushStream();
+    }
+    asyncStreamWrites = async;
+  }
+
+  /** Blocks until all entries queued for asynchronous writing have been written to their stream. */
+  public static void flushStream() {
+    StreamWriter.flush();
+  }
+
+  private static int addLog(int level, String tag, String msg, Throwable throwable) {
+    if (level < minimumRecordedLevel) {
+      return 0;
+    }
 
-    synchronized (logsByTag) {
-      if (!logsByTag.containsKey(tag)) {
-        itemList = new ConcurrentLinkedQueue<>();
-        logsByTag.put(tag, itemList);
+    PrintStream ps = stream;
+    if (ps != null) {
+      if (asyncStreamWrites) {
+        StreamWriter.enqueue(ps, level, tag, msg, throwable);
       } else {
-        itemList = logsByTag.get(tag);
+        logToStream(ps, level, tag, msg, throwable);
       }
     }
 
-    itemList.add(item);
-    logs.add(item);
+    TagBuffer buffer;
+    if (tag == null) {
+      buffer = nullTagLogs;
+    } else {
+      buffer = logsByTag.get(tag);
+      if (buffer == null) {
+        buffer = logsByTag.computeIfAbsent(tag, TagBuffer::new);
+      }
+    }
+    buffer.add(nextSequence, level, msg, throwable, maxLogsPerTag);
 
     return 0;
   }
 
   private static void logToStream(PrintStream ps, int level, String tag, String msg, Throwable throwable) {
-    final char c;
-    switch (level) {
-      case Log.ASSERT: c = 'A'; break;
-      case Log.DEBUG:  c = 'D'; break;
-      case Log.ERROR:  c = 'E'; break;
-      case Log.WARN:   c = 'W'; break;
-      case Log.INFO:   c = 'I'; break;
-      case Log.VERBOSE:c = 'V'; break;
-      default:         c = '?';
-    }
-    ps.println(c + "/" + tag + ": " + msg);
+    ps.println(levelChar(level) + "/" + tag + ": " + msg);
     if (throwable != null) {
       throwable.printStackTrace(ps);
     }
   }
 
+  private static char levelChar(int level) {
+    switch (level) {
+      case Log.ASSERT: return 'A';
+      case Log.DEBUG:  return 'D';
+      case Log.ERROR:  return 'E';
+      case Log.WARN:   return 'W';
+      case Log.INFO:   return 'I';
+      case Log.VERBOSE:return 'V';
+      default:         return '?';
+    }
+  }
+
   /**
    * Returns ordered list of all log entries.
    * @return List of log items
    */
   public static List<LogItem> getLogs() {
-    return new ArrayList<>(logs);
+    List<TagBuffer> buffers = new ArrayList<>(logsByTag.values());
+    buffers.add(nullTagLogs);
+
+    int size = 0;
+    long[][] sequences = new long[buffers.size()][];
+    List<List<LogItem>> items = new ArrayList<>(buffers.size());
+    for (int i = 0; i < buffers.size(); i++) {
+      List<LogItem> bufferItems = new ArrayList<>();
+      sequences[i] = buffers.get(i).copyTo(bufferItems);
+      items.add(bufferItems);
+      size += bufferItems.size();
+    }
+
+    // Each buffer is already in sequence order, so a k-way merge restores the global order.
+    List<LogItem> result = new ArrayList<>(size);
+    int[] positions = new int[buffers.size()];
+    PriorityQueue<Integer> next =
+        new PriorityQueue<>(
+            Math.max(1, buffers.size()),
+            (a, b) -> Long.compare(sequences[a][positions[a]], sequences[b][positions[b]]));
+    for (int i = 0; i < positions.length; i++) {
+      if (sequences[i].length > 0) {
+        next.add(i);
+      }
+    }
+    while (!next.isEmpty()) {
+      int i = next.poll();
+      result.add(items.get(i).get(positions[i]++));
+      if (positions[i] < sequences[i].length) {
+        next.add(i);
+      }
+    }
+    return result;
   }
 
   /**
@@ -188,8 +301,13 @@ public class ShadowLog {
    * @return The list of log items for the tag or an empty list if no logs for that tag exist.
    */
   public static List<LogItem> getLogsForTag(String tag) {
-    Queue<LogItem> logs = logsByTag.get(tag);
-    return logs == null ? Collections.emptyList() : new ArrayList<>(logs);
+    TagBuffer buffer = tag == null ? nullTagLogs : logsByTag.get(tag);
+    if (buffer == null) {
+      return Collections.emptyList();
+    }
+    List<LogItem> logs = new ArrayList<>();
+    buffer.copyTo(logs);
+    return logs;
   }
 
   /** Clear all accumulated logs. */
@@ -199,10 +317,14 @@ public class ShadowLog {
 
   @Resetter
   public static void reset() {
-    logs.clear();
+    flushStream();
     logsByTag.clear();
+    nullTagLogs.clear();
     tagToLevel.clear();
     wtfIsFatal = false;
+    maxLogsPerTag = DEFAULT_MAX_LOGS_PER_TAG;
+    minimumRecordedLevel = Log.VERBOSE;
+    asyncStreamWrites = DEFAULT_ASYNC_STREAM_WRITES;
   }
 
   @SuppressWarnings("CatchAndPrintStackTrace")
@@ -234,6 +356,174 @@ public class ShadowLog {
     }
   }
 
+  /**
+   * Ring buffer holding the log entries for one tag. Entries are kept in parallel arrays, which
+   * grow as needed up to the per-tag maximum.
+   */
+  private static class TagBuffer {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final String tag;
+    private long[] sequences = new long[0];
+    private int[] types = new int[0];
+    private String[] msgs = new String[0];
+    private Throwable[] throwables = new Throwable[0];
+    private int head;
+    private int size;
+
+    TagBuffer(String tag) {
+      this.tag = tag;
+    }
+
+    /**
+     * Appends an entry, numbering it from {@code sequence} under this buffer's lock so that the
+     * entries of each buffer are always in sequence order.
+     */
+    synchronized void add(AtomicLong sequence, int type, String msg, Throwable throwable, int max) {
+      while (size >= max) {
+        removeOldest();
+      }
+      if (size == types.length) {
+        grow(Math.min(max, Math.max(INITIAL_CAPACITY, types.length * 2)));
+      }
+      int index = (head + size) % types.length;
+      sequences[index] = sequence.getAndIncrement();
+      types[index] = type;
+      msgs[index] = msg;
+      throwables[index] = throwable;
+      size++;
+    }
+
+    /** Appends this buffer's entries to {@code out} and returns their sequence numbers. */
+    synchronized long[] copyTo(List<LogItem> out) {
+      long[] result = new long[size];
+      for (int i = 0; i < size; i++) {
+        int index = (head + i) % types.length;
+        result[i] = sequences[index];
+        out.add(new LogItem(types[index], tag, msgs[index], throwables[index]));
+      }
+      return result;
+    }
+
+    synchronized void clear() {
+      Arrays.fill(msgs, null);
+      Arrays.fill(throwables, null);
+      head = 0;
+      size = 0;
+    }
+
+    private void removeOldest() {
+      msgs[head] = null;
+      throwables[head] = null;
+      head = (head + 1) % types.length;
+      size--;
+    }
+
+    private void grow(int capacity) {
+      long[] newSequences = new long[capacity];
+      int[] newTypes = new int[capacity];
+      String[] newMsgs = new String[capacity];
+      Throwable[] newThrowables = new Throwable[capacity];
+      for (int i = 0; i < size; i++) {
+        int index = (head + i) % types.length;
+        newSequences[i] = sequences[index];
+        newTypes[i] = types[index];
+        newMsgs[i] = msgs[index];
+        newThrowables[i] = throwables[index];
+      }
+      sequences = newSequences;
+      types = newTypes;
+      msgs = newMsgs;
+      throwables = newThrowables;
+      head = 0;
+    }
+  }
+
+  /** Formats and writes queued log entries to their streams in batches on a daemon thread. */
+  private static class StreamWriter {
+    private static final Queue<PendingWrite> pending = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean scheduled = new AtomicBoolean();
+    private static final ExecutorService executor =
+        Executors.newSingleThreadExecutor(
+            r -> {
+              Thread thread = new Thread(r, "ShadowLog stream writer");
+              thread.setDaemon(true);
+              return thread;
+            });
+    private static volatile Future<?> lastDrain;
+
+    static void enqueue(PrintStream ps, int level, String tag, String msg, Throwable throwable) {
+      pending.add(new PendingWrite(ps, level, tag, msg, throwable));
+      if (scheduled.compareAndSet(false, true)) {
+        lastDrain = executor.submit(StreamWriter::drain);
+      }
+    }
+
+    static void flush() {
+      Future<?> drain = lastDrain;
+      if (drain != null) {
+        try {
+          drain.get();
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+      // Anything enqueued after the last drain was scheduled is written on this thread.
+      drain();
+    }
+
+    private static synchronized void drain() {
+      scheduled.set(false);
+      StringBuilder batch = new StringBuilder();
+      PrintStream batchStream = null;
+      PendingWrite write;
+      while ((write = pending.poll()) != null) {
+        if (write.ps != batchStream) {
+          writeBatch(batchStream, batch);
+          batchStream = write.ps;
+        }
+        write.appendTo(batch);
+      }
+      writeBatch(batchStream, batch);
+    }
+
+    private static void writeBatch(PrintStream ps, StringBuilder batch) {
+      if (ps != null && batch.length() > 0) {
+        ps.print(batch);
+        ps.flush();
+      }
+      batch.setLength(0);
+    }
+  }
+
+  private static class PendingWrite {
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    final PrintStream ps;
+    final int level;
+    final String tag;
+    final String msg;
+    final Throwable throwable;
+
+    PendingWrite(PrintStream ps, int level, String tag, String msg, Throwable throwable) {
+      this.ps = ps;
+      this.level = level;
+      this.tag = tag;
+      this.msg = msg;
+      this.throwable = throwable;
+    }
+
+    void appendTo(StringBuilder out) {
+      out.append(levelChar(level)).append('/').append(tag).append(": ").append(msg)
+          .append(LINE_SEPARATOR);
+      if (throwable != null) {
+        StringWriter stackTrace = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(stackTrace));
+        out.append(stackTrace);
+      }
+    }
+  }
+
   public static class LogItem {
     public final int type;
     public final String tag;
@@ -8,11 +8,9 @@ import android.graphics.Matrix.ScaleToFit;
 import android.graphics.PointF;
 import android.graphics.RectF;
 import java.awt.geom.AffineTransform;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,11 +29,30 @@ public class ShadowMatrix {
   public static final String SKEW = "skew";
   public static final String MATRIX = "matrix";
 
+  /**
+   * Set this system property to "false" to stop recording the operations performed on matrices,
+   * e.g. for performance runs; {@link #getPreOperations()} and the like will then be empty.
+   */
+  public static final String RECORD_OPERATIONS_PROPERTY = "robolectric.matrix.recordOperations";
+
+  private static final boolean RECORD_OPERATIONS =
+      Boolean.parseBoolean(System.getProperty(RECORD_OPERATIONS_PROPERTY, "true"));
+
   private static final float EPSILON = 1e-3f;
 
-  private final Deque<String> preOps = new ArrayDeque<>();
-  private final Deque<String> postOps = new ArrayDeque<>();
-  private final Map<String, String> setOps = new LinkedHashMap<>();
+  private static final int OP_TRANSLATE = 0;
+  private static final int OP_SCALE = 1;
+  private static final int OP_ROTATE = 2;
+  private static final int OP_SINCOS = 3;
+  private static final int OP_SKEW = 4;
+  private static final int OP_MATRIX = 5;
+  private static final String[] TYPES = {TRANSLATE, SCALE, ROTATE, SINCOS, SKEW, MATRIX};
+
+  // Pre operations are recorded in the order they're performed, and listed in reverse.
+  private final OperationLog preOps = new OperationLog();
+  private final OperationLog postOps = new OperationLog();
+  // Only the latest 'set' operation of each type is kept, in the order each type was first set.
+  private final OperationLog setOps = new OperationLog();
 
   private SimpleMatrix simpleMatrix = SimpleMatrix.newIdentityMatrix();
 
@@ -50,7 +67,9 @@ public class ShadowMatrix {
    * @return A list of all 'pre' operations performed on this Matrix.
    */
   public List<String> getPreOperations() {
-    return Collections.unmodifiableList(new ArrayList<>(preOps));
+    List<String> operations = preOps.describe();
+    Collections.reverse(operations);
+    return Collections.unmodifiableList(operations);
   }
 
   /**
@@ -59,7 +78,7 @@ public class ShadowMatrix {
    * @return A list of all 'post' operations performed on this Matrix.
    */
   public List<String> getPostOperations() {
-    return Collections.unmodifiableList(new ArrayList<>(postOps));
+    return Collections.unmodifiableList(postOps.describe());
   }
 
   /**
@@ -67,7 +86,12 @@ public class ShadowMatrix {
    * @return A map of all 'set' operations performed on this Matrix.
    */
   public Map<String, String> getSetOperations() {
-    return Collections.unmodifiableMap(new LinkedHashMap<>(setOps));
+    Map<String, String> operations = new LinkedHashMap<>();
+    List<String> descriptions = setOps.describeArguments();
+    for (int i = 0; i < descriptions.size(); i++) {
+      operations.put(TYPES[setOps.typeAt(i)], descriptions.get(i));
+    }
+    return Collections.unmodifiableMap(operations);
   }
 
   @Implementation
@@ -102,7 +126,7 @@ public class ShadowMatrix {
       ShadowMatrix shadowMatrix = Shadow.extract(src);
       preOps.addAll(shadowMatrix.preOps);
       postOps.addAll(shadowMatrix.postOps);
-      setOps.putAll(shadowMatrix.setOps);
+      setOps.addAll(shadowMatrix.setOps);
       simpleMatrix = new SimpleMatrix(getSimpleMatrix(src));
     }
   }
@@ -117,55 +141,55 @@ public class ShadowMatrix {
 
   @Implementation
   protected void setTranslate(float dx, float dy) {
-    setOps.put(TRANSLATE, dx + " " + dy);
+    setOps.set(OP_TRANSLATE, dx, dy);
     simpleMatrix = SimpleMatrix.translate(dx, dy);
   }
 
   @Implementation
   protected void setScale(float sx, float sy, float px, float py) {
-    setOps.put(SCALE, sx + " " + sy + " " + px + " " + py);
+    setOps.set(OP_SCALE, sx, sy, px, py);
     simpleMatrix = SimpleMatrix.scale(sx, sy, px, py);
   }
 
   @Implementation
   protected void setScale(float sx, float sy) {
-    setOps.put(SCALE, sx + " " + sy);
+    setOps.set(OP_SCALE, sx, sy);
     simpleMatrix = SimpleMatrix.scale(sx, sy);
   }
 
   @Implementation
   protected void setRotate(float degrees, float px, float py) {
-    setOps.put(ROTATE, degrees + " " + px + " " + py);
+    setOps.set(OP_ROTATE, degrees, px, py);
     simpleMatrix = SimpleMatrix.rotate(degrees, px, py);
   }
 
   @Implementation
   protected void setRotate(float degrees) {
-    setOps.put(ROTATE, Float.toString(degrees));
+    setOps.set(OP_ROTATE, degrees);
     simpleMatrix = SimpleMatrix.rotate(degrees);
   }
 
   @Implementation
   protected void setSinCos(float sinValue, float cosValue, float px, float py) {
-    setOps.put(SINCOS, sinValue + " " + cosValue + " " + px + " " + py);
+    setOps.set(OP_SINCOS, sinValue, cosValue, px, py);
     simpleMatrix = SimpleMatrix.sinCos(sinValue, cosValue, px, py);
   }
 
   @Implementation
   protected void setSinCos(float sinValue, float cosValue) {
-    setOps.put(SINCOS, sinValue + " " + cosValue);
+    setOps.set(OP_SINCOS, sinValue, cosValue);
     simpleMatrix = SimpleMatrix.sinCos(sinValue, cosValue);
   }
 
   @Implementation
   protected void setSkew(float kx, float ky, float px, float py) {
-    setOps.put(SKEW, kx + " " + ky + " " + px + " " + py);
+    setOps.set(OP_SKEW, kx, ky, px, py);
     simpleMatrix = SimpleMatrix.skew(kx, ky, px, py);
   }
 
   @Implementation
   protected void setSkew(float kx, float ky) {
-    setOps.put(SKEW, kx + " " + ky);
+    setOps.set(OP_SKEW, kx, ky);
     simpleMatrix = SimpleMatrix.skew(kx, ky);
   }
 
@@ -177,97 +201,97 @@ public class ShadowMatrix {
 
   @Implementation
   protected boolean preTranslate(float dx, float dy) {
-    preOps.addFirst(TRANSLATE + " " + dx + " " + dy);
+    preOps.add(OP_TRANSLATE, dx, dy);
     return preConcat(SimpleMatrix.translate(dx, dy));
   }
 
   @Implementation
   protected boolean preScale(float sx, float sy, float px, float py) {
-    preOps.addFirst(SCALE + " " + sx + " " + sy + " " + px + " " + py);
+    preOps.add(OP_SCALE, sx, sy, px, py);
     return preConcat(SimpleMatrix.scale(sx, sy, px, py));
   }
 
   @Implementation
   protected boolean preScale(float sx, float sy) {
-    preOps.addFirst(SCALE + " " + sx + " " + sy);
+    preOps.add(OP_SCALE, sx, sy);
     return preConcat(SimpleMatrix.scale(sx, sy));
   }
 
   @Implementation
   protected boolean preRotate(float degrees, float px, float py) {
-    preOps.addFirst(ROTATE + " " + degrees + " " + px + " " + py);
+    preOps.add(OP_ROTATE, degrees, px, py);
     return preConcat(SimpleMatrix.rotate(degrees, px, py));
   }
 
   @Implementation
   protected boolean preRotate(float degrees) {
-    preOps.addFirst(ROTATE + " " + Float.toString(degrees));
+    preOps.add(OP_ROTATE, degrees);
     return preConcat(SimpleMatrix.rotate(degrees));
   }
 
   @Implementation
   protected boolean preSkew(float kx, float ky, float px, float py) {
-    preOps.addFirst(SKEW + " " + kx + " " + ky + " " + px + " " + py);
+    preOps.add(OP_SKEW, kx, ky, px, py);
     return preConcat(SimpleMatrix.skew(kx, ky, px, py));
   }
 
   @Implementation
   protected boolean preSkew(float kx, float ky) {
-    preOps.addFirst(SKEW + " " + kx + " " + ky);
+    preOps.add(OP_SKEW, kx, ky);
     return preConcat(SimpleMatrix.skew(kx, ky));
   }
 
   @Implementation
   protected boolean preConcat(Matrix other) {
-    preOps.addFirst(MATRIX + " " + other);
+    preOps.addMatrix(getSimpleMatrix(other));
     return preConcat(getSimpleMatrix(other));
   }
 
   @Implementation
   protected boolean postTranslate(float dx, float dy) {
-    postOps.addLast(TRANSLATE + " " + dx + " " + dy);
+    postOps.add(OP_TRANSLATE, dx, dy);
     return postConcat(SimpleMatrix.translate(dx, dy));
   }
 
   @Implementation
   protected boolean postScale(float sx, float sy, float px, float py) {
-    postOps.addLast(SCALE + " " + sx + " " + sy + " " + px + " " + py);
+    postOps.add(OP_SCALE, sx, sy, px, py);
     return postConcat(SimpleMatrix.scale(sx, sy, px, py));
   }
 
   @Implementation
   protected boolean postScale(float sx, float sy) {
-    postOps.addLast(SCALE + " " + sx + " " + sy);
+    postOps.add(OP_SCALE, sx, sy);
     return postConcat(SimpleMatrix.scale(sx, sy));
   }
 
   @Implementation
   protected boolean postRotate(float degrees, float px, float py) {
-    postOps.addLast(ROTATE + " " + degrees + " " + px + " " + py);
+    postOps.add(OP_ROTATE, degrees, px, py);
     return postConcat(SimpleMatrix.rotate(degrees, px, py));
   }
 
   @Implementation
   protected boolean postRotate(float degrees) {
-    postOps.addLast(ROTATE + " " + Float.toString(degrees));
+    postOps.add(OP_ROTATE, degrees);
     return postConcat(SimpleMatrix.rotate(degrees));
   }
 
   @Implementation
   protected boolean postSkew(float kx, float ky, float px, float py) {
-    postOps.addLast(SKEW + " " + kx + " " + ky + " " + px + " " + py);
+    postOps.add(OP_SKEW, kx, ky, px, py);
     return postConcat(SimpleMatrix.skew(kx, ky, px, py));
   }
 
   @Implementation
   protected boolean postSkew(float kx, float ky) {
-    postOps.addLast(SKEW + " " + kx + " " + ky);
+    postOps.add(OP_SKEW, kx, ky);
     return postConcat(SimpleMatrix.skew(kx, ky));
   }
 
   @Implementation
   protected boolean postConcat(Matrix other) {
-    postOps.addLast(MATRIX + " " + other);
+    postOps.addMatrix(getSimpleMatrix(other));
     return postConcat(getSimpleMatrix(other));
   }
 
@@ -385,7 +409,13 @@ public class ShadowMatrix {
   }
 
   public String getDescription() {
-    return "Matrix[pre=" + preOps + ", set=" + setOps + ", post=" + postOps + "]";
+    return "Matrix[pre="
+        + getPreOperations()
+        + ", set="
+        + getSetOperations()
+        + ", post="
+        + getPostOperations()
+        + "]";
   }
 
   private static SimpleMatrix getSimpleMatrix(Matrix matrix) {
@@ -403,6 +433,163 @@ public class ShadowMatrix {
     return true;
   }
 
+  /**
+   * A log of matrix operations, kept as opcodes and float arguments and only turned into strings
+   * when it's asked for.
+   */
+  private static class OperationLog {
+    private static final int MAX_ARGS = 4;
+
+    private int size;
+    private int[] types = new int[0];
+    private int[] argCounts = new int[0];
+    private float[] args = new float[0];
+    // Only the operations concatenating another matrix have one; SimpleMatrix is immutable.
+    private SimpleMatrix[] matrices = new SimpleMatrix[0];
+
+    void add(int type, float arg0) {
+      record(append(), type, 1, arg0, 0, 0, 0);
+    }
+
+    void add(int type, float arg0, float arg1) {
+      record(append(), type, 2, arg0, arg1, 0, 0);
+    }
+
+    void add(int type, float arg0, float arg1, float arg2) {
+      record(append(), type, 3, arg0, arg1, arg2, 0);
+    }
+
+    void add(int type, float arg0, float arg1, float arg2, float arg3) {
+      record(append(), type, 4, arg0, arg1, arg2, arg3);
+    }
+
+    void addMatrix(SimpleMatrix matrix) {
+      int index = append();
+      if (index >= 0) {
+        types[index] = OP_MATRIX;
+        argCounts[index] = 0;
+        matrices[index] = matrix;
+      }
+    }
+
+    /** Replaces the operation of the same type, if any, or adds one. */
+    void set(int type, float arg0) {
+      record(indexForSet(type), type, 1, arg0, 0, 0, 0);
+    }
+
+    void set(int type, float arg0, float arg1) {
+      record(indexForSet(type), type, 2, arg0, arg1, 0, 0);
+    }
+
+    void set(int type, float arg0, float arg1, float arg2) {
+      record(indexForSet(type), type, 3, arg0, arg1, arg2, 0);
+    }
+
+    void set(int type, float arg0, float arg1, float arg2, float arg3) {
+      record(indexForSet(type), type, 4, arg0, arg1, arg2, arg3);
+    }
+
+    void addAll(OperationLog other) {
+      for (int i = 0; i < other.size; i++) {
+        int index = append();
+        if (index < 0) {
+          return;
+        }
+        types[index] = other.types[i];
+        argCounts[index] = other.argCounts[i];
+        System.arraycopy(other.args, i * MAX_ARGS, args, index * MAX_ARGS, MAX_ARGS);
+        matrices[index] = other.matrices[i];
+      }
+    }
+
+    void clear() {
+      Arrays.fill(matrices, 0, size, null);
+      size = 0;
+    }
+
+    int typeAt(int index) {
+      return types[index];
+    }
+
+    /** Returns the operations' descriptions, in the order they were recorded. */
+    /** Describes each operation as its type followed by its arguments, e.g. "scale 2.0 2.0". */
+    List<String> describe() {
+      return describe(true);
+    }
+
+    /** Describes each operation by its arguments alone, e.g. "2.0 2.0". */
+    List<String> describeArguments() {
+      return describe(false);
+    }
+
+    private List<String> describe(boolean withType) {
+      List<String> descriptions = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        descriptions.add(describe(i, withType));
+      }
+      return descriptions;
+    }
+
+    private String describe(int index, boolean withType) {
+      StringBuilder description = new StringBuilder();
+      if (withType) {
+        description.append(TYPES[types[index]]);
+      }
+      if (types[index] == OP_MATRIX) {
+        Matrix matrix = new Matrix();
+        ShadowMatrix shadowMatrix = Shadow.extract(matrix);
+        shadowMatrix.simpleMatrix = matrices[index];
+        return description.append(withType ? " " : "").append(matrix).toString();
+      }
+      for (int i = 0; i < argCounts[index]; i++) {
+        if (withType || i > 0) {
+          description.append(' ');
+        }
+        description.append(args[index * MAX_ARGS + i]);
+      }
+      return description.toString();
+    }
+
+    private int indexForSet(int type) {
+      for (int i = 0; i < size; i++) {
+        if (types[i] == type) {
+          return i;
+        }
+      }
+      return append();
+    }
+
+    /** Makes room for another operation and returns its index, or -1 if it shouldn't be kept. */
+    private int append() {
+      if (!RECORD_OPERATIONS) {
+        return -1;
+      }
+      if (size == types.length) {
+        int capacity = Math.max(4, size * 2);
+        types = Arrays.copyOf(types, capacity);
+        argCounts = Arrays.copyOf(argCounts, capacity);
+        args = Arrays.copyOf(args, capacity * MAX_ARGS);
+        matrices = Arrays.copyOf(matrices, capacity);
+      }
+      return size++;
+    }
+
+    private void record(
+        int index, int type, int argCount, float arg0, float arg1, float arg2, float arg3) {
+      if (index < 0) {
+        return;
+      }
+      types[index] = type;
+      argCounts[index] = argCount;
+      int offset = index * MAX_ARGS;
+      args[offset] = arg0;
+      args[offset + 1] = arg1;
+      args[offset + 2] = arg2;
+      args[offset + 3] = arg3;
+      matrices[index] = null;
+    }
+  }
+
   /**
    * A simple implementation of an immutable matrix.
    */
@@ -23,7 +23,6 @@ import android.view.MotionEvent.PointerCoords;
 import android.view.MotionEvent.PointerProperties;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
-import java.util.List;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.HiddenApi;
 import org.robolectric.annotation.Implementation;
@@ -155,21 +154,33 @@ public class ShadowMotionEvent {
   }
 
   private static void pointerCoordsFromNative(
-      NativeInput.PointerCoords rawPointerCoords,
-      float xOffset,
-      float yOffset,
+      NativeInput.MotionEvent event,
+      int pointerIndex,
+      int sampleIndex,
       PointerCoords outPointerCoordsObj) {
-    outPointerCoordsObj.x = rawPointerCoords.getAxisValue(AMOTION_EVENT_AXIS_X) + xOffset;
-    outPointerCoordsObj.y = rawPointerCoords.getAxisValue(AMOTION_EVENT_AXIS_Y) + yOffset;
-    outPointerCoordsObj.pressure = rawPointerCoords.getAxisValue(AMOTION_EVENT_AXIS_PRESSURE);
-    outPointerCoordsObj.size = rawPointerCoords.getAxisValue(AMOTION_EVENT_AXIS_SIZE);
-    outPointerCoordsObj.touchMajor = rawPointerCoords.getAxisValue(AMOTION_EVENT_AXIS_TOUCH_MAJOR);
-    outPointerCoordsObj.touchMinor = rawPointerCoords.getAxisValue(AMOTION_EVENT_AXIS_TOUCH_MINOR);
-    outPointerCoordsObj.toolMajor = rawPointerCoords.getAxisValue(AMOTION_EVENT_AXIS_TOOL_MAJOR);
-    outPointerCoordsObj.toolMinor = rawPointerCoords.getAxisValue(AMOTION_EVENT_AXIS_TOOL_MINOR);
-    outPointerCoordsObj.orientation = rawPointerCoords.getAxisValue(AMOTION_EVENT_AXIS_ORIENTATION);
+    outPointerCoordsObj.x =
+        event.getHistoricalRawAxisValue(AMOTION_EVENT_AXIS_X, pointerIndex, sampleIndex)
+            + event.getXOffset();
+    outPointerCoordsObj.y =
+        event.getHistoricalRawAxisValue(AMOTION_EVENT_AXIS_Y, pointerIndex, sampleIndex)
+            + event.getYOffset();
+    outPointerCoordsObj.pressure =
+        event.getHistoricalRawAxisValue(AMOTION_EVENT_AXIS_PRESSURE, pointerIndex, sampleIndex);
+    outPointerCoordsObj.size =
+        event.getHistoricalRawAxisValue(AMOTION_EVENT_AXIS_SIZE, pointerIndex, sampleIndex);
+    outPointerCoordsObj.touchMajor =
+        event.getHistoricalRawAxisValue(AMOTION_EVENT_AXIS_TOUCH_MAJOR, pointerIndex, sampleIndex);
+    outPointerCoordsObj.touchMinor =
+        event.getHistoricalRawAxisValue(AMOTION_EVENT_AXIS_TOUCH_MINOR, pointerIndex, sampleIndex);
+    outPointerCoordsObj.toolMajor =
+        event.getHistoricalRawAxisValue(AMOTION_EVENT_AXIS_TOOL_MAJOR, pointerIndex, sampleIndex);
+    outPointerCoordsObj.toolMinor =
+        event.getHistoricalRawAxisValue(AMOTION_EVENT_AXIS_TOOL_MINOR, pointerIndex, sampleIndex);
+    outPointerCoordsObj.orientation =
+        event.getHistoricalRawAxisValue(AMOTION_EVENT_AXIS_ORIENTATION, pointerIndex, sampleIndex);
     long outBits = 0;
-    NativeBitSet64 bits = new NativeBitSet64(rawPointerCoords.getBits());
+    NativeBitSet64 bits =
+        new NativeBitSet64(event.getHistoricalRawAxisBits(pointerIndex, sampleIndex));
     bits.clearBit(AMOTION_EVENT_AXIS_X);
     bits.clearBit(AMOTION_EVENT_AXIS_Y);
     bits.clearBit(AMOTION_EVENT_AXIS_PRESSURE);
@@ -187,7 +198,7 @@ public class ShadowMotionEvent {
       do {
         int axis = bits.clearFirstMarkedBit();
         outBits |= NativeBitSet64.valueForBit(axis);
-        outValues[index++] = rawPointerCoords.getAxisValue(axis);
+        outValues[index++] = event.getHistoricalRawAxisValue(axis, pointerIndex, sampleIndex);
       } while (!bits.isEmpty());
     }
     ReflectionHelpers.setField(outPointerCoordsObj, "mPackedAxisBits", outBits);
@@ -349,16 +360,15 @@ public class ShadowMotionEvent {
     validatePointerIndex(pointerIndex, pointerCount);
     validatePointerCoords(outPointerCoordsObj);
 
-    NativeInput.PointerCoords rawPointerCoords;
+    int sampleIndex;
     if (historyPos == HISTORY_CURRENT) {
-      rawPointerCoords = event.getRawPointerCoords(pointerIndex);
+      sampleIndex = event.getHistorySize();
     } else {
       int historySize = event.getHistorySize();
       validateHistoryPos(historyPos, historySize);
-      rawPointerCoords = event.getHistoricalRawPointerCoords(pointerIndex, historyPos);
+      sampleIndex = historyPos;
     }
-    pointerCoordsFromNative(
-        rawPointerCoords, event.getXOffset(), event.getYOffset(), outPointerCoordsObj);
+    pointerCoordsFromNative(event, pointerIndex, sampleIndex, outPointerCoordsObj);
   }
 
   @Implementation(maxSdk = KITKAT_WATCH)
@@ -377,9 +387,9 @@ public class ShadowMotionEvent {
     validatePointerIndex(pointerIndex, pointerCount);
     validatePointerProperties(outPointerPropertiesObj);
 
-    PointerProperties pointerProperties = event.getPointerProperties(pointerIndex);
     // pointerPropertiesFromNative(env, pointerProperties, outPointerPropertiesObj);
-    outPointerPropertiesObj.copyFrom(pointerProperties);
+    outPointerPropertiesObj.id = event.getPointerId(pointerIndex);
+    outPointerPropertiesObj.toolType = event.getToolType(pointerIndex);
   }
 
   @Implementation(maxSdk = KITKAT_WATCH)
@@ -939,25 +949,13 @@ public class ShadowMotionEvent {
   @Deprecated
   public MotionEvent setPointer2(float pointer1X, float pointer1Y) {
     NativeInput.MotionEvent event = getNativeMotionEvent();
-    List<NativeInput.PointerCoords> pointerCoords = event.getSamplePointerCoords();
-    List<PointerProperties> pointerProperties = event.getPointerProperties();
-    ensureTwoPointers(pointerCoords, pointerProperties);
+    event.ensurePointerCount(2);
 
-    pointerCoords.get(1).setAxisValue(AMOTION_EVENT_AXIS_X, pointer1X);
-    pointerCoords.get(1).setAxisValue(AMOTION_EVENT_AXIS_Y, pointer1Y);
+    event.setRawAxisValue(AMOTION_EVENT_AXIS_X, 1, pointer1X);
+    event.setRawAxisValue(AMOTION_EVENT_AXIS_Y, 1, pointer1Y);
     return realMotionEvent;
   }
 
-  private static void ensureTwoPointers(
-      List<NativeInput.PointerCoords> pointerCoords, List<PointerProperties> pointerProperties) {
-    if (pointerCoords.size() < 2) {
-      pointerCoords.add(new NativeInput.PointerCoords());
-    }
-    if (pointerProperties.size() < 2) {
-      pointerProperties.add(new PointerProperties());
-    }
-  }
-
   /**
    * @deprecated use {@link MotionEvent#obtain} or {@link
    *     androidx.test.core.view.MotionEventBuilder#setPointerAction(int, int)} to create a
@@ -978,11 +976,9 @@ public class ShadowMotionEvent {
   @Deprecated
   public void setPointerIds(int index0PointerId, int index1PointerId) {
     NativeInput.MotionEvent event = getNativeMotionEvent();
-    List<NativeInput.PointerCoords> pointerCoords = event.getSamplePointerCoords();
-    List<PointerProperties> pointerProperties = event.getPointerProperties();
-    ensureTwoPointers(pointerCoords, pointerProperties);
+    event.ensurePointerCount(2);
 
-    pointerProperties.get(0).id = index0PointerId;
-    pointerProperties.get(1).id = index1PointerId;
+    event.setPointerId(0, index0PointerId);
+    event.setPointerId(1, index1PointerId);
   }
 }
@@ -103,6 +103,7 @@ public class ShadowPackageManager {
   static final List<String> systemSharedLibraryNames = new ArrayList<>();
   static final Map<String, PackageInfo> packageInfos = new LinkedHashMap<>();
   static final Map<String, Package> packages = new LinkedHashMap<>();
+  static final PackageIntentIndex packageIntentIndex = new PackageIntentIndex();
   private static Map<String, PackageInfo> packageArchiveInfo = new HashMap<>();
   static final Map<String, PackageStats> packageStatsMap = new HashMap<>();
   static final Map<String, String> packageInstallerMap = new HashMap<>();
@@ -537,6 +538,7 @@ public class ShadowPackageManager {
 
   public void removePackage(String packageName) {
     packages.remove(packageName);
+    packageIntentIndex.removePackage(packageName);
     packageInfos.remove(packageName);
 
     packageSettings.remove(packageName);
@@ -677,6 +679,7 @@ public class ShadowPackageManager {
     deletedPackages.add(packageName);
     packageInfos.remove(packageName);
     packages.remove(packageName);
+    packageIntentIndex.removePackage(packageName);
   }
 
   protected void deletePackage(String packageName, IPackageDeleteObserver observer, int flags) {
@@ -708,6 +711,7 @@ public class ShadowPackageManager {
         deletedPackages.add(packageName);
         packageInfos.remove(packageName);
         packages.remove(packageName);
+        packageIntentIndex.removePackage(packageName);
         resultCode = PackageManager.DELETE_SUCCEEDED;
       }
 
@@ -769,6 +773,7 @@ public class ShadowPackageManager {
             | MATCH_DIRECT_BOOT_AWARE;
 
     packages.put(appPackage.packageName, appPackage);
+    packageIntentIndex.addPackage(appPackage);
     PackageInfo packageInfo;
     if (RuntimeEnvironment.getApiLevel() >= M) {
       packageInfo =
@@ -1118,6 +1123,7 @@ public class ShadowPackageManager {
     systemSharedLibraryNames.clear();
     packageInfos.clear();
     packages.clear();
+    packageIntentIndex.clear();
     packageArchiveInfo.clear();
     packageStatsMap.clear();
     packageInstallerMap.clear();
@@ -11,10 +11,12 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.lang.reflect.Constructor;
+import java.nio.channels.Channel;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.RealObject;
+import org.robolectric.annotation.Resetter;
 import org.robolectric.shadow.api.Shadow;
 import org.robolectric.util.ReflectionHelpers;
 
@@ -26,6 +28,10 @@ public class ShadowParcelFileDescriptor {
   private static final String PIPE_TMP_DIR = "ShadowParcelFileDescriptor";
   private static final String PIPE_FILE_NAME = "pipe";
   private RandomAccessFile file;
+  // One end of a pipe from #createPipe(), in place of a file, and its file descriptor.
+  private Channel pipeEnd;
+  private FileDescriptor pipeFd;
+  private boolean closed;
   @RealObject ParcelFileDescriptor realParcelFd;
 
   private @RealObject ParcelFileDescriptor realObject;
@@ -37,6 +43,8 @@ public class ShadowParcelFileDescriptor {
     if (wrapped != null) {
       ShadowParcelFileDescriptor shadowParcelFileDescriptor = Shadow.extract(wrapped);
       this.file = shadowParcelFileDescriptor.file;
+      this.pipeEnd = shadowParcelFileDescriptor.pipeEnd;
+      this.pipeFd = shadowParcelFileDescriptor.pipeFd;
     }
   }
 
@@ -71,8 +79,40 @@ public class ShadowParcelFileDescriptor {
     return "rw";
   }
 
+  /**
+   * Returns the ends of a pipe which, unlike an OS pipe, buffers up to {@link
+   * PipeRelay#MAX_BUFFER_SIZE} bytes before writes block, so the whole of a pipe's data can be
+   * written before it's read on the same thread. Falls back to a temporary file shared by both
+   * ends if the JVM doesn't give access to its pipes' file descriptors.
+   */
   @Implementation
   protected static ParcelFileDescriptor[] createPipe() throws IOException {
+    Channel[] ends;
+    try {
+      ends = PipeRelay.getInstance().createPipe();
+    } catch (RuntimeException e) {
+      return createFilePipe();
+    }
+    return new ParcelFileDescriptor[] {newPipeSide(ends[0]), newPipeSide(ends[1])};
+  }
+
+  private static ParcelFileDescriptor newPipeSide(Channel end) {
+    FileDescriptor fd = PipeRelay.getFd(end);
+    ParcelFileDescriptor pfd;
+    try {
+      Constructor<ParcelFileDescriptor> constructor =
+          ParcelFileDescriptor.class.getDeclaredConstructor(FileDescriptor.class);
+      pfd = constructor.newInstance(fd);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+    ShadowParcelFileDescriptor shadowParcelFileDescriptor = Shadow.extract(pfd);
+    shadowParcelFileDescriptor.pipeEnd = end;
+    shadowParcelFileDescriptor.pipeFd = fd;
+    return pfd;
+  }
+
+  private static ParcelFileDescriptor[] createFilePipe() throws IOException {
     File file =
         new File(
             RuntimeEnvironment.getTempDirectory().create(PIPE_TMP_DIR).toFile(), PIPE_FILE_NAME);
@@ -87,6 +127,9 @@ public class ShadowParcelFileDescriptor {
 
   @Implementation
   protected FileDescriptor getFileDescriptor() {
+    if (pipeFd != null) {
+      return pipeFd;
+    }
     try {
       return file.getFD();
     } catch (IOException e) {
@@ -96,6 +139,10 @@ public class ShadowParcelFileDescriptor {
 
   @Implementation
   protected long getStatSize() {
+    if (pipeFd != null) {
+      // Like for any other file descriptor that isn't a file.
+      return -1;
+    }
     try {
       return file.length();
     } catch (IOException e) {
@@ -105,6 +152,9 @@ public class ShadowParcelFileDescriptor {
 
   @Implementation
   protected int getFd() {
+    if (pipeFd != null) {
+      return ReflectionHelpers.getField(pipeFd, "fd");
+    }
     try {
       return ReflectionHelpers.getField(file.getFD(), "fd");
     } catch (IOException e) {
@@ -114,6 +164,24 @@ public class ShadowParcelFileDescriptor {
 
   @Implementation
   protected void close() throws IOException {
+    // Closing an AutoCloseInputStream or AutoCloseOutputStream closes its ParcelFileDescriptor,
+    // and closing the stream's file descriptor closes the stream again.
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (pipeEnd != null) {
+      pipeEnd.close();
+      // Marks the descriptor invalid, so streams sharing it won't close it again. Newer JDKs do
+      // this when closing the channel, but Java 8 doesn't.
+      ReflectionHelpers.setField(pipeFd, "fd", -1);
+      return;
+    }
     file.close();
   }
+
+  @Resetter
+  public static void reset() {
+    PipeRelay.reset();
+  }
 }
@@ -23,6 +23,7 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.geom.RoundRectangle2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
@@ -46,6 +47,8 @@ public class ShadowPath {
   private float mLastY = 0;
   private Path2D mPath = new Path2D.Double();
   private boolean mCachedIsEmpty = true;
+  // Measuring a path means flattening its curves, so it's only done again once the path changes.
+  private CachedPathIteratorFactory mCachedPathIteratorFactory;
   private Path.FillType mFillType = Path.FillType.WINDING;
   protected boolean isSimplePath;
 
@@ -59,8 +62,23 @@ public class ShadowPath {
     return mPath;
   }
 
+  /** Returns the iterators used to measure this path, cached until the path changes. */
+  CachedPathIteratorFactory getCachedPathIteratorFactory() {
+    if (mCachedPathIteratorFactory == null) {
+      mCachedPathIteratorFactory = new CachedPathIteratorFactory(mPath.getPathIterator(null));
+    }
+    return mCachedPathIteratorFactory;
+  }
+
+  /** Drops whatever was computed from the path's segments; called whenever they change. */
+  private void onPathChanged() {
+    mCachedIsEmpty = true;
+    mCachedPathIteratorFactory = null;
+  }
+
   @Implementation
   protected void moveTo(float x, float y) {
+    onPathChanged();
     mPath.moveTo(mLastX = x, mLastY = y);
 
     // Legacy recording behavior
@@ -70,6 +88,7 @@ public class ShadowPath {
 
   @Implementation
   protected void lineTo(float x, float y) {
+    onPathChanged();
     if (!hasPoints()) {
       mPath.moveTo(mLastX = 0, mLastY = 0);
     }
@@ -82,6 +101,7 @@ public class ShadowPath {
 
   @Implementation
   protected void quadTo(float x1, float y1, float x2, float y2) {
+    onPathChanged();
     isSimplePath = false;
     if (!hasPoints()) {
       moveTo(0, 0);
@@ -91,6 +111,7 @@ public class ShadowPath {
 
   @Implementation
   protected void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+    onPathChanged();
     if (!hasPoints()) {
       mPath.moveTo(0, 0);
     }
@@ -98,11 +119,12 @@ public class ShadowPath {
   }
 
   private boolean hasPoints() {
-    return !mPath.getPathIterator(null).isDone();
+    return mPath.getCurrentPoint() != null;
   }
 
   @Implementation
   protected void reset() {
+    onPathChanged();
     mPath.reset();
     mLastX = 0;
     mLastY = 0;
@@ -117,38 +139,40 @@ public class ShadowPath {
 
     float segment[] = new float[6];
     float totalLength = 0;
-    ArrayList<Point2D.Float> points = new ArrayList<Point2D.Float>();
-    Point2D.Float previousPoint = null;
+    // Laid out like the result: a fraction of the length to fill in below, then x and y.
+    float[] result = new float[3 * 16];
+    int nPoints = 0;
     while (!iterator.isDone()) {
       int type = iterator.currentSegment(segment);
-      Point2D.Float currentPoint = new Point2D.Float(segment[0], segment[1]);
       // MoveTo shouldn't affect the length
-      if (previousPoint != null && type != PathIterator.SEG_MOVETO) {
-        totalLength += (float) currentPoint.distance(previousPoint);
+      if (nPoints > 0 && type != PathIterator.SEG_MOVETO) {
+        totalLength += distance(result, nPoints - 1, segment[0], segment[1]);
       }
-      previousPoint = currentPoint;
-      points.add(currentPoint);
+      if (nPoints * 3 == result.length) {
+        result = Arrays.copyOf(result, result.length * 2);
+      }
+      result[nPoints * 3 + 1] = segment[0];
+      result[nPoints * 3 + 2] = segment[1];
+      nPoints++;
       iterator.next();
     }
 
-    int nPoints = points.size();
-    float[] result = new float[nPoints * 3];
-    previousPoint = null;
     // Distance that we've covered so far. Used to calculate the fraction of the path that
     // we've covered up to this point.
     float walkedDistance = .0f;
     for (int i = 0; i < nPoints; i++) {
-      Point2D.Float point = points.get(i);
-      float distance = previousPoint != null ? (float) previousPoint.distance(point) : .0f;
+      float distance =
+          i > 0 ? distance(result, i - 1, result[i * 3 + 1], result[i * 3 + 2]) : .0f;
       walkedDistance += distance;
       result[i * 3] = walkedDistance / totalLength;
-      result[i * 3 + 1] = point.x;
-      result[i * 3 + 2] = point.y;
-
-      previousPoint = point;
     }
 
-    return result;
+    return nPoints * 3 == result.length ? result : Arrays.copyOf(result, nPoints * 3);
+  }
+
+  private static float distance(float[] approximation, int point, float x, float y) {
+    return (float)
+        Point2D.distance(approximation[point * 3 + 1], approximation[point * 3 + 2], x, y);
   }
 
   /**
@@ -223,6 +247,7 @@ public class ShadowPath {
 
   @Implementation
   protected void set(Path src) {
+    onPathChanged();
     mPath.reset();
 
     ShadowPath shadowSrc = extract(src);
@@ -249,6 +274,7 @@ public class ShadowPath {
 
   @Implementation
   protected void setFillType(Path.FillType fillType) {
+    onPathChanged();
     mFillType = fillType;
     mPath.setWindingRule(getWindingRule(fillType));
   }
@@ -332,6 +358,7 @@ public class ShadowPath {
 
   @Implementation
   protected void rMoveTo(float dx, float dy) {
+    onPathChanged();
     dx += mLastX;
     dy += mLastY;
     mPath.moveTo(mLastX = dx, mLastY = dy);
@@ -339,6 +366,7 @@ public class ShadowPath {
 
   @Implementation
   protected void rLineTo(float dx, float dy) {
+    onPathChanged();
     if (!hasPoints()) {
       mPath.moveTo(mLastX = 0, mLastY = 0);
     }
@@ -355,6 +383,7 @@ public class ShadowPath {
 
   @Implementation
   protected void rQuadTo(float dx1, float dy1, float dx2, float dy2) {
+    onPathChanged();
     if (!hasPoints()) {
       mPath.moveTo(mLastX = 0, mLastY = 0);
     }
@@ -367,6 +396,7 @@ public class ShadowPath {
 
   @Implementation
   protected void rCubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+    onPathChanged();
     if (!hasPoints()) {
       mPath.moveTo(mLastX = 0, mLastY = 0);
     }
@@ -398,6 +428,7 @@ public class ShadowPath {
       float startAngle,
       float sweepAngle,
       boolean forceMoveTo) {
+    onPathChanged();
     isSimplePath = false;
     Arc2D arc =
         new Arc2D.Float(
@@ -409,6 +440,7 @@ public class ShadowPath {
 
   @Implementation
   protected void close() {
+    onPathChanged();
     if (!hasPoints()) {
       mPath.moveTo(mLastX = 0, mLastY = 0);
     }
@@ -444,17 +476,20 @@ public class ShadowPath {
 
   @Implementation(minSdk = LOLLIPOP)
   protected void addOval(float left, float top, float right, float bottom, Path.Direction dir) {
+    onPathChanged();
     mPath.append(new Ellipse2D.Float(left, top, right - left, bottom - top), false);
   }
 
   @Implementation
   protected void addCircle(float x, float y, float radius, Path.Direction dir) {
+    onPathChanged();
     mPath.append(new Ellipse2D.Float(x - radius, y - radius, radius * 2, radius * 2), false);
   }
 
   @Implementation(minSdk = LOLLIPOP)
   protected void addArc(
       float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+    onPathChanged();
     mPath.append(
         new Arc2D.Float(
             left, top, right - left, bottom - top, -startAngle, -sweepAngle, Arc2D.OPEN),
@@ -477,6 +512,7 @@ public class ShadowPath {
   @Implementation(minSdk = LOLLIPOP)
   protected void addRoundRect(
       float left, float top, float right, float bottom, float rx, float ry, Path.Direction dir) {
+    onPathChanged();
     mPath.append(
         new RoundRectangle2D.Float(left, top, right - left, bottom - top, rx * 2, ry * 2), false);
   }
@@ -484,6 +520,7 @@ public class ShadowPath {
   @Implementation(minSdk = LOLLIPOP)
   protected void addRoundRect(
       float left, float top, float right, float bottom, float[] radii, Path.Direction dir) {
+    onPathChanged();
     if (radii.length < 8) {
       throw new ArrayIndexOutOfBoundsException("radii[] needs 8 values");
     }
@@ -532,6 +569,7 @@ public class ShadowPath {
 
     ShadowPath shadowDestPath = extract(destPath);
     ShadowPath shadowSrcPath = extract(srcPath);
+    shadowDestPath.onPathChanged();
     if (transform != null) {
       shadowDestPath.mPath.append(shadowSrcPath.mPath.getPathIterator(transform), false);
     } else {
@@ -551,6 +589,7 @@ public class ShadowPath {
 
   @Implementation
   protected void offset(float dx, float dy) {
+    onPathChanged();
     GeneralPath newPath = new GeneralPath();
 
     PathIterator iterator = mPath.getPathIterator(new AffineTransform(0, 0, dx, 0, 0, dy));
@@ -581,8 +620,10 @@ public class ShadowPath {
     if (dst != null) {
       ShadowPath shadowPath = extract(dst);
       shadowPath.mPath = newPath;
+      shadowPath.onPathChanged();
     } else {
       mPath = newPath;
+      onPathChanged();
     }
   }
 
@@ -16,8 +16,7 @@ public class ShadowPathMeasure {
   protected void __constructor__(Path path, boolean forceClosed) {
     if (path != null) {
       ShadowPath shadowPath = (ShadowPath) Shadow.extract(path);
-      mOriginalPathIterator =
-          new CachedPathIteratorFactory(shadowPath.getJavaShape().getPathIterator(null));
+      mOriginalPathIterator = shadowPath.getCachedPathIteratorFactory();
     }
   }
 
@@ -31,7 +30,7 @@ public class ShadowPathMeasure {
       return 0;
     }
 
-    return mOriginalPathIterator.iterator().getTotalLength();
+    return mOriginalPathIterator.getTotalLength();
   }
 
   /** Note: This is not mathematically correct. */
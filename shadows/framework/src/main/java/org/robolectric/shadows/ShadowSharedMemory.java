@@ -3,28 +3,25 @@ package org.robolectric.shadows;
 import android.os.Build;
 import android.os.SharedMemory;
 import android.system.ErrnoException;
-import android.system.OsConstants;
-import java.io.File;
 import java.io.FileDescriptor;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.Files;
 import java.util.Collections;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.RealObject;
 import org.robolectric.util.ReflectionHelpers;
-import org.robolectric.util.TempDirectory;
 
 /**
- * A {@link SharedMemory} fake that uses a private temporary disk file for storage and Java's {@link
- * MappedByteBuffer} for the memory mappings.
+ * A {@link SharedMemory} fake that keeps its contents in a direct (off-heap) {@link ByteBuffer},
+ * whose slices stand in for the memory mappings.
  */
 @Implements(value = SharedMemory.class,
     minSdk = Build.VERSION_CODES.O_MR1,
@@ -34,8 +31,10 @@ import org.robolectric.util.TempDirectory;
     isInAndroidSdk = false
 )
 public class ShadowSharedMemory {
-  private static final Map<FileDescriptor, File> filesByFd =
+  private static final Map<FileDescriptor, ByteBuffer> buffersByFd =
       Collections.synchronizedMap(new WeakHashMap<>());
+  // Negative, so they're valid but never mistaken for (or closed as) a real file descriptor.
+  private static final AtomicInteger nextFakeFd = new AtomicInteger(-2);
 
   @RealObject private SharedMemory realObject;
 
@@ -47,18 +46,27 @@ public class ShadowSharedMemory {
   @Implementation
   protected ByteBuffer map(int prot, int offset, int length) throws ErrnoException {
     ReflectionHelpers.callInstanceMethod(realObject, "checkOpen");
-    File file = filesByFd.get(getRealFileDescriptor());
-    if (file == null) {
+    ByteBuffer buffer = buffersByFd.get(getRealFileDescriptor());
+    if (buffer == null) {
       throw new IllegalStateException("SharedMemory from a parcel isn't yet implemented!");
     }
-
-    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
-      // It would be easy to support a MapMode.READ_ONLY type mapping as well except none of the
-      // OsConstants fields are even initialized by robolectric and so "prot" is always zero!
-      return randomAccessFile.getChannel().map(MapMode.READ_WRITE, offset, length);
-    } catch (IOException e) {
-      throw new ErrnoException(e.getMessage(), OsConstants.EIO, e);
+    if (offset < 0) {
+      throw new IllegalArgumentException("Offset must be >= 0");
+    }
+    if (length <= 0) {
+      throw new IllegalArgumentException("Length must be > 0");
     }
+    if (offset + length > buffer.capacity()) {
+      throw new IllegalArgumentException("offset + length must not exceed getSize()");
+    }
+
+    // It would be easy to support a read only mapping as well except none of the OsConstants
+    // fields are even initialized by robolectric and so "prot" is always zero!
+    ByteBuffer mapping = buffer.duplicate();
+    mapping.position(offset);
+    mapping.limit(offset + length);
+    // Slices of a direct buffer are MappedByteBuffers too, which #unmap() relies on.
+    return mapping.slice();
   }
 
   @Implementation
@@ -73,30 +81,39 @@ public class ShadowSharedMemory {
 
   @Implementation
   protected static FileDescriptor nCreate(String name, int size) throws ErrnoException {
-    TempDirectory tempDirectory = RuntimeEnvironment.getTempDirectory();
+    FileDescriptor fd = createFakeFileDescriptor(name);
+    buffersByFd.put(fd, ByteBuffer.allocateDirect(size));
+    return fd;
+  }
 
-    try {
-      // Give each instance its own private file.
-      File sharedMemoryFile =
-          Files.createTempFile(
-                  tempDirectory.createIfNotExists("SharedMemory"), "shmem-" + name, ".tmp")
-              .toFile();
-      RandomAccessFile randomAccessFile = new RandomAccessFile(sharedMemoryFile, "rw");
-      randomAccessFile.setLength(0);
-      randomAccessFile.setLength(size);
+  @Implementation
+  protected static int nGetSize(FileDescriptor fd) {
+    return buffersByFd.get(fd).capacity();
+  }
 
-      filesByFd.put(randomAccessFile.getFD(), sharedMemoryFile);
-      return randomAccessFile.getFD();
+  private static FileDescriptor createFakeFileDescriptor(String name) {
+    FileDescriptor fd = new FileDescriptor();
+    try {
+      ReflectionHelpers.setField(fd, "fd", nextFakeFd.getAndDecrement());
+      return fd;
+    } catch (RuntimeException e) {
+      // This JVM doesn't allow setting it, so open an empty file for its file descriptor instead.
+    }
+    try {
+      RandomAccessFile file =
+          new RandomAccessFile(
+              Files.createTempFile(
+                      RuntimeEnvironment.getTempDirectory().createIfNotExists("SharedMemory"),
+                      "shmem-" + name,
+                      ".tmp")
+                  .toFile(),
+              "r");
+      return file.getFD();
     } catch (IOException e) {
       throw new RuntimeException("Unable to create file descriptior", e);
     }
   }
 
-  @Implementation
-  protected static int nGetSize(FileDescriptor fd) {
-    return (int) filesByFd.get(fd).length();
-  }
-
   private FileDescriptor getRealFileDescriptor() {
     return ReflectionHelpers.getField(realObject, "mFileDescriptor");
   }
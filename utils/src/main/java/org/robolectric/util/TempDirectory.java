@@ -5,26 +5,50 @@ import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * A temporary directory, deleted when the JVM exits if it hasn't been deleted before.
+ *
+ * <p>Directories are created in the directory named by the {@code robolectric.tempDirectoryRoot}
+ * system property if it's set, e.g. a RAM-backed filesystem like {@code /dev/shm} for tests that
+ * do a lot of I/O, or the default temp directory otherwise.
+ */
 public class TempDirectory {
+  public static final String ROOT_PROPERTY = "robolectric.tempDirectoryRoot";
+
+  private static final Set<TempDirectory> undeleted = ConcurrentHashMap.newKeySet();
+  private static ExecutorService deleter;
+
+  static {
+    // Use a manual hook that actually clears the directories
+    // This is necessary because File.deleteOnExit won't delete non empty directories
+    Runtime.getRuntime().addShutdownHook(new Thread(TempDirectory::destroyAll));
+  }
+
   private final Path basePath;
 
   public TempDirectory(String name) {
     try {
-      basePath = Files.createTempDirectory("robolectric-" + name);
+      String root = System.getProperty(ROOT_PROPERTY);
+      if (root == null || root.isEmpty()) {
+        basePath = Files.createTempDirectory("robolectric-" + name);
+      } else {
+        Path rootPath = Files.createDirectories(Paths.get(root));
+        basePath = Files.createTempDirectory(rootPath, "robolectric-" + name);
+      }
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
-
-    // Use a manual hook that actually clears the directory
-    // This is necessary because File.deleteOnExit won't delete non empty directories
-    Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
-      @Override public void run() {
-        destroy();
-      }
-    }));
+    undeleted.add(this);
   }
 
   public Path create(String name) {
@@ -54,7 +78,48 @@ public class TempDirectory {
     try {
       clearDirectory(basePath);
       Files.delete(basePath);
+      undeleted.remove(this);
     } catch (IOException ignored) {
+      // Try again when the JVM exits.
+    }
+  }
+
+  /**
+   * Deletes this directory on a background thread, so that tests don't wait for their files to
+   * be deleted. The directory mustn't be used afterwards.
+   */
+  public void destroyAsync() {
+    synchronized (TempDirectory.class) {
+      if (deleter == null) {
+        deleter =
+            Executors.newSingleThreadExecutor(
+                r -> {
+                  Thread thread = new Thread(r, "robolectric-temp-directory-deleter");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+      }
+      if (deleter.isShutdown()) {
+        destroy();
+      } else {
+        deleter.execute(this::destroy);
+      }
+    }
+  }
+
+  private static void destroyAll() {
+    synchronized (TempDirectory.class) {
+      if (deleter != null) {
+        deleter.shutdown();
+        try {
+          deleter.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ignored) {
+          // Delete what's left below.
+        }
+      }
+    }
+    for (TempDirectory tempDirectory : new ArrayList<>(undeleted)) {
+      tempDirectory.destroy();
     }
   }
 
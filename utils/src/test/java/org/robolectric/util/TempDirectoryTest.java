@@ -3,6 +3,7 @@ package org.robolectric.util;
 import static com.google.common.truth.Truth.assertThat;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -18,4 +19,30 @@ public class TempDirectoryTest {
     Path path2 = tempDir.create("dir2");
     assertThat(path.getParent().toString()).isEqualTo(path2.getParent().toString());
   }
+
+  @Test
+  public void createsDirsUnderConfiguredRoot() throws IOException {
+    Path root = Files.createTempDirectory("temp_dir_root");
+    System.setProperty(TempDirectory.ROOT_PROPERTY, root.toString());
+    try {
+      Path path = new TempDirectory("temp_dir").create("dir1");
+      assertThat(path.getParent().getParent().toString()).isEqualTo(root.toString());
+    } finally {
+      System.clearProperty(TempDirectory.ROOT_PROPERTY);
+    }
+  }
+
+  @Test
+  public void destroyAsyncDeletesDirInBackground() throws Exception {
+    TempDirectory tempDir = new TempDirectory("temp_dir");
+    Path path = tempDir.create("dir1");
+    Files.write(path.resolve("file"), new byte[] {1, 2, 3});
+
+    tempDir.destroyAsync();
+
+    for (int i = 0; i < 100 && Files.exists(path.getParent()); i++) {
+      Thread.sleep(50);
+    }
+    assertThat(Files.exists(path.getParent())).isFalse();
+  }
 }